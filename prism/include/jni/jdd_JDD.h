@@ -111,6 +111,14 @@ JNIEXPORT void JNICALL Java_jdd_JDD_DD_1SetCUDDMaxMem
 JNIEXPORT void JNICALL Java_jdd_JDD_DD_1SetCUDDEpsilon
   (JNIEnv *, jclass, jdouble);
 
+/*
+ * Class:     jdd_JDD
+ * Method:    DD_GetCUDDMemoryInUse
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_jdd_JDD_DD_1GetCUDDMemoryInUse
+  (JNIEnv *, jclass);
+
 /*
  * Class:     jdd_JDD
  * Method:    DD_CloseDownCUDD
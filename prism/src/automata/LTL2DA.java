@@ -33,6 +33,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
@@ -128,6 +129,23 @@ public class LTL2DA extends PrismComponent
 			}
 		}
 
+		// Look in the cache of automata (for formulas not in the library)
+		LTL2DACache.Entry cacheEntry = null;
+		if (result == null && !containsTemporalBounds) {
+			cacheEntry = getCacheEntry(ltl, useExternal, allowedAcceptance);
+			if (cacheEntry != null) {
+				try {
+					result = cacheEntry.load();
+				} catch (PrismException e) {
+					getLog().printWarning(e.getMessage());
+				}
+				if (result != null) {
+					getLog().println("Taking " + result.getAutomataType() + " from cache (" + cacheEntry.getFile() + ")...");
+					return result;
+				}
+			}
+		}
+
 		if (result == null) {
 			if (!containsTemporalBounds) {
 				if (useExternal) {
@@ -171,9 +189,40 @@ public class LTL2DA extends PrismComponent
 			result = DASimplifyAcceptance.simplifyAcceptance(this, result, allowedAcceptance);
 		}
 
+		if (cacheEntry != null) {
+			try {
+				cacheEntry.store(result);
+			} catch (PrismException e) {
+				getLog().printWarning(e.getMessage());
+			}
+		}
+
 		return result;
 	}
 
+	/**
+	 * Get the entry of the automaton cache for an LTL formula, translated with the current settings,
+	 * or null if the cache is not enabled.
+	 */
+	private LTL2DACache.Entry getCacheEntry(Expression ltl, boolean useExternal, AcceptanceType... allowedAcceptance) throws PrismException
+	{
+		String cacheDir = getSettings().getString(PrismSettings.PRISM_LTL2DA_CACHE_DIR);
+		if (cacheDir == null || cacheDir.isEmpty()) {
+			return null;
+		}
+		// Describe the translation method, since the resulting automaton depends on it
+		String translation;
+		if (useExternal) {
+			translation = "external " + getSettings().getString(PrismSettings.PRISM_LTL2DA_TOOL) + " " + getSettings().getString(PrismSettings.PRISM_LTL2DA_SYNTAX);
+		} else {
+			translation = "jltl2dstar";
+		}
+		if (getSettings().getBoolean(PrismSettings.PRISM_NO_DA_SIMPLIFY)) {
+			translation += " nosimplify";
+		}
+		return new LTL2DACache(Paths.get(cacheDir)).getEntry(ltl.convertForJltl2ba(), translation, allowedAcceptance);
+	}
+
 	public DA<BitSet, ? extends AcceptanceOmega> convertLTLFormulaToDAWithExternalTool(Expression ltl, Values constants, AcceptanceType... allowedAcceptance)
 			throws PrismException
 	{
@@ -0,0 +1,237 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package automata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import acceptance.AcceptanceBuchi;
+import acceptance.AcceptanceOmega;
+import acceptance.AcceptanceReach;
+import acceptance.AcceptanceType;
+import jhoafparser.parser.HOAFParser;
+import jhoafparser.parser.generated.ParseException;
+import jltl2ba.SimpleLTL;
+import prism.PrismException;
+
+/**
+ * Persistent (on-disk) cache of deterministic automata constructed for LTL formulas.
+ * Automata are stored in HOA format, in a file whose name is a hash of a key comprising:
+ * the formula, with its atomic propositions renamed canonically (p0, p1, ...,
+ * in order of first occurrence), the allowed acceptance types and a description
+ * of the translation method used (e.g., which external tool and syntax).
+ * So, a cached automaton can be reused for any formula that differs only in the names of
+ * its atomic propositions (e.g., for different constant values, models or runs).
+ * Failures to read or write the cache are reported to the caller as exceptions,
+ * but can safely be ignored (the automaton is then just constructed again).
+ */
+public class LTL2DACache
+{
+	/** Version of the cache key/file format (increase if either changes) */
+	private static final int VERSION = 1;
+
+	/** Directory in which cached automata are stored */
+	private Path dir;
+
+	/**
+	 * Create a cache, stored in directory {@code dir} (which is created if needed).
+	 */
+	public LTL2DACache(Path dir)
+	{
+		this.dir = dir;
+	}
+
+	/**
+	 * An entry of the cache, i.e., the (possibly not yet stored) automaton for one formula
+	 * and translation method.
+	 */
+	public class Entry
+	{
+		/** Map from canonical AP names to those of the formula */
+		private Map<String, String> fromCanonical = new HashMap<>();
+		/** Map from AP names of the formula to canonical ones */
+		private Map<String, String> toCanonical = new HashMap<>();
+		/** File storing the automaton */
+		private Path file;
+
+		private Entry(SimpleLTL ltl, String translation, AcceptanceType... allowedAcceptance) throws PrismException
+		{
+			SimpleLTL canonical = ltl.clone();
+			renameAPs(canonical);
+			String[] accNames = new String[allowedAcceptance.length];
+			for (int i = 0; i < allowedAcceptance.length; i++) {
+				accNames[i] = allowedAcceptance[i].name();
+			}
+			Arrays.sort(accNames);
+			String key = "v" + VERSION + "\n" + canonical.toStringLBT() + "\n" + String.join(",", accNames) + "\n" + translation;
+			file = dir.resolve(hash(key) + ".hoa");
+		}
+
+		/**
+		 * Rename the APs in a formula to canonical names, in order of first occurrence (prefix order).
+		 */
+		private void renameAPs(SimpleLTL ltl)
+		{
+			if (ltl.kind == SimpleLTL.LTLType.AP) {
+				String canonical = toCanonical.get(ltl.ap);
+				if (canonical == null) {
+					canonical = "p" + toCanonical.size();
+					toCanonical.put(ltl.ap, canonical);
+					fromCanonical.put(canonical, ltl.ap);
+				}
+				ltl.ap = canonical;
+				return;
+			}
+			if (ltl.left != null) {
+				renameAPs(ltl.left);
+			}
+			if (ltl.right != null) {
+				renameAPs(ltl.right);
+			}
+		}
+
+		/**
+		 * Get the file storing the automaton for this entry.
+		 */
+		public Path getFile()
+		{
+			return file;
+		}
+
+		/**
+		 * Load the automaton for this entry, with APs named as in the formula,
+		 * or return null if it is not in the cache.
+		 */
+		public DA<BitSet, ? extends AcceptanceOmega> load() throws PrismException
+		{
+			if (!Files.exists(file)) {
+				return null;
+			}
+			try {
+				byte[] bytes = Files.readAllBytes(file);
+				HOAF2DA consumerDA = new HOAF2DA();
+				HOAFParser.parseHOA(new ByteArrayInputStream(bytes), consumerDA);
+				DA<BitSet, ? extends AcceptanceOmega> da = consumerDA.getDA();
+				if (da == null) {
+					throw new PrismException("no automaton found");
+				}
+				// Reachability acceptance is stored as Buchi (see store())
+				if (new String(bytes, StandardCharsets.UTF_8).contains("\nname: \"" + AcceptanceType.REACH.name() + "\"")) {
+					DA.switchAcceptance(da, new AcceptanceReach(((AcceptanceBuchi) da.getAcceptance()).getAcceptingStates()));
+				}
+				List<String> apList = da.getAPList();
+				for (int i = 0; i < apList.size(); i++) {
+					String ap = fromCanonical.get(apList.get(i));
+					if (ap == null) {
+						throw new PrismException("unknown atomic proposition \"" + apList.get(i) + "\"");
+					}
+					apList.set(i, ap);
+				}
+				return da;
+			} catch (IOException | ParseException | ClassCastException e) {
+				throw new PrismException("Could not read cached automaton " + file + ": " + e.getMessage());
+			} catch (PrismException e) {
+				throw new PrismException("Could not read cached automaton " + file + ": " + e.getMessage());
+			}
+		}
+
+		/**
+		 * Store the automaton for this entry (with APs named as in the formula).
+		 * The file is written atomically, so concurrent runs sharing a cache are safe.
+		 */
+		public void store(DA<BitSet, ? extends AcceptanceOmega> da) throws PrismException
+		{
+			// Print in HOA format, with canonical AP names
+			List<String> apList = da.getAPList();
+			List<String> canonicalAPList = new ArrayList<>(apList.size());
+			for (String ap : apList) {
+				String canonical = toCanonical.get(ap);
+				if (canonical == null) {
+					throw new PrismException("Automaton has unknown atomic proposition \"" + ap + "\"");
+				}
+				canonicalAPList.add(canonical);
+			}
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+			da.setAPList(canonicalAPList);
+			try {
+				da.printHOA(out);
+			} finally {
+				da.setAPList(apList);
+			}
+			out.flush();
+			String hoa = bytes.toString(StandardCharsets.UTF_8);
+			// HOA has no reachability acceptance, so record it in the automaton name
+			if (da.getAcceptance().getType() == AcceptanceType.REACH) {
+				hoa = hoa.replaceFirst("\n", "\nname: \"" + AcceptanceType.REACH.name() + "\"\n");
+			}
+			try {
+				Files.createDirectories(dir);
+				Path tmp = Files.createTempFile(dir, "prism-da-", ".tmp");
+				Files.write(tmp, hoa.getBytes(StandardCharsets.UTF_8));
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				throw new PrismException("Could not store automaton in cache directory " + dir + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Get the cache entry for an LTL formula (in which APs are arbitrary),
+	 * translated to an automaton using the method described by {@code translation},
+	 * with the specified allowed acceptance types.
+	 */
+	public Entry getEntry(SimpleLTL ltl, String translation, AcceptanceType... allowedAcceptance) throws PrismException
+	{
+		return new Entry(ltl, translation, allowedAcceptance);
+	}
+
+	/**
+	 * Compute the (hex-encoded) SHA-256 hash of a string.
+	 */
+	private static String hash(String s) throws PrismException
+	{
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder();
+			for (byte b : digest) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new PrismException("Could not compute hash for automaton cache: " + e.getMessage());
+		}
+	}
+}
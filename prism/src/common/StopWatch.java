@@ -31,6 +31,7 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 import prism.PrismLog;
+import prism.Telemetry;
 
 /**
  * Stop watch for keeping track of the runtime of some computation,
@@ -120,6 +121,9 @@ public class StopWatch
 	{
 		time = System.currentTimeMillis() - time;
 		running = false;
+		if (taskDescription != null) {
+			Telemetry.phase(taskDescription, time);
+		}
 		if (log != null) {
 			if (taskDescription != null) {
 				log.print("Time for " + taskDescription + ": " + elapsedSeconds() + " seconds");
@@ -27,18 +27,36 @@
 package explicit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import parser.State;
+import prism.Evaluator;
 import prism.PrismComponent;
 import prism.PrismException;
 import prism.PrismNotSupportedException;
 
 /**
  * Class to perform bisimulation minimisation for explicit-state models.
+ * <br>
+ * Uses signature-based partition refinement: in each round, the signature of every state
+ * (its current block, plus its outgoing distributions lifted to the current partition)
+ * is computed, in parallel over states, and states are regrouped according to their signatures.
+ * Signatures are interned using a primitive hash map from their 64-bit hash codes,
+ * with an exact comparison against each block's representative to detect collisions.
+ * Refinement stops once the number of blocks no longer changes.
+ * <br>
+ * For MDPs, strong probabilistic bisimulation is computed, where the signature of a state
+ * is the set of its action-labelled lifted distributions, so choices are only matched
+ * if their action labels are equal too.
  */
 public class Bisimulation<Value> extends PrismComponent
 {
@@ -46,7 +64,8 @@ public class Bisimulation<Value> extends PrismComponent
 	protected int numStates;
 	protected int[] partition;
 	protected int numBlocks;
-	protected MDPSimple<Value> mdp;
+	// Signatures of all states w.r.t. the current partition
+	private Signature<Value>[] signatures;
 
 	/**
 	 * Construct a new Bisimulation object.
@@ -69,6 +88,8 @@ public class Bisimulation<Value> extends PrismComponent
 			return minimiseDTMC((DTMC<Value>) model, propNames, propBSs);
 		case CTMC:
 			return minimiseCTMC((CTMC<Value>) model, propNames, propBSs);
+		case MDP:
+			return minimiseMDP((MDP<Value>) model, propNames, propBSs);
 		default:
 			throw new PrismNotSupportedException("Bisimulation minimisation not yet supported for " + model.getModelType() + "s");
 		}
@@ -87,17 +108,18 @@ public class Bisimulation<Value> extends PrismComponent
 		//printPartition(dtmc);
 
 		// Iterative splitting
-		boolean changed = true;
-		while (changed)
-			changed = splitDTMC(dtmc);
+		refine(dtmc);
 		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States");
 		//printPartition(dtmc);
 
 		// Build reduced model
 		DTMCSimple<Value> dtmcNew = new DTMCSimple<>(numBlocks);
+		dtmcNew.setEvaluator(dtmc.getEvaluator());
+		int[] reps = getRepresentatives();
 		for (int i = 0; i < numBlocks; i++) {
-			for (Map.Entry<Integer, Value> e : mdp.getChoice(i, 0)) {
-				dtmcNew.setProbability(i, e.getKey(), e.getValue());
+			LiftedDistribution<Value> distr = signatures[reps[i]].choices[0];
+			for (int k = 0; k < distr.blocks.length; k++) {
+				dtmcNew.setProbability(i, distr.blocks[k], distr.getProb(k));
 			}
 		}
 		attachStatesAndLabels(dtmc, dtmcNew, propNames, propBSs);
@@ -118,17 +140,18 @@ public class Bisimulation<Value> extends PrismComponent
 		//printPartition(ctmc);
 
 		// Iterative splitting
-		boolean changed = true;
-		while (changed)
-			changed = splitDTMC(ctmc);
+		refine(ctmc);
 		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States");
 		//printPartition(ctmc);
 
 		// Build reduced model
 		CTMCSimple<Value> ctmcNew = new CTMCSimple<>(numBlocks);
+		ctmcNew.setEvaluator(ctmc.getEvaluator());
+		int[] reps = getRepresentatives();
 		for (int i = 0; i < numBlocks; i++) {
-			for (Map.Entry<Integer, Value> e : mdp.getChoice(i, 0)) {
-				ctmcNew.setProbability(i, e.getKey(), e.getValue());
+			LiftedDistribution<Value> distr = signatures[reps[i]].choices[0];
+			for (int k = 0; k < distr.blocks.length; k++) {
+				ctmcNew.setProbability(i, distr.blocks[k], distr.getProb(k));
 			}
 		}
 		attachStatesAndLabels(ctmc, ctmcNew, propNames, propBSs);
@@ -136,6 +159,44 @@ public class Bisimulation<Value> extends PrismComponent
 		return ctmcNew;
 	}
 
+	/**
+	 * Perform (strong probabilistic) bisimulation minimisation on an MDP.
+	 * Each state of the reduced MDP has one choice per distinct (action, lifted distribution) pair
+	 * of the states in its block, labelled with that action.
+	 * @param mdp The MDP
+	 * @param propNames Names of the propositions in {@code propBSs}
+	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 */
+	private MDP<Value> minimiseMDP(MDP<Value> mdp, List<String> propNames, List<BitSet> propBSs)
+	{
+		// Create initial partition based on propositions
+		initialisePartitionInfo(mdp, propBSs);
+		//printPartition(mdp);
+
+		// Iterative splitting
+		refine(mdp);
+		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States");
+		//printPartition(mdp);
+
+		// Build reduced model
+		MDPSimple<Value> mdpNew = new MDPSimple<>(numBlocks);
+		mdpNew.setEvaluator(mdp.getEvaluator());
+		int[] reps = getRepresentatives();
+		for (int i = 0; i < numBlocks; i++) {
+			for (LiftedDistribution<Value> distr : signatures[reps[i]].choices) {
+				Distribution<Value> distrNew = new Distribution<>(mdp.getEvaluator());
+				for (int k = 0; k < distr.blocks.length; k++) {
+					distrNew.set(distr.blocks[k], distr.getProb(k));
+				}
+				mdpNew.addActionLabelledChoice(i, distrNew, distr.action);
+			}
+		}
+		mdpNew.setActions(mdp.getActions());
+		attachStatesAndLabels(mdp, mdpNew, propNames, propBSs);
+
+		return mdpNew;
+	}
+
 	/**
 	 * Construct the initial partition based on a set of proposition bitsets.
 	 * Store info in {@code numStates}, {@code numBlocks} and {@code partition}.
@@ -181,48 +242,67 @@ public class Bisimulation<Value> extends PrismComponent
 		}
 	}
 
+	/**
+	 * Refine the current partition until it is stable, updating {@code numBlocks} and {@code partition}.
+	 * On return, {@code signatures} holds the signatures of all states w.r.t. the final partition.
+	 */
+	private void refine(Model<Value> model)
+	{
+		boolean changed = true;
+		while (changed)
+			changed = split(model);
+	}
+
 	/**
 	 * Perform a split of the current partition, if possible, updating {@code numBlocks} and {@code partition}.
 	 * @return whether or not the partition was split 
 	 */
-	private boolean splitDTMC(DTMC<Value> dtmc)
+	@SuppressWarnings("unchecked")
+	private boolean split(Model<Value> model)
 	{
-		int s, a, i, numBlocksNew, numChoicesOld;
-		Distribution<Value> distrNew;
-		int partitionNew[];
-
-		partitionNew = new int[numStates];
-		numBlocksNew = 0;
-		// Compute the signature for each state (i.e. the distribution for outgoing
-		// transitions, lifted to the current partition)
-		// For convenience, we just store them as an MDP, with action label equal to the index of the block
-		mdp = new MDPSimple<>(numBlocks);
-		for (s = 0; s < numStates; s++) {
-			// Build lifted distribution
-			Iterator<Map.Entry<Integer, Value>> iter = dtmc.getTransitionsIterator(s);
-			distrNew = new Distribution<>(dtmc.getEvaluator());
-			while (iter.hasNext()) {
-				Map.Entry<Integer, Value> e = iter.next();
-				distrNew.add(partition[e.getKey()], e.getValue());
+		// Compute (in parallel) the signature for each state
+		// (i.e. the distributions for outgoing transitions, lifted to the current partition)
+		Signature<Value>[] sigs = (Signature<Value>[]) new Signature<?>[numStates];
+		IntStream.range(0, numStates).parallel().forEach(s -> sigs[s] = computeSignature(model, s));
+		signatures = sigs;
+
+		// Group states by signature: blocks are numbered in order of first occurrence,
+		// and identified by the hash of their signature, or, in case of hash collisions
+		// between distinct signatures, by the signature itself
+		int[] partitionNew = new int[numStates];
+		int numBlocksNew = 0;
+		Long2IntOpenHashMap blockByHash = new Long2IntOpenHashMap();
+		blockByHash.defaultReturnValue(-1);
+		Object2IntOpenHashMap<Signature<Value>> blockBySig = null;
+		IntArrayList reps = new IntArrayList();
+		for (int s = 0; s < numStates; s++) {
+			Signature<Value> sig = sigs[s];
+			int b = blockByHash.putIfAbsent(sig.hash, numBlocksNew);
+			if (b == -1) {
+				b = numBlocksNew++;
+				reps.add(s);
+			} else if (!sig.equals(sigs[reps.getInt(b)])) {
+				if (blockBySig == null) {
+					blockBySig = new Object2IntOpenHashMap<>();
+					blockBySig.defaultReturnValue(-1);
+				}
+				b = blockBySig.putIfAbsent(sig, numBlocksNew);
+				if (b == -1) {
+					b = numBlocksNew++;
+					reps.add(s);
+				}
 			}
-			// Store in MDP, update new partition
-			a = partition[s];
-			numChoicesOld = mdp.getNumChoices(a);
-			i = mdp.addChoice(a, distrNew);
-			if (i == numChoicesOld)
-				mdp.setAction(a, i, numBlocksNew++);
-			partitionNew[s] = (Integer) mdp.getAction(a, i);
+			partitionNew[s] = b;
 		}
 		// Debug info
 		//mainLog.println("New partition: " + java.util.Arrays.toString(partitionNew));
-		//mainLog.println("Signatures MDP: " + mdp.infoString());
-		//mainLog.println("Signatures MDP: " + mdp);
-		//try { mdp.exportToDotFile("mdp.dot"); } catch (PrismException e) {}
+
 		// Update info
+		// (since signatures include the current block, the new partition refines the old one)
 		boolean changed = numBlocks != numBlocksNew;
 		if (changed) {
 			// Note, once converged, we keep the partition from the previous iter
-			// because the transition info in the MDP is in terms of this
+			// because the signatures are in terms of this
 			partition = partitionNew;
 			numBlocks = numBlocksNew;
 		}
@@ -230,6 +310,231 @@ public class Bisimulation<Value> extends PrismComponent
 		return changed;
 	}
 
+	/**
+	 * Get a representative state for each block of the current partition.
+	 */
+	private int[] getRepresentatives()
+	{
+		int[] reps = new int[numBlocks];
+		Arrays.fill(reps, -1);
+		for (int s = 0; s < numStates; s++) {
+			if (reps[partition[s]] == -1)
+				reps[partition[s]] = s;
+		}
+		return reps;
+	}
+
+	/**
+	 * Compute the signature of state {@code s} w.r.t. the current partition.
+	 */
+	@SuppressWarnings("unchecked")
+	private Signature<Value> computeSignature(Model<Value> model, int s)
+	{
+		Evaluator<Value> eval = model.getEvaluator();
+		if (model instanceof MDP) {
+			MDP<Value> mdp = (MDP<Value>) model;
+			int numChoices = mdp.getNumChoices(s);
+			LiftedDistribution<Value>[] choices = (LiftedDistribution<Value>[]) new LiftedDistribution<?>[numChoices];
+			for (int i = 0; i < numChoices; i++) {
+				choices[i] = liftDistribution(mdp.getAction(s, i), mdp.getTransitionsIterator(s, i), eval);
+			}
+			return new Signature<>(partition[s], choices);
+		} else {
+			DTMC<Value> dtmc = (DTMC<Value>) model;
+			LiftedDistribution<Value>[] choices = (LiftedDistribution<Value>[]) new LiftedDistribution<?>[] { liftDistribution(null, dtmc.getTransitionsIterator(s), eval) };
+			return new Signature<>(partition[s], choices);
+		}
+	}
+
+	/**
+	 * Lift a distribution to the current partition, i.e., sum the probabilities for each block.
+	 * Probabilities are summed in the order of the original transitions.
+	 * @param action The action label of the distribution (null if none)
+	 */
+	private LiftedDistribution<Value> liftDistribution(Object action, Iterator<Map.Entry<Integer, Value>> iter, Evaluator<Value> eval)
+	{
+		int n = 0;
+		int[] blocks = new int[4];
+		Object[] probs = new Object[4];
+		while (iter.hasNext()) {
+			Map.Entry<Integer, Value> e = iter.next();
+			int b = partition[e.getKey()];
+			// Insert, keeping blocks sorted, or add to existing entry
+			int pos = Arrays.binarySearch(blocks, 0, n, b);
+			if (pos >= 0) {
+				@SuppressWarnings("unchecked")
+				Value prob = (Value) probs[pos];
+				probs[pos] = eval.add(prob, e.getValue());
+			} else {
+				pos = -(pos + 1);
+				if (n == blocks.length) {
+					blocks = Arrays.copyOf(blocks, 2 * n);
+					probs = Arrays.copyOf(probs, 2 * n);
+				}
+				System.arraycopy(blocks, pos, blocks, pos + 1, n - pos);
+				System.arraycopy(probs, pos, probs, pos + 1, n - pos);
+				blocks[pos] = b;
+				probs[pos] = e.getValue();
+				n++;
+			}
+		}
+		return new LiftedDistribution<>(action, Arrays.copyOf(blocks, n), Arrays.copyOf(probs, n), eval);
+	}
+
+	/**
+	 * Mix the bits of a 64-bit value (finaliser of SplitMix64).
+	 */
+	private static long mix(long h)
+	{
+		h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+		h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+		return h ^ (h >>> 31);
+	}
+
+	/**
+	 * A distribution lifted to the blocks of a partition, together with its action label:
+	 * block indices (in ascending order) and the probabilities summed over them.
+	 * Probabilities are compared using the evaluator (i.e., up to its tolerance for doubles),
+	 * so the hash code depends only on the action and the blocks.
+	 */
+	private static final class LiftedDistribution<Value>
+	{
+		final Object action;
+		final int[] blocks;
+		final Object[] probs;
+		final Evaluator<Value> eval;
+		final long hash;
+
+		LiftedDistribution(Object action, int[] blocks, Object[] probs, Evaluator<Value> eval)
+		{
+			this.action = action;
+			this.blocks = blocks;
+			this.probs = probs;
+			this.eval = eval;
+			long h = mix(Objects.hashCode(action) * 31L + blocks.length);
+			for (int k = 0; k < blocks.length; k++) {
+				h = mix(h * 31 + blocks[k]);
+			}
+			hash = h;
+		}
+
+		@SuppressWarnings("unchecked")
+		Value getProb(int k)
+		{
+			return (Value) probs[k];
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Long.hashCode(hash);
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+				return true;
+			if (!(o instanceof LiftedDistribution))
+				return false;
+			@SuppressWarnings("unchecked")
+			LiftedDistribution<Value> other = (LiftedDistribution<Value>) o;
+			if (hash != other.hash || !Objects.equals(action, other.action) || !Arrays.equals(blocks, other.blocks))
+				return false;
+			for (int k = 0; k < blocks.length; k++) {
+				if (!eval.equals(getProb(k), other.getProb(k)))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * The signature of a state: its current block, plus the set of its (action-labelled) lifted distributions.
+	 * Distributions are stored without duplicates, ordered by hash code.
+	 */
+	private static final class Signature<Value>
+	{
+		final int block;
+		final LiftedDistribution<Value>[] choices;
+		final long hash;
+
+		Signature(int block, LiftedDistribution<Value>[] choices)
+		{
+			this.block = block;
+			this.choices = choices.length > 1 ? removeDuplicates(choices) : choices;
+			long h = mix(block);
+			for (LiftedDistribution<Value> distr : this.choices) {
+				h = mix(h * 31 + distr.hash);
+			}
+			hash = h;
+		}
+
+		/**
+		 * Sort distributions by hash code and remove any duplicates.
+		 */
+		private static <Value> LiftedDistribution<Value>[] removeDuplicates(LiftedDistribution<Value>[] choices)
+		{
+			Arrays.sort(choices, (d1, d2) -> Long.compare(d1.hash, d2.hash));
+			int n = 0;
+			for (int i = 0; i < choices.length; i++) {
+				if (!containsWithSameHash(choices, n, choices[i]))
+					choices[n++] = choices[i];
+			}
+			return n == choices.length ? choices : Arrays.copyOf(choices, n);
+		}
+
+		/**
+		 * Check whether {@code distr} occurs in {@code choices[0..n)},
+		 * which is ordered by hash code, looking only at the entries with the same hash.
+		 */
+		private static <Value> boolean containsWithSameHash(LiftedDistribution<Value>[] choices, int n, LiftedDistribution<Value> distr)
+		{
+			for (int j = n - 1; j >= 0 && choices[j].hash == distr.hash; j--) {
+				if (choices[j].equals(distr))
+					return true;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Long.hashCode(hash);
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+				return true;
+			if (!(o instanceof Signature))
+				return false;
+			@SuppressWarnings("unchecked")
+			Signature<Value> other = (Signature<Value>) o;
+			if (hash != other.hash || block != other.block || choices.length != other.choices.length)
+				return false;
+			// Compare as sets (the order of distributions with equal hash codes is arbitrary)
+			for (LiftedDistribution<Value> distr : choices) {
+				int pos = upperBound(other.choices, distr.hash);
+				if (!containsWithSameHash(other.choices, pos, distr))
+					return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Get the index after the last entry of {@code choices} (ordered by hash code) with hash at most {@code hash}.
+		 */
+		private static <Value> int upperBound(LiftedDistribution<Value>[] choices, long hash)
+		{
+			int pos = 0;
+			while (pos < choices.length && choices[pos].hash <= hash)
+				pos++;
+			return pos;
+		}
+	}
+
 	/**
 	 * Display the current partition, showing the states in each block.
 	 */
@@ -251,6 +556,7 @@ public class Bisimulation<Value> extends PrismComponent
 	/**
 	 * Attach a list of states to the minimised model by adding a representative state
 	 * from the original model.
+	 * Initial states are mapped to the blocks containing them.
 	 * Also attach information about the propositions (used for bisimulation minimisation)
 	 * to the minimised model, in the form of labels (stored as BitSets).
 	 * @param model The original model
@@ -274,6 +580,15 @@ public class Bisimulation<Value> extends PrismComponent
 			modelNew.setStatesList(statesListNew);
 		}
 
+		// Attach initial states
+		BitSet initNew = new BitSet();
+		for (int in : model.getInitialStates()) {
+			initNew.set(partition[in]);
+		}
+		for (int i = initNew.nextSetBit(0); i >= 0; i = initNew.nextSetBit(i + 1)) {
+			modelNew.addInitialState(i);
+		}
+
 		// Build/attach new labels
 		int numProps = propBSs.size();
 		for (int i = 0; i < numProps; i++) {
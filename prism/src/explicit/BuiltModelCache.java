@@ -0,0 +1,336 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import parser.State;
+import parser.Values;
+import prism.Evaluator;
+import prism.ModelInfo;
+import prism.ModelType;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismSettings;
+
+/**
+ * Persistent cache of models built by the explicit engine, stored in a directory.
+ * Each model is stored under a key (see {@link #key(String...)}), which should identify
+ * the model source, the constant values and any options affecting construction, as two files:
+ * the transition matrix, as a {@link SparseMatrixFile} ({@code <key>.csr}), which is memory-mapped when loaded,
+ * and the remaining information (initial/deadlock states, labels, state valuations) ({@code <key>.info}).
+ * DTMCs, CTMCs and MDPs (with double-valued probabilities/rates) are supported.
+ */
+public class BuiltModelCache extends PrismComponent
+{
+	/** Magic number at the start of info files ("PBMC") */
+	private static final int MAGIC = 0x50424d43;
+	/** File format version (also included in keys) */
+	private static final int VERSION = 1;
+
+	// Tags for variable values in state valuations
+	private static final byte TAG_INT = 0;
+	private static final byte TAG_BOOL = 1;
+	private static final byte TAG_DOUBLE = 2;
+
+	/** Cache directory */
+	private File dir;
+
+	/**
+	 * Create a cache in directory {@code dir}.
+	 */
+	public BuiltModelCache(PrismComponent parent, File dir)
+	{
+		super(parent);
+		this.dir = dir;
+	}
+
+	/**
+	 * Create a cache as specified by the settings of {@code parent},
+	 * or return null if caching is disabled.
+	 */
+	public static BuiltModelCache create(PrismComponent parent)
+	{
+		PrismSettings settings = parent.getSettings();
+		String dir = settings == null ? "" : settings.getString(PrismSettings.PRISM_MODEL_CACHE_DIR);
+		return "".equals(dir) ? null : new BuiltModelCache(parent, new File(dir));
+	}
+
+	/**
+	 * Compute a cache key (hex-encoded SHA-256 hash) from some strings,
+	 * e.g., the model source, the constant values and the relevant options.
+	 */
+	public static String key(String... parts)
+	{
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update(("v" + VERSION).getBytes(StandardCharsets.UTF_8));
+		for (String part : parts) {
+			byte[] bytes = String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+			// Prefix with length, so that parts cannot run into each other
+			digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) ':');
+			digest.update(bytes);
+		}
+		StringBuilder sb = new StringBuilder();
+		for (byte b : digest.digest()) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Can this model be stored in the cache?
+	 */
+	public static boolean isSupported(Model<?> model)
+	{
+		ModelType modelType = model.getModelType();
+		if (modelType != ModelType.DTMC && modelType != ModelType.CTMC && modelType != ModelType.MDP) {
+			return false;
+		}
+		return model.getEvaluator().one() instanceof Double;
+	}
+
+	// Storing
+
+	/**
+	 * Store a built model in the cache, under key {@code key}.
+	 * Returns false (and stores nothing) if the model is not supported.
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean store(String key, Model<?> model) throws PrismException
+	{
+		if (!isSupported(model)) {
+			return false;
+		}
+		List<State> statesList = model.getStatesList();
+		if (statesList != null && !statesAreSupported(statesList)) {
+			return false;
+		}
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new PrismException("Could not create model cache directory \"" + dir + "\"");
+		}
+		// Files are written to temporary files first, then moved into place,
+		// info file last (it marks a complete entry); SparseMatrixFile.write does this itself
+		File infoTmp = new File(dir, key + ".info.tmp" + ProcessHandle.current().pid());
+		SparseMatrixFile.write(new File(dir, key + ".csr"), (Model<Double>) model, fingerprint(key));
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(infoTmp), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(key);
+			out.writeInt(model.getModelType().ordinal());
+			out.writeInt(model.getNumStates());
+			writeInts(out, model.getInitialStates());
+			writeInts(out, model.getDeadlockStates());
+			out.writeInt(model.getLabels().size());
+			for (String label : model.getLabels()) {
+				out.writeUTF(label);
+				long[] words = model.getLabelStates(label).toLongArray();
+				out.writeInt(words.length);
+				for (long word : words) {
+					out.writeLong(word);
+				}
+			}
+			if (statesList == null) {
+				out.writeInt(-1);
+			} else {
+				int numVars = statesList.isEmpty() ? 0 : statesList.get(0).varValues.length;
+				out.writeInt(numVars);
+				for (State state : statesList) {
+					for (Object value : state.varValues) {
+						if (value instanceof Integer) {
+							out.writeByte(TAG_INT);
+							out.writeInt((Integer) value);
+						} else if (value instanceof Boolean) {
+							out.writeByte(TAG_BOOL);
+							out.writeBoolean((Boolean) value);
+						} else {
+							out.writeByte(TAG_DOUBLE);
+							out.writeDouble((Double) value);
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new PrismException("Could not write to model cache \"" + dir + "\": " + e.getMessage());
+		}
+		move(infoTmp, new File(dir, key + ".info"));
+		return true;
+	}
+
+	/**
+	 * Check that all variable values in a list of states can be stored.
+	 */
+	private static boolean statesAreSupported(List<State> statesList)
+	{
+		int numVars = statesList.isEmpty() ? 0 : statesList.get(0).varValues.length;
+		for (State state : statesList) {
+			if (state.varValues.length != numVars) {
+				return false;
+			}
+			for (Object value : state.varValues) {
+				if (!(value instanceof Integer || value instanceof Boolean || value instanceof Double)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static void writeInts(DataOutputStream out, Iterable<Integer> ints) throws IOException
+	{
+		List<Integer> list = new ArrayList<>();
+		ints.forEach(list::add);
+		out.writeInt(list.size());
+		for (int i : list) {
+			out.writeInt(i);
+		}
+	}
+
+	private static void move(File from, File to) throws PrismException
+	{
+		try {
+			try {
+				Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			throw new PrismException("Could not write to model cache \"" + to + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * The fingerprint stored in the header of the transition matrix file for a key.
+	 */
+	private static long fingerprint(String key)
+	{
+		return Long.parseUnsignedLong(key.substring(0, 16), 16);
+	}
+
+	// Loading
+
+	/**
+	 * Load the model stored in the cache under key {@code key}, or return null if there is none
+	 * (or it cannot be read). The variable list, constant values and action list
+	 * of the model are taken from {@code modelInfo}, as for {@link ConstructModel}.
+	 */
+	public ModelExplicit<Double> load(String key, ModelInfo modelInfo) throws PrismException
+	{
+		File csr = new File(dir, key + ".csr");
+		File info = new File(dir, key + ".info");
+		if (!csr.exists() || !info.exists()) {
+			return null;
+		}
+		try {
+			return load(key, csr, info, modelInfo);
+		} catch (IOException | PrismException e) {
+			mainLog.printWarning("Ignoring unreadable model cache entry \"" + info + "\": " + e.getMessage());
+			return null;
+		}
+	}
+
+	private ModelExplicit<Double> load(String key, File csr, File info, ModelInfo modelInfo) throws IOException, PrismException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(info), 1 << 16))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || !key.equals(in.readUTF())) {
+				throw new PrismException("invalid or mismatched file");
+			}
+			ModelType modelType = ModelType.values()[in.readInt()];
+			int numStates = in.readInt();
+			SparseMatrixFile matrix = SparseMatrixFile.open(csr);
+			if (matrix.getNumStates() != numStates || matrix.getFingerprint() != fingerprint(key)) {
+				throw new PrismException("transition matrix does not match");
+			}
+			ModelExplicit<Double> model = (modelType == ModelType.MDP) ? new MDPSparseMapped(matrix) : new DTMCSparseMapped(matrix);
+			for (int i = in.readInt(); i > 0; i--) {
+				model.addInitialState(in.readInt());
+			}
+			for (int i = in.readInt(); i > 0; i--) {
+				model.addDeadlockState(in.readInt());
+			}
+			for (int i = in.readInt(); i > 0; i--) {
+				String label = in.readUTF();
+				long[] words = new long[in.readInt()];
+				for (int j = 0; j < words.length; j++) {
+					words[j] = in.readLong();
+				}
+				model.addLabel(label, BitSet.valueOf(words));
+			}
+			int numVars = in.readInt();
+			if (numVars >= 0) {
+				List<State> statesList = new ArrayList<>(numStates);
+				for (int s = 0; s < numStates; s++) {
+					State state = new State(numVars);
+					for (int v = 0; v < numVars; v++) {
+						byte tag = in.readByte();
+						switch (tag) {
+						case TAG_INT:
+							state.varValues[v] = in.readInt();
+							break;
+						case TAG_BOOL:
+							state.varValues[v] = in.readBoolean();
+							break;
+						case TAG_DOUBLE:
+							state.varValues[v] = in.readDouble();
+							break;
+						default:
+							throw new PrismException("invalid state valuation");
+						}
+					}
+					statesList.add(state);
+				}
+				model.setStatesList(statesList);
+			}
+			model.setVarList(modelInfo.createVarList());
+			model.setConstantValues(new Values(modelInfo.getConstantValues()));
+			List<Object> actions = modelInfo.getActions();
+			if (actions != null) {
+				model.setActions(actions);
+			}
+			// CTMCs are stored as their rate matrix, and copied back into a CTMCSimple
+			if (modelType == ModelType.CTMC) {
+				return new CTMCSimple<>((DTMC<Double>) model, r -> r, Evaluator.forDouble());
+			}
+			return model;
+		}
+	}
+}
@@ -963,8 +963,12 @@ public class CTMCModelChecker extends ProbModelChecker
 			for (i = 0; i < n; i++)
 				sum[i] += weights[0] * soln[i];
 
-		// Start iterations
+		// Start iterations (or resume from a checkpoint)
 		iters = 1;
+		IterationCheckpoint checkpoint = IterationCheckpoint.create(this, ctmc, null, "CTMC transient probabilities (t=" + t + ", q=" + q + ")", null, null);
+		if (checkpoint != null) {
+			iters += checkpoint.restore(soln, sum);
+		}
 		while (iters <= right) {
 			// Matrix-vector multiply
 			dtmc.vmMult(soln, soln2);
@@ -977,8 +981,14 @@ public class CTMCModelChecker extends ProbModelChecker
 				for (i = 0; i < n; i++)
 					sum[i] += weights[iters - left] * soln[i];
 			}
+			if (checkpoint != null && iters < right) {
+				checkpoint.update(iters, soln, sum);
+			}
 			iters++;
 		}
+		if (checkpoint != null) {
+			checkpoint.finished();
+		}
 
 		// Finished bounded probabilistic reachability
 		timer = System.currentTimeMillis() - timer;
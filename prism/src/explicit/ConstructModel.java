@@ -37,6 +37,7 @@ import common.Interval;
 import parser.State;
 import parser.Values;
 import parser.VarList;
+import parser.ast.Expression;
 import prism.ModelGenerator;
 import prism.ModelType;
 import prism.Prism;
@@ -45,8 +46,11 @@ import prism.PrismException;
 import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismPrintStreamLog;
+import prism.PrismSettings;
 import prism.ProgressDisplay;
+import prism.Telemetry;
 import prism.UndefinedConstants;
+import simulator.ModulesFileModelGenerator;
 
 /**
  * Class to perform explicit-state reachability and model construction.
@@ -70,6 +74,8 @@ public class ConstructModel extends PrismComponent
 	protected boolean distinguishActions = true;
 	/** Should labels be processed and attached to the model? */
 	protected boolean attachLabels = true;
+	/** Atomic propositions of the properties to be preserved by partial-order reduction (null if unknown) */
+	protected List<Expression> porAtomicProps = null;
 
 	// Details of built model:
 
@@ -131,6 +137,17 @@ public class ConstructModel extends PrismComponent
 		this.attachLabels = attachLabels;
 	}
 
+	/**
+	 * Set the atomic propositions of the properties to be checked on the built model,
+	 * which partial-order reduction (if enabled) has to preserve
+	 * (see {@link PartialOrderReduction#getAtomicPropositions}).
+	 * If this is null (the default), partial-order reduction is not applied.
+	 */
+	public void setPartialOrderReductionAtomicProps(List<Expression> porAtomicProps)
+	{
+		this.porAtomicProps = porAtomicProps;
+	}
+
 	/**
 	 * Build the set of reachable states for a model and return it.
 	 * @param modelGen The ModelGenerator interface providing the model 
@@ -177,6 +194,7 @@ public class ConstructModel extends PrismComponent
 		IMDPSimple<Value> imdp = null;
 		IPOMDPSimple<Value> ipomdp = null;
 		LTSSimple<Value> lts = null;
+		STPGSimple<Value> stpg = null;
 		Distribution<Value> distr = null;
 		Distribution<Interval<Value>> distrUnc = null;
 		// Misc
@@ -191,6 +209,31 @@ public class ConstructModel extends PrismComponent
 		if (modelGen.containsUnboundedVariables())
 			mainLog.printWarning("Model contains one or more unbounded variables: model construction may not terminate");
 
+		// Set up symmetry reduction, if required (only orbit representatives are then stored)
+		SymmetryReduction symmetry = SymmetryReduction.create(this, varList, getNumModules(modelGen, varList));
+		if (symmetry != null) {
+			if (modelType.partiallyObservable()) {
+				throw new PrismNotSupportedException("Symmetry reduction is not supported for " + modelType + "s");
+			}
+			mainLog.println("\nApplying symmetry reduction (" + symmetry.getNumSymmetricModules() + " symmetric modules)...");
+		}
+
+		// Set up partial-order reduction, if required (only for MDPs described in the PRISM language)
+		PartialOrderReduction por = null;
+		long numReduced = 0;
+		if (getSettings() != null && getSettings().getBoolean(PrismSettings.PRISM_PARTIAL_ORDER_REDUCTION) && modelType == ModelType.MDP) {
+			if (!(modelGen instanceof ModulesFileModelGenerator)) {
+				mainLog.printWarning("Partial-order reduction is only supported for PRISM models");
+			} else if (porAtomicProps == null) {
+				mainLog.printWarning("Partial-order reduction not applied since the properties to be preserved are unknown");
+			} else if (symmetry != null) {
+				throw new PrismNotSupportedException("Partial-order reduction cannot be combined with symmetry reduction");
+			} else {
+				por = new PartialOrderReduction((ModulesFileModelGenerator<?>) modelGen, porAtomicProps);
+				mainLog.println("\nApplying partial-order reduction...");
+			}
+		}
+
 		// Starting reachability...
 		mainLog.print("\nComputing reachable states...");
 		mainLog.flush();
@@ -230,6 +273,9 @@ public class ConstructModel extends PrismComponent
 				modelSimple = lts = new LTSSimple<>();
 				break;
 			case STPG:
+				// Stored as an MDP, plus the owner of each state
+				modelSimple = mdp = stpg = new STPGSimple<>();
+				break;
 			case SMG:
 			case PTA:
 			case POPTA:
@@ -253,8 +299,13 @@ public class ConstructModel extends PrismComponent
 		explore = new LinkedList<State>();
 		// Add initial state(s) to 'explore', 'states' and to the model
 		for (State initState : modelGen.getInitialStates()) {
+			if (symmetry != null) {
+				initState = symmetry.canonicalise(initState);
+			}
+			if (!states.add(initState)) {
+				continue;
+			}
 			explore.add(initState);
-			states.add(initState);
 			if (!justReach) {
 				modelSimple.addState();
 				modelSimple.addInitialState(modelSimple.getNumStates() - 1);
@@ -271,7 +322,18 @@ public class ConstructModel extends PrismComponent
 			modelGen.exploreState(state);
 			// Look at each outgoing choice in turn
 			nc = modelGen.getNumChoices();
+			// With partial-order reduction, only explore an ample choice, if there is one
+			int ample = -1;
+			if (por != null && nc > 1) {
+				ample = por.getAmpleChoice(state, states);
+				if (ample != -1) {
+					numReduced++;
+				}
+			}
 			for (i = 0; i < nc; i++) {
+				if (ample != -1 && i != ample) {
+					continue;
+				}
 				// If required, check for duplicate actions here
 				if (modelType.partiallyObservable()) {
 					if (((NondetModel<Value>) modelSimple).getChoiceByAction(src, modelGen.getChoiceAction(i)) != -1) {
@@ -293,6 +355,9 @@ public class ConstructModel extends PrismComponent
 				nt = modelGen.getNumTransitions(i);
 				for (j = 0; j < nt; j++) {
 					stateNew = modelGen.computeTransitionTarget(i, j);
+					if (symmetry != null) {
+						stateNew = symmetry.canonicalise(stateNew);
+					}
 					// Is this a new state?
 					if (states.add(stateNew)) {
 						// If so, add to the explore list
@@ -324,6 +389,7 @@ public class ConstructModel extends PrismComponent
 						case MDP:
 						case POMDP:
 						case CTMDP:
+						case STPG:
 							distr.add(dest, modelGen.getTransitionProbability(i, j));
 							break;
 						case IMDP:
@@ -337,7 +403,6 @@ public class ConstructModel extends PrismComponent
 								lts.addTransition(src, dest);
 							}
 							break;
-						case STPG:
 						case SMG:
 						case PTA:
 						case POPTA:
@@ -348,7 +413,7 @@ public class ConstructModel extends PrismComponent
 				// For nondet models, add collated transition to model
 				int ch = -1;
 				if (!justReach) {
-					if (modelType == ModelType.MDP) {
+					if (modelType == ModelType.MDP || modelType == ModelType.STPG) {
 						if (distinguishActions) {
 							mdp.addActionLabelledChoice(src, distr, modelGen.getChoiceAction(i));
 						} else {
@@ -394,6 +459,10 @@ public class ConstructModel extends PrismComponent
 			if (!justReach && (modelType == ModelType.POMDP || modelType == ModelType.IPOMDP)) {
 				setStateObservation(modelGen, (PartiallyObservableModel<Value>) modelSimple, src, state);
 			}
+			// For games, store which player owns the state
+			if (!justReach && modelType == ModelType.STPG) {
+				stpg.setPlayer(src, modelGen.getPlayer(state));
+			}
 			// Print some progress info occasionally
 			progress.updateIfReady(src + 1);
 		}
@@ -404,7 +473,12 @@ public class ConstructModel extends PrismComponent
 
 		// Reachability complete
 		mainLog.print("Reachable states exploration" + (justReach ? "" : " and model construction"));
-		mainLog.println(" done in " + ((System.currentTimeMillis() - timer) / 1000.0) + " secs.");
+		timer = System.currentTimeMillis() - timer;
+		mainLog.println(" done in " + (timer / 1000.0) + " secs.");
+		Telemetry.phase("reachability", timer, src + 1);
+		if (por != null) {
+			mainLog.println("Partial-order reduction: " + numReduced + " of " + (src + 1) + " states explored with a single (ample) choice");
+		}
 		//mainLog.println(states);
 
 		// Find/fix deadlocks (if required)
@@ -456,10 +530,18 @@ public class ConstructModel extends PrismComponent
 				model = sortStates ? new CTMDPSimple<>(ctmdp, permut) : ctmdp;
 				break;
 			case IDTMC:
-				model = sortStates ? new IDTMCSimple<>(idtmc, permut) : idtmc;
+				if (buildSparse && isDbl) {
+					model = (ModelExplicit<Value>) (sortStates ? new IDTMCSparse((IDTMCSimple<Double>) idtmc, permut) : new IDTMCSparse((IDTMCSimple<Double>) idtmc));
+				} else {
+					model = sortStates ? new IDTMCSimple<>(idtmc, permut) : idtmc;
+				}
 				break;
 			case IMDP:
-				model = sortStates ? new IMDPSimple<>(imdp, permut) : imdp;
+				if (buildSparse && isDbl) {
+					model = (ModelExplicit<Value>) (sortStates ? new IMDPSparse((IMDPSimple<Double>) imdp, permut) : new IMDPSparse((IMDPSimple<Double>) imdp));
+				} else {
+					model = sortStates ? new IMDPSimple<>(imdp, permut) : imdp;
+				}
 				break;
 			case IPOMDP:
 				model = sortStates ? new IPOMDPSimple<>(ipomdp, permut) : ipomdp;
@@ -468,6 +550,12 @@ public class ConstructModel extends PrismComponent
 				model = sortStates ? new LTSSimple<>(lts, permut) : lts;
 				break;
 			case STPG:
+				if (buildSparse && isDbl) {
+					model = (ModelExplicit<Value>) (sortStates ? new STPGSparse((STPGSimple<Double>) stpg, permut) : new STPGSparse((STPGSimple<Double>) stpg));
+				} else {
+					model = sortStates ? new STPGSimple<>(stpg, permut) : stpg;
+				}
+				break;
 			case SMG:
 			case PTA:
 			default:
@@ -487,6 +575,22 @@ public class ConstructModel extends PrismComponent
 		return model;
 	}
 
+	/**
+	 * Get the number of modules of the model being built, for symmetry reduction.
+	 * For other sources than PRISM models, modules are only known via their variables.
+	 */
+	private int getNumModules(ModelGenerator<?> modelGen, VarList varList)
+	{
+		if (modelGen instanceof ModulesFileModelGenerator) {
+			return ((ModulesFileModelGenerator<?>) modelGen).getModulesFile().getNumModules();
+		}
+		int numModules = 0;
+		for (int i = 0; i < varList.getNumVars(); i++) {
+			numModules = Math.max(numModules, varList.getModule(i) + 1);
+		}
+		return numModules;
+	}
+
 	private <Value> void setStateObservation(ModelGenerator<Value> modelGen, PartiallyObservableModel<Value> pomdp, int s, State state) throws PrismException
 	{
 		// Get observation for the current state
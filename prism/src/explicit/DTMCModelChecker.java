@@ -58,6 +58,7 @@ import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismSettings;
 import prism.PrismUtils;
+import prism.Telemetry;
 
 /**
  * Explicit-state model checker for discrete-time Markov chains (DTMCs).
@@ -633,6 +634,8 @@ public class DTMCModelChecker extends ProbModelChecker
 			yes = (BitSet) target.clone();
 		}
 		timerProb1 = System.currentTimeMillis() - timerProb1;
+		Telemetry.phase("prob0", timerProb0, no.cardinality());
+		Telemetry.phase("prob1", timerProb1, yes.cardinality());
 
 		// Print results of precomputation
 		numYes = yes.cardinality();
@@ -1025,7 +1028,8 @@ public class DTMCModelChecker extends ProbModelChecker
 			return iterationMethod.doTopologicalValueIteration(this, description, sccs, iterationReachProbs, singletonSCCSolver, timer, iterationsExport);
 		} else {
 			// run the actual value iteration
-			return iterationMethod.doValueIteration(this, description, iterationReachProbs, unknownStates, timer, iterationsExport);
+			IterationCheckpoint checkpoint = IterationCheckpoint.create(this, dtmc, null, "DTMC ReachProbs value iteration (" + description + ")", unknown, null, yes, no, known);
+			return iterationMethod.doValueIteration(this, description, iterationReachProbs, unknownStates, timer, iterationsExport, checkpoint);
 		}
 	}
 
@@ -1172,7 +1176,8 @@ public class DTMCModelChecker extends ProbModelChecker
 			return iterationMethod.doTopologicalIntervalIteration(this, description, sccs, below, above, singletonSCCSolver, timer, iterationsExport);
 		} else {
 			// run the actual value iteration
-			return iterationMethod.doIntervalIteration(this, description, below, above, unknownStates, timer, iterationsExport);
+			IterationCheckpoint checkpoint = IterationCheckpoint.create(this, dtmc, null, "DTMC ReachProbs interval iteration (" + description + ")", unknown, null, yes, no, known);
+			return iterationMethod.doIntervalIteration(this, description, below, above, unknownStates, timer, iterationsExport, checkpoint);
 		}
 
 	}
@@ -1745,6 +1750,7 @@ public class DTMCModelChecker extends ProbModelChecker
 		}
 		inf.flip(0, n);
 		timerProb1 = System.currentTimeMillis() - timerProb1;
+		Telemetry.phase("prob1", timerProb1, n - inf.cardinality());
 
 		// Print results of precomputation
 		numTarget = target.cardinality();
@@ -1976,7 +1982,8 @@ public class DTMCModelChecker extends ProbModelChecker
 
 			return iterationMethod.doTopologicalValueIteration(this, description, sccs, forMvMultRew, singletonSCCSolver, timer, iterationsExport);
 		} else {
-			return iterationMethod.doValueIteration(this, description, forMvMultRew, unknownStates, timer, iterationsExport);
+			IterationCheckpoint checkpoint = IterationCheckpoint.create(this, dtmc, mcRewards, "DTMC ReachRewards value iteration (" + description + ")", unknown, null, target, inf, known);
+			return iterationMethod.doValueIteration(this, description, forMvMultRew, unknownStates, timer, iterationsExport, checkpoint);
 		}
 	}
 
@@ -2102,7 +2109,8 @@ public class DTMCModelChecker extends ProbModelChecker
 			rv = iterationMethod.doTopologicalIntervalIteration(this, description, sccs, below, above, singletonSCCSolver, timer, iterationsExport);
 		} else {
 			// run the actual value iteration
-			rv = iterationMethod.doIntervalIteration(this, description, below, above, unknownStates, timer, iterationsExport);
+			IterationCheckpoint checkpoint = IterationCheckpoint.create(this, dtmc, mcRewards, "DTMC ReachRewards interval iteration (" + description + ")", unknown, null, target, inf, known);
+			rv = iterationMethod.doIntervalIteration(this, description, below, above, unknownStates, timer, iterationsExport, checkpoint);
 		}
 
 		double max_v = PrismUtils.findMaxFinite(rv.soln, unknownStates.iterator());
@@ -2408,6 +2416,8 @@ public class DTMCModelChecker extends ProbModelChecker
 	 * {@code I} is the the identity matrix.<br/>
 	 * See <em>William J. Stewart: "Introduction to the Numerical Solution of Markov Chains"</em> p.124 for details.
 	 * </p>
+	 * BSCCs with at most {@link PrismSettings#PRISM_SS_DIRECT_MAX_STATES} states are instead
+	 * solved directly, by sparse LU factorisation (see {@link SteadyStateLU}), unless this causes too much fill-in.
 	 * @param dtmc The DTMC
 	 * @param states The BSCC to be analysed
 	 * @param bsccPostProcessor Post-processor for the values of each BSCC (optional: null means no post-processing)
@@ -2420,6 +2430,27 @@ public class DTMCModelChecker extends ProbModelChecker
 		}
 		IterableBitSet bscc = new IterableBitSet(states);
 
+		// For small enough BSCCs, try a direct method first
+		int numBSCCStates = states.cardinality();
+		if (numBSCCStates <= settings.getInteger(PrismSettings.PRISM_SS_DIRECT_MAX_STATES)) {
+			StopWatch watch = new StopWatch(mainLog).start();
+			double[] soln = result == null ? new double[dtmc.getNumStates()] : result;
+			SteadyStateLU lu = new SteadyStateLU();
+			if (lu.solve(dtmc, states, soln)) {
+				watch.stop();
+				mainLog.println("Sparse LU: " + numBSCCStates + " states, " + lu.getNumEntries() + " entries in factors, " + watch.elapsedSeconds() + " seconds.");
+				if (bsccPostProcessor != null) {
+					bsccPostProcessor.apply(soln, states);
+				}
+				ModelCheckerResult res = new ModelCheckerResult();
+				res.soln = soln;
+				res.numIters = 0;
+				res.timeTaken = watch.elapsedSeconds();
+				return res;
+			}
+			mainLog.println("Sparse LU: " + lu.getFailureReason() + " for BSCC of " + numBSCCStates + " states, using iterative method instead");
+		}
+
 		// Start value iteration
 		mainLog.println("Starting value iteration...");
 		StopWatch watch = new StopWatch(mainLog).start();
@@ -0,0 +1,349 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.PrimitiveIterator.OfInt;
+
+import common.iterable.PrimitiveIterable;
+import explicit.rewards.MCRewards;
+import prism.ModelType;
+import prism.Pair;
+import prism.PrismException;
+
+/**
+ * Explicit-state representation of a DTMC whose sparse transition matrix
+ * is stored out-of-core, in a memory-mapped {@link SparseMatrixFile}.
+ * The layout (and the implementation of the matrix-vector kernels) is as for {@link DTMCSparse},
+ * so that iterations over states in ascending order read the file sequentially.
+ * Other model information (states list, labels, etc.) is stored in memory.
+ */
+public class DTMCSparseMapped extends DTMCExplicit<Double>
+{
+	/** Transition matrix (with a single choice per state) */
+	protected SparseMatrixFile matrix;
+
+	/**
+	 * Constructor: Build a DTMCSparseMapped from a DTMC and its transition matrix,
+	 * previously written to a file with {@link SparseMatrixFile#write(java.io.File, Model, long)}.
+	 */
+	public DTMCSparseMapped(DTMC<Double> dtmc, SparseMatrixFile matrix) throws PrismException
+	{
+		if (matrix.getModelType() != dtmc.getModelType() || matrix.getNumStates() != dtmc.getNumStates()) {
+			throw new PrismException("Out-of-core transition matrix does not match the DTMC");
+		}
+		initialise(dtmc.getNumStates());
+		copyFrom(dtmc);
+		this.matrix = matrix;
+	}
+
+	/**
+	 * Constructor: Build a DTMCSparseMapped from a transition matrix file alone.
+	 * Other model information (initial states, states list, labels, etc.) should be set separately afterwards.
+	 */
+	public DTMCSparseMapped(SparseMatrixFile matrix) throws PrismException
+	{
+		if (matrix.getModelType() != ModelType.DTMC) {
+			throw new PrismException("Out-of-core transition matrix is not for a DTMC");
+		}
+		initialise(matrix.getNumStates());
+		this.matrix = matrix;
+	}
+
+	/**
+	 * Get the (memory-mapped) transition matrix.
+	 */
+	public SparseMatrixFile getMatrix()
+	{
+		return matrix;
+	}
+
+	//--- Model ---
+
+	@Override
+	public List<Object> findActionsUsed()
+	{
+		if (!matrix.hasActions()) {
+			return Collections.singletonList(null);
+		}
+		LinkedHashSet<Object> allActions = new LinkedHashSet<>();
+		for (long k = 0, n = matrix.getNumTransitions(); k < n; k++) {
+			allActions.add(matrix.action(k));
+		}
+		return new ArrayList<>(allActions);
+	}
+
+	@Override
+	public boolean onlyNullActionUsed()
+	{
+		return !matrix.hasActions();
+	}
+
+	@Override
+	public int getNumTransitions()
+	{
+		return Math.toIntExact(matrix.getNumTransitions());
+	}
+
+	@Override
+	public int getNumTransitions(int state)
+	{
+		return (int) (matrix.choiceStart(state + 1) - matrix.choiceStart(state));
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(int state)
+	{
+		final long start = matrix.choiceStart(state);
+		final long end = matrix.choiceStart(state + 1);
+		return new SuccessorsIterator() {
+			long cur = start;
+
+			@Override
+			public boolean successorsAreDistinct()
+			{
+				return false;
+			}
+
+			@Override
+			public boolean hasNext()
+			{
+				return cur < end;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				return matrix.col(cur++);
+			}
+		};
+	}
+
+	@Override
+	public boolean isSuccessor(final int s1, final int s2)
+	{
+		for (long k = matrix.choiceStart(s1), stop = matrix.choiceStart(s1 + 1); k < stop; k++) {
+			if (matrix.col(k) == s2) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void findDeadlocks(boolean fix) throws PrismException
+	{
+		for (int state = 0; state < numStates; state++) {
+			if (getNumTransitions(state) == 0) {
+				if (fix) {
+					throw new PrismException("Can't fix deadlocks in a DTMCSparseMapped since it cannot be modified after construction");
+				}
+				deadlocks.add(state);
+			}
+		}
+	}
+
+	@Override
+	public void checkForDeadlocks(BitSet except) throws PrismException
+	{
+		for (int state = 0; state < numStates; state++) {
+			if (getNumTransitions(state) == 0 && (except == null || !except.get(state)))
+				throw new PrismException("DTMC has a deadlock in state " + state);
+		}
+	}
+
+	//--- DTMC ---
+
+	@Override
+	public void forEachTransition(int state, TransitionConsumer<Double> consumer)
+	{
+		for (long k = matrix.choiceStart(state), stop = matrix.choiceStart(state + 1); k < stop; k++) {
+			consumer.accept(state, matrix.col(k), matrix.nonZero(k));
+		}
+	}
+
+	@Override
+	public void forEachDoubleTransition(int state, DoubleTransitionConsumer consumer)
+	{
+		for (long k = matrix.choiceStart(state), stop = matrix.choiceStart(state + 1); k < stop; k++) {
+			consumer.accept(state, matrix.col(k), matrix.nonZero(k));
+		}
+	}
+
+	@Override
+	public Iterator<Entry<Integer, Double>> getTransitionsIterator(final int state)
+	{
+		return new Iterator<Entry<Integer, Double>>()
+		{
+			long k = matrix.choiceStart(state);
+			final long end = matrix.choiceStart(state + 1);
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < end;
+			}
+
+			@Override
+			public Entry<Integer, Double> next()
+			{
+				assert (k < end);
+				final long index = k++;
+				return new AbstractMap.SimpleImmutableEntry<>(matrix.col(index), matrix.nonZero(index));
+			}
+		};
+	}
+
+	@Override
+	public Iterator<Entry<Integer, Pair<Double, Object>>> getTransitionsAndActionsIterator(int state)
+	{
+		return new Iterator<Entry<Integer, Pair<Double, Object>>>()
+		{
+			long k = matrix.choiceStart(state);
+			final long end = matrix.choiceStart(state + 1);
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < end;
+			}
+
+			@Override
+			public Entry<Integer, Pair<Double, Object>> next()
+			{
+				assert (k < end);
+				final long index = k++;
+				return new AbstractMap.SimpleImmutableEntry<>(matrix.col(index), new Pair<>(matrix.nonZero(index), matrix.action(index)));
+			}
+		};
+	}
+
+	@Override
+	public Iterator<Object> getActionsIterator(int state)
+	{
+		return new Iterator<>()
+		{
+			long k = matrix.choiceStart(state);
+			final long end = matrix.choiceStart(state + 1);
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < end;
+			}
+
+			@Override
+			public Object next()
+			{
+				return matrix.action(k++);
+			}
+		};
+	}
+
+	@Override
+	public double mvMultSingle(final int state, final double[] vect)
+	{
+		double d = 0.0;
+		for (long k = matrix.choiceStart(state), stop = matrix.choiceStart(state + 1); k < stop; k++) {
+			d += matrix.nonZero(k) * vect[matrix.col(k)];
+		}
+		return d;
+	}
+
+	@Override
+	public double mvMultJacSingle(final int state, final double[] vect)
+	{
+		double diag = 1.0;
+		double d = 0.0;
+		for (long k = matrix.choiceStart(state), stop = matrix.choiceStart(state + 1); k < stop; k++) {
+			final int target = matrix.col(k);
+			if (target != state) {
+				d += matrix.nonZero(k) * vect[target];
+			} else {
+				diag -= matrix.nonZero(k);
+			}
+		}
+		if (diag > 0) {
+			d /= diag;
+		}
+		return d;
+	}
+
+	@Override
+	public double mvMultRewSingle(final int state, final double[] vect, final MCRewards<Double> mcRewards)
+	{
+		double d = mcRewards.getStateReward(state);
+		for (long k = matrix.choiceStart(state), stop = matrix.choiceStart(state + 1); k < stop; k++) {
+			d += matrix.nonZero(k) * vect[matrix.col(k)];
+		}
+		return d;
+	}
+
+	@Override
+	public void vmMult(final double[] vect, final double[] result)
+	{
+		// Initialise result to 0
+		Arrays.fill(result, 0);
+		// Go through matrix elements (by row)
+		for (int state = 0; state < numStates; state++) {
+			for (long k = matrix.choiceStart(state), stop = matrix.choiceStart(state + 1); k < stop; k++) {
+				result[matrix.col(k)] += matrix.nonZero(k) * vect[state];
+			}
+		}
+	}
+
+	@Override
+	public void vmMultPowerSteadyState(double vect[], double result[], double[] diagsQ, double deltaT, PrimitiveIterable.OfInt states)
+	{
+		// Initialise result for relevant states to vect[s] * (deltaT * diagsQ[s] + 1),
+		// i.e., handle the product with the diagonal entries of (deltaT * Q) + I
+		for (OfInt it = states.iterator(); it.hasNext(); ) {
+			int state = it.nextInt();
+			result[state] = vect[state] * ((deltaT * diagsQ[state]) + 1.0);
+		}
+		// For each relevant state, handle all Q(state,t) entries of the generator matrix
+		for (OfInt it = states.iterator(); it.hasNext(); ) {
+			int state = it.nextInt();
+			for (long k = matrix.choiceStart(state), stop = matrix.choiceStart(state + 1); k < stop; k++) {
+				int target = matrix.col(k);
+				if (state != target) {
+					result[target] += deltaT * matrix.nonZero(k) * vect[state];
+				}
+			}
+		}
+	}
+
+	//--- Object ---
+
+	@Override
+	public String toString()
+	{
+		return "DTMCSparseMapped(" + matrix.getFile() + "): " + numStates + " states, " + matrix.getNumTransitions() + " transitions";
+	}
+}
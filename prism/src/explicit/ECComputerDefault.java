@@ -28,11 +28,14 @@
 package explicit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import prism.PrismComponent;
 import prism.PrismException;
 
@@ -89,7 +92,7 @@ public class ECComputerDefault extends ECComputer
 	{
 		BitSet restrict = new BitSet();
 		restrict.set(0, model.getNumStates());
-		findMECsStreaming(model, restrict, consumer);
+		findMECs(restrict, consumer);
 	}
 
 	// Computation
@@ -115,7 +118,7 @@ public class ECComputerDefault extends ECComputer
 			return new ArrayList<>();
 
 		List<BitSet> MECs = new ArrayList<>();
-		findMECsStreaming(model, restrict, MECs::add);
+		findMECs(restrict, MECs::add);
 
 		// Filter and return those that contain a state in accept
 		if (accept != null) {
@@ -125,153 +128,167 @@ public class ECComputerDefault extends ECComputer
 	}
 
 	/**
-	 * Find all MECs within {@code states} of {@code currentModel}, calling
-	 * {@code mecConsumer} for each MEC found (in {@code currentModel}'s state space).
-	 *
-	 * SCCs are processed one at a time as Tarjan emits them, so at most one SCC
-	 * is alive at any given moment per recursion level. This avoids accumulating
-	 * O(numMECs) full-state-space BitSets simultaneously.
+	 * Find all MECs within {@code states}, calling {@code mecConsumer} for each MEC found.
+	 * <br>
+	 * Each state is in a "region" (a candidate for containing MECs) and each of its choices
+	 * is enabled only while all its successors stay within that region. In each round,
+	 * a single SCC computation (over the enabled choices of all regions still to be resolved)
+	 * splits every region into its SCCs, which become the new regions. Choices leaving them are
+	 * then disabled and states left without choices are removed, which is propagated
+	 * backwards to predecessors, rather than re-checking whole regions. A new region that lost
+	 * no states or choices is a MEC and is not considered again, so SCCs are only recomputed
+	 * for the parts of the model that changed.
 	 */
-	private void findMECsStreaming(NondetModel<?> currentModel, BitSet states, MECConsumer mecConsumer)
-			throws PrismException
+	private void findMECs(BitSet states, MECConsumer mecConsumer) throws PrismException
 	{
-		BitSet E = (BitSet) states.clone();
-		SubNondetModel<?> submodel = restrict(currentModel, E);
-		if (submodel.getNumStates() == 0)
-			return;
-		final int submodelSize = submodel.getNumStates();
-
-		// Translate a MEC in submodel's state space back to currentModel's state space.
-		MECConsumer childMecConsumer = subModelMEC -> {
-			BitSet currentModelMEC = new BitSet();
-			for (int i = subModelMEC.nextSetBit(0); i >= 0; i = subModelMEC.nextSetBit(i + 1)) {
-				currentModelMEC.set(submodel.translateState(i));
-			}
-			mecConsumer.accept(currentModelMEC);
-		};
-
-		// Streaming SCC consumer: immediately recurse into each completed SCC rather
-		// than collecting all SCCs before processing any. This keeps peak memory at
-		// O(recursion_depth x stateSpaceSize) instead of O(numMECs x stateSpaceSize).
-		int[] sccCount = {0};
-		BitSet[] firstSCC = {null};
-
-		SCCConsumer sccConsumer = new SCCConsumer() {
-			private BitSet current;
+		int numStates = model.getNumStates();
+		int[] choiceStarts = new int[numStates + 1];
+		for (int s = 0; s < numStates; s++) {
+			choiceStarts[s + 1] = choiceStarts[s] + model.getNumChoices(s);
+		}
+		// Region of each state (-1: not in any region)
+		int[] region = new int[numStates];
+		Arrays.fill(region, -1);
+		// Enabled choices (indexed via choiceStarts)
+		BitSet enabled = new BitSet();
+		for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+			region[s] = 0;
+			enabled.set(choiceStarts[s], choiceStarts[s + 1]);
+		}
+		PredecessorRelation pre = new PredecessorRelation(model);
+		IntArrayList active = new IntArrayList();
+		for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+			active.add(s);
+		}
+		int numRegions = 1;
+		BitSet changed = new BitSet();
+		// Initial pruning, for the choices leaving the states of interest
+		refine(active, region, enabled, choiceStarts, pre, changed);
 
+		// SCCs of the graph of enabled choices
+		IntFunction<SuccessorsIterator> successors = s -> SuccessorsIterator.chain(IntStream.range(0, model.getNumChoices(s))
+				.filter(i -> enabled.get(choiceStarts[s] + i)).mapToObj(i -> model.getSuccessors(s, i)).iterator());
+		IntArrayList sccStates = new IntArrayList();
+		IntArrayList sccEnds = new IntArrayList();
+		SCCConsumer sccConsumer = new SCCConsumer()
+		{
 			@Override
 			public void notifyStartSCC()
 			{
-				current = new BitSet();
 			}
 
 			@Override
 			public void notifyStateInSCC(int s)
 			{
-				current.set(s);
+				sccStates.add(s);
 			}
 
 			@Override
-			public void notifyEndSCC() throws PrismException
+			public void notifyEndSCC()
 			{
-				sccCount[0]++;
-				if (sccCount[0] == 1) {
-					// Buffer the first SCC: we don't yet know if it is the only one.
-					firstSCC[0] = current;
-				} else {
-					// A second SCC arrived, so we have multiple SCCs.
-					// Process the buffered first SCC immediately, then this one.
-					if (firstSCC[0] != null) {
-						processECSCC(firstSCC[0], submodel, childMecConsumer);
-						firstSCC[0] = null;
-					}
-					processECSCC(current, submodel, childMecConsumer);
-				}
-				current = null;
+				sccEnds.add(sccStates.size());
 			}
+		};
 
-			@Override
-			public void notifyDone() throws PrismException
-			{
-				if (sccCount[0] == 1 && firstSCC[0] != null) {
-					if (firstSCC[0].cardinality() == submodelSize) {
-						// Single SCC covering all states of the restricted submodel → MEC.
-						childMecConsumer.accept(firstSCC[0]);
-					} else {
-						// Single SCC that doesn't cover all restricted states (transient
-						// states survived restrict but are not in any SCC). Recurse.
-						processECSCC(firstSCC[0], submodel, childMecConsumer);
-					}
-					firstSCC[0] = null;
+		while (true) {
+			// Split the remaining regions into SCCs
+			active.clear();
+			for (int s = 0; s < numStates; s++) {
+				if (region[s] >= 0) {
+					active.add(s);
+				}
+			}
+			if (active.isEmpty()) {
+				break;
+			}
+			sccStates.clear();
+			sccEnds.clear();
+			SCCComputer sccComputer = SCCComputer.createSCCComputer(this, model, sccConsumer);
+			sccComputer.setSuccessors(successors);
+			sccComputer.computeSCCs(false, s -> region[s] >= 0);
+			int firstRegion = numRegions;
+			for (int i = 0, j = 0; i < sccEnds.size(); i++) {
+				int r = numRegions++;
+				for (; j < sccEnds.getInt(i); j++) {
+					region[sccStates.getInt(j)] = r;
 				}
 			}
-		};
 
-		SCCComputer sccc = SCCComputer.createSCCComputer(this, submodel, sccConsumer);
-		sccc.computeSCCs();
-	}
+			// Remove choices/states that leave them
+			refine(active, region, enabled, choiceStarts, pre, changed);
 
-	/**
-	 * Process one SCC from the streaming consumer: emit it directly if it is a
-	 * singleton MEC, or recurse via {@link #findMECsStreaming} otherwise.
-	 * Avoids creating a SubNondetModel for singleton non-MECs.
-	 */
-	private void processECSCC(BitSet scc, NondetModel<?> model, MECConsumer consumer) throws PrismException
-	{
-		if (scc.cardinality() == 1) {
-			int s = scc.nextSetBit(0);
-			if (isSingletonMEC(model, s)) {
-				consumer.accept(scc);
+			// SCCs that did not change are MECs
+			for (int i = 0, j = 0; i < sccEnds.size(); i++) {
+				int r = firstRegion + i;
+				int end = sccEnds.getInt(i);
+				if (changed.get(r)) {
+					j = end;
+					continue;
+				}
+				BitSet mec = new BitSet();
+				for (; j < end; j++) {
+					int s = sccStates.getInt(j);
+					mec.set(s);
+					region[s] = -1;
+				}
+				mecConsumer.accept(mec);
 			}
-			// Non-MEC singleton: restrict({s}) will be empty, so no recursion needed.
-		} else {
-			findMECsStreaming(model, scc, consumer);
 		}
 	}
 
 	/**
-	 * Returns true if state {@code s} in {@code model} has at least one action
-	 * whose entire successor set is {@code {s}} (a self-loop action), making it
-	 * a valid 1-state MEC on its own.
+	 * Disable the choices of states in {@code states} with successors outside their region,
+	 * and remove states with no enabled choices from their region, propagating this to predecessors.
+	 * Regions that lose states or choices are marked in {@code changed}.
 	 */
-	private static boolean isSingletonMEC(NondetModel<?> model, int s)
+	private void refine(IntArrayList states, int[] region, BitSet enabled, int[] choiceStarts, PredecessorRelation pre, BitSet changed)
 	{
-		BitSet singleton = new BitSet();
-		singleton.set(s);
-		for (int i = 0; i < model.getNumChoices(s); i++) {
-			if (model.allSuccessorsInSet(s, i, singleton)) {
-				return true;
+		IntArrayList removed = new IntArrayList();
+		for (int k = 0; k < states.size(); k++) {
+			int s = states.getInt(k);
+			int r = region[s];
+			if (r < 0) {
+				continue;
+			}
+			for (int i = 0, j = choiceStarts[s]; j < choiceStarts[s + 1]; i++, j++) {
+				if (enabled.get(j) && !model.allSuccessorsMatch(s, i, t -> region[t] == r)) {
+					enabled.clear(j);
+					changed.set(r);
+				}
+			}
+			int next = enabled.nextSetBit(choiceStarts[s]);
+			if (next == -1 || next >= choiceStarts[s + 1]) {
+				region[s] = -1;
+				changed.set(r);
+				removed.add(s);
 			}
 		}
-		return false;
-	}
-
-	private SubNondetModel<?> restrict(NondetModel<?> model, BitSet states)
-	{
-		Map<Integer, BitSet> actions = new HashMap<Integer, BitSet>();
-		BitSet initialStates = new BitSet();
-		initialStates.set(states.nextSetBit(0));
-
-		boolean changed = true;
-		while (changed) {
-			changed = false;
-			actions.clear();
-			for (int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1)) {
-				BitSet act = new BitSet();
-				for (int j = 0; j < model.getNumChoices(i); j++) {
-					if (model.allSuccessorsInSet(i, j, states)) {
-						act.set(j);
+		// Removing a state disables any choices of predecessors that lead to it
+		while (!removed.isEmpty()) {
+			int t = removed.popInt();
+			for (PrimitiveIterator.OfInt it = pre.getPredecessorsIterator(t); it.hasNext();) {
+				int s = it.nextInt();
+				int r = region[s];
+				if (r < 0) {
+					continue;
+				}
+				boolean someEnabled = false;
+				for (int i = 0, j = choiceStarts[s]; j < choiceStarts[s + 1]; i++, j++) {
+					if (enabled.get(j)) {
+						if (model.someSuccessorsMatch(s, i, u -> u == t)) {
+							enabled.clear(j);
+							changed.set(r);
+						} else {
+							someEnabled = true;
+						}
 					}
 				}
-				if (act.isEmpty()) {
-					states.clear(i);
-					changed = true;
-				} else {
-					actions.put(i, act);
+				if (!someEnabled) {
+					region[s] = -1;
+					changed.set(r);
+					removed.add(s);
 				}
 			}
 		}
-
-		return new SubNondetModel<>(model, states, actions, initialStates);
 	}
 }
@@ -30,12 +30,12 @@ package explicit;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
+import java.util.stream.IntStream;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import parser.State;
 import parser.Values;
@@ -74,323 +74,133 @@ import prism.PrismSettings;
 
 /**
  * Implementation of fast adaptive uniformisation (FAU).
+ * <br>
+ * The states of the current window are stored in slots, i.e., as indices into
+ * parallel (primitive) arrays holding the properties needed by the method:
+ * the current-step probability, next-step probability and the transient probability
+ * (sum of step probabilities weighted with birth process distributions), the reward,
+ * the successor slots and the rates to them, the number of incoming transitions from
+ * relevant states (references) and a flag whether the state has a significant
+ * probability mass (alive). Slots of removed states are recycled via a free list;
+ * states are mapped to slots with a {@link StateIndex}.
  */
 public final class FastAdaptiveUniformisation extends PrismComponent
 {
 	/**
-	 * Stores properties of states needed for fast adaptive method.
-	 * This includes the current-step probability, next-state probability,
-	 * and the transient probability (sum of step probabilities weighted
-	 * with birth process distributions). It also contains the list of successor
-	 * states and the rates to them, the number of incoming transitions
-	 * (references) and a flag whether the state has a significant probability
-	 * mass (alive).
+	 * Open-addressing hash index from states to the slots storing them.
+	 * The hash code of each entry is cached, so that probes compare ints
+	 * (and only call {@link State#equals} on a hash match) and the table
+	 * can be grown without rehashing any states. Entries are removed by
+	 * backward shifting, so there are no tombstones.
 	 */
-	private final static class StateProp
+	private final class StateIndex
 	{
-		/** current-step probability.
-		 * should contain initial probability before actual analysis is started.
-		 * will contain transient probability after analysis. */
-		private double prob;
-		/** next-state probability */
-		private double nextProb;
-		/** sum probability weighted with birth process distribution */
-		private double sum;
-		/** reward of this state */
-		private double reward;
-		/** rates to successor states */
-		private double[] succRates;
-		/** successor states */
-		private StateProp[] succStates;
-		/** number of incoming transitions of relevant states */
-		private int references;
-		/** true if and only if state probability above relevance threshold */
-		private boolean alive;
-		
-		/**
-		 * Constructs a new state property object.
-		 */
-		StateProp()
-		{
-			prob = 0.0;
-			nextProb = 0.0;
-			sum = 0.0;
-			reward = 0.0;
-			succRates = null;
-			succStates = null;
-			references = 0;
-			alive = true;
-		}
-		
-		/**
-		 * Set current state probability.
-		 * 
-		 * @param prob current state probability to set
-		 */
-		void setProb(double prob)
-		{
-			this.prob = prob;
-		}
+		/** slot for each table position (-1 = empty) */
+		private int[] table;
+		/** cached hash code for each table position */
+		private int[] hashes;
+		/** number of entries */
+		private int size;
 
 		/**
-		 * Gets current state probability.
-		 * 
-		 * @return current state probability
+		 * Constructs an empty index with space for at least {@code capacity} entries.
 		 */
-		double getProb()
+		StateIndex(int capacity)
 		{
-			return prob;
+			int n = Integer.highestOneBit(Math.max(4, capacity * 2 - 1)) << 1;
+			table = new int[n];
+			hashes = new int[n];
+			Arrays.fill(table, -1);
 		}
 
-		/**
-		 * Sets next state probability.
-		 * 
-		 * @param nextProb next state probability to set
-		 */
-		void setNextProb(double nextProb)
-		{
-			this.nextProb = nextProb;
-		}
-
-		/**
-		 * Adds value to next state probability.
-		 * 
-		 * @param add value to add to next state probability
-		 */
-		void addToNextProb(double add)
-		{
-			this.nextProb += add;
-		}
-
-		/**
-		 * Sets weighted sum probability.
-		 * 
-		 * @param sum weighted sum probability to set.
-		 */
-		void setSum(double sum)
-		{
-			this.sum = sum;
-		}
-
-		/**
-		 * Adds current probability times {@code poisson} to weighted sum probability.
-		 * 
-		 * @param poisson this value times current probability will be added to sum probability
-		 */
-		void addToSum(double poisson)
-		{
-			sum += poisson * prob;
-		}
-
-		/**
-		 * Gets weighted sum probability.
-		 * 
-		 * @return weighted sum probability
-		 */
-		double getSum()
-		{
-			return sum;
-		}
-
-		/**
-		 * Prepares next iteration step.
-		 * Sets current probability to next probability, and sets next
-		 * probability to zero.
-		 */
-		void prepareNextIteration()
-		{
-			prob = nextProb;
-			nextProb = 0.0;
-		}
-
-		/**
-		 * Set state reward.
-		 * 
-		 * @param reward state reward to set
-		 */
-		void setReward(double reward)
+		private int mix(int h)
 		{
-			this.reward = reward;
+			h *= 0x9E3779B9;
+			return h ^ (h >>> 16);
 		}
 
 		/**
-		 * Get state reward.
-		 * 
-		 * @return state reward
+		 * Returns the slot of {@code state}, or -1 if it is not stored.
 		 */
-		double getReward()
+		int get(State state)
 		{
-			return reward;
-		}
-
-		/**
-		 * Sets rates to successor states.
-		 * Expects an array of rates, so that the rate to the successor
-		 * state set by {@setSuccStates} is the one given by the corresponding
-		 * index. The value {@code null} is allowed here.
-		 * 
-		 * @param succRates rates to successor states.
-		 */
-		void setSuccRates(double[] succRates)
-		{
-			this.succRates = succRates;
-		}
-
-		/**
-		 * Sets successor states.
-		 * Expects an array of successor states, so that the rate set by
-		 * {@setSuccRates} is the one given by the corresponding index.
-		 * The value {@code null} is allowed here.
-		 * 
-		 * @param succStates successor states
-		 */
-		void setSuccStates(StateProp[] succStates)
-		{
-			this.succStates = succStates;
-			if (succStates != null) {
-				for (int succNr = 0; succNr < succStates.length; succNr++) {
-					succStates[succNr].incReferences();
+			int h = mix(state.hashCode());
+			int mask = table.length - 1;
+			for (int i = h & mask; table[i] != -1; i = (i + 1) & mask) {
+				if (hashes[i] == h && slotStates[table[i]].equals(state)) {
+					return table[i];
 				}
 			}
+			return -1;
 		}
 
 		/**
-		 * Returns number of successor states of this state.
-		 * 
-		 * @return number of successor states
+		 * Adds a (new) state, stored in slot {@code slot}.
 		 */
-		int getNumSuccs()
+		void put(State state, int slot)
 		{
-			if (succRates == null) {
-				return 0;
-			} else {
-				return succRates.length;
+			if (2 * (size + 1) > table.length) {
+				grow();
 			}
-		}
-		
-		/**
-		 * Gets successor rates.
-		 * 
-		 * @return successor rates
-		 */
-		double[] getSuccRates()
-		{
-			return succRates;
-		}
-
-		/**
-		 * Gets successor states.
-		 * 
-		 * @return successor states
-		 */
-		StateProp[] getSuccStates()
-		{
-			return succStates;
+			insert(mix(state.hashCode()), slot);
+			size++;
 		}
 
-		/**
-		 * Sets whether state is alive.
-		 * 
-		 * @param alive whether state should be set to being alive
-		 */
-		void setAlive(boolean alive)
+		private void insert(int h, int slot)
 		{
-			this.alive = alive;
-		}
-
-		/**
-		 * Checks whether state is alive.
-		 * 
-		 * @return true iff state is alive
-		 */
-		boolean isAlive()
-		{
-			return alive;
-		}
-
-		/**
-		 * Increments the number of references of this state.
-		 * The number of references should correspond to the number of alive
-		 * states which have this state as successor state.
-		 */
-		void incReferences()
-		{
-			references++;
-		}
-
-		/**
-		 * Decrements the number of references of this state.
-		 * The number of references should correspond to the number of alive
-		 * states which have this state as successor state.
-		 */
-		void decReferences()
-		{
-			references--;
+			int mask = table.length - 1;
+			int i = h & mask;
+			while (table[i] != -1) {
+				i = (i + 1) & mask;
+			}
+			table[i] = slot;
+			hashes[i] = h;
 		}
 
-		/**
-		 * Deletes this state.
-		 * This means basically removing all of its successors. Beforehand,
-		 * their reference counter is decreased, because this state does no
-		 * longer count as a model state. It is left in the model however,
-		 * because it might still be the successor state of some alive state.
-		 */
-		void delete()
+		private void grow()
 		{
-			if (null != succStates) {
-				for (int succNr = 0; succNr < succStates.length; succNr++) {
-					succStates[succNr].decReferences();
+			int[] oldTable = table;
+			int[] oldHashes = hashes;
+			table = new int[oldTable.length * 2];
+			hashes = new int[oldTable.length * 2];
+			Arrays.fill(table, -1);
+			for (int i = 0; i < oldTable.length; i++) {
+				if (oldTable[i] != -1) {
+					insert(oldHashes[i], oldTable[i]);
 				}
 			}
-			succStates = null;
-			succRates = null;
-			alive = false;
-			prob = 0.0;
-			nextProb = 0.0;
 		}
 
 		/**
-		 * Checks whether this state can be removed.
-		 * This is only the case if its probability is below the threshold
-		 * specified, and then only if there are no transitions from alive
-		 * states into this state.
-		 * 
-		 * @return true if and only if this state can be removed
+		 * Removes {@code state} (stored in slot {@code slot}).
 		 */
-		boolean canRemove()
+		void remove(State state, int slot)
 		{
-			return !alive && (0 == references);
-		}
-
-		/**
-		 * Checks whether this state has successors or not.
-		 * Will be true if and only if successor state array is nonnull.
-		 * 
-		 * @return whether this state has successors or not
-		 */
-		boolean hasSuccs()
-		{
-			return succStates != null;
-		}
-
-		/**
-		 * Returns the sum of all rates leaving to successor states.
-		 * 
-		 * @return sum of all rates leaving to successor states
-		 */
-		double sumRates()
-		{
-			if (null == succRates) {
-				return 0.0;
+			int mask = table.length - 1;
+			int i = mix(state.hashCode()) & mask;
+			while (table[i] != slot) {
+				i = (i + 1) & mask;
 			}
-			double sumRates = 0.0;
-			for (int rateNr = 0; rateNr < succRates.length; rateNr++) {
-				sumRates += succRates[rateNr];
+			// Shift back subsequent entries of the probe sequence
+			int j = i;
+			while (true) {
+				table[i] = -1;
+				int k;
+				do {
+					j = (j + 1) & mask;
+					if (table[j] == -1) {
+						size--;
+						return;
+					}
+					k = hashes[j] & mask;
+				} while (i <= j ? (i < k && k <= j) : (i < k || k <= j));
+				table[i] = table[j];
+				hashes[i] = hashes[j];
+				i = j;
 			}
-			return sumRates;
 		}
 	}
-	
+
 	/**
 	 * Enum to store type of analysis to perform.
 	 */
@@ -422,14 +232,44 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	private double value;
 	/** model constants */
 	private Values constantValues = null;
-	/** maps from state (assignment of variable values) to property object */
-	private LinkedHashMap<State,StateProp> states;
-	/** states for which successor rates are to be computed */
-	private ArrayList<State> addDistr;
-	/** states which are to be deleted */
-	private ArrayList<State> deleteStates;
-	/** initial size of state hash map */
+	/** state (assignment of variable values) stored in each slot (null if slot is free) */
+	private State[] slotStates;
+	/** current-step probability of each slot.
+	 * should contain initial probability before actual analysis is started.
+	 * will contain transient probability after analysis. */
+	private double[] probs;
+	/** next-step probability of each slot */
+	private double[] nextProbs;
+	/** probability weighted with birth process distribution, for each slot */
+	private double[] sums;
+	/** reward of each slot */
+	private double[] rewards;
+	/** successor slots of each slot (null if not computed/deleted) */
+	private int[][] succSlots;
+	/** rates to successor slots of each slot (null if not computed/deleted) */
+	private double[][] succRates;
+	/** sum of rates to successor slots of each slot */
+	private double[] sumRates;
+	/** number of incoming transitions (from states with successors) of each slot */
+	private int[] references;
+	/** true for a slot if and only if its probability is above relevance threshold */
+	private boolean[] alive;
+	/** number of slots in use or on the free list */
+	private int numSlots;
+	/** number of states stored (slots in use) */
+	private int numStates;
+	/** slots of removed states, to be reused */
+	private IntArrayList freeSlots;
+	/** maps states to slots */
+	private StateIndex index;
+	/** slots for which successor rates are to be computed */
+	private IntArrayList addDistr;
+	/** slots which are to be deleted */
+	private IntArrayList deleteStates;
+	/** initial number of slots */
 	private final int initSize = 3000;
+	/** minimum number of states for the array-based iteration to be done in parallel */
+	private static final int PARALLEL_THRESHOLD = 1 << 14;
 	/** maximal total leaving rate of all states alive */
 	private double maxRate = 0.0;
 	/** target state set - used for reachability (until or finally properties) */
@@ -556,22 +396,19 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	public void setSink(Expression sink) throws PrismException
 	{
 		this.sink = sink;
-		if (states != null) {
-			for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-				State state = statePair.getKey();
-				StateProp prop = statePair.getValue();
+		if (slotStates != null) {
+			for (int slot = 0; slot < numSlots; slot++) {
+				State state = slotStates[slot];
+				if (state == null) {
+					continue;
+				}
 				modelGen.exploreState(state);
 				specialLabels.setLabel(0, modelGen.getNumTransitions() == 0 ? Expression.True() : Expression.False());
 				specialLabels.setLabel(1, initStates.contains(state) ? Expression.True() : Expression.False());
 				Expression evSink = sink.deepCopy();
 				evSink = (Expression) evSink.expandLabels(specialLabels);
 				if (evSink.evaluateBoolean(constantValues, state)) {
-					double[] succRates = new double[1];
-					StateProp[] succStates = new StateProp[1];
-					succRates[0] = 1.0;
-					succStates[0] = states.get(state);
-					prop.setSuccRates(succRates);
-					prop.setSuccStates(succStates);
+					setSuccs(slot, new int[] { slot }, new double[] { 1.0 });
 				}
 			}
 		}
@@ -582,7 +419,7 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 */
 	public int getNumStates()
 	{
-		return states.size();
+		return numStates;
 	}
 
 	/**
@@ -616,9 +453,7 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		}
 		
 		/* prepare fast adaptive uniformisation */
-		addDistr = new ArrayList<State>();
-		deleteStates = new ArrayList<State>();
-		states = new LinkedHashMap<State,StateProp>(initSize);
+		initStorage();
 		value = 0.0;
 		initStates = new HashSet<State>();
 		ListIterator<State> it = initDist.statesList.listIterator();
@@ -630,23 +465,25 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		}
 		it = initDist.statesList.listIterator();
 		for (int stateNr = 0; stateNr < initDist.size; stateNr++) {
-			State initState = it.next();
-			computeStateRatesAndRewards(initState);
-			states.get(initState).setProb(values[stateNr]);
-			maxRate = Math.max(maxRate, states.get(initState).sumRates() * 1.02);			
+			int slot = index.get(it.next());
+			computeStateRatesAndRewards(slot);
+			probs[slot] = values[stateNr];
+			maxRate = Math.max(maxRate, sumRates[slot] * 1.02);
 		}
 
 		/* run fast adaptive uniformisation */
 		computeTransientProbsAdaptive(time);
 
 		/* prepare and return results */
-		ArrayList<State> statesList = new ArrayList<State>(states.size());
-		double[] probsArr = new double[states.size()];
+		ArrayList<State> statesList = new ArrayList<State>(numStates);
+		double[] probsArr = new double[numStates];
 		int probsArrEntry = 0;
-		for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-			statesList.add(statePair.getKey());
-			probsArr[probsArrEntry] = statePair.getValue().getProb();
-			probsArrEntry++;
+		for (int slot = 0; slot < numSlots; slot++) {
+			if (slotStates[slot] != null) {
+				statesList.add(slotStates[slot]);
+				probsArr[probsArrEntry] = probs[slot];
+				probsArrEntry++;
+			}
 		}
 		StateValues probs = StateValues.createFromDoubleArray(probsArr, statesList);
 
@@ -667,9 +504,7 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	public void computeTransientProbsAdaptive(double time) throws PrismException
 	{
 		if (addDistr == null) {
-			addDistr = new ArrayList<State>();
-			deleteStates = new ArrayList<State>();
-			states = new LinkedHashMap<State,StateProp>(initSize);
+			initStorage();
 			value = 0.0;
 			prepareInitialDistribution();
 		}
@@ -680,44 +515,53 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		}
 		if (initIval != 0.0) {
 			iterateAdaptiveInterval(initIval);
-			for (StateProp prop : states.values()) {
-				prop.setProb(prop.getSum());
-				prop.setSum(0.0);
-				prop.setNextProb(0.0);
-			}
+			startNextInterval();
 			updateStates();
 		}
 
 		for (int ivalNr = 0; ivalNr < numIntervals; ivalNr++) {
 			double interval = (time - initIval) / numIntervals;
 			iterateAdaptiveInterval(interval);
-			for (StateProp prop : states.values()) {
-				prop.setProb(prop.getSum());
-				prop.setSum(0.0);
-				prop.setNextProb(0.0);
-			}
+			startNextInterval();
 			updateStates();
 		}
 		if (AnalysisType.REW_INST == analysisType) {
-			for (StateProp prop : states.values()) {
-				value += prop.getProb() * prop.getReward();
+			for (int slot = 0; slot < numSlots; slot++) {
+				if (slotStates[slot] != null) {
+					value += probs[slot] * rewards[slot];
+				}
 			}
 		} else {
-			for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-				State state = statePair.getKey();
-				StateProp prop = statePair.getValue();
+			for (int slot = 0; slot < numSlots; slot++) {
+				State state = slotStates[slot];
+				if (state == null) {
+					continue;
+				}
 				modelGen.exploreState(state);
 				specialLabels.setLabel(0, modelGen.getNumTransitions() == 0 ? Expression.True() : Expression.False());
 				specialLabels.setLabel(1, initStates.contains(state) ? Expression.True() : Expression.False());
 				Expression evTarget = target.deepCopy();
 				evTarget = (Expression) evTarget.expandLabels(specialLabels);
 				if (AnalysisType.REACH == analysisType) {
-					value += prop.getProb() * (evTarget.evaluateBoolean(constantValues, state) ? 1.0 : 0.0);
+					value += probs[slot] * (evTarget.evaluateBoolean(constantValues, state) ? 1.0 : 0.0);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Sets the current probability of each state to its weighted sum probability,
+	 * and the latter and the next-step probability to zero, as needed after an interval.
+	 */
+	private void startNextInterval()
+	{
+		for (int slot = 0; slot < numSlots; slot++) {
+			probs[slot] = sums[slot];
+			sums[slot] = 0.0;
+			nextProbs[slot] = 0.0;
+		}
+	}
+
 	/**
 	 * Performs fast adaptive uniformisation for a single time interval.
 	 * 
@@ -746,8 +590,8 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 				birthProcTimer = System.currentTimeMillis() - birthProcTimer;
 				birthProbSum += prob;
 				collectValuePostIter(prob, birthProbSum);
-				for (StateProp prop : states.values()) {
-					prop.addToSum(prob);
+				for (int slot = 0; slot < numSlots; slot++) {
+					sums[slot] += prob * probs[slot];
 				}
 				
 				mvMult(maxRate);
@@ -769,8 +613,9 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 * to the original data structure. The method returns the current
 	 * iteration.
 	 * 
-	 * In case border states become
-	 * relevant, this data structure can 
+	 * The matrix is stored backwards (i.e., by incoming transitions), so that each
+	 * step computes the next probability of each state independently; for large
+	 * models, this is done in parallel.
 	 * 
 	 * @param iters current iteration number
 	 * @return current iteration after termination of this method
@@ -779,128 +624,124 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	private int arrayIterate(int iters) throws PrismException
 	{
 		/* build backwards matrix and map values */
-		int numStates = states.size();
+		int numStates = this.numStates;
 		int numTransitions = 0;
-		for (StateProp prop : states.values()) {
-			numTransitions += prop.getNumSuccs() + 1;
-		}
 		int stateNr = 0;
-		HashMap<StateProp,Integer> stateToNumber = new HashMap<StateProp,Integer>(numStates);
-		StateProp[] numberToState = new StateProp[numStates];
-		for (StateProp prop : states.values()) {
-			if (prop.isAlive()) {
-				stateToNumber.put(prop, stateNr);
-				numberToState[stateNr] = prop;
+		int[] slotToNumber = new int[numSlots];
+		int[] numberToSlot = new int[numStates];
+		for (int slot = 0; slot < numSlots; slot++) {
+			if (slotStates[slot] != null && alive[slot]) {
+				slotToNumber[slot] = stateNr;
+				numberToSlot[stateNr] = slot;
 				stateNr++;
 			}
 		}
 		int numAlive = stateNr;
-		for (StateProp prop : states.values()) {
-			if (!prop.isAlive()) {
-				stateToNumber.put(prop, stateNr);
-				numberToState[stateNr] = prop;
+		for (int slot = 0; slot < numSlots; slot++) {
+			if (slotStates[slot] != null && !alive[slot]) {
+				slotToNumber[slot] = stateNr;
+				numberToSlot[stateNr] = slot;
 				stateNr++;
 			}
 		}
 
-		double[] inProbs = new double[numTransitions];
 		int[] rows = new int[numStates + 1];
-		int[] cols = new int[numTransitions];
-		double[] outRates = new double[numStates];
-		for (StateProp prop : states.values()) {
-			StateProp[] succStates = prop.getSuccStates();
-			if (succStates != null) {
-				for (StateProp succ : succStates) {
-					rows[stateToNumber.get(succ) + 1]++;
+		for (stateNr = 0; stateNr < numStates; stateNr++) {
+			int[] succs = succSlots[numberToSlot[stateNr]];
+			if (succs != null) {
+				for (int succ : succs) {
+					rows[slotToNumber[succ] + 1]++;
 				}
+				numTransitions += succs.length;
 			}
-			rows[stateToNumber.get(prop) + 1]++;
+			rows[stateNr + 1]++;
+			numTransitions++;
 		}
 		for (stateNr = 0; stateNr < numStates; stateNr++) {
 			rows[stateNr + 1] += rows[stateNr];
 		}
-
-		for (StateProp prop : states.values()) {
-			int stateNumber = stateToNumber.get(prop);
-			StateProp[] succStates = prop.getSuccStates();
-			double[] succRates = prop.getSuccRates();
-			if (succStates != null) {
-				for (int i = 0; i < succStates.length; i++) {
-					StateProp succState = succStates[i];
-					int succStateNumber = stateToNumber.get(succState);
-					double succRate = succRates[i];
-					cols[rows[succStateNumber]] = stateNumber;
-					inProbs[rows[succStateNumber]] = succRate / maxRate;
-					rows[succStateNumber]++;
-					outRates[stateNumber] += succRate;
-				}
-			}
-		}
-
+		// Diagonal entries go last in each row; others are filled in using next[]
+		double[] inProbs = new double[numTransitions];
+		int[] cols = new int[numTransitions];
+		int[] next = new int[numStates];
 		for (stateNr = 0; stateNr < numStates; stateNr++) {
-			cols[rows[stateNr]] = stateNr;
-			inProbs[rows[stateNr]] = (maxRate - outRates[stateNr]) / maxRate;
+			cols[rows[stateNr + 1] - 1] = stateNr;
+			next[stateNr] = rows[stateNr];
 		}
-
-		Arrays.fill(rows, 0);
-		for (StateProp prop : states.values()) {
-			StateProp[] succStates = prop.getSuccStates();
-			if (succStates != null) {
-				for (StateProp succ : succStates) {
-					rows[stateToNumber.get(succ) + 1]++;
+		for (stateNr = 0; stateNr < numStates; stateNr++) {
+			int slot = numberToSlot[stateNr];
+			int[] succs = succSlots[slot];
+			double[] rates = succRates[slot];
+			double outRate = 0.0;
+			if (succs != null) {
+				for (int i = 0; i < succs.length; i++) {
+					int succStateNumber = slotToNumber[succs[i]];
+					cols[next[succStateNumber]] = stateNr;
+					inProbs[next[succStateNumber]] = rates[i] / maxRate;
+					next[succStateNumber]++;
+					outRate += rates[i];
 				}
 			}
-			rows[stateToNumber.get(prop) + 1]++;
-		}
-		for (stateNr = 0; stateNr < numStates; stateNr++) {
-			rows[stateNr + 1] += rows[stateNr];
+			inProbs[rows[stateNr + 1] - 1] = (maxRate - outRate) / maxRate;
 		}
 
 		double[] rewards = new double[numStates];
 		double[] probs = new double[numStates];
 		double[] nextProbs = new double[numStates];
 		double[] sum = new double[numStates];
-		for (stateNr = 0; stateNr < numberToState.length; stateNr++) {
-			StateProp prop = numberToState[stateNr];
+		for (stateNr = 0; stateNr < numStates; stateNr++) {
+			int slot = numberToSlot[stateNr];
 			if (analysisType == AnalysisType.REW_CUMUL) {
-				rewards[stateNr] = prop.getReward();
+				rewards[stateNr] = this.rewards[slot];
 			}
-			probs[stateNr] = prop.getProb();
-			sum[stateNr] = prop.getSum();
+			probs[stateNr] = this.probs[slot];
+			sum[stateNr] = sums[slot];
 		}
 
 		/* iterate using matrix */
 		boolean canArray = true;
+		boolean parallel = numStates >= PARALLEL_THRESHOLD;
 		while (birthProbSum < (1 - epsilon) && canArray) {
-			//			timer2 = System.currentTimeMillis();
 			double prob = birthProc.calculateNextProb(maxRate);
 			birthProbSum += prob;
-			double mixed = (1.0 - birthProbSum) / maxRate;
-			for (stateNr = 0; stateNr < numStates; stateNr++) {
-				value += probs[stateNr] * mixed * rewards[stateNr];
-				sum[stateNr] += prob * probs[stateNr];
-				nextProbs[stateNr] = 0.0;
-				for (int succNr = rows[stateNr]; succNr < rows[stateNr+1]; succNr++) {
-					nextProbs[stateNr] += inProbs[succNr] * probs[cols[succNr]];
-				}
-				if ((stateNr < numAlive) != (nextProbs[stateNr] > delta)) {
-					canArray = false;
-				} else if (stateNr >= numAlive) {
-				    nextProbs[stateNr] = 0.0;
+			if (analysisType == AnalysisType.REW_CUMUL) {
+				double mixed = (1.0 - birthProbSum) / maxRate;
+				for (stateNr = 0; stateNr < numStates; stateNr++) {
+					value += probs[stateNr] * mixed * rewards[stateNr];
 				}
 			}
-			double[] swap = probs;
-			probs = nextProbs;
-			nextProbs = swap;
+			final double[] probsCur = probs;
+			final double[] probsNext = nextProbs;
+			IntStream range = IntStream.range(0, numStates);
+			if (parallel) {
+				range = range.parallel();
+			}
+			// Count the states whose relevance changes (if any, stop after this step)
+			int changed = range.map(i -> {
+				sum[i] += prob * probsCur[i];
+				double p = 0.0;
+				for (int succNr = rows[i]; succNr < rows[i + 1]; succNr++) {
+					p += inProbs[succNr] * probsCur[cols[succNr]];
+				}
+				if ((i < numAlive) != (p > delta)) {
+					probsNext[i] = p;
+					return 1;
+				}
+				probsNext[i] = i < numAlive ? p : 0.0;
+				return 0;
+			}).sum();
+			canArray = changed == 0;
+			probs = probsNext;
+			nextProbs = probsCur;
 
 			iters++;
 		}
 		
 		/* map back, update states and return current iteration */
-		for (stateNr = 0; stateNr < numberToState.length; stateNr++) {
-			StateProp prop = numberToState[stateNr];
-			prop.setProb(probs[stateNr]);
-			prop.setSum(sum[stateNr]);
+		for (stateNr = 0; stateNr < numStates; stateNr++) {
+			int slot = numberToSlot[stateNr];
+			this.probs[slot] = probs[stateNr];
+			sums[slot] = sum[stateNr];
 		}
 		updateStates();
 		return iters;
@@ -928,8 +769,8 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 			break;
 		case REW_CUMUL:
 			double mixed = (1.0 - probSum) / maxRate;
-			for (StateProp prop : states.values()) {
-				value += prop.getProb() * mixed * prop.getReward();
+			for (int slot = 0; slot < numSlots; slot++) {
+				value += probs[slot] * mixed * rewards[slot];
 			}
 			break;
 		}
@@ -950,24 +791,26 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	{
 		maxRate = 0.0;
 		addDistr.clear();
-		for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-			State state = statePair.getKey();
-			StateProp prop = statePair.getValue();
-			if (prop.getProb() > delta) {
-				prop.setAlive(true);
-				if (!prop.hasSuccs()) {
+		for (int slot = 0; slot < numSlots; slot++) {
+			if (slotStates[slot] == null) {
+				continue;
+			}
+			if (probs[slot] > delta) {
+				alive[slot] = true;
+				if (succSlots[slot] == null) {
 					itersUnchanged = 0;
-					addDistr.add(state);
+					addDistr.add(slot);
 				} else {
-					maxRate = Math.max(maxRate, prop.sumRates());
+					maxRate = Math.max(maxRate, sumRates[slot]);
 				}
 			} else {
-				prop.delete();
+				delete(slot);
 			}
 		}
-		for (int stateNr = 0; stateNr < addDistr.size(); stateNr++) {
-			computeStateRatesAndRewards(addDistr.get(stateNr));
-			maxRate = Math.max(maxRate, states.get(addDistr.get(stateNr)).sumRates());
+		for (int i = 0; i < addDistr.size(); i++) {
+			int slot = addDistr.getInt(i);
+			computeStateRatesAndRewards(slot);
+			maxRate = Math.max(maxRate, sumRates[slot]);
 		}
 		maxRate *= 1.02;
 
@@ -983,17 +826,15 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	private void removeDeletedStates()
 	{
 		boolean unchanged = true;
-		for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-			State state = statePair.getKey();
-			StateProp prop = statePair.getValue();
-			if (prop.canRemove()) {
-				deleteStates.add(state);
+		for (int slot = 0; slot < numSlots; slot++) {
+			if (slotStates[slot] != null && !alive[slot] && references[slot] == 0) {
+				deleteStates.add(slot);
 				unchanged = false;
 			}
 		}
 		if (!keepSumProb) {
 			for (int i = 0; i < deleteStates.size(); i++) {
-				states.remove(deleteStates.get(i));
+				freeSlot(deleteStates.getInt(i));
 			}
 		}
 		if (unchanged) {
@@ -1014,10 +855,10 @@ public final class FastAdaptiveUniformisation extends PrismComponent
     	initStates = new HashSet<State>();
 		State initState = modelGen.getInitialState();
 		initStates.add(initState);
-		addToModel(initState);
-		computeStateRatesAndRewards(initState);
-		states.get(initState).setProb(1.0);
-		maxRate = states.get(initState).sumRates() * 1.02;
+		int slot = addToModel(initState);
+		computeStateRatesAndRewards(slot);
+		probs[slot] = 1.0;
+		maxRate = sumRates[slot] * 1.02;
 	}
 
     /**
@@ -1028,8 +869,8 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	public void computeTotalDiscreteLoss()
 	{
 		double totalProb = 0;
-		for (StateProp prop : states.values()) {
-			totalProb += prop.getSum();
+		for (int slot = 0; slot < numSlots; slot++) {
+			totalProb += sums[slot];
 		}
 		totalProb += totalProbSetZero;
 		
@@ -1051,91 +892,209 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 * @throws PrismException 
 	 */
 	public void clearSinkStates() throws PrismException {
-		for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-			State state = statePair.getKey();
-			StateProp prop = statePair.getValue();
+		for (int slot = 0; slot < numSlots; slot++) {
+			State state = slotStates[slot];
+			if (state == null) {
+				continue;
+			}
 			modelGen.exploreState(state);
 			specialLabels.setLabel(0, modelGen.getNumTransitions() == 0 ? Expression.True() : Expression.False());
 			specialLabels.setLabel(1, initStates.contains(state) ? Expression.True() : Expression.False());
 			Expression evSink = sink.deepCopy();
 			evSink = (Expression) evSink.expandLabels(specialLabels);
 			if (evSink.evaluateBoolean(constantValues, state)) {
-				totalProbSetZero += prop.getProb();
-				prop.setProb(0.0);
+				totalProbSetZero += probs[slot];
+				probs[slot] = 0.0;
 			}
 		}
 	}
-	
+
+	/**
+	 * Creates empty storage for states.
+	 */
+	private void initStorage()
+	{
+		slotStates = new State[initSize];
+		probs = new double[initSize];
+		nextProbs = new double[initSize];
+		sums = new double[initSize];
+		rewards = new double[initSize];
+		succSlots = new int[initSize][];
+		succRates = new double[initSize][];
+		sumRates = new double[initSize];
+		references = new int[initSize];
+		alive = new boolean[initSize];
+		numSlots = 0;
+		numStates = 0;
+		freeSlots = new IntArrayList();
+		index = new StateIndex(initSize);
+		addDistr = new IntArrayList();
+		deleteStates = new IntArrayList();
+	}
+
+	/**
+	 * Returns a free slot, growing the storage if needed.
+	 * All properties of the slot are reset.
+	 */
+	private int allocateSlot()
+	{
+		if (!freeSlots.isEmpty()) {
+			return freeSlots.popInt();
+		}
+		if (numSlots == slotStates.length) {
+			int n = slotStates.length * 2;
+			slotStates = Arrays.copyOf(slotStates, n);
+			probs = Arrays.copyOf(probs, n);
+			nextProbs = Arrays.copyOf(nextProbs, n);
+			sums = Arrays.copyOf(sums, n);
+			rewards = Arrays.copyOf(rewards, n);
+			succSlots = Arrays.copyOf(succSlots, n);
+			succRates = Arrays.copyOf(succRates, n);
+			sumRates = Arrays.copyOf(sumRates, n);
+			references = Arrays.copyOf(references, n);
+			alive = Arrays.copyOf(alive, n);
+		}
+		return numSlots++;
+	}
+
+	/**
+	 * Removes the state in a slot from the model, and puts the slot on the free list.
+	 * The state must not have successors and no references.
+	 */
+	private void freeSlot(int slot)
+	{
+		index.remove(slotStates[slot], slot);
+		slotStates[slot] = null;
+		probs[slot] = 0.0;
+		nextProbs[slot] = 0.0;
+		sums[slot] = 0.0;
+		rewards[slot] = 0.0;
+		alive[slot] = false;
+		freeSlots.add(slot);
+		numStates--;
+	}
+
+	/**
+	 * Sets successor slots and rates to them for a slot, incrementing the
+	 * number of references of each successor.
+	 * 
+	 * @param slot slot to set successors for
+	 * @param succs successor slots
+	 * @param rates rates to successor slots (with same indices as {@code succs})
+	 */
+	private void setSuccs(int slot, int[] succs, double[] rates)
+	{
+		succSlots[slot] = succs;
+		succRates[slot] = rates;
+		double sum = 0.0;
+		for (int succNr = 0; succNr < succs.length; succNr++) {
+			references[succs[succNr]]++;
+			sum += rates[succNr];
+		}
+		sumRates[slot] = sum;
+	}
+
+	/**
+	 * Deletes the state in a slot.
+	 * This means basically removing all of its successors. Beforehand,
+	 * their reference counter is decreased, because this state does no
+	 * longer count as a model state. It is left in the model however,
+	 * because it might still be the successor state of some alive state.
+	 */
+	private void delete(int slot)
+	{
+		int[] succs = succSlots[slot];
+		if (succs != null) {
+			for (int succNr = 0; succNr < succs.length; succNr++) {
+				references[succs[succNr]]--;
+			}
+		}
+		succSlots[slot] = null;
+		succRates[slot] = null;
+		sumRates[slot] = 0.0;
+		alive[slot] = false;
+		probs[slot] = 0.0;
+		nextProbs[slot] = 0.0;
+	}
+
 	/**
 	 * Adds @a state to model.
-	 * Computes reward for this states, creates entry in map of states,
+	 * Computes reward for this states, stores it in a (free) slot,
 	 * and updates number of states
 	 * 
 	 * @param state state to add
+	 * @return slot of the state
 	 * @throws PrismException thrown if something wrong happens in underlying methods
 	 */
-	private void addToModel(State state) throws PrismException
+	private int addToModel(State state) throws PrismException
 	{
-		StateProp prop = new StateProp();
-		prop.setReward(computeRewards(state));
-		states.put(state, prop);
-		maxNumStates = Math.max(maxNumStates, states.size());
+		double reward = computeRewards(state);
+		int slot = allocateSlot();
+		slotStates[slot] = state;
+		probs[slot] = 0.0;
+		nextProbs[slot] = 0.0;
+		sums[slot] = 0.0;
+		rewards[slot] = reward;
+		succSlots[slot] = null;
+		succRates[slot] = null;
+		sumRates[slot] = 0.0;
+		references[slot] = 0;
+		alive[slot] = true;
+		index.put(state, slot);
+		numStates++;
+		maxNumStates = Math.max(maxNumStates, numStates);
+		return slot;
 	}
 
 	/**
-	 * Computes successor rates and rewards for a given state.
+	 * Computes successor rates and rewards for the state in a given slot.
 	 * Rewards computed depend on the reward structure set by
 	 * {@code setRewardStruct}.
 	 * 
-	 * @param state state to compute successor rates and rewards for
+	 * @param slot slot of state to compute successor rates and rewards for
 	 * @throws PrismException thrown if something goes wrong
 	 */
-	private void computeStateRatesAndRewards(State state) throws PrismException
+	private void computeStateRatesAndRewards(int slot) throws PrismException
 	{
-		double[] succRates;
-		StateProp[] succStates;
+		State state = slotStates[slot];
+		double[] rates;
+		int[] succs;
 		modelGen.exploreState(state);
 		specialLabels.setLabel(0, modelGen.getNumTransitions() == 0 ? Expression.True() : Expression.False());
 		specialLabels.setLabel(1, initStates.contains(state) ? Expression.True() : Expression.False());
 		Expression evSink = sink.deepCopy();
 		evSink = (Expression) evSink.expandLabels(specialLabels);
 		if (evSink.evaluateBoolean(constantValues, state)) {
-			succRates = new double[1];
-			succStates = new StateProp[1];
-			succRates[0] = 1.0;
-			succStates[0] = states.get(state);
+			rates = new double[] { 1.0 };
+			succs = new int[] { slot };
 		} else {
 			int ntAll = modelGen.getNumTransitions();
 			if (ntAll > 0) {
-				succRates = new double[ntAll];
-				succStates = new StateProp[ntAll];
+				rates = new double[ntAll];
+				succs = new int[ntAll];
 
 				int t = 0;
 				for (int i = 0, nc = modelGen.getNumChoices(); i < nc; i++) {
 					for (int j = 0, ntChoice = modelGen.getNumTransitions(i); j < ntChoice; j++) {
 						State succState = modelGen.computeTransitionTarget(i, j);
-						StateProp succProp = states.get(succState);
-						if (null == succProp) {
-							addToModel(succState);
-							succProp = states.get(succState);
+						int succSlot = index.get(succState);
+						if (succSlot == -1) {
+							succSlot = addToModel(succState);
 
 							// re-explore state, as call to addToModel may have explored succState
 							modelGen.exploreState(state);
 						}
-						succRates[t] = modelGen.getTransitionProbability(i, j);
-						succStates[t] = succProp;
+						rates[t] = modelGen.getTransitionProbability(i, j);
+						succs[t] = succSlot;
 						t++;
 					}
 				}
 			} else {
-				succRates = new double[1];
-				succStates = new StateProp[1];
-				succRates[0] = 1.0;
-				succStates[0] = states.get(state);
+				rates = new double[] { 1.0 };
+				succs = new int[] { slot };
 			}
 		}
-		states.get(state).setSuccRates(succRates);
-		states.get(state).setSuccStates(succStates);
+		setSuccs(slot, succs, rates);
 	}
 
 	/**
@@ -1145,22 +1104,23 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 */
 	private void mvMult(double maxRate)
 	{
-		for (StateProp prop : states.values()) {
-			double[] succRates = prop.getSuccRates();
-			StateProp[] succStates = prop.getSuccStates();
-			double stateProb = prop.getProb();
-			if (null != succStates) {
+		for (int slot = 0; slot < numSlots; slot++) {
+			int[] succs = succSlots[slot];
+			if (null != succs) {
+				double[] rates = succRates[slot];
+				double stateProb = probs[slot];
 				double sumRates = 0.0;
-				for (int succ = 0; succ < succStates.length; succ++) {
-				    double rate = succRates[succ];
+				for (int succ = 0; succ < succs.length; succ++) {
+				    double rate = rates[succ];
 				    sumRates += rate;
-				    succStates[succ].addToNextProb((rate / maxRate) * stateProb);
+				    nextProbs[succs[succ]] += (rate / maxRate) * stateProb;
 				}
-				prop.addToNextProb(((maxRate - sumRates) / maxRate) * prop.getProb());
+				nextProbs[slot] += ((maxRate - sumRates) / maxRate) * stateProb;
 			}
 		}
-		for (StateProp prop : states.values()) {
-			prop.prepareNextIteration();
+		for (int slot = 0; slot < numSlots; slot++) {
+			probs[slot] = nextProbs[slot];
+			nextProbs[slot] = 0.0;
 		}
 	}
 
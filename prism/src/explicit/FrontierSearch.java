@@ -0,0 +1,160 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Level-synchronous (breadth-first) search over states, used for backward
+ * reachability in the qualitative precomputations. The states of each level
+ * (the frontier) are expanded in parallel, in chunks; states are claimed
+ * atomically, so each state is added to the result (and expanded) exactly once.
+ * Frontiers of at most one chunk are expanded in the calling thread.
+ */
+final class FrontierSearch
+{
+	/** number of frontier states expanded as one (parallel) task */
+	static final int CHUNK_SIZE = 1024;
+
+	/**
+	 * Expansion of a single state of the frontier.
+	 */
+	@FunctionalInterface
+	interface Expander
+	{
+		/**
+		 * Expand state {@code s}, passing each newly claimed state to {@code next}.
+		 */
+		void expand(int s, FrontierSearch search, IntConsumer next);
+	}
+
+	/** the states claimed so far (one bit per state) */
+	private final AtomicLongArray claimed;
+	/** number of states */
+	private final int numStates;
+
+	/**
+	 * Create a new search over {@code numStates} states, where no state is claimed yet.
+	 */
+	FrontierSearch(int numStates)
+	{
+		this.numStates = numStates;
+		claimed = new AtomicLongArray((numStates + 63) >> 6);
+	}
+
+	/**
+	 * Claim state {@code s}.
+	 * @return true iff {@code s} was not already claimed
+	 */
+	boolean claim(int s)
+	{
+		int word = s >> 6;
+		long mask = 1L << s;
+		long old;
+		do {
+			old = claimed.get(word);
+			if ((old & mask) != 0)
+				return false;
+		} while (!claimed.compareAndSet(word, old, old | mask));
+		return true;
+	}
+
+	/**
+	 * Is state {@code s} claimed?
+	 */
+	boolean isClaimed(int s)
+	{
+		return (claimed.get(s >> 6) & (1L << s)) != 0;
+	}
+
+	/**
+	 * Claim all states in {@code initial} and run the search from them,
+	 * until no more states are claimed.
+	 * @return the set of all claimed states
+	 */
+	BitSet run(BitSet initial, Expander expander)
+	{
+		int[] frontier = initial.stream().filter(this::claim).toArray();
+		while (frontier.length > 0) {
+			frontier = expand(frontier, expander);
+		}
+		return getClaimed();
+	}
+
+	/**
+	 * Get the set of all claimed states.
+	 */
+	BitSet getClaimed()
+	{
+		long[] words = new long[claimed.length()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = claimed.get(i);
+		}
+		BitSet result = BitSet.valueOf(words);
+		if (numStates < words.length * 64) {
+			result.clear(numStates, words.length * 64);
+		}
+		return result;
+	}
+
+	/**
+	 * Expand all states in a frontier, returning the next one.
+	 */
+	private int[] expand(int[] frontier, Expander expander)
+	{
+		int numChunks = (frontier.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		if (numChunks == 1) {
+			return expandChunk(frontier, 0, frontier.length, expander);
+		}
+		int[][] next = new int[numChunks][];
+		IntStream.range(0, numChunks).parallel().forEach(c -> {
+			next[c] = expandChunk(frontier, c * CHUNK_SIZE, Math.min(frontier.length, (c + 1) * CHUNK_SIZE), expander);
+		});
+		int size = 0;
+		for (int[] chunk : next) {
+			size += chunk.length;
+		}
+		int[] result = new int[size];
+		int pos = 0;
+		for (int[] chunk : next) {
+			System.arraycopy(chunk, 0, result, pos, chunk.length);
+			pos += chunk.length;
+		}
+		return result;
+	}
+
+	/**
+	 * Expand the states {@code frontier[from..to)}, returning the newly claimed states.
+	 */
+	private int[] expandChunk(int[] frontier, int from, int to, Expander expander)
+	{
+		IntArrayList next = new IntArrayList();
+		for (int i = from; i < to; i++) {
+			expander.expand(frontier[i], this, next::add);
+		}
+		return next.toIntArray();
+	}
+}
@@ -0,0 +1,279 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+
+import prism.PrismException;
+
+/**
+ * Compact, interned storage for the grid points (beliefs) used in
+ * fixed-resolution grid approximations of the belief space of a POMDP.
+ * <br><br>
+ * Rather than one {@link Belief} object (and one {@code double[]}) per point,
+ * all points are stored in a single flat array, with one block of
+ * {@code numUnobservations} entries per point, plus an array of observations.
+ * Points are indexed by an open-addressing hash table (linear probing).
+ * <br><br>
+ * Since all coordinates of grid points are multiples of 1/{@code resolution},
+ * points are hashed and compared on their (rounded) integer numerators,
+ * so lookups of points computed independently (e.g. the vertices of a
+ * sub-simplex during interpolation) are robust to round-off.
+ * <br><br>
+ * Adding points is not thread-safe; once construction is finished,
+ * lookups can safely be performed concurrently.
+ */
+public class GridBeliefStore
+{
+	/** Maximum size of an array */
+	static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+	/** Maximum size of the hash table (the largest power of 2 that is a valid array size) */
+	private static final int MAX_TABLE_SIZE = 1 << 30;
+
+	/** Number of unobservations (size of each block) */
+	private final int numUnobs;
+	/** Grid resolution */
+	private final int resolution;
+	/** Number of points stored */
+	private int size;
+	/** Observation for each point */
+	private int[] obs;
+	/** Distributions over unobservables, one block of size numUnobs per point */
+	private double[] points;
+	/** Hash table: index of point + 1 (0 denotes an empty slot) */
+	private int[] table;
+
+	/**
+	 * Create an empty store.
+	 * @param numUnobs Number of unobservations (size of each distribution)
+	 * @param resolution Grid resolution
+	 * @param expectedSize Expected number of points (used for initial capacity)
+	 * @throws PrismException if storage for this many points cannot be allocated
+	 */
+	public GridBeliefStore(int numUnobs, int resolution, int expectedSize) throws PrismException
+	{
+		this.numUnobs = numUnobs;
+		this.resolution = resolution;
+		int capacity = Math.max(16, expectedSize);
+		int pointsSize = pointsSizeFor(capacity);
+		int tableSize = tableSizeFor(capacity);
+		obs = new int[capacity];
+		points = new double[pointsSize];
+		table = new int[tableSize];
+		size = 0;
+	}
+
+	/**
+	 * Get the number of points stored.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Get the (index of the) observation for the {@code i}th point.
+	 */
+	public int getObservation(int i)
+	{
+		return obs[i];
+	}
+
+	/**
+	 * Get the probability of unobservation {@code u} in the {@code i}th point.
+	 */
+	public double getProbability(int i, int u)
+	{
+		return points[i * numUnobs + u];
+	}
+
+	/**
+	 * Get the {@code i}th point as a (newly created) {@link Belief} object.
+	 */
+	public Belief getBelief(int i)
+	{
+		int start = i * numUnobs;
+		return new Belief(obs[i], Arrays.copyOfRange(points, start, start + numUnobs));
+	}
+
+	/**
+	 * Add a point, if not already present, and return its index.
+	 * @param so Observation (index)
+	 * @param bu Distribution over unobservables
+	 * @throws PrismException if the store is full
+	 */
+	public int add(int so, double[] bu) throws PrismException
+	{
+		int slot = findSlot(so, bu);
+		if (table[slot] != 0) {
+			return table[slot] - 1;
+		}
+		// Add new point, growing storage if needed
+		if (size == obs.length) {
+			if (size == MAX_ARRAY_SIZE) {
+				throw tooManyPoints(size + 1L);
+			}
+			int capacity = (int) Math.min(2L * obs.length, MAX_ARRAY_SIZE);
+			points = Arrays.copyOf(points, pointsSizeFor(capacity));
+			obs = Arrays.copyOf(obs, capacity);
+		}
+		int i = size++;
+		obs[i] = so;
+		System.arraycopy(bu, 0, points, i * numUnobs, numUnobs);
+		table[slot] = i + 1;
+		// Rehash if load factor exceeds 1/2
+		if (2L * size > table.length) {
+			if (table.length == MAX_TABLE_SIZE) {
+				throw tooManyPoints(size);
+			}
+			rehash(table.length * 2);
+		}
+		return i;
+	}
+
+	/**
+	 * Get the index of a point, or -1 if it is not present.
+	 * @param so Observation (index)
+	 * @param bu Distribution over unobservables
+	 */
+	public int indexOf(int so, double[] bu)
+	{
+		return table[findSlot(so, bu)] - 1;
+	}
+
+	/**
+	 * Get the amount of memory (in bytes) used by the store (approximately).
+	 */
+	public long getMemoryUsage()
+	{
+		return 4L * obs.length + 8L * points.length + 4L * table.length;
+	}
+
+	// Local utility methods
+
+	/**
+	 * Find the slot in the hash table either containing the given point
+	 * or (if absent) the empty slot where it should be inserted.
+	 */
+	private int findSlot(int so, double[] bu)
+	{
+		int mask = table.length - 1;
+		int slot = hash(so, bu) & mask;
+		while (true) {
+			int entry = table[slot];
+			if (entry == 0 || matches(entry - 1, so, bu)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Check whether the {@code i}th point equals (so, bu).
+	 */
+	private boolean matches(int i, int so, double[] bu)
+	{
+		if (obs[i] != so) {
+			return false;
+		}
+		int start = i * numUnobs;
+		for (int u = 0; u < numUnobs; u++) {
+			if (numerator(points[start + u]) != numerator(bu[u])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Rebuild the hash table with a new size (a power of 2).
+	 */
+	private void rehash(int newTableSize)
+	{
+		table = new int[newTableSize];
+		int mask = newTableSize - 1;
+		double[] bu = new double[numUnobs];
+		for (int i = 0; i < size; i++) {
+			System.arraycopy(points, i * numUnobs, bu, 0, numUnobs);
+			int slot = hash(obs[i], bu) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * Hash code for a point, based on the numerators of its coordinates.
+	 */
+	private int hash(int so, double[] bu)
+	{
+		long h = so;
+		for (int u = 0; u < numUnobs; u++) {
+			h = 31 * h + numerator(bu[u]);
+		}
+		// Mix bits (finaliser from MurmurHash3)
+		h ^= (h >>> 33);
+		h *= 0xff51afd7ed558ccdL;
+		h ^= (h >>> 33);
+		return (int) h;
+	}
+
+	/**
+	 * Get the numerator of a grid coordinate (i.e., coordinate x resolution, rounded).
+	 */
+	private long numerator(double d)
+	{
+		return Math.round(d * resolution);
+	}
+
+	/**
+	 * Get the size of the array of distributions for a capacity.
+	 */
+	private int pointsSizeFor(int capacity) throws PrismException
+	{
+		long pointsSize = (long) capacity * numUnobs;
+		if (pointsSize > MAX_ARRAY_SIZE) {
+			throw tooManyPoints(capacity);
+		}
+		return (int) pointsSize;
+	}
+
+	/**
+	 * Get the hash table size (a power of 2, at least twice the capacity) for a capacity.
+	 */
+	private int tableSizeFor(int capacity) throws PrismException
+	{
+		long tableSize = Long.highestOneBit(Math.max(capacity, 8) - 1) << 2;
+		if (tableSize > MAX_TABLE_SIZE) {
+			throw tooManyPoints(capacity);
+		}
+		return (int) tableSize;
+	}
+
+	/**
+	 * Create the exception for when the store cannot hold {@code numPoints} points.
+	 */
+	private PrismException tooManyPoints(long numPoints)
+	{
+		return new PrismException("Too many grid points (" + numPoints + ", with " + numUnobs + " unobservations each) for the grid-based POMDP method; try a lower resolution");
+	}
+}
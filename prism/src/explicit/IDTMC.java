@@ -117,4 +117,65 @@ public interface IDTMC<Value> extends UDTMC<Value>, IntervalModel<Value>
 		}
 		return res;
 	}
+
+	/**
+	 * Do a single row of matrix-vector multiplication followed by min/max,
+	 * i.e. return min/max_P { sum_j P(s,j)*vect[j] }, for a distribution stored in flat arrays,
+	 * i.e., as entries {@code from}, ..., {@code to}-1 of {@code cols}, {@code lower} and {@code upper}.
+	 * <br>
+	 * The same algorithm as {@link #mvMultUncSingle(DoubleIntervalDistribution, double[], MinMax)} is used,
+	 * but without allocating any memory: {@code order[from..to)} holds a permutation of the entries,
+	 * which is sorted in place (by insertion sort) according to the successor values.
+	 * Since these change little between iterations, passing back the order from the
+	 * previous call for this distribution provides a warm start.
+	 * Since {@code order} is modified, it must not be shared between concurrent calls.
+	 * @param cols Successor states
+	 * @param lower Transition probability lower bounds
+	 * @param upper Transition probability upper bounds
+	 * @param from Index of first entry of the distribution
+	 * @param to Index after last entry of the distribution
+	 * @param order Order of entries (updated in place)
+	 * @param vect Vector to multiply by
+	 * @param minMax Min/max uncertainty (via isMinUnc/isMaxUnc)
+	 */
+	static double mvMultUncSingle(int[] cols, double[] lower, double[] upper, int from, int to, int[] order, double vect[], MinMax minMax)
+	{
+		// Trivial case: singleton interval (which must be [1.0,1.0])
+		if (to - from == 1) {
+			return vect[cols[from]];
+		}
+
+		// Sort entries by successor value (descending for max, ascending for min)
+		boolean max = minMax.isMaxUnc();
+		for (int i = from + 1; i < to; i++) {
+			int j = order[i];
+			double v = vect[cols[j]];
+			int k = i - 1;
+			while (k >= from && (max ? vect[cols[order[k]]] < v : vect[cols[order[k]]] > v)) {
+				order[k + 1] = order[k];
+				k--;
+			}
+			order[k + 1] = j;
+		}
+		// First add products of probability lower bounds and successor values
+		double res = 0.0;
+		double totP = 1.0;
+		for (int i = from; i < to; i++) {
+			res += vect[cols[i]] * lower[i];
+			totP -= lower[i];
+		}
+		// Then add remaining ones in sorted order
+		for (int i = from; i < to; i++) {
+			int j = order[i];
+			double delta = upper[j] - lower[j];
+			if (delta < totP) {
+				res += delta * vect[cols[j]];
+				totP -= delta;
+			} else {
+				res += totP * vect[cols[j]];
+				break;
+			}
+		}
+		return res;
+	}
 }
@@ -0,0 +1,175 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import common.Interval;
+import parser.State;
+import prism.Evaluator;
+import prism.Pair;
+import prism.PrismException;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of an IDTMC (over doubles).
+ * The interval bounds and successors of all states are stored in flat arrays,
+ * which are used for the (robust) value iteration steps.
+ * The underlying interval DTMC, from which this is built, is kept for any other access
+ * (e.g., to the intervals as objects, actions, states and labels).
+ * As for other sparse models, the model cannot be modified once created.
+ */
+public class IDTMCSparse extends ModelExplicitWrapper<Double> implements IDTMC<Double>
+{
+	/** The IDTMC, stored as a DTMC over Intervals (also stored in {@link ModelExplicitWrapper#model}) */
+	protected DTMCSimple<Interval<Double>> dtmc;
+
+	/** Indices into cols/lower/upper giving the start of the transitions for each state */
+	protected int[] rowStarts;
+	/** Successor state for each transition */
+	protected int[] cols;
+	/** Probability lower bound for each transition */
+	protected double[] lower;
+	/** Probability upper bound for each transition */
+	protected double[] upper;
+	/**
+	 * Order of transitions (for each state) from the last robust step minimising (index 0)
+	 * or maximising (index 1) over the uncertainty. These are updated in place by robust steps,
+	 * so each thread has its own copy (starting from the identity) and concurrent
+	 * computations on the same model do not interfere.
+	 */
+	protected final ThreadLocal<int[][]> orders = ThreadLocal.withInitial(() -> new int[][] { identityOrder(), identityOrder() });
+
+	// Constructors
+
+	/**
+	 * Construct an IDTMCSparse from an IDTMCSimple.
+	 * The interval DTMC stored in {@code idtmc} is shared, so {@code idtmc} should not be modified afterwards.
+	 */
+	@SuppressWarnings("unchecked")
+	public IDTMCSparse(IDTMCSimple<Double> idtmc)
+	{
+		setEvaluator(idtmc.getEvaluator());
+		this.dtmc = idtmc.dtmc;
+		this.model = (ModelExplicit<Double>) (ModelExplicit<?>) dtmc;
+		int numStates = dtmc.getNumStates();
+		rowStarts = new int[numStates + 1];
+		int numTransitions = 0;
+		for (int s = 0; s < numStates; s++) {
+			rowStarts[s] = numTransitions;
+			numTransitions += dtmc.getNumTransitions(s);
+		}
+		rowStarts[numStates] = numTransitions;
+		cols = new int[numTransitions];
+		lower = new double[numTransitions];
+		upper = new double[numTransitions];
+		int t = 0;
+		for (int s = 0; s < numStates; s++) {
+			Iterator<Map.Entry<Integer, Interval<Double>>> iter = dtmc.getTransitionsIterator(s);
+			while (iter.hasNext()) {
+				Map.Entry<Integer, Interval<Double>> e = iter.next();
+				cols[t] = e.getKey();
+				lower[t] = e.getValue().getLower();
+				upper[t] = e.getValue().getUpper();
+				t++;
+			}
+		}
+	}
+
+	/**
+	 * Construct an IDTMCSparse from an IDTMCSimple and a state index permutation,
+	 * i.e. in which state index i becomes index permut[i].
+	 * Pointer to states list is NOT copied (since now wrong).
+	 */
+	public IDTMCSparse(IDTMCSimple<Double> idtmc, int permut[])
+	{
+		this(new IDTMCSimple<>(idtmc, permut));
+	}
+
+	// Accessors (for UDTMC)
+
+	@Override
+	public void checkLowerBoundsArePositive() throws PrismException
+	{
+		int numStates = getNumStates();
+		for (int s = 0; s < numStates; s++) {
+			for (int t = rowStarts[s], end = rowStarts[s + 1]; t < end; t++) {
+				if (!(lower[t] > 0.0)) {
+					List<State> sl = getStatesList();
+					String state = sl == null ? "" + s : sl.get(s).toString();
+					throw new PrismException("Transition probability has lower bound of 0 in state " + state);
+				}
+			}
+		}
+	}
+
+	@Override
+	public double mvMultUncSingle(int s, double vect[], MinMax minMax)
+	{
+		return IDTMC.mvMultUncSingle(cols, lower, upper, rowStarts[s], rowStarts[s + 1], getOrder(minMax), vect, minMax);
+	}
+
+	/**
+	 * Get the stored order of transitions for robust steps with the given uncertainty (min/max),
+	 * for the current thread.
+	 */
+	private int[] getOrder(MinMax minMax)
+	{
+		return orders.get()[minMax.isMaxUnc() ? 1 : 0];
+	}
+
+	private int[] identityOrder()
+	{
+		int[] order = new int[cols.length];
+		Arrays.setAll(order, i -> i);
+		return order;
+	}
+
+	// Accessors (for IntervalModel)
+
+	@Override
+	public Evaluator<Interval<Double>> getIntervalEvaluator()
+	{
+		return dtmc.getEvaluator();
+	}
+
+	@Override
+	public DTMC<Interval<Double>> getIntervalModel()
+	{
+		return dtmc;
+	}
+
+	// Accessors (for IDTMC)
+
+	@Override
+	public Iterator<Map.Entry<Integer, Interval<Double>>> getIntervalTransitionsIterator(int s)
+	{
+		return dtmc.getTransitionsIterator(s);
+	}
+
+	@Override
+	public Iterator<Map.Entry<Integer, Pair<Interval<Double>, Object>>> getIntervalTransitionsAndActionsIterator(int s)
+	{
+		return dtmc.getTransitionsAndActionsIterator(s);
+	}
+}
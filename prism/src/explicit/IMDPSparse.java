@@ -0,0 +1,239 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import common.Interval;
+import parser.State;
+import prism.Evaluator;
+import prism.PrismException;
+import strat.MDStrategy;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of an IMDP (over doubles).
+ * The interval bounds and successors of all choices are stored in flat arrays,
+ * which are used for the (robust) value iteration steps and for graph-based queries.
+ * The underlying interval MDP, from which this is built, is kept for any other access
+ * (e.g., to the intervals as objects, actions, states and labels).
+ * As for other sparse models, the model cannot be modified once created.
+ */
+public class IMDPSparse extends ModelExplicitWrapper<Double> implements IMDP<Double>
+{
+	/** The IMDP, stored as an MDP over Intervals (also stored in {@link ModelExplicitWrapper#model}) */
+	protected MDPSimple<Interval<Double>> mdp;
+
+	/** Indices into choiceStarts giving the start of the choices for each state */
+	protected int[] rowStarts;
+	/** Indices into cols/lower/upper giving the start of the transitions for each choice */
+	protected int[] choiceStarts;
+	/** Successor state for each transition */
+	protected int[] cols;
+	/** Probability lower bound for each transition */
+	protected double[] lower;
+	/** Probability upper bound for each transition */
+	protected double[] upper;
+	/**
+	 * Order of transitions (for each choice) from the last robust step minimising (index 0)
+	 * or maximising (index 1) over the uncertainty. These are updated in place by robust steps,
+	 * so each thread has its own copy (starting from the identity) and concurrent
+	 * computations on the same model do not interfere.
+	 */
+	protected final ThreadLocal<int[][]> orders = ThreadLocal.withInitial(() -> new int[][] { identityOrder(), identityOrder() });
+
+	// Constructors
+
+	/**
+	 * Construct an IMDPSparse from an IMDPSimple.
+	 * The interval MDP stored in {@code imdp} is shared, so {@code imdp} should not be modified afterwards.
+	 */
+	@SuppressWarnings("unchecked")
+	public IMDPSparse(IMDPSimple<Double> imdp)
+	{
+		setEvaluator(imdp.getEvaluator());
+		this.mdp = imdp.mdp;
+		this.model = (ModelExplicit<Double>) (ModelExplicit<?>) mdp;
+		int numStates = mdp.getNumStates();
+		rowStarts = new int[numStates + 1];
+		int numChoices = 0;
+		int numTransitions = 0;
+		for (int s = 0; s < numStates; s++) {
+			rowStarts[s] = numChoices;
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				numTransitions += mdp.getNumTransitions(s, i);
+			}
+			numChoices += mdp.getNumChoices(s);
+		}
+		rowStarts[numStates] = numChoices;
+		choiceStarts = new int[numChoices + 1];
+		cols = new int[numTransitions];
+		lower = new double[numTransitions];
+		upper = new double[numTransitions];
+		int c = 0;
+		int t = 0;
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				choiceStarts[c++] = t;
+				Iterator<Map.Entry<Integer, Interval<Double>>> iter = mdp.getTransitionsIterator(s, i);
+				while (iter.hasNext()) {
+					Map.Entry<Integer, Interval<Double>> e = iter.next();
+					cols[t] = e.getKey();
+					lower[t] = e.getValue().getLower();
+					upper[t] = e.getValue().getUpper();
+					t++;
+				}
+			}
+		}
+		choiceStarts[numChoices] = numTransitions;
+	}
+
+	/**
+	 * Construct an IMDPSparse from an IMDPSimple and a state index permutation,
+	 * i.e. in which state index i becomes index permut[i].
+	 * Pointer to states list is NOT copied (since now wrong).
+	 */
+	public IMDPSparse(IMDPSimple<Double> imdp, int permut[])
+	{
+		this(new IMDPSimple<>(imdp, permut));
+	}
+
+	// Accessors (for NondetModel)
+
+	@Override
+	public int getNumChoices(int s)
+	{
+		return rowStarts[s + 1] - rowStarts[s];
+	}
+
+	@Override
+	public Object getAction(int s, int i)
+	{
+		return mdp.getAction(s, i);
+	}
+
+	@Override
+	public boolean allSuccessorsInSet(int s, int i, BitSet set)
+	{
+		int c = rowStarts[s] + i;
+		for (int t = choiceStarts[c], end = choiceStarts[c + 1]; t < end; t++) {
+			if (!set.get(cols[t]))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean someSuccessorsInSet(int s, int i, BitSet set)
+	{
+		int c = rowStarts[s] + i;
+		for (int t = choiceStarts[c], end = choiceStarts[c + 1]; t < end; t++) {
+			if (set.get(cols[t]))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(final int s, final int i)
+	{
+		int c = rowStarts[s] + i;
+		return SuccessorsIterator.from(Arrays.stream(cols, choiceStarts[c], choiceStarts[c + 1]).iterator(), true);
+	}
+
+	@Override
+	public int getNumTransitions(int s, int i)
+	{
+		int c = rowStarts[s] + i;
+		return choiceStarts[c + 1] - choiceStarts[c];
+	}
+
+	@Override
+	public Model<Double> constructInducedModel(MDStrategy<Double> strat)
+	{
+		throw new UnsupportedOperationException("Not yet implemented");
+	}
+
+	// Accessors (for UMDP)
+
+	@Override
+	public void checkLowerBoundsArePositive() throws PrismException
+	{
+		int numStates = getNumStates();
+		for (int s = 0; s < numStates; s++) {
+			for (int t = choiceStarts[rowStarts[s]], end = choiceStarts[rowStarts[s + 1]]; t < end; t++) {
+				if (!(lower[t] > 0.0)) {
+					List<State> sl = getStatesList();
+					String state = sl == null ? "" + s : sl.get(s).toString();
+					throw new PrismException("Transition probability has lower bound of 0 in state " + state);
+				}
+			}
+		}
+	}
+
+	@Override
+	public double mvMultUncSingle(int s, int k, double vect[], MinMax minMax)
+	{
+		int c = rowStarts[s] + k;
+		return IDTMC.mvMultUncSingle(cols, lower, upper, choiceStarts[c], choiceStarts[c + 1], getOrder(minMax), vect, minMax);
+	}
+
+	/**
+	 * Get the stored order of transitions for robust steps with the given uncertainty (min/max),
+	 * for the current thread.
+	 */
+	private int[] getOrder(MinMax minMax)
+	{
+		return orders.get()[minMax.isMaxUnc() ? 1 : 0];
+	}
+
+	private int[] identityOrder()
+	{
+		int[] order = new int[cols.length];
+		Arrays.setAll(order, i -> i);
+		return order;
+	}
+
+	// Accessors (for IntervalModel)
+
+	@Override
+	public Evaluator<Interval<Double>> getIntervalEvaluator()
+	{
+		return mdp.getEvaluator();
+	}
+
+	@Override
+	public MDP<Interval<Double>> getIntervalModel()
+	{
+		return mdp;
+	}
+
+	// Accessors (for IMDP)
+
+	@Override
+	public Iterator<Map.Entry<Integer, Interval<Double>>> getIntervalTransitionsIterator(int s, int i)
+	{
+		return mdp.getTransitionsIterator(s, i);
+	}
+}
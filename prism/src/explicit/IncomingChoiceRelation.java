@@ -26,9 +26,13 @@
 
 package explicit;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
-import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
 import prism.PrismComponent;
 
 /**
@@ -38,6 +42,9 @@ import prism.PrismComponent;
  * <p>
  * As NondetModel only provide easy access to successors of states,
  * the predecessor relation is computed and stored for subsequent efficient access.
+ * Like {@link PredecessorRelation}, it is stored in compressed sparse row (CSR) form,
+ * built with a parallel counting sort; choices are identified by a global index
+ * (choices of state 0 first, then those of state 1, etc.).
  * <p>
  * Note: Naturally, if the NondetModel changes, the predecessor relation
  * has to be recomputed to remain accurate.
@@ -107,9 +114,24 @@ public class IncomingChoiceRelation
 	};
 
 	/**
-	 * pre[i] provides the list of incoming choices of the state with index i.
+	 * The choices of state s have global indices choiceStarts[s] ... choiceStarts[s+1]-1.
+	 */
+	int[] choiceStarts;
+
+	/**
+	 * The source state of each choice (by global index).
 	 */
-	List<ArrayList<Choice>> pre;
+	int[] choiceStates;
+
+	/**
+	 * The incoming choices of state i are (by global index) preChoices[preStarts[i]] ... preChoices[preStarts[i+1]-1].
+	 */
+	int[] preStarts;
+
+	/**
+	 * Incoming choices (global indices), grouped by successor state.
+	 */
+	int[] preChoices;
 
 	/**
 	 * Constructor. Computes the predecessor relation for the given model
@@ -119,12 +141,6 @@ public class IncomingChoiceRelation
 	 */
 	public IncomingChoiceRelation(NondetModel<?> model)
 	{
-		pre = new ArrayList<ArrayList<Choice>>(model.getNumStates());
-		// construct the (empty) array list for all states
-		for (int s = 0; s < model.getNumStates(); s++) {
-			pre.add(s, new ArrayList<Choice>());
-		}
-
 		compute(model);
 	}
 
@@ -133,19 +149,44 @@ public class IncomingChoiceRelation
 	{
 		int n = model.getNumStates();
 
+		// Global indexing of choices
+		choiceStarts = new int[n + 1];
 		for (int s = 0; s < n; s++) {
-			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
-				Choice choice = new Choice(s, c);
+			choiceStarts[s + 1] = choiceStarts[s] + model.getNumChoices(s);
+		}
+		choiceStates = new int[choiceStarts[n]];
+		IntStream.range(0, n).parallel().forEach(s -> Arrays.fill(choiceStates, choiceStarts[s], choiceStarts[s + 1], s));
 
-				Iterator<Integer> it = model.getSuccessorsIterator(s, c);
+		// Count the incoming choices of each state
+		AtomicIntegerArray counts = new AtomicIntegerArray(n + 1);
+		IntStream.range(0, n).parallel().forEach(s -> {
+			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
+				PrimitiveIterator.OfInt it = model.getSuccessors(s, c).distinct();
 				while (it.hasNext()) {
-					int successor = it.next();
-
-					// Add the current choice s to pre[successor].
-					pre.get(successor).add(choice);
+					counts.incrementAndGet(it.nextInt() + 1);
 				}
 			}
+		});
+
+		// Prefix sum gives the start of each group
+		preStarts = new int[n + 1];
+		for (int t = 0; t < n; t++) {
+			preStarts[t + 1] = preStarts[t] + counts.get(t + 1);
 		}
+
+		// Place each choice in the groups of its successors, then sort groups
+		// (so that choices are in ascending order, as when built sequentially)
+		AtomicIntegerArray next = new AtomicIntegerArray(preStarts);
+		preChoices = new int[preStarts[n]];
+		IntStream.range(0, n).parallel().forEach(s -> {
+			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
+				PrimitiveIterator.OfInt it = model.getSuccessors(s, c).distinct();
+				while (it.hasNext()) {
+					preChoices[next.getAndIncrement(it.nextInt())] = choiceStarts[s] + c;
+				}
+			}
+		});
+		IntStream.range(0, n).parallel().forEach(t -> Arrays.sort(preChoices, preStarts[t], preStarts[t + 1]));
 	}
 
 	/**
@@ -153,7 +194,7 @@ public class IncomingChoiceRelation
 	 */
 	public Iterable<Choice> getIncomingChoices(int s)
 	{
-		return pre.get(s);
+		return () -> getIncomingChoicesIterator(s);
 	}
 
 	/**
@@ -161,7 +202,108 @@ public class IncomingChoiceRelation
 	 */
 	public Iterator<Choice> getIncomingChoicesIterator(int s)
 	{
-		return getIncomingChoices(s).iterator();
+		return Arrays.stream(preChoices, preStarts[s], preStarts[s + 1]).mapToObj(i -> new Choice(choiceStates[i], i - choiceStarts[choiceStates[i]])).iterator();
+	}
+
+	/**
+	 * Get the number of incoming choices of state {@code s}.
+	 */
+	public int getNumIncomingChoices(int s)
+	{
+		return preStarts[s + 1] - preStarts[s];
+	}
+
+	/**
+	 * Get the source state of the {@code i}th incoming choice of state {@code s}.
+	 */
+	public int getIncomingChoiceState(int s, int i)
+	{
+		return choiceStates[preChoices[preStarts[s] + i]];
+	}
+
+	/**
+	 * Get the (local) index of the {@code i}th incoming choice of state {@code s}.
+	 */
+	public int getIncomingChoiceIndex(int s, int i)
+	{
+		int choice = preChoices[preStarts[s] + i];
+		return choice - choiceStarts[choiceStates[choice]];
+	}
+
+	/**
+	 * Determine, for the choices of all states in {@code subset} (by global index),
+	 * whether all transitions go to states in {@code u}. Computed in parallel over states.
+	 * @param model The model (from which this relation was computed)
+	 * @param subset Only compute for the choices of these states (others are false)
+	 * @param u Set of states {@code u}
+	 */
+	public boolean[] getSafeChoices(NondetModel<?> model, BitSet subset, BitSet u)
+	{
+		boolean[] safe = new boolean[choiceStates.length];
+		subset.stream().parallel().forEach(s -> {
+			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
+				safe[choiceStarts[s] + c] = model.allSuccessorsInSet(s, c, u);
+			}
+		});
+		return safe;
+	}
+
+	/**
+	 * Computes the least set of states that contains {@code target}
+	 * and all states in {@code subset} for which some/all choices
+	 * (as determined by {@code forall}) are enabled and have a transition to a state in the set.
+	 * Choices are enabled if given by {@code enabled} (indexed by global choice index),
+	 * and for {@code forall}, only states all of whose choices are enabled are included.
+	 * As for the corresponding fixed points, e.g., {@link NondetModel#prob0step},
+	 * states in {@code subset} with no choices are included iff {@code forall}.
+	 * <br>
+	 * The set is computed by a (parallel) breadth-first search backwards from {@code target},
+	 * where, for {@code forall}, the number of choices of each state that do not yet
+	 * have a transition to the set is counted down.
+	 *
+	 * @param subset States that may be added to the set
+	 * @param target The set of target states
+	 * @param enabled Which choices are enabled ({@code null} = all)
+	 * @param forall Whether all choices (true) or some choice (false) have to lead to the set
+	 */
+	public BitSet calculatePreStar(BitSet subset, BitSet target, boolean[] enabled, boolean forall)
+	{
+		int n = preStarts.length - 1;
+		FrontierSearch search = new FrontierSearch(n);
+		BitSet initial = (BitSet) target.clone();
+
+		// For forall, count remaining choices (-1 = not all choices enabled, so never included)
+		AtomicIntegerArray remaining = forall ? new AtomicIntegerArray(n) : null;
+		FrontierSearch hit = forall ? new FrontierSearch(choiceStates.length) : null;
+		if (forall) {
+			subset.stream().parallel().forEach(s -> {
+				int numChoices = choiceStarts[s + 1] - choiceStarts[s];
+				boolean allEnabled = true;
+				for (int i = choiceStarts[s]; enabled != null && i < choiceStarts[s + 1]; i++) {
+					allEnabled &= enabled[i];
+				}
+				remaining.set(s, allEnabled ? numChoices : -1);
+			});
+			subset.stream().filter(s -> remaining.get(s) == 0).forEach(initial::set);
+		}
+
+		return search.run(initial, (t, srch, next) -> {
+			for (int i = preStarts[t], end = preStarts[t + 1]; i < end; i++) {
+				int choice = preChoices[i];
+				int s = choiceStates[choice];
+				if (!subset.get(s) || srch.isClaimed(s) || (enabled != null && !enabled[choice])) {
+					continue;
+				}
+				if (forall) {
+					// count each choice once, when it first reaches the set
+					if (hit.claim(choice) && remaining.decrementAndGet(s) == 0 && srch.claim(s)) {
+						next.accept(s);
+					}
+				} else if (srch.claim(s)) {
+					next.accept(s);
+				}
+			}
+		});
 	}
 
 	/**
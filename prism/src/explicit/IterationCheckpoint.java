@@ -0,0 +1,419 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+import explicit.rewards.Rewards;
+import prism.Pair;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismLog;
+import prism.PrismSettings;
+
+/**
+ * Periodic checkpointing of the state of an iterative numerical computation
+ * (iteration count, solution vector(s) and, optionally, a strategy),
+ * so that a long-running computation can be resumed after it has been interrupted
+ * or has hit the maximum number of iterations.
+ * <br>
+ * Checkpoints are written to a compact binary file (see {@link PrismSettings#PRISM_CHECKPOINT_FILE}),
+ * at most once every {@link PrismSettings#PRISM_CHECKPOINT_INTERVAL} seconds.
+ * Each checkpoint stores a fingerprint of the model (and rewards) and a key identifying
+ * the computation (its type, min/max and the state sets that define it);
+ * if resuming is enabled (see {@link PrismSettings#PRISM_CHECKPOINT_RESUME}), a checkpoint
+ * is only reloaded if both match, and is otherwise left in place.
+ */
+public class IterationCheckpoint
+{
+	/** Magic number at the start of a checkpoint file ("PCK1") */
+	private static final int MAGIC = 0x50434b31;
+
+	/** Log for messages */
+	private final PrismLog log;
+	/** Checkpoint file */
+	private final File file;
+	/** Minimum time between checkpoints (ms) */
+	private final long intervalMillis;
+	/** Try to resume from an existing checkpoint? */
+	private final boolean resume;
+	/** Fingerprint of the model */
+	private final long fingerprint;
+	/** Key identifying the computation */
+	private final String key;
+	/** Strategy storage (optional, may be null) */
+	private final int[] strat;
+	/** Time of last checkpoint */
+	private long lastSave;
+	/** Is the checkpoint file (if any) one written or loaded by this computation? */
+	private boolean owned;
+	/** Is the checkpoint file one for a different computation (which is then left untouched)? */
+	private boolean foreign;
+
+	/**
+	 * Create a checkpointer for a computation, if enabled in the settings of {@code parent}.
+	 * @param parent The model checker (for settings and log)
+	 * @param model The model
+	 * @param rewards The rewards used in the computation (optional, may be null)
+	 * @param description Description of the computation (e.g. type and min/max)
+	 * @param unknown The states whose values are being computed (optional, may be null)
+	 * @param strat Strategy storage for the computation (optional, may be null)
+	 * @param stateSets Any other state sets that define the problem, e.g. target/yes/no states (entries may be null)
+	 * @return the checkpointer, or {@code null} if checkpointing is disabled
+	 */
+	public static IterationCheckpoint create(PrismComponent parent, Model<?> model, Rewards<?> rewards, String description, BitSet unknown, int[] strat, BitSet... stateSets)
+	{
+		PrismSettings settings = parent.getSettings();
+		if (settings == null) {
+			return null;
+		}
+		String filename = settings.getString(PrismSettings.PRISM_CHECKPOINT_FILE);
+		if (filename == null || "".equals(filename)) {
+			return null;
+		}
+		// The key identifies the problem (not just the states being solved for),
+		// so that, e.g., different targets with the same unknown states do not match
+		StringBuilder key = new StringBuilder(description);
+		key.append(" ").append(describe(unknown));
+		for (BitSet set : stateSets) {
+			key.append(" ").append(describe(set));
+		}
+		long intervalMillis = 1000L * settings.getInteger(PrismSettings.PRISM_CHECKPOINT_INTERVAL);
+		boolean resume = settings.getBoolean(PrismSettings.PRISM_CHECKPOINT_RESUME);
+		long fingerprint = rewards == null ? fingerprint(model) : fingerprint(model, rewards);
+		return new IterationCheckpoint(parent.getLog(), new File(filename), intervalMillis, resume, fingerprint, key.toString(), strat);
+	}
+
+	/**
+	 * Describe a state set for a checkpoint key, by its size and a hash of its contents.
+	 */
+	private static String describe(BitSet set)
+	{
+		if (set == null) {
+			return "[-]";
+		}
+		long h = 1125899906842597L;
+		for (long word : set.toLongArray()) {
+			h = mix(h, word);
+		}
+		return "[" + set.cardinality() + ":" + Long.toHexString(h) + "]";
+	}
+
+	/**
+	 * Constructor.
+	 * @param log Log for messages
+	 * @param file Checkpoint file
+	 * @param intervalMillis Minimum time between checkpoints (ms)
+	 * @param resume Try to resume from an existing checkpoint?
+	 * @param fingerprint Fingerprint of the model (see {@link #fingerprint(Model)})
+	 * @param key Key identifying the computation
+	 * @param strat Strategy storage (optional, may be null)
+	 */
+	public IterationCheckpoint(PrismLog log, File file, long intervalMillis, boolean resume, long fingerprint, String key, int[] strat)
+	{
+		this.log = log;
+		this.file = file;
+		this.intervalMillis = intervalMillis;
+		this.resume = resume;
+		this.fingerprint = fingerprint;
+		this.key = key;
+		this.strat = strat;
+		lastSave = System.currentTimeMillis();
+	}
+
+	/**
+	 * If resuming is enabled and a matching checkpoint exists, load it,
+	 * overwriting the contents of {@code vectors} (and the strategy, if present).
+	 * @param vectors The solution vector(s), in the same order as passed to {@link #save}
+	 * @return the iteration count stored in the checkpoint, or 0 if nothing was loaded
+	 */
+	public int restore(double[]... vectors) throws PrismException
+	{
+		if (!resume || !file.exists()) {
+			return 0;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new PrismException("\"" + file + "\" is not a checkpoint file");
+			}
+			if (in.readLong() != fingerprint || !key.equals(in.readUTF())) {
+				// Keep it (it may be resumed later), and so write no checkpoints for this computation
+				log.printWarning("Ignoring (and not overwriting) checkpoint \"" + file + "\", which is for a different model or computation");
+				foreign = true;
+				return 0;
+			}
+			int iters = in.readInt();
+			int numVectors = in.readInt();
+			if (numVectors != vectors.length) {
+				throw new PrismException("Checkpoint \"" + file + "\" contains " + numVectors + " vectors, expected " + vectors.length);
+			}
+			for (double[] vector : vectors) {
+				readDoubles(in, vector);
+			}
+			int stratLength = in.readInt();
+			if (stratLength >= 0) {
+				int[] stratIn = new int[stratLength];
+				for (int s = 0; s < stratLength; s++) {
+					stratIn[s] = in.readInt();
+				}
+				if (strat != null && strat.length == stratLength) {
+					System.arraycopy(stratIn, 0, strat, 0, stratLength);
+				}
+			}
+			log.println("Resuming from checkpoint \"" + file + "\" after " + iters + " iterations");
+			lastSave = System.currentTimeMillis();
+			owned = true;
+			return iters;
+		} catch (IOException e) {
+			throw new PrismException("Could not read checkpoint \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Notify that {@code iters} iterations have been completed;
+	 * a checkpoint is written if enough time has elapsed since the last one.
+	 * @param iters The number of iterations completed
+	 * @param vectors The current solution vector(s)
+	 */
+	public void update(int iters, double[]... vectors) throws PrismException
+	{
+		if (System.currentTimeMillis() - lastSave >= intervalMillis) {
+			save(iters, vectors);
+		}
+	}
+
+	/**
+	 * Write a checkpoint (atomically replacing any existing one, unless
+	 * {@link #restore} found one for a different computation, which is kept).
+	 * @param iters The number of iterations completed
+	 * @param vectors The current solution vector(s)
+	 */
+	public void save(int iters, double[]... vectors) throws PrismException
+	{
+		if (foreign) {
+			return;
+		}
+		File tmp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeLong(fingerprint);
+			out.writeUTF(key);
+			out.writeInt(iters);
+			out.writeInt(vectors.length);
+			for (double[] vector : vectors) {
+				out.writeInt(vector.length);
+				for (double d : vector) {
+					out.writeDouble(d);
+				}
+			}
+			if (strat == null) {
+				out.writeInt(-1);
+			} else {
+				out.writeInt(strat.length);
+				for (int choice : strat) {
+					out.writeInt(choice);
+				}
+			}
+		} catch (IOException e) {
+			throw new PrismException("Could not write checkpoint \"" + file + "\": " + e.getMessage());
+		}
+		try {
+			try {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			throw new PrismException("Could not write checkpoint \"" + file + "\": " + e.getMessage());
+		}
+		lastSave = System.currentTimeMillis();
+		owned = true;
+	}
+
+	/**
+	 * Notify that the computation has finished (successfully),
+	 * deleting any checkpoint for it (but not one left by a different computation).
+	 */
+	public void finished()
+	{
+		if (owned && file.exists()) {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Get the key identifying the computation.
+	 */
+	public String getKey()
+	{
+		return key;
+	}
+
+	/**
+	 * Read a vector of doubles, checking that its length matches {@code vector}.
+	 */
+	private void readDoubles(DataInputStream in, double[] vector) throws IOException, PrismException
+	{
+		int length = in.readInt();
+		if (length != vector.length) {
+			throw new PrismException("Checkpoint \"" + file + "\" has vector of size " + length + ", expected " + vector.length);
+		}
+		for (int i = 0; i < length; i++) {
+			vector[i] = in.readDouble();
+		}
+	}
+
+	/**
+	 * Compute a fingerprint (hash) of a model, over its states, initial states
+	 * and transitions, including probabilities/rates where available.
+	 */
+	public static long fingerprint(Model<?> model)
+	{
+		int numStates = model.getNumStates();
+		long h = 1125899906842597L;
+		h = mix(h, model.getModelType().ordinal());
+		h = mix(h, numStates);
+		for (int s : model.getInitialStates()) {
+			h = mix(h, s);
+		}
+		for (int s = 0; s < numStates; s++) {
+			if (model instanceof DTMC) {
+				h = mixTransitions(h, ((DTMC<?>) model).getTransitionsIterator(s));
+			} else if (model instanceof MDP) {
+				MDP<?> mdp = (MDP<?>) model;
+				int numChoices = mdp.getNumChoices(s);
+				h = mix(h, numChoices);
+				for (int i = 0; i < numChoices; i++) {
+					h = mixTransitions(h, mdp.getTransitionsIterator(s, i));
+				}
+			} else if (model instanceof NondetModel) {
+				NondetModel<?> nondet = (NondetModel<?>) model;
+				int numChoices = nondet.getNumChoices(s);
+				h = mix(h, numChoices);
+				for (int i = 0; i < numChoices; i++) {
+					h = mixSuccessors(h, nondet.getSuccessorsIterator(s, i));
+				}
+			} else {
+				h = mixSuccessors(h, model.getSuccessorsIterator(s));
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Compute a fingerprint (hash) of a model and a reward structure for it.
+	 */
+	public static long fingerprint(Model<?> model, Rewards<?> rewards)
+	{
+		long h = fingerprint(model);
+		int numStates = model.getNumStates();
+		for (int s = 0; s < numStates; s++) {
+			if (rewards.hasStateRewards()) {
+				h = mix(h, Objects.hashCode(rewards.getStateReward(s)));
+			}
+			if (model instanceof NondetModel && rewards.hasTransitionRewards()) {
+				int numChoices = ((NondetModel<?>) model).getNumChoices(s);
+				for (int i = 0; i < numChoices; i++) {
+					h = mix(h, Objects.hashCode(rewards.getTransitionReward(s, i)));
+				}
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Compute a fingerprint (hash) of a model, as for {@link #fingerprint(Model)},
+	 * but also including the action labels of all choices (for a nondeterministic model)
+	 * or transitions (for a DTMC). These do not affect numerical computations,
+	 * but do matter where the model itself is stored (see {@link SparseMatrixFile}).
+	 */
+	public static long fingerprintWithActions(Model<?> model)
+	{
+		long h = fingerprint(model);
+		h = mix(h, model.onlyNullActionUsed() ? 1 : 0);
+		int numStates = model.getNumStates();
+		for (int s = 0; s < numStates; s++) {
+			if (model instanceof DTMC) {
+				h = mix(h, -1);
+				for (Iterator<? extends Map.Entry<Integer, ? extends Pair<?, Object>>> it = ((DTMC<?>) model).getTransitionsAndActionsIterator(s); it.hasNext();) {
+					h = mix(h, hashAction(it.next().getValue().second));
+				}
+			} else if (model instanceof NondetModel) {
+				NondetModel<?> nondet = (NondetModel<?>) model;
+				int numChoices = nondet.getNumChoices(s);
+				for (int i = 0; i < numChoices; i++) {
+					h = mix(h, hashAction(nondet.getAction(s, i)));
+				}
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Hash an action label, by its string representation (which, unlike
+	 * the hash code of an arbitrary object, is the same across runs).
+	 */
+	private static long hashAction(Object action)
+	{
+		return action == null ? -2 : action.toString().hashCode();
+	}
+
+	private static long mixTransitions(long h, Iterator<? extends Map.Entry<Integer, ?>> it)
+	{
+		h = mix(h, -1);
+		while (it.hasNext()) {
+			Map.Entry<Integer, ?> e = it.next();
+			h = mix(h, e.getKey());
+			h = mix(h, Objects.hashCode(e.getValue()));
+		}
+		return h;
+	}
+
+	private static long mixSuccessors(long h, Iterator<Integer> it)
+	{
+		h = mix(h, -1);
+		while (it.hasNext()) {
+			h = mix(h, it.next());
+		}
+		return h;
+	}
+
+	private static long mix(long h, long x)
+	{
+		h ^= x;
+		h *= 0x100000001b3L;
+		return h ^ (h >>> 29);
+	}
+}
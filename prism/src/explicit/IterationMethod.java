@@ -38,6 +38,7 @@ import prism.AccuracyFactory;
 import prism.OptionsIntervalIteration;
 import prism.PrismException;
 import prism.PrismUtils;
+import prism.Telemetry;
 
 /**
  * Abstract class that encapsulates the functionality for the different iteration methods
@@ -458,10 +459,33 @@ public abstract class IterationMethod {
 	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
 	 */
 	public ModelCheckerResult doValueIteration(ProbModelChecker mc, String description, IterationValIter iteration, IntSet unknownStates, long startTime, ExportIterations iterationsExport) throws PrismException
+	{
+		return doValueIteration(mc, description, iteration, unknownStates, startTime, iterationsExport, null);
+	}
+
+	/**
+	 * Perform the actual work of a value iteration, i.e., iterate until convergence or abort,
+	 * optionally checkpointing (and resuming from) the state of the computation.
+	 * @param mc ProbModelChecker (for log and settings)
+	 * @param description (for logging)
+	 * @param iteration The iteration object
+	 * @param unknownStates The set of unknown states, i.e., whose value should be determined
+	 * @param startTime The start time (for logging purposes, obtained from a call to System.currentTimeMillis())
+	 * @param iterationsExport an ExportIterations object (optional, ignored if null)
+	 * @param checkpoint an IterationCheckpoint object (optional, ignored if null)
+	 * @return a ModelChecker result with the solution vector and statistics
+	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
+	 */
+	public ModelCheckerResult doValueIteration(ProbModelChecker mc, String description, IterationValIter iteration, IntSet unknownStates, long startTime, ExportIterations iterationsExport, IterationCheckpoint checkpoint) throws PrismException
 	{
 		int iters = 0;
 		final int maxIters = mc.maxIters;
 		boolean done = false;
+		boolean telemetry = Telemetry.isEnabled();
+
+		if (checkpoint != null) {
+			iters = checkpoint.restore(iteration.getSolnVector());
+		}
 
 		PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
 		updatesTimer.start();
@@ -470,6 +494,12 @@ public abstract class IterationMethod {
 			iters++;
 			// do iteration step
 			done = iteration.iterateAndCheckConvergence(unknownStates);
+			if (telemetry) {
+				Telemetry.residual("value iteration", iters, iteration.getError());
+			}
+			if (checkpoint != null && !done) {
+				checkpoint.update(iters, iteration.getSolnVector());
+			}
 
 			if (iterationsExport != null)
 				iterationsExport.exportVector(iteration.getSolnVector(), 0);
@@ -487,10 +517,22 @@ public abstract class IterationMethod {
 		mc.getLog().print(" took " + iters + " iterations, ");
 		mc.getLog().print(mvCount + " multiplications");
 		mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+		if (telemetry) {
+			Telemetry.iterations("value iteration (" + description + ")", iters, timer, iteration.getError());
+		}
 
 		if (iterationsExport != null)
 			iterationsExport.close();
 
+		// Keep a checkpoint of an unfinished computation, so that it can be continued
+		if (checkpoint != null) {
+			if (done) {
+				checkpoint.finished();
+			} else {
+				checkpoint.save(iters, iteration.getSolnVector());
+			}
+		}
+
 		// Non-convergence is an error (usually)
 		if (!done && mc.errorOnNonConverge) {
 			String msg = "Iterative method did not converge within " + iters + " iterations.";
@@ -527,6 +569,7 @@ public abstract class IterationMethod {
 		long mvCount = 0;
 		final int maxIters = mc.maxIters;
 		double error = 0.0;
+		boolean telemetry = Telemetry.isEnabled();
 
 		int numSCCs = sccs.getNumSCCs();
 		int numNonSingletonSCCs = sccs.countNonSingletonSCCs();
@@ -565,6 +608,9 @@ public abstract class IterationMethod {
 					itersInSCC++;
 					// do iteration step
 					doneSCC = iterator.iterateAndCheckConvergence(statesForSCC);
+					if (telemetry) {
+						Telemetry.residual("topological value iteration", iters, iterator.getError());
+					}
 
 					if (iterationsExport != null)
 						iterationsExport.exportVector(iterator.getSolnVector(), 0);
@@ -600,6 +646,9 @@ public abstract class IterationMethod {
 		mc.getLog().print(" took " + iters + " iterations, ");
 		mc.getLog().print(mvCount + " multiplications");
 		mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+		if (telemetry) {
+			Telemetry.iterations("topological value iteration (" + description + ")", iters, timer, error);
+		}
 
 		if (iterationsExport != null)
 			iterationsExport.close();
@@ -634,12 +683,36 @@ public abstract class IterationMethod {
 	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
 	 */
 	public ModelCheckerResult doIntervalIteration(ProbModelChecker mc, String description, IterationIntervalIter below, IterationIntervalIter above, IntSet unknownStates, long timer, ExportIterations iterationsExport) throws PrismException {
+		return doIntervalIteration(mc, description, below, above, unknownStates, timer, iterationsExport, null);
+	}
+
+	/**
+	 * Perform the actual work of an interval iteration, i.e., iterate until convergence or abort,
+	 * optionally checkpointing (and resuming from) the state of the computation.
+	 *
+	 * @param mc ProbModelChecker (for log and settings)
+	 * @param description Description (for logging)
+	 * @param below The iteration object for the iteration from below
+	 * @param above The iteration object for the iteration from above
+	 * @param unknownStates The set of unknown states, i.e., whose value should be determined
+	 * @param startTime The start time (for logging purposes, obtained from a call to System.currentTimeMillis())
+	 * @param iterationsExport an ExportIterations object (optional, ignored if null)
+	 * @param checkpoint an IterationCheckpoint object (optional, ignored if null)
+	 * @return a ModelChecker result with the solution vector and statistics
+	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
+	 */
+	public ModelCheckerResult doIntervalIteration(ProbModelChecker mc, String description, IterationIntervalIter below, IterationIntervalIter above, IntSet unknownStates, long timer, ExportIterations iterationsExport, IterationCheckpoint checkpoint) throws PrismException {
 		try {
 			// Start iterations
 			int iters = 0;
 			final int maxIters = mc.maxIters;
 			boolean done = false;
 			double maxError = Double.POSITIVE_INFINITY;
+			boolean telemetry = Telemetry.isEnabled();
+
+			if (checkpoint != null) {
+				iters = checkpoint.restore(below.getSolnVector(), above.getSolnVector());
+			}
 
 			PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
 			updatesTimer.start();
@@ -659,6 +732,9 @@ public abstract class IterationMethod {
 
 				// Check termination
 				done = PrismUtils.doublesAreClose(below.getSolnVector(), above.getSolnVector(), termCritParam, absolute);
+				if (telemetry) {
+					Telemetry.residual("interval iteration", iters, PrismUtils.measureSupNormInterval(below.getSolnVector(), above.getSolnVector(), absolute));
+				}
 
 				if (done) {
 					maxError = PrismUtils.measureSupNormInterval(below.getSolnVector(), above.getSolnVector(), absolute);
@@ -667,6 +743,10 @@ public abstract class IterationMethod {
 					done = true;
 				}
 
+				if (checkpoint != null && !done) {
+					checkpoint.update(iters, below.getSolnVector(), above.getSolnVector());
+				}
+
 				if (!done && updatesTimer.triggered()) {
 					double diff = PrismUtils.measureSupNormInterval(below.getSolnVector(), above.getSolnVector(), absolute);
 					mc.getLog().print("Iteration " + iters + ": ");
@@ -682,6 +762,18 @@ public abstract class IterationMethod {
 			mc.getLog().print(" took " + iters + " iterations, ");
 			mc.getLog().print(mvCount + " multiplications");
 			mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+			if (telemetry) {
+				Telemetry.iterations("interval iteration (" + description + ")", iters, timer, maxError);
+			}
+
+			// Keep a checkpoint of an unfinished computation, so that it can be continued
+			if (checkpoint != null) {
+				if (done) {
+					checkpoint.finished();
+				} else {
+					checkpoint.save(iters, below.getSolnVector(), above.getSolnVector());
+				}
+			}
 
 			if (done && OptionsIntervalIteration.from(mc.getSettings()).isSelectMidpointForResult()) {
 				PrismUtils.selectMidpoint(below.getSolnVector(), above.getSolnVector());
@@ -734,6 +826,7 @@ public abstract class IterationMethod {
 			long mvCount = 0;
 			final int maxIters = mc.maxIters;
 			double maxError = Double.POSITIVE_INFINITY;
+			boolean telemetry = Telemetry.isEnabled();
 
 			PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
 			updatesTimer.start();
@@ -801,6 +894,9 @@ public abstract class IterationMethod {
 
 						// Check termination (inside SCC)
 						doneSCC = PrismUtils.doublesAreClose(below.getSolnVector(), above.getSolnVector(), statesForSCC.iterator(), termCritParam, absolute);
+						if (telemetry) {
+							Telemetry.residual("topological interval iteration", iters, PrismUtils.measureSupNormInterval(below.getSolnVector(), above.getSolnVector(), absolute, statesForSCC.iterator()));
+						}
 
 						if (!doneSCC && updatesTimer.triggered()) {
 							double diff = PrismUtils.measureSupNormInterval(below.getSolnVector(), above.getSolnVector(), absolute, statesForSCC.iterator());
@@ -839,6 +935,9 @@ public abstract class IterationMethod {
 			mc.getLog().print(" took " + iters + " iterations, ");
 			mc.getLog().print(mvCount + " multiplications");
 			mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+			if (telemetry) {
+				Telemetry.iterations("topological interval iteration (" + description + ")", iters, timer, maxError);
+			}
 
 			if (done && OptionsIntervalIteration.from(mc.getSettings()).isSelectMidpointForResult()) {
 				PrismUtils.selectMidpoint(below.getSolnVector(), above.getSolnVector());
@@ -34,8 +34,33 @@ import strat.MDStrategy;
  */
 public abstract class MDPExplicit<Value> extends ModelExplicit<Value> implements MDP<Value>
 {
+	/** (Optionally) the stored incoming choice relation for this model */
+	protected IncomingChoiceRelation incomingChoiceRelation = null;
+
 	// Accessors (for MDP)
 
+	@Override
+	public IncomingChoiceRelation getIncomingChoiceRelation(prism.PrismComponent parent, boolean storeIfNew)
+	{
+		if (incomingChoiceRelation != null) {
+			return incomingChoiceRelation;
+		}
+
+		IncomingChoiceRelation incoming = IncomingChoiceRelation.forModel(parent, this);
+
+		if (storeIfNew) {
+			incomingChoiceRelation = incoming;
+		}
+		return incoming;
+	}
+
+	@Override
+	public void clearPredecessorRelation()
+	{
+		super.clearPredecessorRelation();
+		incomingChoiceRelation = null;
+	}
+
 	@Override
 	public Model<Value> constructInducedModel(MDStrategy<Value> strat)
 	{
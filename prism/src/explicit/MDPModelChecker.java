@@ -50,6 +50,7 @@ import explicit.rewards.MDPRewards;
 import explicit.rewards.Rewards;
 import io.ModelExportFormat;
 import parser.ast.Expression;
+import parser.ast.ExpressionFunc;
 import parser.type.TypeDouble;
 import prism.AccuracyFactory;
 import prism.OptionsIntervalIteration;
@@ -61,6 +62,7 @@ import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismSettings;
 import prism.PrismUtils;
+import prism.Telemetry;
 import strat.FMDStrategyProduct;
 import strat.FMDStrategyStep;
 import strat.MDStrategy;
@@ -144,6 +146,20 @@ public class MDPModelChecker extends ProbModelChecker
 		return probs;
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	protected StateValues checkExpressionFunc(Model<?> model, ExpressionFunc expr, BitSet statesOfInterest) throws PrismException
+	{
+		if (expr.getNameCode() != ExpressionFunc.MULTI) {
+			return super.checkExpressionFunc(model, expr, statesOfInterest);
+		}
+		if (getDoIntervalIteration()) {
+			throw new PrismNotSupportedException("Interval iteration currently not supported for multi-objective reasoning");
+		}
+		MultiObjModelChecker mcMulti = new MultiObjModelChecker(this);
+		return mcMulti.checkExpressionMultiObjective((MDP<Double>) model, expr, statesOfInterest);
+	}
+
 	/**
 	 * Compute rewards for a co-safe LTL reward operator.
 	 */
@@ -422,6 +438,8 @@ public class MDPModelChecker extends ProbModelChecker
 			yes = (BitSet) target.clone();
 		}
 		timerProb1 = System.currentTimeMillis() - timerProb1;
+		Telemetry.phase("prob0", timerProb0, no.cardinality());
+		Telemetry.phase("prob1", timerProb1, yes.cardinality());
 
 		// Print results of precomputation
 		numYes = yes.cardinality();
@@ -598,22 +616,28 @@ public class MDPModelChecker extends ProbModelChecker
 		if (remain != null)
 			unknown.and(remain);
 
-		// Fixed point loop
 		iters = 0;
-		u_done = false;
-		// Least fixed point - should start from 0 but we optimise by
-		// starting from 'target', thus bypassing first iteration
-		u.or(target);
-		soln.or(target);
-		while (!u_done) {
-			iters++;
-			// Single step of Prob0
-			mdp.prob0step(unknown, u, min, soln);
-			// Check termination
-			u_done = soln.equals(u);
-			// u = soln
-			u.clear();
-			u.or(soln);
+		if (preRel) {
+			// Backward search (in parallel) using incoming choices
+			IncomingChoiceRelation incoming = mdp.getIncomingChoiceRelation(this, true);
+			u = incoming.calculatePreStar(unknown, target, null, min);
+		} else {
+			// Fixed point loop
+			u_done = false;
+			// Least fixed point - should start from 0 but we optimise by
+			// starting from 'target', thus bypassing first iteration
+			u.or(target);
+			soln.or(target);
+			while (!u_done) {
+				iters++;
+				// Single step of Prob0
+				mdp.prob0step(unknown, u, min, soln);
+				// Check termination
+				u_done = soln.equals(u);
+				// u = soln
+				u.clear();
+				u.or(soln);
+			}
 		}
 
 		// Negate
@@ -623,7 +647,10 @@ public class MDPModelChecker extends ProbModelChecker
 		timer = System.currentTimeMillis() - timer;
 		if (!silentPrecomputations) {
 			mainLog.print("Prob0 (" + (min ? "min" : "max") + ")");
-			mainLog.println(" took " + iters + " iterations and " + timer / 1000.0 + " seconds.");
+			if (preRel)
+				mainLog.println(" took " + timer / 1000.0 + " seconds.");
+			else
+				mainLog.println(" took " + iters + " iterations and " + timer / 1000.0 + " seconds.");
 		}
 
 		// If required, generate strategy. This is for min probs,
@@ -691,6 +718,21 @@ public class MDPModelChecker extends ProbModelChecker
 		u_done = false;
 		// Greatest fixed point
 		u.set(0, n);
+		if (preRel) {
+			// Inner least fixed point by backward search (in parallel) using incoming choices,
+			// restricted to choices whose transitions all stay in u
+			IncomingChoiceRelation incoming = mdp.getIncomingChoiceRelation(this, true);
+			while (!u_done) {
+				iters++;
+				boolean[] safe = incoming.getSafeChoices(mdp, unknown, u);
+				v = incoming.calculatePreStar(unknown, target, safe, min);
+				// Check termination (outer)
+				u_done = v.equals(u);
+				// u = v
+				u.clear();
+				u.or(v);
+			}
+		}
 		while (!u_done) {
 			v_done = false;
 			// Least fixed point - should start from 0 but we optimise by
@@ -857,7 +899,8 @@ public class MDPModelChecker extends ProbModelChecker
 			return iterationMethod.doTopologicalValueIteration(this, description, sccs, iteration, singletonSCCSolver, timer, iterationsExport);
 		} else {
 			// run the actual value iteration
-			return iterationMethod.doValueIteration(this, description, iteration, unknownStates, timer, iterationsExport);
+			IterationCheckpoint checkpoint = IterationCheckpoint.create(this, mdp, null, "MDP ReachProbs value iteration (" + description + ")", unknown, strat, yes, no, known);
+			return iterationMethod.doValueIteration(this, description, iteration, unknownStates, timer, iterationsExport, checkpoint);
 		}
 	}
 
@@ -965,7 +1008,8 @@ public class MDPModelChecker extends ProbModelChecker
 			return iterationMethod.doTopologicalIntervalIteration(this, description, sccs, below, above, singletonSCCSolver, timer, iterationsExport);
 		} else {
 			// run the actual value iteration
-			return iterationMethod.doIntervalIteration(this, description, below, above, unknownStates, timer, iterationsExport);
+			IterationCheckpoint checkpoint = IterationCheckpoint.create(this, mdp, null, "MDP ReachProbs interval iteration (" + description + ")", unknown, strat, yes, no, known);
+			return iterationMethod.doIntervalIteration(this, description, below, above, unknownStates, timer, iterationsExport, checkpoint);
 		}
 	}
 
@@ -2147,6 +2191,7 @@ public class MDPModelChecker extends ProbModelChecker
 		inf = prob1(mdp, null, target, !min, strat);
 		inf.flip(0, n);
 		timerProb1 = System.currentTimeMillis() - timerProb1;
+		Telemetry.phase("prob1", timerProb1, n - inf.cardinality());
 		
 		// Print results of precomputation
 		numTarget = target.cardinality();
@@ -2365,7 +2410,8 @@ public class MDPModelChecker extends ProbModelChecker
 			return iterationMethod.doTopologicalValueIteration(this, description, sccs, forMvMultRewMinMax, singletonSCCSolver, timer, iterationsExport);
 		} else {
 			// run the actual value iteration
-			return iterationMethod.doValueIteration(this, description, forMvMultRewMinMax, unknownStates, timer, iterationsExport);
+			IterationCheckpoint checkpoint = IterationCheckpoint.create(this, mdp, mdpRewards, "MDP ReachRewards value iteration (" + description + ")", unknown, strat, target, inf, known);
+			return iterationMethod.doValueIteration(this, description, forMvMultRewMinMax, unknownStates, timer, iterationsExport, checkpoint);
 		}
 	}
 
@@ -2524,7 +2570,8 @@ public class MDPModelChecker extends ProbModelChecker
 			rv = iterationMethod.doTopologicalIntervalIteration(this, description, sccs, below, above, singletonSCCSolver, timer, iterationsExport);
 		} else {
 			// run the actual value iteration
-			rv = iterationMethod.doIntervalIteration(this, description, below, above, unknownStates, timer, iterationsExport);
+			IterationCheckpoint checkpoint = IterationCheckpoint.create(this, mdp, mdpRewards, "MDP ReachRewards interval iteration (" + description + ")", unknown, strat, target, inf, known);
+			rv = iterationMethod.doIntervalIteration(this, description, below, above, unknownStates, timer, iterationsExport, checkpoint);
 		}
 
 		double max_v = PrismUtils.findMaxFinite(rv.soln, unknownStates.iterator());
@@ -0,0 +1,391 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+
+import explicit.rewards.MDPRewards;
+import prism.ModelType;
+import prism.PrismException;
+
+/**
+ * Explicit-state representation of an MDP whose sparse transition matrix
+ * is stored out-of-core, in a memory-mapped {@link SparseMatrixFile}.
+ * The layout (and the implementation of the matrix-vector kernels) is as for {@link MDPSparse},
+ * so that iterations over states in ascending order read the file sequentially.
+ * Other model information (states list, labels, etc.) is stored in memory.
+ */
+public class MDPSparseMapped extends MDPExplicit<Double>
+{
+	/** Transition matrix */
+	protected SparseMatrixFile matrix;
+
+	/**
+	 * Constructor: Build an MDPSparseMapped from an MDP and its transition matrix,
+	 * previously written to a file with {@link SparseMatrixFile#write(java.io.File, Model, long)}.
+	 */
+	public MDPSparseMapped(MDP<Double> mdp, SparseMatrixFile matrix) throws PrismException
+	{
+		if (matrix.getModelType() != mdp.getModelType() || matrix.getNumStates() != mdp.getNumStates()) {
+			throw new PrismException("Out-of-core transition matrix does not match the MDP");
+		}
+		initialise(mdp.getNumStates());
+		copyFrom(mdp);
+		this.matrix = matrix;
+	}
+
+	/**
+	 * Constructor: Build a MDPSparseMapped from a transition matrix file alone.
+	 * Other model information (initial states, states list, labels, etc.) should be set separately afterwards.
+	 */
+	public MDPSparseMapped(SparseMatrixFile matrix) throws PrismException
+	{
+		if (matrix.getModelType() != ModelType.MDP) {
+			throw new PrismException("Out-of-core transition matrix is not for a MDP");
+		}
+		initialise(matrix.getNumStates());
+		this.matrix = matrix;
+	}
+
+	/**
+	 * Get the (memory-mapped) transition matrix.
+	 */
+	public SparseMatrixFile getMatrix()
+	{
+		return matrix;
+	}
+
+	// Accessors (for Model)
+
+	@Override
+	public List<Object> findActionsUsed()
+	{
+		if (!matrix.hasActions()) {
+			return Collections.singletonList(null);
+		}
+		LinkedHashSet<Object> allActions = new LinkedHashSet<>();
+		for (int j = 0, n = matrix.getNumChoices(); j < n; j++) {
+			allActions.add(matrix.action(j));
+		}
+		return new ArrayList<>(allActions);
+	}
+
+	@Override
+	public boolean onlyNullActionUsed()
+	{
+		return !matrix.hasActions();
+	}
+
+	@Override
+	public int getNumTransitions()
+	{
+		return Math.toIntExact(matrix.getNumTransitions());
+	}
+
+	@Override
+	public int getNumTransitions(int s)
+	{
+		return (int) (matrix.choiceStart(matrix.rowStart(s + 1)) - matrix.choiceStart(matrix.rowStart(s)));
+	}
+
+	private SuccessorsIterator colsIterator(long start, long end, boolean distinct)
+	{
+		return new SuccessorsIterator() {
+			long cur = start;
+
+			@Override
+			public boolean successorsAreDistinct()
+			{
+				return distinct;
+			}
+
+			@Override
+			public boolean hasNext()
+			{
+				return cur < end;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				return matrix.col(cur++);
+			}
+		};
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(final int s)
+	{
+		// Assumes that only non-zero entries are stored
+		long start = matrix.choiceStart(matrix.rowStart(s));
+		long end = matrix.choiceStart(matrix.rowStart(s + 1));
+		// we can guarantee that the successors are distinct if there is at most one successor...
+		boolean distinct = (start == end || start + 1 == end);
+		return colsIterator(start, end, distinct);
+	}
+
+	@Override
+	public void findDeadlocks(boolean fix) throws PrismException
+	{
+		for (int i = 0; i < numStates; i++) {
+			// Note that no distributions is a deadlock, not an empty distribution
+			if (getNumChoices(i) == 0) {
+				addDeadlockState(i);
+				if (fix) {
+					throw new PrismException("Can't fix deadlocks in an MDPSparseMapped since it cannot be modified after construction");
+				}
+			}
+		}
+	}
+
+	@Override
+	public void checkForDeadlocks(BitSet except) throws PrismException
+	{
+		for (int i = 0; i < numStates; i++) {
+			if (getNumChoices(i) == 0 && (except == null || !except.get(i)))
+				throw new PrismException("MDP has a deadlock in state " + i);
+		}
+	}
+
+	// Accessors (for NondetModel)
+
+	@Override
+	public int getNumChoices(int s)
+	{
+		return matrix.rowStart(s + 1) - matrix.rowStart(s);
+	}
+
+	@Override
+	public int getMaxNumChoices()
+	{
+		return matrix.getMaxNumChoices();
+	}
+
+	@Override
+	public int getNumChoices()
+	{
+		return matrix.getNumChoices();
+	}
+
+	@Override
+	public Object getAction(int s, int i)
+	{
+		return i < 0 ? null : matrix.action(matrix.rowStart(s) + i);
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(final int s, final int i)
+	{
+		int j = matrix.rowStart(s) + i;
+		// we assume here that the successors for a single choice are distinct
+		return colsIterator(matrix.choiceStart(j), matrix.choiceStart(j + 1), true);
+	}
+
+	// Accessors (for MDP)
+
+	@Override
+	public int getNumTransitions(int s, int i)
+	{
+		int j = matrix.rowStart(s) + i;
+		return (int) (matrix.choiceStart(j + 1) - matrix.choiceStart(j));
+	}
+
+	@Override
+	public void forEachTransition(int s, int i, TransitionConsumer<Double> c)
+	{
+		int j = matrix.rowStart(s) + i;
+		for (long k = matrix.choiceStart(j), stop = matrix.choiceStart(j + 1); k < stop; k++) {
+			c.accept(s, matrix.col(k), matrix.nonZero(k));
+		}
+	}
+
+	@Override
+	public void forEachDoubleTransition(int s, int i, DoubleTransitionConsumer c)
+	{
+		int j = matrix.rowStart(s) + i;
+		for (long k = matrix.choiceStart(j), stop = matrix.choiceStart(j + 1); k < stop; k++) {
+			c.accept(s, matrix.col(k), matrix.nonZero(k));
+		}
+	}
+
+	@Override
+	public Iterator<Entry<Integer, Double>> getTransitionsIterator(final int s, final int i)
+	{
+		final int j = matrix.rowStart(s) + i;
+		return new Iterator<Entry<Integer, Double>>()
+		{
+			long k = matrix.choiceStart(j);
+			final long end = matrix.choiceStart(j + 1);
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < end;
+			}
+
+			@Override
+			public Entry<Integer, Double> next()
+			{
+				assert (k < end);
+				final long index = k++;
+				return new AbstractMap.SimpleImmutableEntry<Integer, Double>(matrix.col(index), matrix.nonZero(index));
+			}
+		};
+	}
+
+	@Override
+	public double mvMultMinMaxSingle(int s, double vect[], boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = matrix.rowStart(s);
+		int h1 = matrix.rowStart(s + 1);
+		long l2 = matrix.choiceStart(l1);
+		for (int j = l1; j < h1; j++) {
+			// Compute sum for this distribution
+			double d = 0.0;
+			long h2 = matrix.choiceStart(j + 1);
+			for (long k = l2; k < h2; k++) {
+				d += matrix.nonZero(k) * vect[matrix.col(k)];
+			}
+			l2 = h2;
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				// If strategy generation is enabled, remember optimal choice
+				if (strat != null)
+					stratCh = j - l1;
+			}
+			first = false;
+		}
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			// For max, only remember strictly better choices
+			if (min) {
+				strat[s] = stratCh;
+			} else if (strat[s] == -1 || minmax > vect[s]) {
+				strat[s] = stratCh;
+			}
+		}
+
+		return minmax;
+	}
+
+	@Override
+	public double mvMultSingle(int s, int i, double vect[])
+	{
+		int j = matrix.rowStart(s) + i;
+		// Compute sum for this distribution
+		double d = 0.0;
+		for (long k = matrix.choiceStart(j), h2 = matrix.choiceStart(j + 1); k < h2; k++) {
+			d += matrix.nonZero(k) * vect[matrix.col(k)];
+		}
+		return d;
+	}
+
+	@Override
+	public double mvMultJacSingle(int s, int i, double vect[])
+	{
+		int j = matrix.rowStart(s) + i;
+		double diag = 1.0;
+		// Compute sum for this distribution
+		double d = 0.0;
+		for (long k = matrix.choiceStart(j), h2 = matrix.choiceStart(j + 1); k < h2; k++) {
+			int col = matrix.col(k);
+			if (col != s) {
+				d += matrix.nonZero(k) * vect[col];
+			} else {
+				diag -= matrix.nonZero(k);
+			}
+		}
+		if (diag > 0)
+			d /= diag;
+		return d;
+	}
+
+	@Override
+	public double mvMultRewMinMaxSingle(int s, double vect[], MDPRewards<Double> mdpRewards, boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = matrix.rowStart(s);
+		int h1 = matrix.rowStart(s + 1);
+		long l2 = matrix.choiceStart(l1);
+		for (int j = l1; j < h1; j++) {
+			// Compute sum for this distribution
+			double d = mdpRewards.getTransitionReward(s, j - l1);
+			long h2 = matrix.choiceStart(j + 1);
+			for (long k = l2; k < h2; k++) {
+				d += matrix.nonZero(k) * vect[matrix.col(k)];
+			}
+			l2 = h2;
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				// If strategy generation is enabled, remember optimal choice
+				if (strat != null)
+					stratCh = j - l1;
+			}
+			first = false;
+		}
+		// Add state reward (doesn't affect min/max)
+		minmax += mdpRewards.getStateReward(s);
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			// For max, only remember strictly better choices
+			if (min) {
+				strat[s] = stratCh;
+			} else if (strat[s] == -1 || minmax > vect[s]) {
+				strat[s] = stratCh;
+			}
+		}
+
+		return minmax;
+	}
+
+	@Override
+	public void mvMultRight(int[] states, int[] strat, double[] source, double[] dest)
+	{
+		for (int s : states) {
+			int j = matrix.rowStart(s) + strat[s];
+			for (long k = matrix.choiceStart(j), h2 = matrix.choiceStart(j + 1); k < h2; k++) {
+				dest[matrix.col(k)] += matrix.nonZero(k) * source[s];
+			}
+		}
+	}
+
+	// Standard methods
+
+	@Override
+	public String toString()
+	{
+		return "MDPSparseMapped(" + matrix.getFile() + "): " + numStates + " states, " + getNumChoices() + " choices, " + matrix.getNumTransitions() + " transitions";
+	}
+}
@@ -0,0 +1,848 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import explicit.rewards.MDPRewards;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import parser.ast.Expression;
+import parser.ast.ExpressionFunc;
+import parser.ast.ExpressionProb;
+import parser.ast.ExpressionQuant;
+import parser.ast.ExpressionReward;
+import parser.ast.ExpressionTemporal;
+import parser.ast.ExpressionUnaryOp;
+import parser.ast.RelOp;
+import parser.type.TypeBool;
+import parser.type.TypeDouble;
+import parser.type.TypeVoid;
+import prism.Evaluator;
+import prism.MultiObjUtils;
+import prism.OpRelOpBound;
+import prism.OpsAndBoundsList;
+import prism.Operator;
+import prism.Point;
+import prism.Prism;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+import prism.PrismSettings;
+import prism.PrismUtils;
+import prism.Tile;
+import prism.TileList;
+
+/**
+ * Explicit-state multi-objective model checking for MDPs, i.e., the {@code multi(...)} function,
+ * using value iteration over weighted sums of the objectives (as for the value-iteration
+ * method of the sparse engine). Objectives are unbounded reachability/until/invariance
+ * probabilities and expected total rewards.
+ * <br><br>
+ * Probabilistic objectives are reduced to total rewards on a product of the MDP with
+ * the status (pending/satisfied/violated) of each objective, stored as an {@link MDPSparse}.
+ * Weight vectors that are independent (the initial axis directions, and the candidate
+ * hyperplanes of all unfinished tiles of a Pareto approximation) are optimised in parallel.
+ * The points ("vertices") computed are kept, per model, list of objectives and solver settings
+ * (termination criterion, maximum iterations and iteration method), so that later achievability,
+ * numerical and Pareto queries for the same objectives and settings start from them.
+ */
+public class MultiObjModelChecker extends PrismComponent
+{
+	// Status of an objective in a product state
+	private static final int PENDING = 0;
+	private static final int SATISFIED = 1;
+	private static final int VIOLATED = 2;
+
+	/** Vertices computed so far, for each model and (state, objectives, solver settings) key */
+	private static final Map<Model<?>, Map<List<Object>, List<Point>>> vertexCache = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/** Model checker, used for state formulas and rewards */
+	private MDPModelChecker mc;
+
+	// Settings
+	private ProbModelChecker.TermCrit termCrit;
+	private double termCritParam;
+	private int maxIters;
+	private boolean useGS;
+	private int numThreads;
+
+	// The product model, and info about it
+	/** Product of the MDP with the status of each probabilistic objective */
+	private MDPSparse product;
+	/** Reward for each objective, for each choice of the product (indexed as in {@link MDPSparse}) */
+	private double[][] objRewards;
+	/** Value to add to each (product) objective value to get the coordinate of a point */
+	private double[] offsets;
+
+	// Statistics
+	private int numWeightVectors;
+
+	/**
+	 * Create a new multi-objective model checker, using the settings of {@code mc}.
+	 */
+	public MultiObjModelChecker(MDPModelChecker mc) throws PrismException
+	{
+		super(mc);
+		this.mc = mc;
+		termCrit = mc.getTermCrit();
+		termCritParam = mc.getTermCritParam();
+		maxIters = mc.getMaxIters();
+		numThreads = getSettings().getInteger(PrismSettings.PRISM_MULTI_THREADS);
+		if (numThreads == 0) {
+			numThreads = Runtime.getRuntime().availableProcessors();
+		}
+	}
+
+	/**
+	 * A single objective of a multi-objective query.
+	 */
+	private static class Objective
+	{
+		/** Expression for the objective */
+		ExpressionQuant expr;
+		/** States in which the objective is satisfied (probabilistic objectives only) */
+		BitSet target;
+		/** States that can be visited while it is pending (probabilistic objectives only; null means all) */
+		BitSet remain;
+		/** Is the point coordinate 1 minus the probability of reaching target? */
+		boolean complement;
+		/** Rewards (reward objectives only) */
+		MDPRewards<Double> rewards;
+		/** Does this (reward) objective need to be minimised? */
+		boolean minimise;
+		/**
+		 * Key describing the objective (ignoring any bound), for the vertex cache.
+		 * This is built from the state sets/rewards the objective was reduced to, not its
+		 * syntax, since labels, property references and constants may change their meaning.
+		 */
+		List<Object> key;
+	}
+
+	/**
+	 * Model check a multi-objective query {@code multi(...)} for a single state of an MDP.
+	 * The result is Boolean (achievability), Double (numerical) or a {@link TileList} (Pareto curve).
+	 * @param statesOfInterest the states of interest (a single state, or null if the MDP has a single initial state)
+	 */
+	public StateValues checkExpressionMultiObjective(MDP<Double> model, ExpressionFunc expr, BitSet statesOfInterest) throws PrismException
+	{
+		// Determine state to compute values for
+		int state;
+		if (statesOfInterest != null && statesOfInterest.cardinality() == 1) {
+			state = statesOfInterest.nextSetBit(0);
+		} else if (statesOfInterest == null && model.getNumInitialStates() == 1) {
+			state = model.getFirstInitialState();
+		} else {
+			throw new PrismException("Multi-objective model checking can only compute values from a single state");
+		}
+
+		// Check solution method
+		int method = getSettings().getChoice(PrismSettings.PRISM_MDP_MULTI_SOLN_METHOD);
+		if (method == Prism.MDP_MULTI_LP) {
+			throw new PrismNotSupportedException("Linear programming is not supported for multi-objective model checking with the explicit engine");
+		}
+		useGS = method == Prism.MDP_MULTI_GAUSSSEIDEL;
+
+		// Extract objectives, ordered as in the OpsAndBoundsList (probabilities first)
+		int numObjectives = expr.getNumOperands();
+		OpsAndBoundsList opsAndBounds = new OpsAndBoundsList(numObjectives);
+		List<Objective> probObjs = new ArrayList<>();
+		List<Objective> rewObjs = new ArrayList<>();
+		for (int i = 0; i < numObjectives; i++) {
+			Objective obj = extractObjective(model, expr.getOperand(i), opsAndBounds, i);
+			(obj.rewards == null ? probObjs : rewObjs).add(obj);
+		}
+		opsAndBounds.makeAllProbUp();
+		List<Objective> objs = new ArrayList<>(probObjs);
+		objs.addAll(rewObjs);
+
+		// Check the combination of objectives is supported
+		int numNumerical = opsAndBounds.numberOfNumerical();
+		if (numNumerical > 1 && numNumerical < numObjectives) {
+			throw new PrismException("Multiple min/max queries cannot be combined with boolean queries.");
+		}
+		if (numNumerical > 2) {
+			throw new PrismNotSupportedException("Pareto curve generation is currently only supported for 2 objectives");
+		}
+
+		// Build product and rewards
+		buildProduct(model, state, probObjs, rewObjs);
+		checkRewardEndComponents(objs);
+
+		// Get the vertices already known for these objectives
+		List<Object> key = new ArrayList<>();
+		key.add(state);
+		for (Objective obj : objs) {
+			key.add(obj.key);
+		}
+		// Points computed with a looser tolerance must not be reused for stricter queries
+		key.add(List.of(termCrit, termCritParam, maxIters, useGS));
+		List<Point> vertices;
+		synchronized (vertexCache) {
+			vertices = vertexCache.computeIfAbsent(model, m -> new java.util.HashMap<>()).computeIfAbsent(key, k -> new ArrayList<>());
+		}
+		List<Point> knownVertices;
+		synchronized (vertices) {
+			knownVertices = new ArrayList<>(vertices);
+		}
+		if (!knownVertices.isEmpty()) {
+			mainLog.println("Reusing " + knownVertices.size() + " previously computed points for these objectives");
+		}
+
+		// Do computation
+		long timer = System.currentTimeMillis();
+		numWeightVectors = 0;
+		List<Point> computedPoints = new ArrayList<>();
+		StateValues res;
+		try {
+			if (numNumerical == 2) {
+				TileList tileList = generateParetoCurve(opsAndBounds, objs.size(), computedPoints);
+				synchronized (TileList.getStoredTileLists()) {
+					TileList.storedFormulasX.add(expr.getOperand(0));
+					TileList.storedFormulasY.add(expr.getOperand(1));
+					List<Expression> exprs = new ArrayList<>();
+					for (int i = 0; i < numObjectives; i++) {
+						exprs.add(expr.getOperand(i));
+					}
+					TileList.storedFormulas.add(exprs);
+					TileList.storedTileLists.add(tileList);
+				}
+				res = StateValues.createFromSingleValue(TypeVoid.getInstance(), tileList, model);
+			} else {
+				double value = targetDriven(opsAndBounds, objs, knownVertices, computedPoints);
+				if (numNumerical == 1) {
+					res = StateValues.createFromSingleValue(TypeDouble.getInstance(), value, model);
+				} else {
+					res = StateValues.createFromSingleValue(TypeBool.getInstance(), value == 1.0, model);
+				}
+			}
+		} finally {
+			synchronized (vertices) {
+				for (Point p : computedPoints) {
+					if (!vertices.contains(p)) {
+						vertices.add(p);
+					}
+				}
+			}
+		}
+		timer = System.currentTimeMillis() - timer;
+		mainLog.println("The value iteration(s) took " + timer / 1000.0 + " seconds altogether.");
+		mainLog.println("Number of weight vectors used: " + numWeightVectors);
+		return res;
+	}
+
+	/**
+	 * Extract the information for one objective of a multi-objective query,
+	 * adding its operator/bound to {@code opsAndBounds}.
+	 */
+	private Objective extractObjective(MDP<Double> model, Expression expr, OpsAndBoundsList opsAndBounds, int origPosition) throws PrismException
+	{
+		if (!(expr instanceof ExpressionProb || expr instanceof ExpressionReward)) {
+			throw new PrismException("Multi-objective properties can only contain P and R operators");
+		}
+		ExpressionQuant exprQuant = (ExpressionQuant) expr;
+		Objective obj = new Objective();
+		obj.expr = exprQuant;
+
+		// Get/check info about relational operator and bound
+		OpRelOpBound opInfo = exprQuant.getRelopBoundInfo(mc.getConstantValues());
+		RelOp relOp = opInfo.getRelOp();
+		if (relOp.isStrict()) {
+			throw new PrismException("Multi-objective properties can not use strict inequalities on P/R operators");
+		}
+		boolean isProb = expr instanceof ExpressionProb;
+		Operator op;
+		if (relOp == RelOp.MAX) {
+			op = isProb ? Operator.P_MAX : Operator.R_MAX;
+		} else if (relOp == RelOp.GEQ) {
+			op = isProb ? Operator.P_GE : Operator.R_GE;
+		} else if (relOp == RelOp.MIN) {
+			op = isProb ? Operator.P_MIN : Operator.R_MIN;
+		} else if (relOp == RelOp.LEQ) {
+			op = isProb ? Operator.P_LE : Operator.R_LE;
+		} else {
+			throw new PrismException("Multi-objective properties can only contain P/R operators with max/min=? or lower/upper probability bounds");
+		}
+		double p = opInfo.isNumeric() ? -1.0 : opInfo.getBound();
+		// Subtract bound from 1 if of the form P<=p
+		if (opInfo.isProbabilistic() && relOp.isUpperBound()) {
+			p = 1 - p;
+		}
+		opsAndBounds.add(opInfo, op, p, -1, origPosition);
+		boolean min = Operator.isMinOrLe(op);
+
+		if (isProb) {
+			// Reduce to (possibly complemented) until: "remain U target"
+			Expression pathExpr = ((ExpressionProb) exprQuant).getExpression();
+			boolean negated = false;
+			if (pathExpr.getType() instanceof TypeBool) {
+				// A state formula, i.e., "false U target"
+				obj.target = mc.checkExpression(model, pathExpr, null).getBitSet();
+				obj.remain = new BitSet();
+			} else {
+				if (Expression.containsTemporalTimeBounds(pathExpr)) {
+					throw new PrismNotSupportedException("Time-bounded objectives are not supported in multi-objective queries with the explicit engine");
+				}
+				if (!pathExpr.isSimplePathFormula()) {
+					throw new PrismNotSupportedException("Only reachability, until and invariance objectives are supported in multi-objective queries with the explicit engine");
+				}
+				Expression canon = Expression.convertSimplePathFormulaToCanonicalForm(pathExpr);
+				if (Expression.isNot(canon)) {
+					negated = true;
+					canon = ((ExpressionUnaryOp) canon).getOperand();
+				}
+				ExpressionTemporal exprTemp = (ExpressionTemporal) canon;
+				if (exprTemp.getOperator() != ExpressionTemporal.P_U) {
+					throw new PrismNotSupportedException("Only reachability, until and invariance objectives are supported in multi-objective queries with the explicit engine");
+				}
+				obj.remain = Expression.isTrue(exprTemp.getOperand1()) ? null : mc.checkExpression(model, exprTemp.getOperand1(), null).getBitSet();
+				obj.target = mc.checkExpression(model, exprTemp.getOperand2(), null).getBitSet();
+			}
+			// The coordinate is the probability of the formula, or of its negation if minimising
+			obj.complement = negated != min;
+			obj.key = List.of("P", min, obj.complement, obj.remain == null ? "all" : obj.remain.clone(), obj.target.clone());
+		} else {
+			Expression rewExpr = ((ExpressionReward) exprQuant).getExpression();
+			if (!(rewExpr instanceof ExpressionTemporal) || ((ExpressionTemporal) rewExpr).getOperator() != ExpressionTemporal.R_C) {
+				throw new PrismException("Only the C reward operator is currently supported for multi-objective properties");
+			}
+			if (((ExpressionTemporal) rewExpr).hasBounds()) {
+				throw new PrismNotSupportedException("Step-bounded reward objectives are not supported in multi-objective queries with the explicit engine");
+			}
+			int r = ((ExpressionReward) exprQuant).getRewardStructIndexByIndexObject(mc.rewardGen, mc.getConstantValues());
+			obj.rewards = (MDPRewards<Double>) mc.constructExpectedRewards(model, r);
+			obj.minimise = min;
+			obj.key = List.of("R", min, IterationCheckpoint.fingerprint(model, obj.rewards));
+		}
+		return obj;
+	}
+
+	/**
+	 * Build the product of {@code model}, from state {@code state}, with the status of each probabilistic objective,
+	 * and the rewards (per choice) for each objective, whose expected totals are the objective values.
+	 * For a probabilistic objective, this is the probability (or its negation, if complemented)
+	 * of a choice moving from a state where it is pending to one where it is satisfied.
+	 */
+	private void buildProduct(MDP<Double> model, int state, List<Objective> probObjs, List<Objective> rewObjs) throws PrismException
+	{
+		int numProb = probObjs.size();
+		int numObjs = numProb + rewObjs.size();
+		long numCodes = 1;
+		long[] radix = new long[numProb];
+		for (int i = 0; i < numProb; i++) {
+			radix[i] = numCodes;
+			numCodes *= 3;
+		}
+
+		mainLog.println("\nBuilding multi-objective product (" + numProb + " probabilistic objective" + (numProb == 1 ? "" : "s") + ")...");
+		long timer = System.currentTimeMillis();
+		MDPSimple<Double> prod = new MDPSimple<>();
+		Long2IntOpenHashMap index = new Long2IntOpenHashMap();
+		index.defaultReturnValue(-1);
+		List<Integer> prodStates = new ArrayList<>();
+		List<Integer> prodCodes = new ArrayList<>();
+		int initCode = updateCode(0, state, probObjs, radix);
+		index.put(state * numCodes + initCode, 0);
+		prodStates.add(state);
+		prodCodes.add(initCode);
+		prod.addState();
+		prod.addInitialState(0);
+		for (int ps = 0; ps < prodStates.size(); ps++) {
+			int s = prodStates.get(ps);
+			int code = prodCodes.get(ps);
+			// Once all probabilistic objectives are decided and there are no rewards, nothing can change
+			if (rewObjs.isEmpty() && !hasPending(code, numProb, radix)) {
+				Distribution<Double> distr = new Distribution<>(Evaluator.forDouble());
+				distr.add(ps, 1.0);
+				prod.addChoice(ps, distr);
+				continue;
+			}
+			int numChoices = model.getNumChoices(s);
+			for (int i = 0; i < numChoices; i++) {
+				Distribution<Double> distr = new Distribution<>(Evaluator.forDouble());
+				for (java.util.Iterator<Map.Entry<Integer, Double>> it = model.getTransitionsIterator(s, i); it.hasNext();) {
+					Map.Entry<Integer, Double> e = it.next();
+					int t = e.getKey();
+					int codeT = updateCode(code, t, probObjs, radix);
+					long k = t * numCodes + codeT;
+					int pt = index.get(k);
+					if (pt == -1) {
+						pt = prodStates.size();
+						index.put(k, pt);
+						prodStates.add(t);
+						prodCodes.add(codeT);
+						prod.addState();
+					}
+					distr.add(pt, e.getValue());
+				}
+				prod.addActionLabelledChoice(ps, distr, model.getAction(s, i));
+			}
+		}
+		product = new MDPSparse(prod);
+		timer = System.currentTimeMillis() - timer;
+		mainLog.println("Product has " + product.getNumStates() + " states, " + product.getNumChoices() + " choices and " + product.getNumTransitions()
+				+ " transitions (built in " + timer / 1000.0 + " seconds).");
+
+		// Rewards, and offsets (satisfied in initial state, complemented probabilities)
+		objRewards = new double[numObjs][product.getNumChoices()];
+		offsets = new double[numObjs];
+		for (int o = 0; o < numProb; o++) {
+			Objective obj = probObjs.get(o);
+			double sign = obj.complement ? -1.0 : 1.0;
+			offsets[o] = obj.complement ? 1.0 : 0.0;
+			if (status(initCode, o, radix) == SATISFIED) {
+				offsets[o] += sign;
+			}
+			double[] rew = objRewards[o];
+			for (int ps = 0; ps < product.getNumStates(); ps++) {
+				if (status(prodCodes.get(ps), o, radix) != PENDING) {
+					continue;
+				}
+				for (int j = product.rowStarts[ps]; j < product.rowStarts[ps + 1]; j++) {
+					for (int k = product.choiceStarts[j]; k < product.choiceStarts[j + 1]; k++) {
+						if (status(prodCodes.get(product.cols[k]), o, radix) == SATISFIED) {
+							rew[j] += sign * product.nonZeros[k];
+						}
+					}
+				}
+			}
+		}
+		for (int r = 0; r < rewObjs.size(); r++) {
+			Objective obj = rewObjs.get(r);
+			double sign = obj.minimise ? -1.0 : 1.0;
+			double[] rew = objRewards[numProb + r];
+			for (int ps = 0; ps < product.getNumStates(); ps++) {
+				int s = prodStates.get(ps);
+				double stateRew = obj.rewards.getStateReward(s);
+				for (int i = 0, j = product.rowStarts[ps]; j < product.rowStarts[ps + 1]; i++, j++) {
+					rew[j] = sign * (stateRew + obj.rewards.getTransitionReward(s, i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Update the status of each (pending) probabilistic objective on entering state {@code s}.
+	 */
+	private static int updateCode(int code, int s, List<Objective> probObjs, long[] radix)
+	{
+		for (int o = 0; o < probObjs.size(); o++) {
+			if (status(code, o, radix) == PENDING) {
+				Objective obj = probObjs.get(o);
+				if (obj.target.get(s)) {
+					code += SATISFIED * radix[o];
+				} else if (obj.remain != null && !obj.remain.get(s)) {
+					code += VIOLATED * radix[o];
+				}
+			}
+		}
+		return code;
+	}
+
+	private static int status(int code, int o, long[] radix)
+	{
+		return (int) ((code / radix[o]) % 3);
+	}
+
+	private static boolean hasPending(int code, int numProb, long[] radix)
+	{
+		for (int o = 0; o < numProb; o++) {
+			if (status(code, o, radix) == PENDING) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check that no end component of the product can collect positive reward for a maximised reward objective
+	 * (in which case the values could be infinite).
+	 */
+	private void checkRewardEndComponents(List<Objective> objs) throws PrismException
+	{
+		List<Integer> maxRewObjs = new ArrayList<>();
+		for (int o = 0; o < objs.size(); o++) {
+			if (objs.get(o).rewards != null && !objs.get(o).minimise) {
+				maxRewObjs.add(o);
+			}
+		}
+		if (maxRewObjs.isEmpty()) {
+			return;
+		}
+		ECComputer ecComputer = ECComputer.createECComputer(this, product);
+		ecComputer.computeMECStates();
+		for (BitSet mec : ecComputer.getMECStates()) {
+			for (int s = mec.nextSetBit(0); s >= 0; s = mec.nextSetBit(s + 1)) {
+				for (int i = 0, j = product.rowStarts[s]; j < product.rowStarts[s + 1]; i++, j++) {
+					if (!product.allSuccessorsInSet(s, i, mec)) {
+						continue;
+					}
+					for (int o : maxRewObjs) {
+						if (objRewards[o][j] > 0) {
+							throw new PrismNotSupportedException("Cannot use multi-objective model checking with maximising objectives and non-zero reward end compoments");
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Optimise the weighted sum of the (product) objectives with weights {@code weights},
+	 * using value iteration, and return the point formed by the objective values of the optimal strategy.
+	 * This is thread-safe, so independent weight vectors can be optimised concurrently.
+	 */
+	private Point optimiseWeighted(Point weights) throws PrismException
+	{
+		int n = product.getNumStates();
+		int m = objRewards.length;
+		int[] rowStarts = product.rowStarts;
+		int[] choiceStarts = product.choiceStarts;
+		int[] cols = product.cols;
+		double[] nonZeros = product.nonZeros;
+		boolean absolute = termCrit == ProbModelChecker.TermCrit.ABSOLUTE;
+
+		// Combined reward for each choice
+		double[] rew = new double[product.getNumChoices()];
+		for (int o = 0; o < m; o++) {
+			double w = weights.getCoord(o);
+			if (w != 0) {
+				for (int j = 0; j < rew.length; j++) {
+					rew[j] += w * objRewards[o][j];
+				}
+			}
+		}
+
+		// Combined and individual values (Gauss-Seidel updates in place)
+		double[] soln = new double[n];
+		double[] soln2 = useGS ? soln : new double[n];
+		double[][] psoln = new double[m][n];
+		double[][] psoln2 = useGS ? psoln : new double[m][n];
+		int iters = 0;
+		boolean done = false;
+		while (!done && iters < maxIters) {
+			iters++;
+			done = true;
+			for (int s = 0; s < n; s++) {
+				// Find the choice optimising the combined value
+				int best = -1;
+				double d1 = 0.0;
+				for (int j = rowStarts[s]; j < rowStarts[s + 1]; j++) {
+					double d2 = rew[j];
+					for (int k = choiceStarts[j]; k < choiceStarts[j + 1]; k++) {
+						d2 += nonZeros[k] * soln[cols[k]];
+					}
+					if (best == -1 || d2 > d1) {
+						best = j;
+						d1 = d2;
+					}
+				}
+				done &= PrismUtils.doublesAreClose(soln[s], d1, termCritParam, absolute);
+				// Individual values for that choice
+				for (int o = 0; o < m; o++) {
+					double pd = 0.0;
+					if (best != -1) {
+						double[] pvals = psoln[o];
+						pd = objRewards[o][best];
+						for (int k = choiceStarts[best]; k < choiceStarts[best + 1]; k++) {
+							pd += nonZeros[k] * pvals[cols[k]];
+						}
+					}
+					done &= PrismUtils.doublesAreClose(psoln[o][s], pd, termCritParam, absolute);
+					psoln2[o][s] = pd;
+				}
+				soln2[s] = d1;
+			}
+			if (!useGS) {
+				double[] tmp = soln;
+				soln = soln2;
+				soln2 = tmp;
+				double[][] ptmp = psoln;
+				psoln = psoln2;
+				psoln2 = ptmp;
+			}
+		}
+		if (!done) {
+			String msg = "Iterative method did not converge within " + iters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		double[] coords = new double[m];
+		int init = product.getFirstInitialState();
+		for (int o = 0; o < m; o++) {
+			coords[o] = psoln[o][init] + offsets[o];
+		}
+		return new Point(coords);
+	}
+
+	/**
+	 * Optimise the weighted sums for a list of independent weight vectors,
+	 * in parallel if more than one thread is available, and return the resulting points (in the same order).
+	 * If {@code perturbOnFailure} is set, any computation that does not complete successfully
+	 * is repeated for a slightly perturbed vector (see {@link #perturb(Point)}).
+	 */
+	private List<Point> optimiseWeighted(List<Point> weightsList, boolean perturbOnFailure) throws PrismException
+	{
+		int num = weightsList.size();
+		Point[] points = new Point[num];
+		PrismException[] errors = new PrismException[num];
+		for (Point weights : weightsList) {
+			mainLog.println("Optimising weighted sum of objectives: weights " + weights);
+		}
+		Runnable[] tasks = new Runnable[num];
+		for (int i = 0; i < num; i++) {
+			final int ii = i;
+			tasks[i] = () -> {
+				try {
+					points[ii] = optimiseWeighted(weightsList.get(ii));
+				} catch (PrismException e) {
+					if (perturbOnFailure) {
+						try {
+							points[ii] = optimiseWeighted(perturb(weightsList.get(ii)));
+							return;
+						} catch (PrismException e2) {
+							e = e2;
+						}
+					}
+					errors[ii] = e;
+				}
+			};
+		}
+		if (num > 1 && numThreads > 1) {
+			ForkJoinPool pool = new ForkJoinPool(Math.min(num, numThreads));
+			try {
+				pool.submit(() -> IntStream.range(0, num).parallel().forEach(i -> tasks[i].run())).get();
+			} catch (InterruptedException | ExecutionException e) {
+				throw new PrismException("Multi-objective value iteration failed: " + e.getMessage());
+			} finally {
+				pool.shutdown();
+			}
+		} else {
+			for (Runnable task : tasks) {
+				task.run();
+			}
+		}
+		numWeightVectors += num;
+		List<Point> result = new ArrayList<>(num);
+		for (int i = 0; i < num; i++) {
+			if (errors[i] != null) {
+				throw errors[i];
+			}
+			mainLog.println("Computed point: " + points[i]);
+			result.add(points[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Get a vector in almost the same direction as {@code weights}, but with no zero weights.
+	 */
+	private static Point perturb(Point weights)
+	{
+		double large = 10000;
+		Point direction = new Point(weights.getDimension());
+		for (int j = 0; j < weights.getDimension(); j++) {
+			direction.setCoord(j, weights.getCoord(j) > 0 ? large * weights.getCoord(j) : 1);
+		}
+		return direction.normalize();
+	}
+
+	/**
+	 * Get the unit vector for the {@code i}th of {@code dim} dimensions.
+	 */
+	private static Point axis(int dim, int i)
+	{
+		Point direction = new Point(dim);
+		direction.setCoord(i, 1);
+		return direction;
+	}
+
+	/**
+	 * Approximate the Pareto curve for two numerical objectives.
+	 * Points computed are added to {@code computedPoints}.
+	 */
+	private TileList generateParetoCurve(OpsAndBoundsList opsAndBounds, int dim, List<Point> computedPoints) throws PrismException
+	{
+		double tolerance = getSettings().getDouble(PrismSettings.PRISM_PARETO_EPSILON);
+		int maxPoints = getSettings().getInteger(PrismSettings.PRISM_MULTI_MAX_POINTS);
+
+		// Optimise in the direction of each objective
+		List<Point> axes = new ArrayList<>();
+		for (int i = 0; i < dim; i++) {
+			axes.add(axis(dim, i));
+		}
+		ArrayList<Point> pointsForInitialTile = new ArrayList<>(optimiseWeighted(axes, true));
+		computedPoints.addAll(pointsForInitialTile);
+		TileList tileList = new TileList(new Tile(pointsForInitialTile), opsAndBounds, tolerance);
+
+		// Then refine, optimising for the hyperplanes of all unfinished tiles together
+		boolean decided = false;
+		int iters = 0;
+		while (iters < maxPoints) {
+			List<Point> directions = tileList.getCandidateHyperplanes(Math.min(numThreads, maxPoints - iters));
+			if (directions.isEmpty()) {
+				decided = true;
+				break;
+			}
+			iters += directions.size();
+			List<Point> newPoints = optimiseWeighted(directions, false);
+			computedPoints.addAll(newPoints);
+			tileList.addNewPoints(newPoints);
+		}
+		if (!decided) {
+			throw new PrismException("The computation did not finish in " + maxPoints
+					+ " target point iterations, try increasing this number using the -multimaxpoints switch.");
+		}
+
+		String paretoFile = getSettings().getString(PrismSettings.PRISM_EXPORT_PARETO_FILENAME);
+		if (paretoFile != null && !paretoFile.equals("")) {
+			MultiObjUtils.exportPareto(tileList, paretoFile);
+			mainLog.println("Exported Pareto curve. To see it, run\n etc/scripts/prism-pareto.py " + paretoFile);
+		}
+		return tileList;
+	}
+
+	/**
+	 * Decide achievability of the bounds in {@code opsAndBounds} or, if there is a numerical objective
+	 * (which is the first one), compute its optimal value subject to the bounds of the others.
+	 * For achievability, 1.0 (achievable) or 0.0 (not) is returned; NaN means the bounds cannot be met.
+	 * Points already known to be achievable ({@code knownVertices}) are used as a starting point;
+	 * newly computed points are added to {@code computedPoints}.
+	 */
+	private double targetDriven(OpsAndBoundsList opsAndBounds, List<Objective> objs, List<Point> knownVertices, List<Point> computedPoints) throws PrismException
+	{
+		int dimProb = opsAndBounds.probSize();
+		int dim = objs.size();
+		int maxPoints = getSettings().getInteger(PrismSettings.PRISM_MULTI_MAX_POINTS);
+
+		// Find the numerical objective (if any) and its coordinate
+		int numCoord = -1;
+		for (int i = 0; i < dimProb; i++) {
+			if (opsAndBounds.getProbOperator(i) == Operator.P_MAX) {
+				numCoord = i;
+			}
+		}
+		for (int i = 0; i < dim - dimProb; i++) {
+			if (opsAndBounds.getRewardOperator(i) == Operator.R_MAX || opsAndBounds.getRewardOperator(i) == Operator.R_MIN) {
+				numCoord = dimProb + i;
+			}
+		}
+		boolean numNegated = numCoord >= dimProb && opsAndBounds.getRewardOperator(numCoord - dimProb) == Operator.R_MIN;
+
+		// Initialise the target point from the bounds
+		Point targetPoint = new Point(dim);
+		for (int i = 0; i < dimProb; i++) {
+			targetPoint.setCoord(i, opsAndBounds.getProbBound(i));
+		}
+		for (int i = 0; i < dim - dimProb; i++) {
+			double t = (opsAndBounds.getRewardOperator(i) == Operator.R_LE) ? -opsAndBounds.getRewardBound(i) : opsAndBounds.getRewardBound(i);
+			targetPoint.setCoord(dimProb + i, t);
+		}
+
+		// Start from the known points, plus the optimum for each objective separately (computed in parallel)
+		List<Point> allPoints = new ArrayList<>(knownVertices);
+		List<Point> axes = new ArrayList<>();
+		for (int i = 0; i < dim; i++) {
+			axes.add(axis(dim, i));
+		}
+		List<Point> axisPoints = optimiseWeighted(axes, false);
+		computedPoints.addAll(axisPoints);
+		allPoints.addAll(axisPoints);
+		List<Point> computedDirections = new ArrayList<>();
+		// The optimum for the numerical objective (if any) is the initial target for it
+		if (numCoord != -1) {
+			targetPoint.setCoord(numCoord, axisPoints.get(numCoord).getCoord(numCoord));
+		}
+
+		boolean decided = false;
+		boolean achievable = false;
+		Point direction = MultiObjUtils.getWeights(targetPoint, allPoints);
+		int iters = 0;
+		while (iters < maxPoints) {
+			if (direction == null || computedDirections.contains(direction)) {
+				// There is no hyperplane strictly separating the target from the computed points,
+				// hence it is achievable
+				decided = true;
+				achievable = true;
+				break;
+			}
+			iters++;
+			Point newPoint = optimiseWeighted(Collections.singletonList(direction), false).get(0);
+			computedPoints.add(newPoint);
+			allPoints.add(newPoint);
+			computedDirections.add(direction);
+
+			// Check whether the new point, together with the direction, shows the target is unreachable
+			double dNew = 0.0;
+			double dTarget = 0.0;
+			for (int i = 0; i < dim; i++) {
+				dNew += newPoint.getCoord(i) * direction.getCoord(i);
+				dTarget += targetPoint.getCoord(i) * direction.getCoord(i);
+			}
+			if (dTarget > dNew) {
+				if (numCoord == -1) {
+					decided = true;
+					achievable = false;
+					break;
+				}
+				// Lower the target for the numerical objective, if possible
+				double rest = dNew - (dTarget - direction.getCoord(numCoord) * targetPoint.getCoord(numCoord));
+				if ((!numNegated && rest < 0) || (numNegated && rest > 0) || direction.getCoord(numCoord) == 0.0) {
+					targetPoint.setCoord(numCoord, Double.NaN);
+					decided = true;
+					break;
+				}
+				double lowered = rest / direction.getCoord(numCoord);
+				if (lowered == Double.NEGATIVE_INFINITY) {
+					targetPoint.setCoord(numCoord, Double.NaN);
+					decided = true;
+					break;
+				}
+				targetPoint.setCoord(numCoord, lowered);
+			}
+			direction = MultiObjUtils.getWeights(targetPoint, allPoints);
+		}
+		if (!decided) {
+			throw new PrismException("The computation did not finish in " + maxPoints
+					+ " target point iterations, try increasing this number using the -multimaxpoints switch.");
+		}
+
+		if (numCoord == -1) {
+			return achievable ? 1.0 : 0.0;
+		}
+		// Convert the value back to the one for the objective as specified
+		double value = targetPoint.getCoord(numCoord);
+		if (numNegated) {
+			return -value;
+		} else if (numCoord < dimProb && opsAndBounds.isProbNegated(numCoord)) {
+			return 1 - value;
+		}
+		return value;
+	}
+}
@@ -399,6 +399,19 @@ public interface NondetModel<Value> extends Model<Value>
 		});
 	}
 
+	/**
+	 * If there is an IncomingChoiceRelation stored for this model, return that.
+	 * Otherwise, create one and return that. If {@code storeIfNew},
+	 * store it for later use (if supported by the model; by default, it is not).
+	 *
+	 * @param parent a PrismComponent (for obtaining the log)
+	 * @param storeIfNew if the incoming choice relation is newly created, store it
+	 */
+	default IncomingChoiceRelation getIncomingChoiceRelation(prism.PrismComponent parent, boolean storeIfNew)
+	{
+		return IncomingChoiceRelation.forModel(parent, this);
+	}
+
 	/**
 	 * Perform a single step of precomputation algorithm Prob0, i.e., for states i in {@code subset},
 	 * set bit i of {@code result} iff, for all/some choices,
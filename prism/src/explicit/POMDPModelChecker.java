@@ -35,9 +35,10 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
 
 import explicit.graphviz.Decoration;
 import explicit.graphviz.Decorator;
@@ -70,6 +71,46 @@ public class POMDPModelChecker extends ProbModelChecker
 		}
 	}
 	
+	/**
+	 * Sparse representation of a grid-based belief "MDP", in which the successors
+	 * of each grid point have already been interpolated over the grid points.
+	 * For the {@code i}th choice of the {@code b}th grid point, letting
+	 * {@code c = choiceStarts[b] + i}, the value is given by
+	 * {@code consts[c] + sum_j probs[j] * values[cols[j]]}
+	 * for {@code j} ranging over {@code rowStarts[c]}..{@code rowStarts[c+1]-1}.
+	 * The constant term comprises any reward and the contribution of successors
+	 * whose value is known (e.g., target beliefs).
+	 */
+	class BeliefMDPSparse
+	{
+		public int[] choiceStarts;
+		public int[] rowStarts;
+		public int[] cols;
+		public double[] probs;
+		public double[] consts;
+
+		/**
+		 * Perform a single backup step of value iteration for the {@code b}th grid point.
+		 * Choices are resolved as in {@link #approximateReachProbBackup}.
+		 */
+		public double backup(int b, double[] values, boolean min)
+		{
+			double chosenValue = min ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+			int cHi = choiceStarts[b + 1];
+			for (int c = choiceStarts[b]; c < cHi; c++) {
+				double value = consts[c];
+				int jHi = rowStarts[c + 1];
+				for (int j = rowStarts[c]; j < jHi; j++) {
+					value += probs[j] * values[cols[j]];
+				}
+				if ((min && chosenValue - value > 1.0e-6) || (!min && value - chosenValue > 1.0e-6)) {
+					chosenValue = value;
+				}
+			}
+			return chosenValue;
+		}
+	}
+	
 	/**
 	 * Value backup function for belief state value iteration:
 	 * mapping from a state and its definition (reward + transitions)
@@ -178,61 +219,29 @@ public class POMDPModelChecker extends ProbModelChecker
 		}
 
 		// Initialise the grid points (just for unknown beliefs)
-		List<Belief> gridPoints = initialiseGridPoints(pomdp, unknownObs);
+		GridBeliefStore gridPoints = initialiseGridPoints(pomdp, unknownObs);
 		mainLog.println("Grid statistics: resolution=" + gridResolution + ", points=" + gridPoints.size());
 		// Construct grid belief "MDP"
 		mainLog.println("Building belief space approximation...");
-		List<BeliefMDPState> beliefMDP = buildBeliefMDP(pomdp, null, gridPoints);
+		BeliefMDPSparse beliefMDP = buildBeliefMDP(pomdp, null, gridPoints, unknownObs, o -> targetObs.get(o) ? 1.0 : 0.0);
 		
-		// Initialise hashmaps for storing values for the unknown belief states
-		HashMap<Belief, Double> vhash = new HashMap<>();
-		HashMap<Belief, Double> vhash_backUp = new HashMap<>();
-		for (Belief belief : gridPoints) {
-			vhash.put(belief, 0.0);
-			vhash_backUp.put(belief, 0.0);
-		}
+		// Initialise arrays for storing values for the unknown belief states
+		double[] vals = new double[gridPoints.size()];
+		double[] vals_backUp = new double[gridPoints.size()];
 		// Define value function for the full set of belief states
-		Function<Belief, Double> values = belief -> approximateReachProb(belief, vhash_backUp, targetObs, unknownObs);
+		Function<Belief, Double> values = belief -> approximateReachProb(belief, gridPoints, vals_backUp, targetObs, unknownObs);
 		// Define value backup function
 		BeliefMDPBackUp backup = (belief, beliefState) -> approximateReachProbBackup(belief, beliefState, values, min);
 		
-		// Start iterations
+		// Solve
 		mainLog.println("Solving belief space approximation...");
-		long timer2 = System.currentTimeMillis();
-		int iters = 0;
-		boolean done = false;
-		while (!done && iters < maxIters) {
-			// Iterate over all (unknown) grid points
-			int unK = gridPoints.size();
-			for (int b = 0; b < unK; b++) {
-				Belief belief = gridPoints.get(b);
-				Pair<Double, Integer> valChoice = backup.apply(belief, beliefMDP.get(b));
-				vhash.put(belief, valChoice.first);
-			}
-			// Check termination
-			done = PrismUtils.doublesAreClose(vhash, vhash_backUp, termCritParam, termCrit == TermCrit.RELATIVE);
-			// back up	
-			Set<Map.Entry<Belief, Double>> entries = vhash.entrySet();
-			for (Map.Entry<Belief, Double> entry : entries) {
-				vhash_backUp.put(entry.getKey(), entry.getValue());
-			}
-			iters++;
-		}
-		// Non-convergence is an error (usually)
-		if (!done && errorOnNonConverge) {
-			String msg = "Iterative method did not converge within " + iters + " iterations.";
-			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
-			throw new PrismException(msg);
-		}
-		timer2 = System.currentTimeMillis() - timer2;
-		mainLog.print("Belief space value iteration (" + (min ? "min" : "max") + ")");
-		mainLog.println(" took " + iters + " iterations and " + timer2 / 1000.0 + " seconds.");
+		int iters = solveBeliefMDP(beliefMDP, vals, vals_backUp, min);
 		
 		// Extract (approximate) solution value for the initial belief
 		// Also get (approximate) accuracy of result from value iteration
 		Belief initialBelief = Belief.pointDistribution(sInit, pomdp);
 		double outerBound = values.apply(initialBelief);
-		double outerBoundMaxDiff = PrismUtils.measureSupNorm(vhash, vhash_backUp, termCrit == TermCrit.RELATIVE);
+		double outerBoundMaxDiff = PrismUtils.measureSupNorm(vals, vals_backUp, termCrit == TermCrit.RELATIVE);
 		Accuracy outerBoundAcc = AccuracyFactory.valueIteration(termCritParam, outerBoundMaxDiff, termCrit == TermCrit.RELATIVE);
 		// Print result
 		mainLog.println("Outer bound: " + outerBound + " (" + outerBoundAcc.toString(outerBound) + ")");
@@ -373,61 +382,29 @@ public class POMDPModelChecker extends ProbModelChecker
 		unknownObs.andNot(infObs);
 
 		// Initialise the grid points (just for unknown beliefs)
-		List<Belief> gridPoints = initialiseGridPoints(pomdp, unknownObs);
+		GridBeliefStore gridPoints = initialiseGridPoints(pomdp, unknownObs);
 		mainLog.println("Grid statistics: resolution=" + gridResolution + ", points=" + gridPoints.size());
 		// Construct grid belief "MDP"
 		mainLog.println("Building belief space approximation...");
-		List<BeliefMDPState> beliefMDP = buildBeliefMDP(pomdp, mdpRewards, gridPoints);
+		BeliefMDPSparse beliefMDP = buildBeliefMDP(pomdp, mdpRewards, gridPoints, unknownObs, o -> targetObs.get(o) ? 0.0 : Double.POSITIVE_INFINITY);
 		
-		// Initialise hashmaps for storing values for the unknown belief states
-		HashMap<Belief, Double> vhash = new HashMap<>();
-		HashMap<Belief, Double> vhash_backUp = new HashMap<>();
-		for (Belief belief : gridPoints) {
-			vhash.put(belief, 0.0);
-			vhash_backUp.put(belief, 0.0);
-		}
+		// Initialise arrays for storing values for the unknown belief states
+		double[] vals = new double[gridPoints.size()];
+		double[] vals_backUp = new double[gridPoints.size()];
 		// Define value function for the full set of belief states
-		Function<Belief, Double> values = belief -> approximateReachReward(belief, vhash_backUp, targetObs, infObs);
+		Function<Belief, Double> values = belief -> approximateReachReward(belief, gridPoints, vals_backUp, targetObs, infObs);
 		// Define value backup function
 		BeliefMDPBackUp backup = (belief, beliefState) -> approximateReachRewardBackup(belief, beliefState, values, min);
 		
-		// Start iterations
+		// Solve
 		mainLog.println("Solving belief space approximation...");
-		long timer2 = System.currentTimeMillis();
-		int iters = 0;
-		boolean done = false;
-		while (!done && iters < maxIters) {
-			// Iterate over all (unknown) grid points
-			int unK = gridPoints.size();
-			for (int b = 0; b < unK; b++) {
-				Belief belief = gridPoints.get(b);
-				Pair<Double, Integer> valChoice = backup.apply(belief, beliefMDP.get(b));
-				vhash.put(belief, valChoice.first);
-			}
-			// Check termination
-			done = PrismUtils.doublesAreClose(vhash, vhash_backUp, termCritParam, termCrit == TermCrit.RELATIVE);
-			// back up	
-			Set<Map.Entry<Belief, Double>> entries = vhash.entrySet();
-			for (Map.Entry<Belief, Double> entry : entries) {
-				vhash_backUp.put(entry.getKey(), entry.getValue());
-			}
-			iters++;
-		}
-		// Non-convergence is an error (usually)
-		if (!done && errorOnNonConverge) {
-			String msg = "Iterative method did not converge within " + iters + " iterations.";
-			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
-			throw new PrismException(msg);
-		}
-		timer2 = System.currentTimeMillis() - timer2;
-		mainLog.print("Belief space value iteration (" + (min ? "min" : "max") + ")");
-		mainLog.println(" took " + iters + " iterations and " + timer2 / 1000.0 + " seconds.");
-
+		int iters = solveBeliefMDP(beliefMDP, vals, vals_backUp, min);
+		
 		// Extract (approximate) solution value for the initial belief
 		// Also get (approximate) accuracy of result from value iteration
 		Belief initialBelief = Belief.pointDistribution(sInit, pomdp);
 		double outerBound = values.apply(initialBelief);
-		double outerBoundMaxDiff = PrismUtils.measureSupNorm(vhash, vhash_backUp, termCrit == TermCrit.RELATIVE);
+		double outerBoundMaxDiff = PrismUtils.measureSupNorm(vals, vals_backUp, termCrit == TermCrit.RELATIVE);
 		Accuracy outerBoundAcc = AccuracyFactory.valueIteration(termCritParam, outerBoundMaxDiff, termCrit == TermCrit.RELATIVE);
 		// Print result
 		mainLog.println("Outer bound: " + outerBound + " (" + outerBoundAcc.toString(outerBound) + ")");
@@ -547,15 +524,18 @@ public class POMDPModelChecker extends ProbModelChecker
 	}
 	
 	/**
-	 * Construct a list of beliefs for a grid-based approximation of the belief space.
+	 * Construct the set of beliefs for a grid-based approximation of the belief space.
 	 * Only beliefs with observable values from {@code unknownObs) are added.
+	 * They are stored (and indexed) compactly in a {@link GridBeliefStore}.
 	 */
-	protected List<Belief> initialiseGridPoints(POMDP<Double> pomdp, BitSet unknownObs)
+	protected GridBeliefStore initialiseGridPoints(POMDP<Double> pomdp, BitSet unknownObs) throws PrismException
 	{
-		List<Belief> gridPoints = new ArrayList<>();
-		ArrayList<ArrayList<Double>> assignment;
 		int numUnobservations = pomdp.getNumUnobservations();
 		int numStates = pomdp.getNumStates();
+		// Find the unobservations for each observation,
+		// and from this the number of grid points needed
+		List<int[]> unobsLists = new ArrayList<>();
+		long numGridPoints = 0;
 		for (int so = unknownObs.nextSetBit(0); so >= 0; so = unknownObs.nextSetBit(so + 1)) {
 			ArrayList<Integer> unobservsForObserv = new ArrayList<>();
 			for (int s = 0; s < numStates; s++) {
@@ -563,34 +543,198 @@ public class POMDPModelChecker extends ProbModelChecker
 					unobservsForObserv.add(pomdp.getUnobservation(s));
 				}
 			}
-			assignment = fullAssignment(unobservsForObserv.size(), gridResolution);
-			for (ArrayList<Double> inner : assignment) {
-				double[] bu = new double[numUnobservations];
-				int k = 0;
-				for (int unobservForObserv : unobservsForObserv) {
-					bu[unobservForObserv] = inner.get(k);
-					k++;
-				}
-				gridPoints.add(new Belief(so, bu));
-			}
+			unobsLists.add(unobservsForObserv.stream().mapToInt(Integer::intValue).toArray());
+			numGridPoints += countGridPoints(unobservsForObserv.size(), gridResolution);
+		}
+		// Enumerate grid points and add to store
+		GridBeliefStore gridPoints = new GridBeliefStore(numUnobservations, gridResolution, (int) Math.min(numGridPoints, Integer.MAX_VALUE - 8));
+		int i = 0;
+		for (int so = unknownObs.nextSetBit(0); so >= 0; so = unknownObs.nextSetBit(so + 1)) {
+			int[] unobservsForObserv = unobsLists.get(i++);
+			int[] g = new int[unobservsForObserv.length];
+			g[0] = gridResolution;
+			addGridPoints(gridPoints, so, unobservsForObserv, g, 1, new double[numUnobservations]);
 		}
 		return gridPoints;
 	}
 	
 	/**
-	 * Construct (part of) a belief MDP, just for the set of passed in belief states.
-	 * If provided, also construct a list of rewards for each state.
-	 * It is stored as a list (over source beliefs) of BeliefMDPState objects.
+	 * Recursively enumerate grid points for observation {@code so} and add them to {@code gridPoints}.
+	 * A grid point is represented by a non-increasing sequence {@code g} with {@code g[0]} equal to
+	 * the grid resolution M, from which the probabilities {@code (g[k]-g[k+1])/M} are derived.
+	 * Entries {@code g[0..level-1]} have already been fixed.
+	 */
+	private void addGridPoints(GridBeliefStore gridPoints, int so, int[] unobservsForObserv, int[] g, int level, double[] bu) throws PrismException
+	{
+		int length = g.length;
+		if (level == length) {
+			int k;
+			for (k = 0; k < length - 1; k++) {
+				bu[unobservsForObserv[k]] = (double) (g[k] - g[k + 1]) / gridResolution;
+			}
+			bu[unobservsForObserv[k]] = (double) g[k] / gridResolution;
+			gridPoints.add(so, bu);
+			return;
+		}
+		for (int v = 0; v <= g[level - 1]; v++) {
+			g[level] = v;
+			addGridPoints(gridPoints, so, unobservsForObserv, g, level + 1, bu);
+		}
+	}
+	
+	/**
+	 * Count the grid points for a simplex of dimension {@code length} and resolution M,
+	 * i.e., the binomial coefficient (M+length-1 choose length-1).
 	 */
-	protected List<BeliefMDPState> buildBeliefMDP(POMDP<Double> pomdp, MDPRewards<Double> mdpRewards, List<Belief> beliefs)
+	private static long countGridPoints(int length, int resolution)
 	{
-		List<BeliefMDPState> beliefMDP = new ArrayList<>();
-		for (Belief belief: beliefs) {
-			beliefMDP.add(buildBeliefMDPState(pomdp, mdpRewards, belief));
+		long count = 1;
+		for (int k = 1; k < length; k++) {
+			count = count * (resolution + k) / k;
+			if (count > Integer.MAX_VALUE) {
+				return Integer.MAX_VALUE;
+			}
 		}
+		return count;
+	}
+	
+	/**
+	 * Construct (part of) a belief MDP, just for the grid points stored in {@code gridPoints}.
+	 * If provided, rewards for each state are included too.
+	 * Successor beliefs are interpolated over the grid points, or, if the value of
+	 * their observation is known (i.e., not in {@code unknownObs}), given by {@code knownValues}.
+	 * The result is stored in sparse form; states are constructed in parallel.
+	 */
+	protected BeliefMDPSparse buildBeliefMDP(POMDP<Double> pomdp, MDPRewards<Double> mdpRewards, GridBeliefStore gridPoints, BitSet unknownObs, IntToDoubleFunction knownValues) throws PrismException
+	{
+		int numGridPoints = gridPoints.size();
+		// Build (in parallel) the sparse rows for each grid point
+		BeliefMDPSparse[] rows = new BeliefMDPSparse[numGridPoints];
+		IntStream.range(0, numGridPoints).parallel().forEach(b -> {
+			Belief belief = gridPoints.getBelief(b);
+			rows[b] = buildBeliefMDPSparseState(buildBeliefMDPState(pomdp, mdpRewards, belief), gridPoints, unknownObs, knownValues);
+		});
+		// Then concatenate (checking first that the result fits in arrays)
+		long numChoicesLong = 0;
+		long numTransitionsLong = 0;
+		for (int b = 0; b < numGridPoints; b++) {
+			numChoicesLong += rows[b].consts.length;
+			numTransitionsLong += rows[b].cols.length;
+		}
+		if (numChoicesLong >= GridBeliefStore.MAX_ARRAY_SIZE || numTransitionsLong > GridBeliefStore.MAX_ARRAY_SIZE) {
+			throw new PrismException("Belief MDP too large (" + numChoicesLong + " choices, " + numTransitionsLong + " transitions) for the grid-based POMDP method; try a lower resolution");
+		}
+		int numChoices = (int) numChoicesLong;
+		int numTransitions = (int) numTransitionsLong;
+		BeliefMDPSparse beliefMDP = new BeliefMDPSparse();
+		beliefMDP.choiceStarts = new int[numGridPoints + 1];
+		beliefMDP.rowStarts = new int[numChoices + 1];
+		beliefMDP.cols = new int[numTransitions];
+		beliefMDP.probs = new double[numTransitions];
+		beliefMDP.consts = new double[numChoices];
+		int c = 0, j = 0;
+		for (int b = 0; b < numGridPoints; b++) {
+			BeliefMDPSparse row = rows[b];
+			rows[b] = null;
+			beliefMDP.choiceStarts[b] = c;
+			int n = row.consts.length;
+			for (int i = 0; i < n; i++) {
+				beliefMDP.rowStarts[c + i] = j + row.rowStarts[i];
+			}
+			System.arraycopy(row.consts, 0, beliefMDP.consts, c, n);
+			System.arraycopy(row.cols, 0, beliefMDP.cols, j, row.cols.length);
+			System.arraycopy(row.probs, 0, beliefMDP.probs, j, row.probs.length);
+			c += n;
+			j += row.cols.length;
+		}
+		beliefMDP.choiceStarts[numGridPoints] = c;
+		beliefMDP.rowStarts[numChoices] = j;
 		return beliefMDP;
 	}
 	
+	/**
+	 * Convert a single state of a belief MDP into sparse form, interpolating successor
+	 * beliefs over the grid points (see {@link #buildBeliefMDP(POMDP, MDPRewards, GridBeliefStore, BitSet, IntToDoubleFunction)}).
+	 * The result is stored as a {@link BeliefMDPSparse} with a single state
+	 * (for which {@code choiceStarts} is not used).
+	 */
+	protected BeliefMDPSparse buildBeliefMDPSparseState(BeliefMDPState beliefMDPState, GridBeliefStore gridPoints, BitSet unknownObs, IntToDoubleFunction knownValues)
+	{
+		int numChoices = beliefMDPState.trans.size();
+		BeliefMDPSparse row = new BeliefMDPSparse();
+		row.rowStarts = new int[numChoices + 1];
+		row.consts = new double[numChoices];
+		int[] cols = new int[16];
+		double[] probs = new double[16];
+		int j = 0;
+		ArrayList<double[]> subSimplex = new ArrayList<>();
+		for (int i = 0; i < numChoices; i++) {
+			row.rowStarts[i] = j;
+			double cnst = beliefMDPState.rewards.isEmpty() ? 0.0 : beliefMDPState.rewards.get(i);
+			for (Map.Entry<Belief, Double> entry : beliefMDPState.trans.get(i).entrySet()) {
+				double nextBeliefProb = entry.getValue();
+				Belief nextBelief = entry.getKey();
+				if (!unknownObs.get(nextBelief.so)) {
+					cnst += nextBeliefProb * knownValues.applyAsDouble(nextBelief.so);
+					continue;
+				}
+				subSimplex.clear();
+				double[] lambdas = new double[nextBelief.bu.length];
+				getSubSimplexAndLambdas(nextBelief.bu, subSimplex, lambdas, gridResolution);
+				for (int k = 0; k < lambdas.length; k++) {
+					if (lambdas[k] >= 1e-6) {
+						if (j == cols.length) {
+							cols = Arrays.copyOf(cols, 2 * j);
+							probs = Arrays.copyOf(probs, 2 * j);
+						}
+						cols[j] = gridPoints.indexOf(nextBelief.so, subSimplex.get(k));
+						probs[j] = nextBeliefProb * lambdas[k];
+						j++;
+					}
+				}
+			}
+			row.consts[i] = cnst;
+		}
+		row.rowStarts[numChoices] = j;
+		row.cols = Arrays.copyOf(cols, j);
+		row.probs = Arrays.copyOf(probs, j);
+		return row;
+	}
+	
+	/**
+	 * Solve a (sparse, grid-based) belief MDP using value iteration.
+	 * Values are computed into {@code vals}; on return, {@code vals_backUp}
+	 * contains a copy of the final values. Each iteration is performed in parallel.
+	 * Returns the number of iterations performed.
+	 */
+	protected int solveBeliefMDP(BeliefMDPSparse beliefMDP, double[] vals, double[] vals_backUp, boolean min) throws PrismException
+	{
+		// Start iterations
+		long timer = System.currentTimeMillis();
+		int unK = vals.length;
+		int iters = 0;
+		boolean done = false;
+		while (!done && iters < maxIters) {
+			// Iterate over all (unknown) grid points
+			IntStream.range(0, unK).parallel().forEach(b -> vals[b] = beliefMDP.backup(b, vals_backUp, min));
+			// Check termination
+			done = PrismUtils.doublesAreClose(vals, vals_backUp, termCritParam, termCrit == TermCrit.RELATIVE);
+			// back up
+			System.arraycopy(vals, 0, vals_backUp, 0, unK);
+			iters++;
+		}
+		// Non-convergence is an error (usually)
+		if (!done && errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + iters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+		timer = System.currentTimeMillis() - timer;
+		mainLog.print("Belief space value iteration (" + (min ? "min" : "max") + ")");
+		mainLog.println(" took " + iters + " iterations and " + timer / 1000.0 + " seconds.");
+		return iters;
+	}
+	
 	/**
 	 * Construct a single single state (belief) of a belief MDP, stored as a
 	 * list (over choices) of distributions over target beliefs.
@@ -675,7 +819,7 @@ public class POMDPModelChecker extends ProbModelChecker
 	/**
 	 * Compute the grid-based approximate value for a belief for probabilistic reachability
 	 */
-	protected double approximateReachProb(Belief belief, HashMap<Belief, Double> gridValues, BitSet targetObs, BitSet unknownObs)
+	protected double approximateReachProb(Belief belief, GridBeliefStore gridPoints, double[] gridValues, BitSet targetObs, BitSet unknownObs)
 	{
 		// 1 for target states
 		if (targetObs.get(belief.so)) {
@@ -687,14 +831,14 @@ public class POMDPModelChecker extends ProbModelChecker
 		}
 		// Otherwise approximate vie interpolation over grid points
 		else {
-			return interpolateOverGrid(belief, gridValues);
+			return interpolateOverGrid(belief, gridPoints, gridValues);
 		}
 	}
 	
 	/**
 	 * Compute the grid-based approximate value for a belief for reward reachability
 	 */
-	protected double approximateReachReward(Belief belief, HashMap<Belief, Double> gridValues, BitSet targetObs, BitSet infObs)
+	protected double approximateReachReward(Belief belief, GridBeliefStore gridPoints, double[] gridValues, BitSet targetObs, BitSet infObs)
 	{
 		// 0 for target states
 		if (targetObs.get(belief.so)) {
@@ -706,15 +850,15 @@ public class POMDPModelChecker extends ProbModelChecker
 		}
 		// Otherwise approximate vie interpolation over grid points
 		else {
-			return interpolateOverGrid(belief, gridValues);
+			return interpolateOverGrid(belief, gridPoints, gridValues);
 		}
 	}
 	
 	/**
 	 * Approximate the value for a belief {@code belief} by interpolating over values {@code gridValues}
-	 * for a representative set of beliefs whose convex hull is the full belief space.
+	 * for a representative set of beliefs {@code gridPoints} whose convex hull is the full belief space.
 	 */
-	protected double interpolateOverGrid(Belief belief, HashMap<Belief, Double> gridValues)
+	protected double interpolateOverGrid(Belief belief, GridBeliefStore gridPoints, double[] gridValues)
 	{
 		ArrayList<double[]> subSimplex = new ArrayList<>();
 		double[] lambdas = new double[belief.bu.length];
@@ -722,7 +866,7 @@ public class POMDPModelChecker extends ProbModelChecker
 		double val = 0;
 		for (int j = 0; j < lambdas.length; j++) {
 			if (lambdas[j] >= 1e-6) {
-				val += lambdas[j] * gridValues.get(new Belief(belief.so, subSimplex.get(j)));
+				val += lambdas[j] * gridValues[gridPoints.indexOf(belief.so, subSimplex.get(j))];
 			}
 		}
 		return val;
@@ -841,23 +985,6 @@ public class POMDPModelChecker extends ProbModelChecker
 		return result;
 	}
 
-	private ArrayList<ArrayList<Double>> fullAssignment(int length, int resolution)
-	{
-		ArrayList<ArrayList<Integer>> GPrime = assignGPrime(0, resolution, resolution, length);
-		ArrayList<ArrayList<Double>> result = new ArrayList<ArrayList<Double>>();
-		for (ArrayList<Integer> GPrimeInner : GPrime) {
-			ArrayList<Double> innerList = new ArrayList<>();
-			int i;
-			for (i = 0; i < length - 1; i++) {
-				int temp = GPrimeInner.get(i) - GPrimeInner.get(i + 1);
-				innerList.add((double) temp / resolution);
-			}
-			innerList.add((double) GPrimeInner.get(i) / resolution);
-			result.add(innerList);
-		}
-		return result;
-	}
-
 	private int[] getSortedPermutation(double[] inputArray)
 	{
 		int n = inputArray.length;
@@ -0,0 +1,463 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import parser.State;
+import parser.ast.ASTElement;
+import parser.ast.Command;
+import parser.ast.Expression;
+import parser.ast.ExpressionBinaryOp;
+import parser.ast.ExpressionFilter;
+import parser.ast.ExpressionLabel;
+import parser.ast.ExpressionProb;
+import parser.ast.ExpressionReward;
+import parser.ast.ExpressionSS;
+import parser.ast.ExpressionStrategy;
+import parser.ast.ExpressionTemporal;
+import parser.ast.ExpressionUnaryOp;
+import parser.ast.ExpressionVar;
+import parser.ast.Module;
+import parser.ast.ModulesFile;
+import parser.ast.PropertiesFile;
+import parser.ast.Update;
+import parser.ast.Updates;
+import parser.visitor.ASTTraverse;
+import prism.ModelInfo;
+import prism.PrismException;
+import prism.PrismLangException;
+import prism.PrismNotSupportedException;
+import simulator.ModulesFileModelGenerator;
+
+/**
+ * Ample-set partial-order reduction for explicit-state construction of MDPs from PRISM models.
+ * <br>
+ * In each state, rather than all enabled choices, a single choice (the "ample set") is explored,
+ * if this can be shown to be safe; otherwise the state is fully expanded. A choice is ample if:
+ * it stems from a single command c; c is invisible, i.e., writes no variable read by any atomic
+ * proposition of the property (so it cannot change one in any state where it is taken); every command dependent on c is disabled and cannot be enabled before c is executed;
+ * and (cycle proviso) none of its successors has been found before.
+ * <br>
+ * Two commands are independent if neither writes a variable that the other reads or writes
+ * (read/write sets are determined statically, from guards, probabilities and updates).
+ * A dependent command d is guaranteed to stay disabled if some conjunct of its guard is currently
+ * false and only refers to variables that are not written by any command independent of c,
+ * or if d synchronises on an action for which some other module cannot (in this sense) take part.
+ * With breadth-first exploration, every cycle contains a transition to a previously found state,
+ * so the cycle proviso ensures that some state on every cycle is fully expanded.
+ * <br>
+ * Using singleton ample sets, this preserves the minimum/maximum probabilities of
+ * next-free LTL properties, see {@link #getAtomicPropositions}.
+ */
+public class PartialOrderReduction
+{
+	/** Model generator, whose current state is being explored */
+	private ModulesFileModelGenerator<?> modelGen;
+	/** Index of each command, keyed by its Updates object (as referred to by the generator's choices) */
+	private Map<Updates, Integer> commandIndices = new IdentityHashMap<>();
+	/** For each command, the commands dependent on it */
+	private int[][] dependents;
+	/** For each synchronising command, the commands of each other module with the same action */
+	private int[][][] partners;
+	/** For each command c and (some) other commands, the guard conjuncts that no command independent of c can change */
+	private Expression[][][] stableConjuncts;
+	/** For each command, whether it can ever form an ample set (it is invisible and its dependents can be blocked) */
+	private boolean[] candidate;
+
+	/**
+	 * Create a partial-order reduction for the model generated by {@code modelGen},
+	 * preserving properties over the atomic propositions {@code atomicProps}.
+	 */
+	public PartialOrderReduction(ModulesFileModelGenerator<?> modelGen, List<Expression> atomicProps) throws PrismException
+	{
+		this.modelGen = modelGen;
+		// Collect commands, with their modules, read/write sets and guard conjuncts
+		ModulesFile modulesFile = modelGen.getModulesFile();
+		int numModules = modulesFile.getNumModules();
+		List<Command> commands = new ArrayList<>();
+		List<Integer> modules = new ArrayList<>();
+		for (int m = 0; m < numModules; m++) {
+			for (Command command : modulesFile.getModule(m).getCommands()) {
+				commandIndices.put(command.getUpdates(), commands.size());
+				commands.add(command);
+				modules.add(m);
+			}
+		}
+		int numCommands = commands.size();
+		BitSet reads[] = new BitSet[numCommands];
+		BitSet writes[] = new BitSet[numCommands];
+		List<List<Expression>> conjuncts = new ArrayList<>(numCommands);
+		for (int c = 0; c < numCommands; c++) {
+			Command command = commands.get(c);
+			reads[c] = getVars(command.getGuard());
+			writes[c] = new BitSet();
+			Updates ups = command.getUpdates();
+			for (int i = 0; i < ups.getNumUpdates(); i++) {
+				if (ups.getProbability(i) != null) {
+					reads[c].or(getVars(ups.getProbability(i)));
+				}
+				Update up = ups.getUpdate(i);
+				for (int j = 0; j < up.getNumElements(); j++) {
+					writes[c].set(up.getVarIndex(j));
+					reads[c].or(getVars(up.getExpression(j)));
+				}
+			}
+			List<Expression> list = new ArrayList<>();
+			splitConjunction(command.getGuard(), list);
+			conjuncts.add(list);
+		}
+		// Find the synchronisation partners of each command
+		partners = new int[numCommands][][];
+		for (int c = 0; c < numCommands; c++) {
+			String synch = commands.get(c).getSynch();
+			List<int[]> groups = new ArrayList<>();
+			for (int m = 0; m < numModules; m++) {
+				Module module = modulesFile.getModule(m);
+				if (m == modules.get(c) || "".equals(synch) || !module.usesSynch(synch)) {
+					continue;
+				}
+				List<Integer> group = new ArrayList<>();
+				for (int d = 0; d < numCommands; d++) {
+					if (modules.get(d) == m && synch.equals(commands.get(d).getSynch())) {
+						group.add(d);
+					}
+				}
+				groups.add(group.stream().mapToInt(Integer::intValue).toArray());
+			}
+			partners[c] = groups.toArray(new int[0][]);
+		}
+		// Find which commands may change an atomic proposition
+		BitSet propVars = new BitSet();
+		for (Expression prop : atomicProps) {
+			propVars.or(getVars(prop));
+		}
+		boolean[] visible = new boolean[numCommands];
+		for (int c = 0; c < numCommands; c++) {
+			visible[c] = writes[c].intersects(propVars);
+		}
+		// Compute dependencies and, for each command, which guard conjuncts of its dependents
+		// (and their synchronisation partners) are stable
+		dependents = new int[numCommands][];
+		stableConjuncts = new Expression[numCommands][][];
+		candidate = new boolean[numCommands];
+		for (int c = 0; c < numCommands; c++) {
+			List<Integer> deps = new ArrayList<>();
+			BitSet writesIndep = new BitSet();
+			for (int d = 0; d < numCommands; d++) {
+				if (d == c) {
+					continue;
+				}
+				if (writes[c].intersects(reads[d]) || writes[c].intersects(writes[d]) || writes[d].intersects(reads[c])) {
+					deps.add(d);
+				} else {
+					writesIndep.or(writes[d]);
+				}
+			}
+			dependents[c] = deps.stream().mapToInt(Integer::intValue).toArray();
+			stableConjuncts[c] = new Expression[numCommands][];
+			// Invisibility must hold in every state where c can be taken, not just the current one,
+			// so a command writing any variable of an atomic proposition is never ample
+			candidate[c] = !visible[c];
+			for (int d : dependents[c]) {
+				boolean canBlock = computeStableConjuncts(c, d, conjuncts, writesIndep);
+				for (int[] group : partners[d]) {
+					boolean groupCanBlock = true;
+					for (int e : group) {
+						groupCanBlock &= computeStableConjuncts(c, e, conjuncts, writesIndep);
+					}
+					canBlock |= groupCanBlock;
+				}
+				// A dependent command that might always become enabled rules c out altogether
+				if (!canBlock) {
+					candidate[c] = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compute (if not done already) the guard conjuncts of command {@code d} that are stable with respect
+	 * to command {@code c}, i.e., do not refer to variables in {@code writesIndep}. Returns true if there are any.
+	 */
+	private boolean computeStableConjuncts(int c, int d, List<List<Expression>> conjuncts, BitSet writesIndep) throws PrismLangException
+	{
+		if (stableConjuncts[c][d] == null) {
+			List<Expression> stable = new ArrayList<>();
+			for (Expression conj : conjuncts.get(d)) {
+				if (!getVars(conj).intersects(writesIndep)) {
+					stable.add(conj);
+				}
+			}
+			stableConjuncts[c][d] = stable.toArray(new Expression[0]);
+		}
+		return stableConjuncts[c][d].length > 0;
+	}
+
+	/**
+	 * Get the index of a choice forming an ample set for {@code state},
+	 * which must be the state currently being explored by the model generator,
+	 * or -1 if the state needs to be fully expanded.
+	 * @param state The state being explored
+	 * @param states The states found so far (for the cycle proviso)
+	 */
+	public int getAmpleChoice(State state, StateStorage<State> states) throws PrismException
+	{
+		int numChoices = modelGen.getNumChoices();
+		for (int i = 0; i < numChoices; i++) {
+			Updates ups = modelGen.getChoiceCommandUpdates(i);
+			Integer c = ups == null ? null : commandIndices.get(ups);
+			if (c != null && candidate[c] && dependentsBlocked(c, state) && successorsNew(i, states)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Check that, in {@code state}, all commands dependent on command {@code c}
+	 * are disabled in a way that commands independent of c cannot change.
+	 */
+	private boolean dependentsBlocked(int c, State state) throws PrismLangException
+	{
+		for (int d : dependents[c]) {
+			boolean blocked = hasFalseConjunct(stableConjuncts[c][d], state);
+			for (int k = 0; k < partners[d].length && !blocked; k++) {
+				blocked = true;
+				for (int e : partners[d][k]) {
+					if (!hasFalseConjunct(stableConjuncts[c][e], state)) {
+						blocked = false;
+						break;
+					}
+				}
+			}
+			if (!blocked) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether any of the (non-null) expressions {@code conjs} is false in {@code state}.
+	 */
+	private static boolean hasFalseConjunct(Expression[] conjs, State state) throws PrismLangException
+	{
+		if (conjs != null) {
+			for (Expression conj : conjs) {
+				if (!conj.evaluateBoolean(state)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check that the successors of choice {@code i} of the current state
+	 * have not been found yet (cycle proviso).
+	 * Invisibility needs no check here: candidate commands never change an atomic proposition.
+	 */
+	private boolean successorsNew(int i, StateStorage<State> states) throws PrismException
+	{
+		int numTransitions = modelGen.getNumTransitions(i);
+		for (int j = 0; j < numTransitions; j++) {
+			if (states.contains(modelGen.computeTransitionTarget(i, j))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the atomic propositions of property {@code expr}, i.e., the maximal state formulas
+	 * within its path formulas (with labels and constants expanded), to be preserved by partial-order reduction.
+	 * Throws an exception if the property is not preserved by partial-order reduction,
+	 * i.e., unless its path formulas are next-free and unbounded, with no nested P, R, S or strategy operators.
+	 * @param modelInfo Model info (for constants)
+	 * @param propertiesFile Properties file (for labels, constants and property references)
+	 * @param expr The property
+	 */
+	public static List<Expression> getAtomicPropositions(ModelInfo modelInfo, PropertiesFile propertiesFile, Expression expr) throws PrismException
+	{
+		if (Expression.containsMultiObjective(expr)) {
+			throw new PrismNotSupportedException("Partial-order reduction does not support multi-objective properties");
+		}
+		Expression exprExp = (Expression) expr.deepCopy().expandPropRefsAndLabels(propertiesFile, propertiesFile.getCombinedLabelList());
+		exprExp = (Expression) exprExp.replaceConstants(modelInfo.getConstantValues());
+		exprExp = (Expression) exprExp.replaceConstants(propertiesFile.getConstantValues());
+		List<Expression> atomicProps = new ArrayList<>();
+		try {
+			exprExp.accept(new ASTTraverse()
+			{
+				private int probDepth = 0;
+
+				public void visitPre(ExpressionProb e) throws PrismLangException
+				{
+					if (probDepth++ > 0)
+						throw new PrismLangException("nested P operators");
+				}
+
+				public void visitPost(ExpressionProb e) throws PrismLangException
+				{
+					probDepth--;
+				}
+
+				public void visitPre(ExpressionTemporal e) throws PrismLangException
+				{
+					if (e.getOperator() == ExpressionTemporal.P_X)
+						throw new PrismLangException("the next operator");
+					if (e.hasBounds())
+						throw new PrismLangException("time-bounded operators");
+					if (e.getOperand1() != null)
+						collectAtomicPropositions(e.getOperand1(), atomicProps);
+					if (e.getOperand2() != null)
+						collectAtomicPropositions(e.getOperand2(), atomicProps);
+				}
+
+				public void visitPre(ExpressionReward e) throws PrismLangException
+				{
+					throw new PrismLangException("R operators");
+				}
+
+				public void visitPre(ExpressionSS e) throws PrismLangException
+				{
+					throw new PrismLangException("S operators");
+				}
+
+				public void visitPre(ExpressionStrategy e) throws PrismLangException
+				{
+					throw new PrismLangException("strategy operators");
+				}
+
+				public void visitPre(ExpressionFilter e) throws PrismLangException
+				{
+					// Only states of the reduced model are kept, so filters can only refer to the initial states
+					if (!isSubsetOfInit(e.getFilter()))
+						throw new PrismLangException("filters other than over initial states");
+				}
+			});
+		} catch (PrismLangException e) {
+			throw new PrismNotSupportedException("Partial-order reduction does not support " + e.getMessage());
+		}
+		return atomicProps;
+	}
+
+	/**
+	 * Check whether a (filter) state formula syntactically implies the "init" label.
+	 */
+	private static boolean isSubsetOfInit(Expression expr)
+	{
+		if (expr instanceof ExpressionLabel) {
+			return ((ExpressionLabel) expr).isInitLabel();
+		} else if (Expression.isParenth(expr)) {
+			return isSubsetOfInit(((ExpressionUnaryOp) expr).getOperand());
+		} else if (Expression.isAnd(expr)) {
+			return isSubsetOfInit(((ExpressionBinaryOp) expr).getOperand1()) || isSubsetOfInit(((ExpressionBinaryOp) expr).getOperand2());
+		}
+		return false;
+	}
+
+	/**
+	 * Add the maximal state formulas of (part of) a path formula to {@code atomicProps}.
+	 * Operands of nested temporal operators are left to be collected separately.
+	 */
+	private static void collectAtomicPropositions(Expression expr, List<Expression> atomicProps) throws PrismLangException
+	{
+		// Negations/parentheses do not affect whether a proposition changes, so are stripped off
+		if (Expression.isNot(expr) || Expression.isParenth(expr)) {
+			collectAtomicPropositions(((ExpressionUnaryOp) expr).getOperand(), atomicProps);
+		} else if (!containsTemporal(expr)) {
+			expr.accept(new ASTTraverse()
+			{
+				public void visitPost(ExpressionLabel e) throws PrismLangException
+				{
+					throw new PrismLangException("label \"" + e.getName() + "\" in path formulas");
+				}
+			});
+			for (Expression prop : atomicProps) {
+				if (prop.toString().equals(expr.toString())) {
+					return;
+				}
+			}
+			atomicProps.add(expr);
+		} else if (expr instanceof ExpressionBinaryOp) {
+			collectAtomicPropositions(((ExpressionBinaryOp) expr).getOperand1(), atomicProps);
+			collectAtomicPropositions(((ExpressionBinaryOp) expr).getOperand2(), atomicProps);
+		} else if (!(expr instanceof ExpressionTemporal)) {
+			throw new PrismLangException("path formula " + expr);
+		}
+	}
+
+	/**
+	 * Check whether an expression contains a temporal operator.
+	 */
+	private static boolean containsTemporal(Expression expr)
+	{
+		try {
+			expr.accept(new ASTTraverse()
+			{
+				public void visitPre(ExpressionTemporal e) throws PrismLangException
+				{
+					throw new PrismLangException("");
+				}
+			});
+		} catch (PrismLangException e) {
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Get the (indices of) the variables in an expression.
+	 */
+	private static BitSet getVars(ASTElement expr) throws PrismLangException
+	{
+		BitSet vars = new BitSet();
+		expr.accept(new ASTTraverse()
+		{
+			public void visitPost(ExpressionVar e) throws PrismLangException
+			{
+				vars.set(e.getIndex());
+			}
+		});
+		return vars;
+	}
+
+	/**
+	 * Split an expression into its top-level conjuncts, adding them to {@code list}.
+	 */
+	private static void splitConjunction(Expression expr, List<Expression> list)
+	{
+		if (Expression.isAnd(expr)) {
+			splitConjunction(((ExpressionBinaryOp) expr).getOperand1(), list);
+			splitConjunction(((ExpressionBinaryOp) expr).getOperand2(), list);
+		} else if (Expression.isParenth(expr)) {
+			splitConjunction(((ExpressionUnaryOp) expr).getOperand(), list);
+		} else {
+			list.add(expr);
+		}
+	}
+}
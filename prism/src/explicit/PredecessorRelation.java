@@ -26,13 +26,12 @@
 
 package explicit;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Stack;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
 
 import prism.PrismComponent;
 import common.IterableBitSet;
@@ -42,6 +41,9 @@ import common.IterableBitSet;
  * <p>
  * As Model only provide easy access to successors of states,
  * the predecessor relation is computed and stored for subsequent efficient access.
+ * The relation is stored in compressed sparse row (CSR) form, i.e., as a single array
+ * of predecessor state indices, grouped by successor state (and in ascending order within each group).
+ * It is built with a parallel counting sort over the transitions of the model.
  * <p>
  * Note: Naturally, if the model changes, the predecessor relation
  * has to be recomputed to remain accurate.
@@ -49,9 +51,14 @@ import common.IterableBitSet;
 public class PredecessorRelation
 {
 	/**
-	 * pre[i] provides the list of predecessors of state with index i.
+	 * The predecessors of state i are preStates[preStarts[i]] ... preStates[preStarts[i+1]-1].
 	 */
-	List<ArrayList<Integer>> pre;
+	int[] preStarts;
+
+	/**
+	 * Predecessor states, grouped by successor state.
+	 */
+	int[] preStates;
 
 	/**
 	 * Constructor. Computes the predecessor relation for the given model
@@ -61,12 +68,6 @@ public class PredecessorRelation
 	 */
 	public PredecessorRelation(Model<?> model)
 	{
-		pre = new ArrayList<ArrayList<Integer>>(model.getNumStates());
-		// construct the (empty) array list for all states
-		for (int s = 0; s < model.getNumStates(); s++) {
-			pre.add(s, new ArrayList<Integer>());
-		}
-
 		compute(model);
 	}
 
@@ -75,19 +76,46 @@ public class PredecessorRelation
 	{
 		int n = model.getNumStates();
 
-		for (int s = 0; s < n; s++) {
-			Iterator<Integer> it = model.getSuccessorsIterator(s);
+		// Count the predecessors of each state
+		// (As getSuccessorsIterator guarantees that there are no duplicates
+		// in the successors, each predecessor is counted exactly once.)
+		AtomicIntegerArray counts = new AtomicIntegerArray(n + 1);
+		IntStream.range(0, n).parallel().forEach(s -> {
+			PrimitiveIterator.OfInt it = successors(model, s);
+			while (it.hasNext()) {
+				counts.incrementAndGet(it.nextInt() + 1);
+			}
+		});
+
+		// Prefix sum gives the start of each group
+		preStarts = new int[n + 1];
+		for (int t = 0; t < n; t++) {
+			preStarts[t + 1] = preStarts[t] + counts.get(t + 1);
+		}
+
+		// Place each predecessor in its group, then sort groups
+		// (so that predecessors are in ascending order, as when built sequentially)
+		AtomicIntegerArray next = new AtomicIntegerArray(preStarts);
+		preStates = new int[preStarts[n]];
+		IntStream.range(0, n).parallel().forEach(s -> {
+			PrimitiveIterator.OfInt it = successors(model, s);
 			while (it.hasNext()) {
-				Integer successor = it.next();
-
-				// Add the current state s to pre[successor].
-				//
-				// As getSuccessorsIterator guarantees that
-				// there are no duplicates in the successors,
-				// s will be added to successor exactly once.
-				pre.get(successor).add(s);
+				preStates[next.getAndIncrement(it.nextInt())] = s;
 			}
+		});
+		IntStream.range(0, n).parallel().forEach(t -> Arrays.sort(preStates, preStarts[t], preStarts[t + 1]));
+	}
+
+	/**
+	 * Get an iterator over the (distinct) successors of state {@code s} of a model.
+	 */
+	static PrimitiveIterator.OfInt successors(Model<?> model, int s)
+	{
+		Iterator<Integer> it = model.getSuccessorsIterator(s);
+		if (it instanceof PrimitiveIterator.OfInt) {
+			return (PrimitiveIterator.OfInt) it;
 		}
+		return SuccessorsIterator.from(it, true);
 	}
 
 	/**
@@ -95,15 +123,31 @@ public class PredecessorRelation
 	 */
 	public Iterable<Integer> getPre(int s)
 	{
-		return pre.get(s);
+		return () -> getPredecessorsIterator(s);
 	}
 
 	/**
 	 * Get an Iterator over the predecessor states of {@code s}.
 	 */
-	public Iterator<Integer> getPredecessorsIterator(int s)
+	public PrimitiveIterator.OfInt getPredecessorsIterator(int s)
+	{
+		return Arrays.stream(preStates, preStarts[s], preStarts[s + 1]).iterator();
+	}
+
+	/**
+	 * Get the number of predecessor states of {@code s}.
+	 */
+	public int getNumPredecessors(int s)
 	{
-		return getPre(s).iterator();
+		return preStarts[s + 1] - preStarts[s];
+	}
+
+	/**
+	 * Get the {@code i}th predecessor state of {@code s}.
+	 */
+	public int getPredecessor(int s, int i)
+	{
+		return preStates[preStarts[s] + i];
 	}
 
 	/**
@@ -131,7 +175,7 @@ public class PredecessorRelation
 
 
 	/**
-	 * Computes the set Pre*(target) via a DFS, i.e., all states that
+	 * Computes the set Pre*(target) via a (parallel) breadth-first search, i.e., all states that
 	 * are in {@code target} or can reach {@code target} via one or more transitions
 	 * from states contained in {@code remain}.
 	 * <br/>
@@ -151,47 +195,23 @@ public class PredecessorRelation
 	 */
 	public BitSet calculatePreStar(BitSet remain, BitSet target, BitSet absorbing)
 	{
-		BitSet result;
-
-		// all target states are in Pre*
-		result = (BitSet)target.clone();
-
-		// the stack of states whose predecessors have to be considered
-		Stack<Integer> todo = new Stack<Integer>();
-
-		// initial todo: all the target states
-		for (Integer s : IterableBitSet.getSetBits(target)) {
-			todo.add(s);
-		};
-
-		// the set of states that are finished
-		BitSet done = new BitSet();
-
-		while (!todo.isEmpty()) {
-			int s = todo.pop();
-			// already considered?
-			if (done.get(s)) continue;
-
-			done.set(s);
-
+		// all target states are in Pre*;
+		// then search backwards, level by level (in parallel)
+		FrontierSearch search = new FrontierSearch(preStarts.length - 1);
+		return search.run(target, (s, srch, next) -> {
 			// for each predecessor in the graph
-			for (int p : getPre(s)) {
+			for (int i = preStarts[s], end = preStarts[s + 1]; i < end; i++) {
+				int p = preStates[i];
 				if (absorbing != null && absorbing.get(p)) {
 					// predecessor is absorbing, thus the edge is considered to not exist
 					continue;
 				}
-				if (remain == null || remain.get(p)) {
+				if ((remain == null || remain.get(p)) && srch.claim(p)) {
 					// can reach result (and is in remain)
-					result.set(p);
-					if (!done.get(p)) {
-						// add to stack
-						todo.add(p);
-					}
+					next.accept(p);
 				}
 			}
-		}
-
-		return result;
+		});
 	}
 
 	/**
@@ -224,20 +244,22 @@ public class PredecessorRelation
 
 		BitSet result = (BitSet) target.clone();
 
-		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		int[] queue = new int[preStarts.length - 1];
+		int head = 0, tail = 0;
 		for (int s : IterableBitSet.getSetBits(target)) {
 			witness[s] = s; // self-sentinel: already at target
-			queue.add(s);
+			queue[tail++] = s;
 		}
 
-		while (!queue.isEmpty()) {
-			int s = queue.poll();
-			for (int p : getPre(s)) {
+		while (head < tail) {
+			int s = queue[head++];
+			for (int i = preStarts[s], end = preStarts[s + 1]; i < end; i++) {
+				int p = preStates[i];
 				if (absorbing != null && absorbing.get(p)) continue;
 				if (witness[p] == -1 && (remain == null || remain.get(p))) {
 					witness[p] = s; // to go forward from p toward B, take the edge p -> s
 					result.set(p);
-					queue.add(p);
+					queue[tail++] = p;
 				}
 			}
 		}
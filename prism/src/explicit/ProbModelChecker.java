@@ -227,6 +227,10 @@ public class ProbModelChecker extends NonProbModelChecker
 			} else {
 				throw new PrismNotSupportedException("Explicit engine does not support MDP solution method \"" + s + "\"");
 			}
+			// For games, policy iteration is done as strategy iteration
+			if (getMDPSolnMethod() == MDPSolnMethod.POLICY_ITERATION) {
+				setSolnMethod(SolnMethod.POLICY_ITERATION);
+			}
 			// PRISM_IMDP_SOLN_METHOD
 			s = settings.getString(PrismSettings.PRISM_IMDP_SOLN_METHOD);
 			if (s.equals("Value iteration")) {
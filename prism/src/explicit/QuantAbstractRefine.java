@@ -345,6 +345,10 @@ public abstract class QuantAbstractRefine extends PrismComponent
 			setOptimise(false);
 		} else if (opt.equals("exportdot")) {
 			setExportDot(true);
+		} else if (opt.equals("stratiter")) {
+			getModelChecker().setSolnMethod(ProbModelChecker.SolnMethod.POLICY_ITERATION);
+		} else if (opt.equals("valiter")) {
+			getModelChecker().setSolnMethod(ProbModelChecker.SolnMethod.VALUE_ITERATION);
 		} else if (opt.equals("above")) {
 			setAbove(true);
 		} else if (opt.equals("below")) {
@@ -383,8 +387,11 @@ public abstract class QuantAbstractRefine extends PrismComponent
 		mainLog.println(" * opt - use optimisations");
 		mainLog.println(" * noopt - disable optimisations");
 		mainLog.println(" * exportdot - export dot files for each refinement");
+		mainLog.println(" * stratiter - use strategy iteration to solve games (where possible)");
+		mainLog.println(" * valiter - use value iteration to solve games");
 		mainLog.println(" * above - start numerical soluton from above");
 		mainLog.println(" * below - start numerical soluton from below");
+		mainLog.println(" * nosubsumption - (PTAs) disable zone inclusion checks in forwards reachability");
 	}
 	
 	// Abstract methods that must be implemented for abstraction-refinement loop
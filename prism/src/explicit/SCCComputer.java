@@ -30,10 +30,12 @@ package explicit;
 
 import java.util.BitSet;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.function.IntPredicate;
 
 import prism.PrismComponent;
 import prism.PrismException;
+import prism.PrismSettings;
 
 /**
  * Abstract class for (explicit) classes that compute (B)SCCs,
@@ -44,14 +46,19 @@ public abstract class SCCComputer extends PrismComponent
 	/** The consumer */
 	protected SCCConsumer consumer;
 
+	/** Successor function to use instead of the model's transitions (null: use the model) */
+	protected IntFunction<SuccessorsIterator> successors;
+
 	// Method used for finding (B)SCCs
 	public enum SCCMethod {
-		TARJAN;
+		TARJAN, FORWARD_BACKWARD;
 		public String fullName()
 		{
 			switch (this) {
 			case TARJAN:
 				return "Tarjan";
+			case FORWARD_BACKWARD:
+				return "Forward-backward";
 			default:
 				return this.toString();
 			}
@@ -63,7 +70,10 @@ public abstract class SCCComputer extends PrismComponent
 	 */
 	public static SCCComputer createSCCComputer(PrismComponent parent, Model<?> model, SCCConsumer consumer) throws PrismException
 	{
-		// Only one algorithm implemented currently
+		PrismSettings settings = parent == null ? null : parent.getSettings();
+		if (settings != null && settings.getString(PrismSettings.PRISM_EXPLICIT_SCC_METHOD).equals(SCCMethod.FORWARD_BACKWARD.fullName())) {
+			return new SCCComputerForwardBackward(parent, model, consumer);
+		}
 		return new SCCComputerTarjan(parent, model, consumer);
 	}
 
@@ -167,6 +177,25 @@ public abstract class SCCComputer extends PrismComponent
 	 */
 	public abstract void computeSCCs(boolean filterTrivialSCCs, IntPredicate restrictStates) throws PrismException;
 
+	/**
+	 * Compute SCCs for the graph whose edges are given by {@code successors},
+	 * rather than for the model's transition graph, e.g., to only consider some choices of each state.
+	 * The states (and the restriction to relevant states) remain those of the model.
+	 * @param successors successor function ({@code null}: use the model's transitions)
+	 */
+	public void setSuccessors(IntFunction<SuccessorsIterator> successors)
+	{
+		this.successors = successors;
+	}
+
+	/**
+	 * Get the successors of state {@code s} in the graph whose SCCs are computed.
+	 */
+	protected SuccessorsIterator getSuccessors(Model<?> model, int s)
+	{
+		return successors == null ? model.getSuccessors(s) : successors.apply(s);
+	}
+
 	/**
 	 * Returns true if {@code state}, assumed to be an SCC, is a trivial SCC,
 	 * i.e., has no self lopp.
@@ -176,6 +205,12 @@ public abstract class SCCComputer extends PrismComponent
 	protected boolean isTrivialSCC(Model<?> model, int state)
 	{
 		// false if there is a self-loop, i.e., a successor t == state
-		return !(model.someSuccessorsMatch(state, (t) -> {return t == state;}));
+		SuccessorsIterator it = getSuccessors(model, state);
+		while (it.hasNext()) {
+			if (it.nextInt() == state) {
+				return false;
+			}
+		}
+		return true;
 	}
 }
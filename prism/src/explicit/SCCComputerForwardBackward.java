@@ -0,0 +1,489 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismSettings;
+
+/**
+ * Parallel SCC computation using forward-backward decomposition with trimming.
+ * <br>
+ * The states are split into disjoint partitions, each processed by a separate task:
+ * states with no predecessor or no successor in their partition are first removed
+ * as trivial SCCs ("trimming"); then, for a pivot state, the states reachable
+ * forwards (F) and backwards (B) within the partition are found, by a level-synchronous
+ * parallel search. F &cap; B is the SCC of the pivot, and F\B, B\F and the remaining states
+ * form three new partitions that can be decomposed independently.
+ * Small partitions are handled sequentially with Tarjan's algorithm.
+ * <br>
+ * SCCs are reported once the decomposition is complete, in the same (reverse topological) order
+ * as for {@link SCCComputerTarjan}, i.e., each SCC is reported after all SCCs reachable from it,
+ * so the result can be used for topological ordering (see {@link SCCInfo}).
+ */
+public class SCCComputerForwardBackward extends SCCComputer
+{
+	/** Partitions with at most this many states are decomposed sequentially (using Tarjan's algorithm) */
+	private static final int SEQUENTIAL_THRESHOLD = 4096;
+	/** Search frontiers with more than this many states are expanded in parallel */
+	private static final int PARALLEL_FRONTIER = 1024;
+	/** Maximum number of trimming rounds for a partition */
+	private static final int MAX_TRIM_ROUNDS = 3;
+
+	/* The model to compute (B)SCCs for */
+	private Model<?> model;
+	/* Number of nodes (model states) */
+	private int numNodes;
+	/* Number of threads to use */
+	private int numThreads;
+
+	/* Edges (between relevant states only), stored in compressed sparse row form */
+	private int[] succStarts;
+	private int[] succs;
+	private int[] predStarts;
+	private int[] preds;
+
+	/* Partition index of each node (>= 0), -1 if not relevant or (-2 - i) if in the ith SCC found */
+	private AtomicIntegerArray partition;
+	/* Number of partitions created so far */
+	private AtomicInteger numPartitions;
+	/* Number of SCCs found so far */
+	private AtomicInteger numSCCs;
+	/* Per-node discovery index/lowlink for Tarjan's algorithm (partitions are disjoint, so these can be shared) */
+	private int[] tarjanIndex;
+	private int[] tarjanLow;
+
+	/**
+	 * Build (B)SCC computer for a given model.
+	 */
+	public SCCComputerForwardBackward(PrismComponent parent, Model<?> model, SCCConsumer consumer) throws PrismException
+	{
+		super(parent, consumer);
+		this.model = model;
+		this.numNodes = model.getNumStates();
+		numThreads = getSettings() == null ? 0 : getSettings().getInteger(PrismSettings.PRISM_EXPLICIT_SCC_THREADS);
+		if (numThreads == 0) {
+			numThreads = Runtime.getRuntime().availableProcessors();
+		}
+	}
+
+	// Methods for SCCComputer interface
+
+	@Override
+	public void computeSCCs(boolean filterTrivialSCCs, IntPredicate restrict) throws PrismException
+	{
+		consumer.notifyStart(model);
+		// All parallel work (including parallel streams) is done in this pool, not the common one,
+		// so that the number of threads used is as specified
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		try {
+			buildGraph(restrict, pool);
+			partition = new AtomicIntegerArray(numNodes);
+			numPartitions = new AtomicInteger(1);
+			numSCCs = new AtomicInteger(0);
+			tarjanIndex = new int[numNodes];
+			tarjanLow = new int[numNodes];
+			forEachNode(pool, s -> partition.set(s, restrict == null || restrict.test(s) ? 0 : -1));
+			int[] states = pool.submit(() -> IntStream.range(0, numNodes).parallel().filter(s -> partition.get(s) == 0).toArray()).join();
+			pool.invoke(new DecompositionTask(0, states));
+		} finally {
+			pool.shutdown();
+		}
+		tarjanIndex = tarjanLow = null;
+
+		reportSCCs(filterTrivialSCCs);
+		succStarts = succs = predStarts = preds = null;
+		partition = null;
+		consumer.notifyDone();
+	}
+
+	// SCC Computation
+
+	/**
+	 * Store the successors and predecessors of each relevant state (within the relevant states),
+	 * working in parallel in {@code pool}.
+	 */
+	private void buildGraph(IntPredicate restrict, ForkJoinPool pool) throws PrismException
+	{
+		IntPredicate relevant = restrict == null ? s -> true : restrict;
+
+		// Successors: count, then place (in parallel)
+		int[] counts = new int[numNodes];
+		forEachNode(pool, s -> {
+			if (relevant.test(s)) {
+				int count = 0;
+				SuccessorsIterator it = getSuccessors(model, s);
+				while (it.hasNext()) {
+					if (relevant.test(it.nextInt())) {
+						count++;
+					}
+				}
+				counts[s] = count;
+			}
+		});
+		succStarts = prefixSums(counts);
+		succs = new int[succStarts[numNodes]];
+		forEachNode(pool, s -> {
+			if (relevant.test(s)) {
+				int k = succStarts[s];
+				SuccessorsIterator it = getSuccessors(model, s);
+				while (it.hasNext()) {
+					int t = it.nextInt();
+					if (relevant.test(t)) {
+						succs[k++] = t;
+					}
+				}
+			}
+		});
+
+		// Predecessors, derived from the successors (so multiplicities match)
+		AtomicIntegerArray predCounts = new AtomicIntegerArray(numNodes);
+		forEachNode(pool, s -> {
+			for (int k = succStarts[s]; k < succStarts[s + 1]; k++) {
+				predCounts.incrementAndGet(succs[k]);
+			}
+		});
+		for (int t = 0; t < numNodes; t++) {
+			counts[t] = predCounts.get(t);
+		}
+		predStarts = prefixSums(counts);
+		AtomicIntegerArray next = new AtomicIntegerArray(predStarts);
+		preds = new int[predStarts[numNodes]];
+		forEachNode(pool, s -> {
+			for (int k = succStarts[s]; k < succStarts[s + 1]; k++) {
+				preds[next.getAndIncrement(succs[k])] = s;
+			}
+		});
+	}
+
+	/**
+	 * Apply {@code action} to each node (in parallel, in {@code pool}).
+	 */
+	private void forEachNode(ForkJoinPool pool, IntConsumer action)
+	{
+		pool.submit(() -> IntStream.range(0, numNodes).parallel().forEach(action)).join();
+	}
+
+	/**
+	 * Compute the start index of each group of {@code counts.length} groups with the given sizes.
+	 */
+	private static int[] prefixSums(int[] counts) throws PrismException
+	{
+		int[] starts = new int[counts.length + 1];
+		long sum = 0;
+		for (int i = 0; i < counts.length; i++) {
+			sum += counts[i];
+			if (sum > Integer.MAX_VALUE - 8) {
+				throw new PrismException("Too many transitions for forward-backward SCC computation");
+			}
+			starts[i + 1] = (int) sum;
+		}
+		return starts;
+	}
+
+	/**
+	 * Task to decompose one partition into SCCs.
+	 */
+	private class DecompositionTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** Partition index */
+		private final int p;
+		/** States in the partition */
+		private final int[] states;
+
+		DecompositionTask(int p, int[] states)
+		{
+			this.p = p;
+			this.states = states;
+		}
+
+		@Override
+		protected void compute()
+		{
+			// The third partition created (the remaining states) is handled by this task,
+			// so that the recursion depth only grows for the other two
+			List<DecompositionTask> subtasks = new ArrayList<>();
+			int[] remaining = states;
+			while (true) {
+				remaining = trim(p, remaining);
+				if (remaining.length == 0) {
+					break;
+				}
+				if (remaining.length <= SEQUENTIAL_THRESHOLD) {
+					tarjan(p, remaining);
+					break;
+				}
+
+				// Forward search from pivot: moves states to partition fwd
+				int pivot = remaining[remaining.length / 2];
+				int fwd = numPartitions.getAndIncrement();
+				int bwd = numPartitions.getAndIncrement();
+				int scc = toFinal(numSCCs.getAndIncrement());
+				partition.set(pivot, fwd);
+				int[] fwdStates = search(pivot, succStarts, succs, t -> partition.compareAndSet(t, p, fwd));
+
+				// Backward search from pivot: states also found forwards form its SCC, others move to partition bwd
+				partition.set(pivot, scc);
+				int[] bwdStates = search(pivot, predStarts, preds, t -> partition.compareAndSet(t, fwd, scc) || partition.compareAndSet(t, p, bwd));
+
+				// Decompose the three remaining partitions independently
+				int[] fwdOnly = IntStream.of(fwdStates).filter(s -> partition.get(s) == fwd).toArray();
+				int[] bwdOnly = IntStream.of(bwdStates).filter(s -> partition.get(s) == bwd).toArray();
+				for (DecompositionTask subtask : new DecompositionTask[] { new DecompositionTask(fwd, fwdOnly), new DecompositionTask(bwd, bwdOnly) }) {
+					subtask.fork();
+					subtasks.add(subtask);
+				}
+				remaining = IntStream.of(remaining).filter(s -> partition.get(s) == p).toArray();
+			}
+			for (DecompositionTask subtask : subtasks) {
+				subtask.join();
+			}
+		}
+	}
+
+	/**
+	 * Repeatedly remove, as trivial SCCs, states of partition {@code p} with no successors
+	 * or no predecessors (other than themselves) in the partition. Returns the states remaining.
+	 */
+	private int[] trim(int p, int[] states)
+	{
+		for (int round = 0; round < MAX_TRIM_ROUNDS && states.length > 0; round++) {
+			IntStream stream = IntStream.of(states);
+			if (states.length > PARALLEL_FRONTIER) {
+				stream = stream.parallel();
+			}
+			int[] kept = stream.filter(s -> {
+				if (hasNeighbourInPartition(s, p, succStarts, succs) && hasNeighbourInPartition(s, p, predStarts, preds)) {
+					return true;
+				}
+				partition.set(s, toFinal(numSCCs.getAndIncrement()));
+				return false;
+			}).toArray();
+			if (kept.length == states.length) {
+				break;
+			}
+			states = kept;
+		}
+		return states;
+	}
+
+	private boolean hasNeighbourInPartition(int s, int p, int[] starts, int[] adj)
+	{
+		for (int k = starts[s]; k < starts[s + 1]; k++) {
+			int t = adj[k];
+			if (t != s && partition.get(t) == p) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Breadth-first search from {@code start}, following the edges {@code starts}/{@code adj},
+	 * to states for which {@code claim} succeeds (claim must succeed at most once per state).
+	 * Returns all states found, including {@code start}. Large frontiers are expanded in parallel.
+	 */
+	private int[] search(int start, int[] starts, int[] adj, IntPredicate claim)
+	{
+		IntArrayList found = new IntArrayList();
+		found.add(start);
+		int[] frontier = new int[] { start };
+		while (frontier.length > 0) {
+			IntStream stream = IntStream.of(frontier);
+			if (frontier.length > PARALLEL_FRONTIER) {
+				stream = stream.parallel();
+			}
+			frontier = stream.flatMap(s -> IntStream.range(starts[s], starts[s + 1]).map(k -> adj[k]).filter(claim)).toArray();
+			found.addElements(found.size(), frontier);
+		}
+		return found.toIntArray();
+	}
+
+	/**
+	 * Decompose partition {@code p}, comprising {@code states}, using (iterative) Tarjan.
+	 */
+	private void tarjan(int p, int[] states)
+	{
+		int m = states.length;
+		for (int s : states) {
+			tarjanIndex[s] = -1;
+		}
+		int[] stack = new int[m];
+		int stackTop = 0;
+		int[] frameNode = new int[m];
+		int[] framePos = new int[m];
+		int index = 0;
+		for (int root : states) {
+			if (tarjanIndex[root] != -1) {
+				continue;
+			}
+			tarjanIndex[root] = tarjanLow[root] = index++;
+			stack[stackTop++] = root;
+			frameNode[0] = root;
+			framePos[0] = succStarts[root];
+			int depth = 1;
+			while (depth > 0) {
+				int v = frameNode[depth - 1];
+				int end = succStarts[v + 1];
+				boolean pushed = false;
+				for (int k = framePos[depth - 1]; k < end; k++) {
+					int t = succs[k];
+					// Edges leaving the partition, or to a completed SCC, are ignored
+					if (t == v || partition.get(t) != p) {
+						continue;
+					}
+					if (tarjanIndex[t] == -1) {
+						// Unvisited: push new frame for t
+						framePos[depth - 1] = k + 1;
+						tarjanIndex[t] = tarjanLow[t] = index++;
+						stack[stackTop++] = t;
+						frameNode[depth] = t;
+						framePos[depth] = succStarts[t];
+						depth++;
+						pushed = true;
+						break;
+					}
+					// Visited and not in a completed SCC, so on the stack
+					tarjanLow[v] = Math.min(tarjanLow[v], tarjanIndex[t]);
+				}
+				if (pushed) {
+					continue;
+				}
+				depth--;
+				if (depth > 0) {
+					int u = frameNode[depth - 1];
+					tarjanLow[u] = Math.min(tarjanLow[u], tarjanLow[v]);
+				}
+				if (tarjanLow[v] == tarjanIndex[v]) {
+					int scc = toFinal(numSCCs.getAndIncrement());
+					int t;
+					do {
+						t = stack[--stackTop];
+						partition.set(t, scc);
+					} while (t != v);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Report the SCCs found to the consumer, in reverse topological order
+	 * (a SCC is reported once all SCCs it has edges to have been).
+	 */
+	private void reportSCCs(boolean filterTrivialSCCs) throws PrismException
+	{
+		int n = numSCCs.get();
+		// Group states by SCC
+		int[] counts = new int[n];
+		for (int s = 0; s < numNodes; s++) {
+			int p = partition.get(s);
+			if (p != -1) {
+				counts[fromFinal(p)]++;
+			}
+		}
+		int[] sccStarts = prefixSums(counts);
+		int[] sccStates = new int[sccStarts[n]];
+		int[] next = sccStarts.clone();
+		// Count edges leaving each SCC
+		int[] numOut = counts;
+		Arrays.fill(numOut, 0);
+		for (int s = 0; s < numNodes; s++) {
+			int p = partition.get(s);
+			if (p != -1) {
+				int scc = fromFinal(p);
+				sccStates[next[scc]++] = s;
+				for (int k = succStarts[s]; k < succStarts[s + 1]; k++) {
+					if (partition.get(succs[k]) != p) {
+						numOut[scc]++;
+					}
+				}
+			}
+		}
+		// Kahn's algorithm, backwards from the bottom SCCs
+		int[] queue = new int[n];
+		int head = 0, tail = 0;
+		for (int scc = 0; scc < n; scc++) {
+			if (numOut[scc] == 0) {
+				queue[tail++] = scc;
+			}
+		}
+		while (head < tail) {
+			int scc = queue[head++];
+			int first = sccStarts[scc];
+			int last = sccStarts[scc + 1];
+			if (!(filterTrivialSCCs && last - first == 1 && isTrivialSCC(sccStates[first]))) {
+				consumer.notifyStartSCC();
+				for (int i = first; i < last; i++) {
+					consumer.notifyStateInSCC(sccStates[i]);
+				}
+				consumer.notifyEndSCC();
+			}
+			for (int i = first; i < last; i++) {
+				int s = sccStates[i];
+				for (int k = predStarts[s]; k < predStarts[s + 1]; k++) {
+					int p = partition.get(preds[k]);
+					if (fromFinal(p) != scc && --numOut[fromFinal(p)] == 0) {
+						queue[tail++] = fromFinal(p);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Is the singleton SCC {@code s} trivial, i.e., does it have no self-loop?
+	 */
+	private boolean isTrivialSCC(int s)
+	{
+		for (int k = succStarts[s]; k < succStarts[s + 1]; k++) {
+			if (succs[k] == s) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Partition value for states in the ith SCC */
+	private static int toFinal(int i)
+	{
+		return -2 - i;
+	}
+
+	/** SCC index for a partition value of states in an SCC */
+	private static int fromFinal(int p)
+	{
+		return -2 - p;
+	}
+}
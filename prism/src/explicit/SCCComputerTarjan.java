@@ -142,7 +142,7 @@ public class SCCComputerTarjan extends SCCComputer
 				frameHadSelfloop = Arrays.copyOf(frameHadSelfloop, frameCap);
 			}
 			frameNode[frameTop] = startNode;
-			frameIter[frameTop] = model.getSuccessors(startNode);
+			frameIter[frameTop] = getSuccessors(model, startNode);
 			frameHadSelfloop[frameTop] = false;
 			frameTop++;
 
@@ -179,7 +179,7 @@ public class SCCComputerTarjan extends SCCComputer
 							frameHadSelfloop = Arrays.copyOf(frameHadSelfloop, frameCap);
 						}
 						frameNode[frameTop] = e;
-						frameIter[frameTop] = model.getSuccessors(e);
+						frameIter[frameTop] = getSuccessors(model, e);
 						frameHadSelfloop[frameTop] = false;
 						frameTop++;
 						pushed = true;
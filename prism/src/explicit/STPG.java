@@ -86,6 +86,36 @@ public interface STPG<Value> extends MDP<Value>
 	 */
 	public int getPlayer(int s);
 	
+	/**
+	 * Construct the MDP that remains when the choices of player {@code player} (0-indexed) are fixed,
+	 * i.e. in which each state owned by that player keeps only the choice {@code strat[s]}
+	 * (or none, if {@code strat[s]} is negative) and all other states keep all of their choices.
+	 * @param player Player whose choices are fixed (0-indexed)
+	 * @param strat Choice index for each state owned by {@code player}
+	 */
+	public default MDP<Value> constructInducedMDP(int player, int strat[])
+	{
+		int numStates = getNumStates();
+		MDPSimple<Value> mdp = new MDPSimple<>(numStates);
+		mdp.setEvaluator(getEvaluator());
+		for (int s : getInitialStates()) {
+			mdp.addInitialState(s);
+		}
+		for (int s = 0; s < numStates; s++) {
+			if (getPlayer(s) == player) {
+				if (strat[s] >= 0) {
+					mdp.addChoice(s, new Distribution<>(getTransitionsIterator(s, strat[s]), getEvaluator()));
+				}
+			} else {
+				int numChoices = getNumChoices(s);
+				for (int i = 0; i < numChoices; i++) {
+					mdp.addChoice(s, new Distribution<>(getTransitionsIterator(s, i), getEvaluator()));
+				}
+			}
+		}
+		return mdp;
+	}
+
 	/**
 	 * Perform a single step of precomputation algorithm Prob0, i.e., for states i in {@code subset},
 	 * set bit i of {@code result} iff, for all/some player 1 choices, for all/some player 2 choices,
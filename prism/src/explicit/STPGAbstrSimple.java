@@ -492,6 +492,33 @@ public class STPGAbstrSimple<Value> extends ModelExplicit<Value> implements STPG
 	{
 		throw new RuntimeException("Not implemented");
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * <br><br>
+	 * For this class, player 1 ({@code player}=0) makes the (outer) choice of distribution set
+	 * in every state and player 2 then picks a distribution from it, so only player 1's choices can be fixed.
+	 */
+	@Override
+	public MDP<Value> constructInducedMDP(int player, int strat[])
+	{
+		if (player != 0) {
+			throw new UnsupportedOperationException("Only player 1 choices can be fixed in an abstraction game");
+		}
+		MDPSimple<Value> mdp = new MDPSimple<>(numStates);
+		mdp.setEvaluator(getEvaluator());
+		for (int s : getInitialStates()) {
+			mdp.addInitialState(s);
+		}
+		for (int s = 0; s < numStates; s++) {
+			if (strat[s] >= 0) {
+				for (Distribution<Value> distr : trans.get(s).get(strat[s])) {
+					mdp.addChoice(s, new Distribution<>(distr));
+				}
+			}
+		}
+		return mdp;
+	}
 	
 	@Override
 	public void prob0step(BitSet subset, BitSet u, boolean forall1, boolean forall2, BitSet result)
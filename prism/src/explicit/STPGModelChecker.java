@@ -35,6 +35,7 @@ import common.IterableBitSet;
 
 import parser.ast.Expression;
 import prism.PrismComponent;
+import prism.PrismDevNullLog;
 import prism.PrismException;
 import prism.PrismFileLog;
 import prism.PrismLog;
@@ -212,6 +213,9 @@ public class STPGModelChecker extends ProbModelChecker
 		case GAUSS_SEIDEL:
 			res = computeReachProbsGaussSeidel(stpg, no, yes, min1, min2, init, known);
 			break;
+		case POLICY_ITERATION:
+			res = computeReachProbsStratIter(stpg, no, yes, min1, min2, init, known);
+			break;
 		default:
 			throw new PrismException("Unknown STPG solution method " + solnMethod);
 		}
@@ -579,6 +583,136 @@ public class STPGModelChecker extends ProbModelChecker
 		return res;
 	}
 
+	/**
+	 * Compute reachability probabilities using strategy iteration.
+	 * The strategy of the maximising player is improved repeatedly, each time solving the MDP
+	 * that remains once it is fixed, for an optimal (minimising) response of the other player.
+	 * If both players minimise or both maximise, there is nothing to gain, and value iteration is used instead.
+	 * @param stpg The STPG
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param min1 Min or max probabilities for player 1 (true=min, false=max)
+	 * @param min2 Min or max probabilities for player 2 (true=min, false=max)
+	 * @param init Optionally, an initial solution vector (will be overwritten) 
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.  
+	 */
+	protected ModelCheckerResult computeReachProbsStratIter(STPG<Double> stpg, BitSet no, BitSet yes, boolean min1, boolean min2, double init[], BitSet known)
+			throws PrismException
+	{
+		ModelCheckerResult res;
+		BitSet remain;
+		int i, n, iters, totalIters, maxPlayer;
+		double soln[], init2[], val;
+		int strat[];
+		boolean done;
+		long timer;
+		MDPModelChecker mcMDP;
+
+		// Which player maximises? (in abstraction games, player 2 choices cannot be fixed)
+		if (min1 == min2 || (min1 && stpg instanceof STPGAbstrSimple)) {
+			if (verbosity >= 1)
+				mainLog.println("Strategy iteration not applicable (" + (min1 ? "min" : "max") + (min2 ? "min" : "max") + "), using value iteration");
+			return computeReachProbsValIter(stpg, no, yes, min1, min2, init, known);
+		}
+		maxPlayer = min1 ? 1 : 0;
+
+		// Start strategy iteration
+		timer = System.currentTimeMillis();
+		if (verbosity >= 1)
+			mainLog.println("Starting strategy iteration (" + (min1 ? "min" : "max") + (min2 ? "min" : "max") + ")...");
+
+		// Create an MDP model checker (for solving the other player's MDPs)
+		mcMDP = new MDPModelChecker(this);
+		mcMDP.inheritSettings(this);
+		mcMDP.setLog(new PrismDevNullLog());
+		mcMDP.setGenStrat(false);
+		mcMDP.setMDPSolnMethod(MDPSolnMethod.GAUSS_SEIDEL);
+		mcMDP.setValIterDir(ValIterDir.BELOW);
+		mcMDP.setDoIntervalIteration(false);
+
+		// Store num states
+		n = stpg.getNumStates();
+		// States in no/yes are treated as absorbing
+		remain = (BitSet) no.clone();
+		remain.flip(0, n);
+
+		// Initial strategy just picks the first choice everywhere
+		strat = new int[n];
+		for (i = 0; i < n; i++)
+			strat[i] = stpg.getNumChoices(i) > 0 ? 0 : -1;
+
+		// Start iterations
+		// (since the strategy only ever improves, each solution is a lower bound for the next one)
+		soln = init;
+		iters = totalIters = 0;
+		done = false;
+		while (!done && iters < maxIters) {
+			iters++;
+			// Solve the MDP induced by the maximiser's current strategy
+			MDP<Double> mdp = stpg.constructInducedMDP(maxPlayer, strat);
+			init2 = soln == null ? null : soln.clone();
+			res = mcMDP.computeReachProbs(mdp, remain, yes, true, init2, known);
+			soln = res.soln;
+			totalIters += res.numIters;
+			// Improve the maximiser's choices, where strictly better
+			done = true;
+			for (i = 0; i < n; i++) {
+				if (no.get(i) || yes.get(i) || (known != null && known.get(i)) || !ownsChoice(stpg, maxPlayer, i))
+					continue;
+				val = stpg.mvMultMinMaxSingle(i, soln, min1, min2);
+				if (val > soln[i] && !PrismUtils.doublesAreClose(soln[i], val, termCritParam, termCrit == TermCrit.ABSOLUTE)) {
+					List<Integer> opt = stpg.mvMultMinMaxSingleChoices(i, soln, min1, min2, val);
+					if (!opt.isEmpty() && !opt.contains(strat[i])) {
+						strat[i] = opt.get(0);
+						done = false;
+					}
+				}
+			}
+		}
+
+		// Finished strategy iteration
+		timer = System.currentTimeMillis() - timer;
+		if (verbosity >= 1) {
+			mainLog.print("Strategy iteration (" + (min1 ? "min" : "max") + (min2 ? "min" : "max") + ")");
+			mainLog.println(" took " + iters + " cycles (" + totalIters + " iterations in total) and " + timer / 1000.0 + " seconds.");
+		}
+
+		// Non-convergence is an error (usually)
+		if (!done && errorOnNonConverge) {
+			String msg = "Strategy iteration did not converge within " + iters + " cycles.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		// Return results
+		res = new ModelCheckerResult();
+		res.soln = soln;
+		res.numIters = totalIters;
+		res.timeTaken = timer / 1000.0;
+		if (genStrat) {
+			// The minimiser can just pick any locally optimal choice
+			for (i = 0; i < n; i++) {
+				if (!ownsChoice(stpg, maxPlayer, i) && stpg.getNumChoices(i) > 0) {
+					val = stpg.mvMultMinMaxSingle(i, soln, min1, min2);
+					List<Integer> opt = stpg.mvMultMinMaxSingleChoices(i, soln, min1, min2, val);
+					strat[i] = opt.isEmpty() ? -1 : opt.get(0);
+				}
+			}
+			res.strat = new MDStrategyArray<>(stpg, strat);
+		}
+		return res;
+	}
+
+	/**
+	 * Does player {@code player} (0-indexed) pick the choice in state {@code s}?
+	 * In abstraction games ({@link STPGAbstrSimple}), player 1 picks the (outer) choice in every state.
+	 */
+	private static boolean ownsChoice(STPG<?> stpg, int player, int s)
+	{
+		return stpg instanceof STPGAbstrSimple ? player == 0 : stpg.getPlayer(s) == player;
+	}
+
 	/**
 	 * Construct strategy information for min/max reachability probabilities.
 	 * (More precisely, list of indices of player 1 choices resulting in min/max.)
@@ -782,6 +916,8 @@ public class STPGModelChecker extends ProbModelChecker
 		// Compute rewards
 		switch (solnMethod) {
 		case VALUE_ITERATION:
+		case POLICY_ITERATION:
+			// (strategy iteration is currently only implemented for probabilities)
 			res = computeReachRewardsValIter(stpg, rewards, target, inf, min1, min2, init, known);
 			break;
 		default:
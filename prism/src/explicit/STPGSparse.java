@@ -0,0 +1,375 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import common.IterableStateSet;
+import explicit.rewards.STPGRewards;
+import prism.ModelType;
+import prism.PrismException;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of a (turn-based) stochastic two-player game (STPG).
+ * Transitions are stored as for {@link MDPSparse}, plus an array giving the player that owns each state.
+ * As for other sparse models, the game has to be created all in one go and then can't be modified.
+ */
+public class STPGSparse extends MDPSparse implements STPG<Double>
+{
+	/** Minimum number of states for matrix-vector multiplications to be done in parallel */
+	private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+	/** Player (0-indexed) that owns each state */
+	protected int players[];
+
+	// Constructors
+
+	/**
+	 * Copy constructor (from STPGSimple).
+	 */
+	public STPGSparse(STPGSimple<Double> stpg)
+	{
+		super(stpg);
+		players = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			players[s] = stpg.getPlayer(s);
+		}
+	}
+
+	/**
+	 * Copy constructor (from STPGSimple), with a state index permutation,
+	 * i.e. in which old state index i becomes index permut[i].
+	 * Transitions within choices are sorted (by ascending order of column index).
+	 * Note: a states list, if present, will not be permuted and should be set
+	 * separately afterwards if required.
+	 */
+	public STPGSparse(STPGSimple<Double> stpg, int permut[])
+	{
+		super(stpg, true, permut);
+		players = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			players[permut[s]] = stpg.getPlayer(s);
+		}
+	}
+
+	// Accessors (for Model)
+
+	@Override
+	public ModelType getModelType()
+	{
+		return ModelType.STPG;
+	}
+
+	@Override
+	public void checkForDeadlocks(BitSet except) throws PrismException
+	{
+		for (int i = 0; i < numStates; i++) {
+			if (getNumChoices(i) == 0 && (except == null || !except.get(i)))
+				throw new PrismException("Game has a deadlock in state " + i + (statesList == null ? "" : ": " + statesList.get(i)));
+		}
+	}
+
+	// Accessors (for STPG)
+
+	@Override
+	public int getPlayer(int s)
+	{
+		return players[s];
+	}
+
+	@Override
+	public boolean allSuccessorsInSet(int s, int c, BitSet set)
+	{
+		int j = rowStarts[s] + c;
+		for (int k = choiceStarts[j]; k < choiceStarts[j + 1]; k++) {
+			if (!set.get(cols[k]))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public MDP<Double> constructInducedMDP(int player, int strat[])
+	{
+		// Count the choices/transitions that remain
+		int numChoicesNew = 0, numTransitionsNew = 0;
+		for (int s = 0; s < numStates; s++) {
+			if (players[s] == player && strat[s] >= 0) {
+				int j = rowStarts[s] + strat[s];
+				numChoicesNew++;
+				numTransitionsNew += choiceStarts[j + 1] - choiceStarts[j];
+			} else if (players[s] != player) {
+				numChoicesNew += rowStarts[s + 1] - rowStarts[s];
+				numTransitionsNew += choiceStarts[rowStarts[s + 1]] - choiceStarts[rowStarts[s]];
+			}
+		}
+		// Copy the matrix rows directly
+		MDPSparse mdp = new MDPSparse();
+		mdp.initialise(numStates);
+		mdp.copyFrom(this);
+		mdp.numDistrs = numChoicesNew;
+		mdp.numTransitions = numTransitionsNew;
+		mdp.rowStarts = new int[numStates + 1];
+		mdp.choiceStarts = new int[numChoicesNew + 1];
+		mdp.cols = new int[numTransitionsNew];
+		mdp.nonZeros = new double[numTransitionsNew];
+		int j2 = 0, k2 = 0;
+		for (int s = 0; s < numStates; s++) {
+			mdp.rowStarts[s] = j2;
+			int l1 = rowStarts[s], h1 = rowStarts[s + 1];
+			if (players[s] == player) {
+				if (strat[s] < 0) {
+					continue;
+				}
+				l1 += strat[s];
+				h1 = l1 + 1;
+			}
+			for (int j = l1; j < h1; j++) {
+				int l2 = choiceStarts[j], h2 = choiceStarts[j + 1];
+				mdp.choiceStarts[j2++] = k2;
+				System.arraycopy(cols, l2, mdp.cols, k2, h2 - l2);
+				System.arraycopy(nonZeros, l2, mdp.nonZeros, k2, h2 - l2);
+				k2 += h2 - l2;
+			}
+			mdp.maxNumDistrs = Math.max(mdp.maxNumDistrs, j2 - mdp.rowStarts[s]);
+		}
+		mdp.rowStarts[numStates] = numChoicesNew;
+		mdp.choiceStarts[numChoicesNew] = numTransitionsNew;
+		return mdp;
+	}
+
+	@Override
+	public void prob0step(BitSet subset, BitSet u, boolean forall1, boolean forall2, BitSet result)
+	{
+		int j, k, l1, h1, l2, h2;
+		boolean b1, some, forall;
+		for (int i : new IterableStateSet(subset, numStates)) {
+			forall = (players[i] == 0) ? forall1 : forall2;
+			b1 = forall; // there exists or for all
+			l1 = rowStarts[i];
+			h1 = rowStarts[i + 1];
+			for (j = l1; j < h1; j++) {
+				some = false;
+				l2 = choiceStarts[j];
+				h2 = choiceStarts[j + 1];
+				for (k = l2; k < h2; k++) {
+					// Assume that only non-zero entries are stored
+					if (u.get(cols[k])) {
+						some = true;
+						break;
+					}
+				}
+				if (forall) {
+					if (!some) {
+						b1 = false;
+						break;
+					}
+				} else {
+					if (some) {
+						b1 = true;
+						break;
+					}
+				}
+			}
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public void prob1step(BitSet subset, BitSet u, BitSet v, boolean forall1, boolean forall2, BitSet result)
+	{
+		int j, k, l1, h1, l2, h2;
+		boolean b1, some, all, forall;
+		for (int i : new IterableStateSet(subset, numStates)) {
+			forall = (players[i] == 0) ? forall1 : forall2;
+			b1 = forall; // there exists or for all
+			l1 = rowStarts[i];
+			h1 = rowStarts[i + 1];
+			for (j = l1; j < h1; j++) {
+				some = false;
+				all = true;
+				l2 = choiceStarts[j];
+				h2 = choiceStarts[j + 1];
+				for (k = l2; k < h2; k++) {
+					// Assume that only non-zero entries are stored
+					if (v.get(cols[k])) {
+						some = true;
+					}
+					if (!u.get(cols[k])) {
+						all = false;
+					}
+				}
+				if (forall) {
+					if (!(some && all)) {
+						b1 = false;
+						break;
+					}
+				} else {
+					if (some && all) {
+						b1 = true;
+						break;
+					}
+				}
+			}
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public void mvMultMinMax(double vect[], boolean min1, boolean min2, double result[], BitSet subset, boolean complement, int adv[])
+	{
+		// Each state only writes its own entries of result/adv, so rows can be done in parallel
+		states(subset, complement).forEach(s -> {
+			result[s] = mvMultMinMaxSingle(s, vect, players[s] == 0 ? min1 : min2, adv);
+		});
+	}
+
+	@Override
+	public double mvMultMinMaxSingle(int s, double vect[], boolean min1, boolean min2)
+	{
+		return mvMultMinMaxSingle(s, vect, players[s] == 0 ? min1 : min2, null);
+	}
+
+	@Override
+	public List<Integer> mvMultMinMaxSingleChoices(int s, double vect[], boolean min1, boolean min2, double val)
+	{
+		return mvMultMinMaxSingleChoices(s, vect, players[s] == 0 ? min1 : min2, val);
+	}
+
+	@Override
+	public double mvMultGSMinMax(double vect[], boolean min1, boolean min2, BitSet subset, boolean complement, boolean absolute, int adv[])
+	{
+		double d, diff, maxDiff = 0.0;
+		for (int s : new IterableStateSet(subset, numStates, complement)) {
+			d = mvMultJacMinMaxSingle(s, vect, min1, min2, adv);
+			diff = absolute ? (Math.abs(d - vect[s])) : (Math.abs(d - vect[s]) / d);
+			maxDiff = diff > maxDiff ? diff : maxDiff;
+			vect[s] = d;
+		}
+		return maxDiff;
+	}
+
+	@Override
+	public double mvMultJacMinMaxSingle(int s, double vect[], boolean min1, boolean min2, int adv[])
+	{
+		return mvMultJacMinMaxSingle(s, vect, players[s] == 0 ? min1 : min2, adv);
+	}
+
+	@Override
+	public void mvMultRewMinMax(double vect[], STPGRewards<Double> rewards, boolean min1, boolean min2, double result[], BitSet subset, boolean complement, int adv[])
+	{
+		mvMultRewMinMax(vect, rewards, min1, min2, result, subset, complement, adv, 1.0);
+	}
+
+	@Override
+	public double mvMultRewMinMaxSingle(int s, double vect[], STPGRewards<Double> rewards, boolean min1, boolean min2, int adv[])
+	{
+		return mvMultRewMinMaxSingle(s, vect, rewards, players[s] == 0 ? min1 : min2, adv, 1.0);
+	}
+
+	@Override
+	public List<Integer> mvMultRewMinMaxSingleChoices(int s, double vect[], STPGRewards<Double> rewards, boolean min1, boolean min2, double val)
+	{
+		return mvMultRewMinMaxSingleChoices(s, vect, rewards, players[s] == 0 ? min1 : min2, val);
+	}
+
+	@Override
+	public void mvMultRewMinMax(double vect[], STPGRewards<Double> rewards, boolean min1, boolean min2, double result[], BitSet subset, boolean complement, int adv[], double disc)
+	{
+		states(subset, complement).forEach(s -> {
+			result[s] = mvMultRewMinMaxSingle(s, vect, rewards, players[s] == 0 ? min1 : min2, adv, disc);
+		});
+	}
+
+	/**
+	 * Do a single row of (discounted) matrix-vector multiplication and sum of action reward followed by min/max.
+	 * i.e. return min/max_k { rew(s) + disc * sum_j P_k(s,j)*vect[j] }
+	 * @param s Row index
+	 * @param vect Vector to multiply by
+	 * @param rewards The rewards
+	 * @param min Min or max (true=min, false=max)
+	 * @param adv Storage for adversary choice indices (ignored if null)
+	 * @param disc Discount factor
+	 */
+	public double mvMultRewMinMaxSingle(int s, double vect[], STPGRewards<Double> rewards, boolean min, int adv[], double disc)
+	{
+		int j, k, l1, h1, l2, h2, advCh = -1;
+		double d, minmax;
+		boolean first;
+
+		minmax = 0;
+		first = true;
+		l1 = rowStarts[s];
+		h1 = rowStarts[s + 1];
+		for (j = l1; j < h1; j++) {
+			// Compute sum for this distribution
+			d = rewards.getTransitionReward(s, j - l1);
+			l2 = choiceStarts[j];
+			h2 = choiceStarts[j + 1];
+			for (k = l2; k < h2; k++) {
+				d += nonZeros[k] * vect[cols[k]] * disc;
+			}
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				advCh = j - l1;
+			}
+			first = false;
+		}
+		// If adversary generation is enabled, store optimal choice
+		if (adv != null & !first) {
+			adv[s] = advCh;
+		}
+		// Add state reward (doesn't affect min/max)
+		minmax += rewards.getStateReward(s);
+
+		return minmax;
+	}
+
+	/**
+	 * Get a stream of the states in {@code subset} (or its complement, or all states if {@code subset} is null),
+	 * which is parallel if the game is large enough for this to pay off.
+	 */
+	private IntStream states(BitSet subset, boolean complement)
+	{
+		IntStream stream;
+		if (subset == null) {
+			stream = IntStream.range(0, numStates);
+		} else if (complement) {
+			stream = IntStream.range(0, numStates).filter(s -> !subset.get(s));
+		} else {
+			stream = subset.stream();
+		}
+		return numStates >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
+	}
+
+	// Standard methods
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (o == null || !(o instanceof STPGSparse))
+			return false;
+		return super.equals(o) && Utils.intArraysAreEqual(players, ((STPGSparse) o).players);
+	}
+}
@@ -0,0 +1,571 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import prism.ModelType;
+import prism.Pair;
+import prism.PrismException;
+import prism.PrismLog;
+
+/**
+ * Sparse (CSR) transition matrix of a DTMC or MDP, stored in a file and accessed through memory-mapped buffers,
+ * so that it does not need to fit in the Java heap. The layout is that of {@link MDPSparse}, with a DTMC
+ * stored as an MDP with a single choice per state:
+ * <ul>
+ * <li> a 64-byte header;
+ * <li> {@code rowStarts}: int[numStates+1], index of the first choice of each state;
+ * <li> {@code choiceStarts}: long[numChoices+1], index of the first transition of each choice;
+ * <li> (optionally) action indices: int[numChoices] for an MDP, int[numTransitions] for a DTMC (-1 = null action);
+ * <li> {@code cols}: int[numTransitions], column (destination) indices;
+ * <li> {@code nonZeros}: double[numTransitions], probabilities;
+ * <li> the table of (distinct) action labels, as UTF-8 strings (length, then bytes, padded to a multiple of 4).
+ * </ul>
+ * All values are little-endian and each section starts on an 8-byte boundary.
+ * The file is read-only once written, and can be kept and reused for the same model.
+ */
+public class SparseMatrixFile
+{
+	/** Magic number at the start of the file ("PCSR") */
+	private static final int MAGIC = 0x50435352;
+	/** File format version */
+	private static final int VERSION = 1;
+	/** Size of the header (bytes) */
+	private static final int HEADER_SIZE = 64;
+	/** Default size of each mapped chunk: 2^30 bytes */
+	private static final int CHUNK_BITS = 30;
+
+	// Contents of the header
+	private ModelType modelType;
+	private long fingerprint;
+	private int numStates;
+	private int numChoices;
+	private int maxNumChoices;
+	private long numTransitions;
+
+	// Offsets of the sections (bytes)
+	private long rowStartsPos;
+	private long choiceStartsPos;
+	private long actionsPos;
+	private long colsPos;
+	private long nonZerosPos;
+
+	/** Distinct action labels (null if no actions are stored) */
+	private Object[] actionTable;
+
+	/** The file, mapped in chunks of 2^chunkBits bytes */
+	private MappedByteBuffer[] chunks;
+	private int chunkBits;
+	private long chunkMask;
+
+	/** The file this is stored in */
+	private File file;
+
+	private SparseMatrixFile()
+	{
+	}
+
+	// Model conversion
+
+	/**
+	 * Convert a DTMC or MDP to an equivalent model whose transition matrix is stored
+	 * in a memory-mapped file in directory {@code dir}. The file is named after a fingerprint
+	 * of the model (including action labels); if a file for the same model already exists, it is reused rather than rewritten.
+	 * Other model information (states list, labels, etc.) is shared with the original model.
+	 * @param model The model (DTMC or MDP)
+	 * @param dir Directory for the file
+	 * @param log Log for status messages
+	 */
+	public static ModelExplicit<Double> toMappedModel(Model<Double> model, File dir, PrismLog log) throws PrismException
+	{
+		ModelType modelType = model.getModelType();
+		if (modelType != ModelType.DTMC && modelType != ModelType.MDP) {
+			throw new PrismException("Out-of-core storage is not supported for " + modelType + "s");
+		}
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new PrismException("Could not create directory \"" + dir + "\" for out-of-core storage");
+		}
+		// Actions are stored in the file too, so must be part of the fingerprint
+		long fingerprint = IterationCheckpoint.fingerprintWithActions(model);
+		File file = new File(dir, String.format("%s-%016x.csr", modelType.name().toLowerCase(), fingerprint));
+		SparseMatrixFile matrix = null;
+		if (file.exists()) {
+			try {
+				matrix = open(file);
+				if (matrix.fingerprint != fingerprint || matrix.modelType != modelType || matrix.numStates != model.getNumStates()) {
+					matrix = null;
+				}
+			} catch (PrismException e) {
+				matrix = null;
+			}
+		}
+		if (matrix != null) {
+			log.println("Reusing out-of-core transition matrix in \"" + file + "\"");
+		} else {
+			log.println("Writing out-of-core transition matrix to \"" + file + "\"...");
+			matrix = write(file, model, fingerprint);
+		}
+		if (modelType == ModelType.DTMC) {
+			return new DTMCSparseMapped((DTMC<Double>) model, matrix);
+		} else {
+			return new MDPSparseMapped((MDP<Double>) model, matrix);
+		}
+	}
+
+	// Writing
+
+	/**
+	 * Write the transition matrix of a DTMC or MDP to a file, and then open (map) it.
+	 * The data is written to a temporary file which is then (atomically, where supported)
+	 * moved into place, so that an existing file, which may be mapped by another process,
+	 * is never truncated, and an incomplete file is never visible under the name {@code file}.
+	 * @param file The file
+	 * @param model The model (DTMC or MDP)
+	 * @param fingerprint Fingerprint of the model, stored in the header
+	 */
+	public static SparseMatrixFile write(File file, Model<Double> model, long fingerprint) throws PrismException
+	{
+		ModelType modelType = model.getModelType();
+		boolean isMDP = modelType == ModelType.MDP;
+		int numStates = model.getNumStates();
+		int numChoices = isMDP ? ((MDP<Double>) model).getNumChoices() : numStates;
+		int maxNumChoices = isMDP ? ((MDP<Double>) model).getMaxNumChoices() : 1;
+		long numTransitions = model.getNumTransitions();
+		boolean hasActions = !model.onlyNullActionUsed();
+		long numActionEntries = hasActions ? (isMDP ? numChoices : numTransitions) : 0;
+
+		// Compute layout
+		long rowStartsPos = HEADER_SIZE;
+		long choiceStartsPos = align(rowStartsPos + 4L * (numStates + 1));
+		long actionsPos = align(choiceStartsPos + 8L * (numChoices + 1));
+		long colsPos = align(actionsPos + 4L * numActionEntries);
+		long nonZerosPos = align(colsPos + 4L * numTransitions);
+		long actionTablePos = align(nonZerosPos + 8L * numTransitions);
+
+		List<Object> actionTable = new ArrayList<>();
+		Map<Object, Integer> actionIndices = new HashMap<>();
+		File tmp = new File(file.getPath() + ".tmp" + ProcessHandle.current().pid());
+		try (FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			SectionWriter rowStarts = new SectionWriter(channel, rowStartsPos);
+			SectionWriter choiceStarts = new SectionWriter(channel, choiceStartsPos);
+			SectionWriter actions = new SectionWriter(channel, actionsPos);
+			SectionWriter cols = new SectionWriter(channel, colsPos);
+			SectionWriter nonZeros = new SectionWriter(channel, nonZerosPos);
+			// Single (sequential) pass over the model, filling all sections
+			int choice = 0;
+			long trans = 0;
+			for (int s = 0; s < numStates; s++) {
+				rowStarts.putInt(choice);
+				if (isMDP) {
+					MDP<Double> mdp = (MDP<Double>) model;
+					for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+						choiceStarts.putLong(trans);
+						if (hasActions) {
+							actions.putInt(actionIndex(mdp.getAction(s, i), actionTable, actionIndices));
+						}
+						mdp.forEachDoubleTransition(s, i, (s1, t, prob) -> {
+							cols.putInt(t);
+							nonZeros.putDouble(prob);
+						});
+						trans += mdp.getNumTransitions(s, i);
+						choice++;
+					}
+				} else {
+					choiceStarts.putLong(trans);
+					for (Iterator<Entry<Integer, Pair<Double, Object>>> it = ((DTMC<Double>) model).getTransitionsAndActionsIterator(s); it.hasNext();) {
+						Entry<Integer, Pair<Double, Object>> e = it.next();
+						cols.putInt(e.getKey());
+						nonZeros.putDouble(e.getValue().first);
+						if (hasActions) {
+							actions.putInt(actionIndex(e.getValue().second, actionTable, actionIndices));
+						}
+						trans++;
+					}
+					choice++;
+				}
+			}
+			rowStarts.putInt(choice);
+			choiceStarts.putLong(trans);
+			if (choice != numChoices || trans != numTransitions) {
+				throw new PrismException("Inconsistent transition counts when writing out-of-core transition matrix");
+			}
+			rowStarts.flush();
+			choiceStarts.flush();
+			actions.flush();
+			cols.flush();
+			nonZeros.flush();
+			// Action table
+			SectionWriter table = new SectionWriter(channel, actionTablePos);
+			for (Object a : actionTable) {
+				byte[] bytes = a.toString().getBytes(StandardCharsets.UTF_8);
+				table.putInt(bytes.length);
+				for (byte b : bytes) {
+					table.putByte(b);
+				}
+				// Pad to a multiple of 4 bytes, so that lengths are aligned
+				for (int i = bytes.length; i % 4 != 0; i++) {
+					table.putByte((byte) 0);
+				}
+			}
+			table.flush();
+			// Header (last, so that an incomplete file is never mistaken for a valid one)
+			SectionWriter header = new SectionWriter(channel, 0);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(isMDP ? 1 : 0);
+			header.putInt(numStates);
+			header.putLong(fingerprint);
+			header.putInt(numChoices);
+			header.putInt(maxNumChoices);
+			header.putLong(numTransitions);
+			header.putLong(hasActions ? actionTablePos : 0);
+			header.putInt(actionTable.size());
+			header.flush();
+			channel.force(false);
+		} catch (IOException | UncheckedIOException | PrismException e) {
+			tmp.delete();
+			throw new PrismException("Could not write out-of-core transition matrix to \"" + file + "\": " + e.getMessage());
+		}
+		try {
+			try {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			tmp.delete();
+			throw new PrismException("Could not write out-of-core transition matrix to \"" + file + "\": " + e.getMessage());
+		}
+		return open(file);
+	}
+
+	/**
+	 * Get the index of action {@code a} in the action table, adding it if needed; -1 for null.
+	 */
+	private static int actionIndex(Object a, List<Object> actionTable, Map<Object, Integer> actionIndices)
+	{
+		if (a == null) {
+			return -1;
+		}
+		return actionIndices.computeIfAbsent(a, k -> {
+			actionTable.add(k);
+			return actionTable.size() - 1;
+		});
+	}
+
+	/**
+	 * Round a file offset up to a multiple of 8.
+	 */
+	private static long align(long pos)
+	{
+		return (pos + 7) & ~7L;
+	}
+
+	/**
+	 * Buffered writer for one section of the file, starting at a given offset.
+	 * I/O errors are thrown as {@link UncheckedIOException}s, so that it can be used within transition consumers.
+	 */
+	private static class SectionWriter
+	{
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		private long pos;
+
+		SectionWriter(FileChannel channel, long pos)
+		{
+			this.channel = channel;
+			this.pos = pos;
+		}
+
+		void putByte(byte b)
+		{
+			ensure(1);
+			buffer.put(b);
+		}
+
+		void putInt(int i)
+		{
+			ensure(4);
+			buffer.putInt(i);
+		}
+
+		void putLong(long l)
+		{
+			ensure(8);
+			buffer.putLong(l);
+		}
+
+		void putDouble(double d)
+		{
+			ensure(8);
+			buffer.putDouble(d);
+		}
+
+		private void ensure(int n)
+		{
+			if (buffer.remaining() < n) {
+				flush();
+			}
+		}
+
+		void flush()
+		{
+			buffer.flip();
+			try {
+				while (buffer.hasRemaining()) {
+					pos += channel.write(buffer, pos);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			buffer.clear();
+		}
+	}
+
+	// Reading
+
+	/**
+	 * Open (map) a transition matrix file previously created with {@link #write(File, Model, long)}.
+	 */
+	public static SparseMatrixFile open(File file) throws PrismException
+	{
+		return open(file, CHUNK_BITS);
+	}
+
+	/**
+	 * Open (map) a transition matrix file, mapping it in chunks of 2^chunkBits bytes (chunkBits &gt;= 3).
+	 */
+	static SparseMatrixFile open(File file, int chunkBits) throws PrismException
+	{
+		SparseMatrixFile matrix = new SparseMatrixFile();
+		matrix.file = file;
+		matrix.chunkBits = chunkBits;
+		matrix.chunkMask = (1L << chunkBits) - 1;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE) {
+				throw new PrismException("Invalid out-of-core transition matrix file \"" + file + "\"");
+			}
+			// Mappings stay valid after the channel is closed
+			long chunkSize = 1L << chunkBits;
+			int numChunks = (int) ((size + chunkSize - 1) >>> chunkBits);
+			matrix.chunks = new MappedByteBuffer[numChunks];
+			for (int c = 0; c < numChunks; c++) {
+				long start = c * chunkSize;
+				matrix.chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkSize, size - start));
+				matrix.chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		} catch (IOException e) {
+			throw new PrismException("Could not open out-of-core transition matrix file \"" + file + "\": " + e.getMessage());
+		}
+		matrix.readHeader();
+		return matrix;
+	}
+
+	private void readHeader() throws PrismException
+	{
+		if (getInt(0) != MAGIC || getInt(4) != VERSION) {
+			throw new PrismException("Invalid out-of-core transition matrix file \"" + file + "\"");
+		}
+		boolean isMDP = getInt(8) == 1;
+		modelType = isMDP ? ModelType.MDP : ModelType.DTMC;
+		numStates = getInt(12);
+		fingerprint = getLong(16);
+		numChoices = getInt(24);
+		maxNumChoices = getInt(28);
+		numTransitions = getLong(32);
+		long actionTablePos = getLong(40);
+		int numActions = getInt(48);
+		rowStartsPos = HEADER_SIZE;
+		choiceStartsPos = align(rowStartsPos + 4L * (numStates + 1));
+		actionsPos = align(choiceStartsPos + 8L * (numChoices + 1));
+		long numActionEntries = actionTablePos == 0 ? 0 : (isMDP ? numChoices : numTransitions);
+		colsPos = align(actionsPos + 4L * numActionEntries);
+		nonZerosPos = align(colsPos + 4L * numTransitions);
+		if (actionTablePos != 0) {
+			actionTable = new Object[numActions];
+			long pos = actionTablePos;
+			for (int a = 0; a < numActions; a++) {
+				byte[] bytes = new byte[getInt(pos)];
+				pos += 4;
+				for (int i = 0; i < bytes.length; i++) {
+					bytes[i] = getByte(pos + i);
+				}
+				pos += (bytes.length + 3) & ~3;
+				actionTable[a] = new String(bytes, StandardCharsets.UTF_8);
+			}
+		}
+	}
+
+	// Raw access (sections are 8-byte aligned, so no value spans two chunks)
+
+	private byte getByte(long pos)
+	{
+		return chunks[(int) (pos >>> chunkBits)].get((int) (pos & chunkMask));
+	}
+
+	private int getInt(long pos)
+	{
+		return chunks[(int) (pos >>> chunkBits)].getInt((int) (pos & chunkMask));
+	}
+
+	private long getLong(long pos)
+	{
+		return chunks[(int) (pos >>> chunkBits)].getLong((int) (pos & chunkMask));
+	}
+
+	private double getDouble(long pos)
+	{
+		return chunks[(int) (pos >>> chunkBits)].getDouble((int) (pos & chunkMask));
+	}
+
+	// Accessors
+
+	/**
+	 * Get the file this matrix is stored in.
+	 */
+	public File getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * Get the type of model (DTMC or MDP) the matrix belongs to.
+	 */
+	public ModelType getModelType()
+	{
+		return modelType;
+	}
+
+	/**
+	 * Get the fingerprint of the model, as stored in the header.
+	 */
+	public long getFingerprint()
+	{
+		return fingerprint;
+	}
+
+	public int getNumStates()
+	{
+		return numStates;
+	}
+
+	public int getNumChoices()
+	{
+		return numChoices;
+	}
+
+	public int getMaxNumChoices()
+	{
+		return maxNumChoices;
+	}
+
+	public long getNumTransitions()
+	{
+		return numTransitions;
+	}
+
+	/**
+	 * Are (non-null) actions stored?
+	 */
+	public boolean hasActions()
+	{
+		return actionTable != null;
+	}
+
+	/**
+	 * Get the index of the first choice of state {@code s}
+	 * ({@code s} ranges over 0..numStates, the last entry being numChoices).
+	 */
+	public int rowStart(int s)
+	{
+		return getInt(rowStartsPos + 4L * s);
+	}
+
+	/**
+	 * Get the index of the first transition of choice {@code j}
+	 * ({@code j} ranges over 0..numChoices, the last entry being numTransitions).
+	 */
+	public long choiceStart(int j)
+	{
+		return getLong(choiceStartsPos + 8L * j);
+	}
+
+	/**
+	 * Get the column (destination) index of transition {@code k}.
+	 */
+	public int col(long k)
+	{
+		return getInt(colsPos + 4L * k);
+	}
+
+	/**
+	 * Get the probability of transition {@code k}.
+	 */
+	public double nonZero(long k)
+	{
+		return getDouble(nonZerosPos + 8L * k);
+	}
+
+	/**
+	 * Get the action of choice {@code i} (MDP) or transition {@code i} (DTMC).
+	 */
+	public Object action(long i)
+	{
+		if (actionTable == null) {
+			return null;
+		}
+		int a = getInt(actionsPos + 4L * i);
+		return a < 0 ? null : actionTable[a];
+	}
+
+	/**
+	 * Get the distinct (non-null) actions stored, in order of first occurrence.
+	 */
+	public List<Object> getActionTable()
+	{
+		List<Object> list = new ArrayList<>();
+		if (actionTable != null) {
+			for (Object a : actionTable) {
+				list.add(a);
+			}
+		}
+		return list;
+	}
+}
@@ -93,6 +93,7 @@ import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismSettings;
 import prism.Result;
+import prism.Telemetry;
 import prism.RewardGenerator;
 
 /**
@@ -599,6 +600,7 @@ public class StateModelChecker extends PrismComponent
 		vals = checkExpression(model, expr, null);
 		timer = System.currentTimeMillis() - timer;
 		mainLog.println("\nTime for model checking: " + timer / 1000.0 + " seconds.");
+		Telemetry.phase("model checking", timer);
 
 		// Print result to log
 		resultString = "Result";
@@ -0,0 +1,272 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.BitSet;
+import java.util.PrimitiveIterator.OfInt;
+
+import common.IterableBitSet;
+import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+
+/**
+ * Direct computation of the steady-state probabilities of a BSCC of a DTMC,
+ * by sparse LU factorisation of its generator matrix {@code Q = P - I}.
+ * <p>
+ * The factorisation uses the GTH (Grassmann-Taksar-Heyman) variant of Gaussian elimination:
+ * eliminating a state redistributes its incoming transitions over its outgoing ones,
+ * and each pivot is computed as the (positive) sum of the remaining off-diagonal entries of its row,
+ * rather than by subtraction. No numerical pivoting is needed and there is no cancellation,
+ * so the elimination order can be chosen purely to reduce fill-in. We use a minimum-degree
+ * (Markowitz) ordering, computed during elimination on the actual sparsity pattern,
+ * i.e. the quantity that AMD-style orderings approximate.
+ * <p>
+ * Since fill-in depends on the structure of the BSCC, factorisation is abandoned
+ * (and the caller should fall back to an iterative method) if the factors grow too large.
+ */
+public class SteadyStateLU
+{
+	/** Number of entries in the factors that are always allowed, per state */
+	private static final int MIN_FILL_PER_STATE = 100;
+	/** Maximum growth of the number of entries in the factors, relative to the original matrix */
+	private static final int MAX_FILL_FACTOR = 10;
+
+	/** Number of entries stored in the factors of the last (successful) factorisation */
+	private long numEntries;
+	/** Reason why the last factorisation was abandoned (null if it succeeded) */
+	private String failureReason;
+
+	/**
+	 * Get the number of entries stored in the factors of the last (successful) factorisation.
+	 */
+	public long getNumEntries()
+	{
+		return numEntries;
+	}
+
+	/**
+	 * Get the reason why the last call to {@link #solve} returned false
+	 * (e.g. "too much fill-in"), or null if it succeeded.
+	 */
+	public String getFailureReason()
+	{
+		return failureReason;
+	}
+
+	/**
+	 * Compute the steady-state probabilities of a BSCC of a DTMC, storing them
+	 * in the entries of {@code result} for the states of the BSCC (other entries are unchanged).
+	 * Returns false, without modifying {@code result}, if the factors would be too large
+	 * (see {@link #SteadyStateLU}), or if {@code states} is not a BSCC;
+	 * the reason is then available from {@link #getFailureReason()}.
+	 * @param dtmc The DTMC
+	 * @param states The BSCC
+	 * @param result Vector (over all states of the DTMC) to store the result in
+	 */
+	public boolean solve(DTMC<Double> dtmc, BitSet states, double[] result)
+	{
+		numEntries = 0;
+		failureReason = null;
+		int n = states.cardinality();
+		if (n == 0) {
+			return true;
+		}
+		// Map states of the BSCC to indices 0..n-1 (using a map, not an array over
+		// all states of the DTMC, since there may be many small BSCCs)
+		Int2IntOpenHashMap index = new Int2IntOpenHashMap(n);
+		int[] stateOf = new int[n];
+		int k = 0;
+		for (OfInt it = new IterableBitSet(states).iterator(); it.hasNext();) {
+			int s = it.nextInt();
+			index.put(s, k);
+			stateOf[k++] = s;
+		}
+
+		// Off-diagonal entries of Q, by row, and the sparsity pattern by column
+		Int2DoubleOpenHashMap[] rows = new Int2DoubleOpenHashMap[n];
+		IntOpenHashSet[] cols = new IntOpenHashSet[n];
+		for (int i = 0; i < n; i++) {
+			rows[i] = new Int2DoubleOpenHashMap();
+			cols[i] = new IntOpenHashSet();
+		}
+		long nnz = 0;
+		for (int i = 0; i < n; i++) {
+			Int2DoubleOpenHashMap row = rows[i];
+			int[] outside = new int[1];
+			dtmc.forEachDoubleTransition(stateOf[i], (s, t, prob) -> {
+				if (!states.get(t)) {
+					outside[0]++;
+				} else if (s != t && prob > 0) {
+					row.addTo(index.get(t), prob);
+				}
+			});
+			if (outside[0] > 0) {
+				failureReason = "not a BSCC";
+				return false;
+			}
+			for (int j : row.keySet()) {
+				cols[j].add(i);
+			}
+			nnz += row.size();
+		}
+		long maxEntries = Math.max(MAX_FILL_FACTOR * nnz, (long) MIN_FILL_PER_STATE * n);
+
+		// Priority queue of states to eliminate, by Markowitz count (lazily updated:
+		// entries (count << 32 | i) are ignored if count is no longer current)
+		long[] cost = new long[n];
+		LongHeapPriorityQueue queue = new LongHeapPriorityQueue(n);
+		for (int i = 0; i < n; i++) {
+			cost[i] = markowitz(i, rows, cols);
+			queue.enqueue(cost[i] << 32 | i);
+		}
+
+		// Eliminate all but one state; for each eliminated state, store the pivot
+		// and the (remaining) entries of its column, needed for back substitution
+		int[] order = new int[n];
+		double[] pivots = new double[n];
+		int[][] colIndices = new int[n][];
+		double[][] colValues = new double[n][];
+		boolean[] eliminated = new boolean[n];
+		long entries = nnz;
+		for (int step = 0; step < n - 1; step++) {
+			int p = nextPivot(queue, cost);
+			order[step] = p;
+			eliminated[p] = true;
+			Int2DoubleOpenHashMap row = rows[p];
+			// GTH: the pivot is the sum of the off-diagonal entries of the row
+			double pivot = 0.0;
+			for (double d : row.values()) {
+				pivot += d;
+			}
+			if (!(pivot > 0)) {
+				// Not irreducible, so not a BSCC
+				failureReason = "not irreducible";
+				return false;
+			}
+			pivots[p] = pivot;
+			int[] ci = new int[cols[p].size()];
+			double[] cv = new double[ci.length];
+			int m = 0;
+			for (int i : cols[p]) {
+				Int2DoubleOpenHashMap rowI = rows[i];
+				double qip = rowI.remove(p);
+				ci[m] = i;
+				cv[m++] = qip;
+				// Row i gets a share of q_ip / pivot of the transitions of p
+				double w = qip / pivot;
+				for (Int2DoubleMap.Entry e : row.int2DoubleEntrySet()) {
+					int j = e.getIntKey();
+					if (j != i) {
+						if (!rowI.containsKey(j)) {
+							cols[j].add(i);
+							entries++;
+						}
+						rowI.addTo(j, w * e.getDoubleValue());
+					}
+				}
+			}
+			colIndices[p] = ci;
+			colValues[p] = cv;
+			for (int j : row.keySet()) {
+				cols[j].remove(p);
+			}
+			entries -= row.size() + ci.length;
+			rows[p] = null;
+			cols[p] = null;
+			numEntries += ci.length + 1;
+			if (entries + numEntries > maxEntries) {
+				numEntries = 0;
+				failureReason = "too much fill-in";
+				return false;
+			}
+			// Update the Markowitz counts of affected states
+			for (int i : ci) {
+				updateCost(i, rows, cols, cost, queue);
+			}
+			for (int j : row.keySet()) {
+				updateCost(j, rows, cols, cost, queue);
+			}
+		}
+		int last = -1;
+		for (int i = 0; i < n; i++) {
+			if (!eliminated[i]) {
+				last = i;
+			}
+		}
+
+		// Back substitution: the last state gets (unnormalised) probability 1;
+		// then, in reverse elimination order, the balance equation of each state
+		// in the chain reduced at the time of its elimination gives its probability
+		double[] soln = new double[n];
+		soln[last] = 1.0;
+		double sum = 1.0;
+		for (int step = n - 2; step >= 0; step--) {
+			int p = order[step];
+			double d = 0.0;
+			int[] ci = colIndices[p];
+			double[] cv = colValues[p];
+			for (int m = 0; m < ci.length; m++) {
+				d += soln[ci[m]] * cv[m];
+			}
+			soln[p] = d / pivots[p];
+			sum += soln[p];
+		}
+		for (int i = 0; i < n; i++) {
+			result[stateOf[i]] = soln[i] / sum;
+		}
+		return true;
+	}
+
+	/**
+	 * Remove and return the state with the lowest (current) Markowitz count from the queue.
+	 */
+	private static int nextPivot(LongHeapPriorityQueue queue, long[] cost)
+	{
+		while (true) {
+			long entry = queue.dequeueLong();
+			int i = (int) (entry & 0xffffffffL);
+			if (cost[i] == entry >>> 32) {
+				cost[i] = -1;
+				return i;
+			}
+		}
+	}
+
+	/**
+	 * Markowitz count (bound on fill-in caused by elimination) of state i, capped to fit in 31 bits.
+	 */
+	private static long markowitz(int i, Int2DoubleOpenHashMap[] rows, IntOpenHashSet[] cols)
+	{
+		return Math.min((long) rows[i].size() * cols[i].size(), Integer.MAX_VALUE);
+	}
+
+	private static void updateCost(int i, Int2DoubleOpenHashMap[] rows, IntOpenHashSet[] cols, long[] cost, LongHeapPriorityQueue queue)
+	{
+		long c = markowitz(i, rows, cols);
+		if (c != cost[i]) {
+			cost[i] = c;
+			queue.enqueue(c << 32 | i);
+		}
+	}
+}
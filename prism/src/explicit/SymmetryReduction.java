@@ -0,0 +1,179 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import parser.State;
+import parser.VarList;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismLangException;
+import prism.PrismSettings;
+
+/**
+ * Symmetry reduction for explicit-state model construction.
+ * <br>
+ * A contiguous block of modules is assumed to be fully symmetric (as for the symbolic engines,
+ * this is specified via {@link PrismSettings#PRISM_SYMM_RED_PARAMS}, i.e., by the numbers of modules
+ * before and after the symmetric ones). Each state is replaced by a canonical representative of its orbit,
+ * obtained by sorting the values of the symmetric modules' variables, module by module. Blocks are compared
+ * lexicographically on their (encoded) variable values, in declaration order, so the representatives
+ * are the same states as those kept by the symbolic engines.
+ * <br>
+ * As for the symbolic engines, it is up to the user to ensure that the modules are indeed symmetric
+ * and that properties (and rewards) are symmetric too.
+ */
+public class SymmetryReduction
+{
+	/** Variable info */
+	private VarList varList;
+	/** Indices of the variables of each symmetric module (in declaration order) */
+	private int[][] blocks;
+	/** Scratch space (per thread) for the encoded values of each block, used by {@link #canonicalise(State)} */
+	private final ThreadLocal<int[][]> blockValues = ThreadLocal.withInitial(() -> new int[blocks.length][blocks[0].length]);
+
+	/**
+	 * Create the symmetry reduction specified by the settings of {@code parent}, for a model
+	 * with variables {@code varList} and {@code numModules} modules, or return null if it is disabled.
+	 */
+	public static SymmetryReduction create(PrismComponent parent, VarList varList, int numModules) throws PrismException
+	{
+		PrismSettings settings = parent.getSettings();
+		String params = settings == null ? null : settings.getString(PrismSettings.PRISM_SYMM_RED_PARAMS);
+		if (params == null || params.trim().isEmpty()) {
+			return null;
+		}
+		String ss[] = params.trim().split(" ");
+		if (ss.length != 2) {
+			throw new PrismException("Invalid parameters for symmetry reduction");
+		}
+		int numModulesBeforeSymm, numModulesAfterSymm;
+		try {
+			numModulesBeforeSymm = Integer.parseInt(ss[0].trim());
+			numModulesAfterSymm = Integer.parseInt(ss[1].trim());
+		} catch (NumberFormatException e) {
+			throw new PrismException("Invalid parameters for symmetry reduction");
+		}
+		int numSymmModules = numModules - (numModulesBeforeSymm + numModulesAfterSymm);
+		if (numModulesBeforeSymm < 0 || numModulesAfterSymm < 0 || numSymmModules < 0) {
+			throw new PrismException("Invalid parameters for symmetry reduction");
+		}
+		return new SymmetryReduction(varList, numModulesBeforeSymm, numSymmModules);
+	}
+
+	/**
+	 * Create a symmetry reduction for modules {@code first}, ..., {@code first + num - 1}
+	 * of a model with variables {@code varList}.
+	 */
+	public SymmetryReduction(VarList varList, int first, int num) throws PrismException
+	{
+		this.varList = varList;
+		blocks = new int[num][];
+		for (int m = 0; m < num; m++) {
+			List<Integer> vars = new ArrayList<>();
+			for (int i = 0; i < varList.getNumVars(); i++) {
+				if (varList.getModule(i) == first + m) {
+					vars.add(i);
+				}
+			}
+			blocks[m] = vars.stream().mapToInt(Integer::intValue).toArray();
+		}
+		// Symmetric modules must have matching variables
+		for (int m = 1; m < num; m++) {
+			if (blocks[m].length != blocks[0].length) {
+				throw new PrismException("Symmetry reduction requires the symmetric modules to have the same number of variables");
+			}
+			for (int k = 0; k < blocks[0].length; k++) {
+				int i = blocks[0][k];
+				int j = blocks[m][k];
+				if (!varList.getType(i).equals(varList.getType(j)) || varList.getLow(i) != varList.getLow(j) || varList.getHigh(i) != varList.getHigh(j)) {
+					throw new PrismException("Symmetry reduction requires the symmetric modules to have variables with the same types and ranges");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the number of symmetric modules.
+	 */
+	public int getNumSymmetricModules()
+	{
+		return blocks.length;
+	}
+
+	/**
+	 * Get the canonical representative of a state's orbit. This is the state itself
+	 * (i.e., the same object) if it is already canonical, and a new State otherwise.
+	 */
+	public State canonicalise(State state) throws PrismLangException
+	{
+		int num = blocks.length;
+		if (num < 2) {
+			return state;
+		}
+		// Encode the values of each block
+		int blockSize = blocks[0].length;
+		int[][] values = blockValues.get();
+		for (int m = 0; m < num; m++) {
+			for (int k = 0; k < blockSize; k++) {
+				int i = blocks[m][k];
+				values[m][k] = varList.encodeToInt(i, state.varValues[i]);
+			}
+		}
+		// Insertion sort on the blocks (the number of modules is small)
+		int[] order = new int[num];
+		boolean sorted = true;
+		for (int m = 0; m < num; m++) {
+			int p = m;
+			while (p > 0 && compare(values[order[p - 1]], values[m]) > 0) {
+				order[p] = order[p - 1];
+				p--;
+				sorted = false;
+			}
+			order[p] = m;
+		}
+		if (sorted) {
+			return state;
+		}
+		State canon = new State(state);
+		for (int m = 0; m < num; m++) {
+			for (int k = 0; k < blockSize; k++) {
+				canon.varValues[blocks[m][k]] = state.varValues[blocks[order[m]][k]];
+			}
+		}
+		return canon;
+	}
+
+	/**
+	 * Compare two blocks of encoded values lexicographically.
+	 */
+	private static int compare(int[] a, int[] b)
+	{
+		for (int k = 0; k < a.length; k++) {
+			if (a[k] != b[k]) {
+				return Integer.compare(a[k], b[k]);
+			}
+		}
+		return 0;
+	}
+}
@@ -31,9 +31,11 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import common.Interval;
 import explicit.DTMC;
@@ -41,10 +43,13 @@ import explicit.IDTMC;
 import explicit.MDP;
 import explicit.Model;
 import explicit.NondetModel;
+import parser.EvaluateContext;
+import parser.EvaluateContextState;
 import parser.State;
 import parser.Values;
 import parser.ast.ASTElement;
 import parser.ast.Expression;
+import parser.ast.ModulesFile;
 import parser.ast.RewardStruct;
 import prism.Evaluator;
 import prism.ModelType;
@@ -324,6 +329,119 @@ public class ConstructRewards extends PrismComponent
 		return rewards;
 	}
 
+	/**
+	 * Construct the rewards for all reward structures of a PRISM model in a single pass,
+	 * in which the states of the model are processed in parallel.
+	 * Each reward structure is stored as a {@link RewardsArray}, in which
+	 * transition rewards are attached to choices (nondeterministic models) or transitions (Markov chains).
+	 * The rewards match those built by {@link #buildRewardStructure(Model, RewardGenerator, int)}
+	 * from a generator for the same model. Whether rewards are negative/non-finite is determined once here
+	 * (see {@link RewardsArray#validate()}), so that, when the rewards are used (e.g., when provided via
+	 * a {@link RewardGenerator}), they only need to be checked again individually if there is a problem.
+	 * @param model The model
+	 * @param modulesFile The PRISM model (with constants already replaced by their values)
+	 */
+	public List<Rewards<Double>> buildAllRewardStructures(Model<Double> model, ModulesFile modulesFile) throws PrismException
+	{
+		// Extract some model info
+		int numStates = model.getNumStates();
+		List<State> statesList = model.getStatesList();
+		Values constantValues = modulesFile.getConstantValues();
+		boolean nondet = model.getModelType().nondeterministic();
+		if (!nondet && !(model instanceof DTMC)) {
+			throw new PrismNotSupportedException("Cannot build rewards for " + model.getModelType() + "s");
+		}
+		// Create reward structure objects (sharing transition offsets where needed)
+		int numRewardStructs = modulesFile.getNumRewardStructs();
+		RewardStruct rewStrs[] = new RewardStruct[numRewardStructs];
+		RewardsArray rewards[] = new RewardsArray[numRewardStructs];
+		int transStarts[] = null;
+		for (int r = 0; r < numRewardStructs; r++) {
+			rewStrs[r] = modulesFile.getRewardStruct(r);
+			boolean hasTransRewards = rewStrs[r].getNumTransItems() > 0;
+			if (hasTransRewards && transStarts == null) {
+				transStarts = RewardsArray.computeTransStarts(model, nondet);
+			}
+			rewards[r] = new RewardsArray(numStates, rewStrs[r].getNumStateItems() > 0, hasTransRewards ? transStarts : null);
+		}
+		// Add rewards, for all reward structures, state by state (in parallel)
+		PrismException error[] = new PrismException[1];
+		IntStream.range(0, numStates).parallel().forEach(s -> {
+			try {
+				addRewardsForState(model, s, statesList.get(s), constantValues, nondet, rewStrs, rewards);
+			} catch (PrismException e) {
+				synchronized (error) {
+					if (error[0] == null) {
+						error[0] = e;
+					}
+				}
+			}
+		});
+		if (error[0] != null) {
+			throw error[0];
+		}
+		List<Rewards<Double>> rewardsList = new ArrayList<>(numRewardStructs);
+		for (int r = 0; r < numRewardStructs; r++) {
+			rewards[r].validate();
+			rewardsList.add(rewards[r]);
+		}
+		return rewardsList;
+	}
+
+	/**
+	 * Add the rewards for state {@code s} for all reward structures, as part of {@link #buildAllRewardStructures(Model, ModulesFile)}.
+	 */
+	private void addRewardsForState(Model<Double> model, int s, State state, Values constantValues, boolean nondet, RewardStruct rewStrs[], RewardsArray rewards[]) throws PrismException
+	{
+		EvaluateContext ec = new EvaluateContextState(constantValues, state);
+		// Don't add rewards to transitions added to "fix" deadlock states
+		boolean deadlock = model.isDeadlockState(s);
+		// Actions for each choice/transition (extracted when first needed)
+		List<Object> actions = null;
+		for (int r = 0; r < rewStrs.length; r++) {
+			RewardStruct rewStr = rewStrs[r];
+			int n = rewStr.getNumItems();
+			for (int i = 0; i < n; i++) {
+				boolean trans = rewStr.getRewardStructItem(i).isTransitionReward();
+				if (trans && deadlock) {
+					continue;
+				}
+				if (!rewStr.getStates(i).evaluateBoolean(ec)) {
+					continue;
+				}
+				double rew = rewStr.getReward(i).evaluateDouble(ec);
+				// State reward
+				if (!trans) {
+					rewards[r].addToStateReward(s, rew);
+					continue;
+				}
+				// Transition reward (on choices/transitions with a matching action)
+				if (actions == null) {
+					actions = new ArrayList<>();
+					if (nondet) {
+						int numChoices = ((NondetModel<Double>) model).getNumChoices(s);
+						for (int k = 0; k < numChoices; k++) {
+							actions.add(((NondetModel<Double>) model).getAction(s, k));
+						}
+					} else {
+						Iterator<Map.Entry<Integer, Pair<Double, Object>>> iter = ((DTMC<Double>) model).getTransitionsAndActionsIterator(s);
+						while (iter.hasNext()) {
+							actions.add(iter.next().getValue().second);
+						}
+					}
+				}
+				String action = rewStr.getSynch(i);
+				int numActions = actions.size();
+				for (int k = 0; k < numActions; k++) {
+					Object modelAction = actions.get(k);
+					if (modelAction == null ? action.isEmpty() : modelAction.equals(action)) {
+						rewards[r].addToTransitionReward(s, k, rew);
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Construct the rewards for a Markov chain (DTMC or CTMC) from files exported explicitly by PRISM. 
 	 * @param mc The DTMC or CTMC
@@ -527,6 +645,7 @@ public class ConstructRewards extends PrismComponent
 	 * @param model The model for the rewards
 	 * @param eval Evaluator matching the type {@code Value} of the reward value
 	 */
+	@SuppressWarnings("unchecked")
 	private <Value> Rewards<Value> checkRewardObject(Rewards<Value> rewards, Model<Value> model, Evaluator<Value> eval) throws PrismException
 	{
 		int numStates = model.getNumStates();
@@ -534,6 +653,13 @@ public class ConstructRewards extends PrismComponent
 		// in which (Markov chain) transition rewards are converted to expected rewards
 		RewardsExplicit<Value> rewardsRet = null;
 		boolean convertToExpected = !model.getModelType().nondeterministic() && rewards.hasTransitionRewards() && expectedRewards;
+		// Rewards already validated when built (see buildAllRewardStructures) need no further checks
+		if (rewards instanceof RewardsArray && ((RewardsArray) rewards).isKnownLegal(allowNegative)) {
+			if (convertToExpected) {
+				return (Rewards<Value>) ((RewardsArray) rewards).getExpectedStateRewards((DTMC<Double>) model);
+			}
+			return rewards;
+		}
 		if (convertToExpected) {
 			rewardsRet = new RewardsSimple<>(numStates);
 			rewardsRet.setEvaluator(rewards.getEvaluator());
@@ -0,0 +1,237 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit.rewards;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import explicit.DTMC;
+import explicit.Model;
+import explicit.NondetModel;
+import explicit.Product;
+
+/**
+ * Explicit-state storage of (double-valued) state and transition rewards, as primitive arrays.
+ * Transition rewards are stored in a single array, indexed via an array of per-state offsets:
+ * for a nondeterministic model, these are the rewards for each choice,
+ * for a Markov chain like model, they are the rewards for each transition.
+ */
+public class RewardsArray extends RewardsExplicit<Double>
+{
+	/** Array of state rewards (null if there are none) **/
+	protected double stateRewards[];
+	/** Array of transition rewards (null if there are none) **/
+	protected double transRewards[];
+	/** Offsets into {@code transRewards}: the rewards for state s are stored from {@code transStarts[s]} to {@code transStarts[s+1]}-1 **/
+	protected int transStarts[];
+
+	/** Has {@link #validate()} been called (since the rewards were last modified)? */
+	protected boolean validated;
+	/** Are all rewards finite? (only meaningful if {@code validated}) */
+	protected boolean allFinite;
+	/** Are all rewards non-negative? (only meaningful if {@code validated}) */
+	protected boolean allNonNegative;
+	/** Expected rewards for a Markov chain, computed on first request (see {@link #getExpectedStateRewards(DTMC)}) */
+	protected StateRewardsArray expectedStateRewards;
+
+	/**
+	 * Constructor: all zero rewards.
+	 * @param numStates Number of states
+	 * @param stateRewards Allocate storage for state rewards?
+	 * @param transStarts Offsets for transition rewards of each state (length numStates+1), or null if there are none
+	 */
+	public RewardsArray(int numStates, boolean stateRewards, int transStarts[])
+	{
+		this.stateRewards = stateRewards ? new double[numStates] : null;
+		this.transStarts = transStarts;
+		this.transRewards = transStarts == null ? null : new double[transStarts[numStates]];
+	}
+
+	/**
+	 * Get offsets for storing transition rewards, from the number of transitions (or choices) for each state.
+	 * @param model The model
+	 * @param nondet Use choices (true) or transitions (false)
+	 */
+	public static int[] computeTransStarts(Model<?> model, boolean nondet)
+	{
+		int numStates = model.getNumStates();
+		int transStarts[] = new int[numStates + 1];
+		for (int s = 0; s < numStates; s++) {
+			int n = nondet ? ((NondetModel<?>) model).getNumChoices(s) : model.getNumTransitions(s);
+			transStarts[s + 1] = transStarts[s] + n;
+		}
+		return transStarts;
+	}
+
+	// Mutators
+
+	@Override
+	public void setStateReward(int s, Double r)
+	{
+		stateRewards[s] = r;
+		invalidate();
+	}
+
+	@Override
+	public void addToStateReward(int s, Double r)
+	{
+		stateRewards[s] += r;
+		invalidate();
+	}
+
+	@Override
+	public void setTransitionReward(int s, int i, Double r)
+	{
+		transRewards[transStarts[s] + i] = r;
+		invalidate();
+	}
+
+	@Override
+	public void addToTransitionReward(int s, int i, Double r)
+	{
+		transRewards[transStarts[s] + i] += r;
+		invalidate();
+	}
+
+	/**
+	 * Note that the rewards have been modified, so any previous validation or expected rewards are out of date.
+	 */
+	private void invalidate()
+	{
+		validated = false;
+		expectedStateRewards = null;
+	}
+
+	/**
+	 * Check, in a single pass over the stored rewards, whether they are all finite and non-negative,
+	 * so that later users of the rewards need not check them again (see {@link #isKnownLegal(boolean)}).
+	 * Should be called once all rewards have been added.
+	 */
+	public void validate()
+	{
+		allFinite = true;
+		allNonNegative = true;
+		for (double[] rews : new double[][] { stateRewards, transRewards }) {
+			if (rews != null) {
+				for (double rew : rews) {
+					if (!Double.isFinite(rew)) {
+						allFinite = false;
+					} else if (rew < 0) {
+						allNonNegative = false;
+					}
+				}
+			}
+		}
+		validated = true;
+	}
+
+	/**
+	 * Are the rewards known (from a call to {@link #validate()}) to be legal,
+	 * i.e., finite and, unless {@code allowNegative} is true, non-negative?
+	 * If false, they may or may not be legal, and should be checked individually.
+	 */
+	public boolean isKnownLegal(boolean allowNegative)
+	{
+		return validated && allFinite && (allowNegative || allNonNegative);
+	}
+
+	/**
+	 * Get the expected rewards for a Markov chain, i.e. the state rewards plus the
+	 * probability-weighted sum of the transition rewards for each state, as state rewards.
+	 * These are computed on the first call and then stored.
+	 * @param mc The Markov chain that the rewards were built for
+	 */
+	public synchronized StateRewardsArray getExpectedStateRewards(DTMC<Double> mc)
+	{
+		if (expectedStateRewards == null) {
+			int numStates = mc.getNumStates();
+			StateRewardsArray rewardsRet = new StateRewardsArray(numStates);
+			for (int s = 0; s < numStates; s++) {
+				double rew = stateRewards == null ? 0.0 : stateRewards[s];
+				if (transRewards != null) {
+					Iterator<Map.Entry<Integer, Double>> iter = mc.getTransitionsIterator(s);
+					for (int i = transStarts[s]; iter.hasNext(); i++) {
+						double prob = iter.next().getValue();
+						if (transRewards[i] != 0.0) {
+							rew += prob * transRewards[i];
+						}
+					}
+				}
+				rewardsRet.setStateReward(s, rew);
+			}
+			expectedStateRewards = rewardsRet;
+		}
+		return expectedStateRewards;
+	}
+
+	// Accessors
+
+	@Override
+	public boolean hasStateRewards()
+	{
+		return stateRewards != null;
+	}
+
+	@Override
+	public boolean hasTransitionRewards()
+	{
+		return transRewards != null;
+	}
+
+	@Override
+	public Double getStateReward(int s)
+	{
+		return stateRewards == null ? 0.0 : stateRewards[s];
+	}
+
+	@Override
+	public Double getTransitionReward(int s, int i)
+	{
+		return transRewards == null ? 0.0 : transRewards[transStarts[s] + i];
+	}
+
+	@Override
+	public RewardsArray liftFromModel(Product<?> product)
+	{
+		Model<?> modelProd = product.getProductModel();
+		int numStatesProd = modelProd.getNumStates();
+		// Product states have the same transitions/choices as the corresponding model states
+		int transStartsProd[] = null;
+		if (transStarts != null) {
+			transStartsProd = new int[numStatesProd + 1];
+			for (int s = 0; s < numStatesProd; s++) {
+				int sModel = product.getModelState(s);
+				transStartsProd[s + 1] = transStartsProd[s] + transStarts[sModel + 1] - transStarts[sModel];
+			}
+		}
+		RewardsArray rewardsProd = new RewardsArray(numStatesProd, stateRewards != null, transStartsProd);
+		for (int s = 0; s < numStatesProd; s++) {
+			int sModel = product.getModelState(s);
+			if (stateRewards != null) {
+				rewardsProd.stateRewards[s] = stateRewards[sModel];
+			}
+			if (transStarts != null) {
+				System.arraycopy(transRewards, transStarts[sModel], rewardsProd.transRewards, transStartsProd[s], transStarts[sModel + 1] - transStarts[sModel]);
+			}
+		}
+		return rewardsProd;
+	}
+}
@@ -0,0 +1,184 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package io;
+
+import prism.PrismException;
+import prism.PrismFileLog;
+import prism.PrismLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Back end for model exporters that write (text) files with one or more rows per state.
+ * Rows are formatted into {@link ExportBuffer}s; for large models, ranges (chunks) of states
+ * are formatted in parallel and then written out in order. If the destination is a
+ * {@link PrismFileLog} for a file, buffers are written directly to its {@link FileChannel};
+ * otherwise, they are passed to the {@link PrismLog} as strings.
+ */
+public class ChunkedExportWriter
+{
+	/** Number of states formatted per chunk */
+	private static final int CHUNK_STATES = 4096;
+	/** Number of bytes after which sequentially formatted output is written out */
+	private static final int WRITE_BYTES = 1 << 20;
+
+	/**
+	 * Formatter for the rows of a single state.
+	 * When exporting in parallel, this is called concurrently for different states.
+	 */
+	@FunctionalInterface
+	public interface StateRowsFormatter
+	{
+		/**
+		 * Append the rows for state {@code s} to {@code buf}.
+		 */
+		public void formatRows(int s, ExportBuffer buf) throws PrismException;
+	}
+
+	/** Where to export */
+	private final PrismLog out;
+	/** Channel to write to directly (null if not possible) */
+	private final FileChannel channel;
+	/** Number of threads used for formatting */
+	private final int numThreads;
+	/** Buffer for sequentially formatted output */
+	private final ExportBuffer buf = new ExportBuffer();
+
+	/**
+	 * Create a writer that exports to {@code out},
+	 * formatting with {@code numThreads} threads (0 means use all available processors).
+	 */
+	public ChunkedExportWriter(PrismLog out, int numThreads)
+	{
+		this.out = out;
+		this.channel = (out instanceof PrismFileLog) ? ((PrismFileLog) out).getFileChannel() : null;
+		this.numThreads = numThreads == 0 ? Runtime.getRuntime().availableProcessors() : numThreads;
+	}
+
+	/**
+	 * Get the buffer for sequentially formatted output, e.g., file headers.
+	 * Its contents are written out by the next call to {@link #writeStates} or {@link #flush}.
+	 */
+	public ExportBuffer getBuffer()
+	{
+		return buf;
+	}
+
+	/**
+	 * Format and write the rows for states 0, ..., {@code numStates}-1, in order.
+	 * @param numStates Number of states
+	 * @param formatter Formatter for the rows of each state
+	 */
+	public void writeStates(int numStates, StateRowsFormatter formatter) throws PrismException
+	{
+		// Sequential version
+		if (numThreads <= 1 || numStates <= CHUNK_STATES) {
+			for (int s = 0; s < numStates; s++) {
+				formatter.formatRows(s, buf);
+				if (buf.size() >= WRITE_BYTES) {
+					write(buf);
+				}
+			}
+			return;
+		}
+		// Parallel version: format a window of chunks concurrently, then write them in order
+		write(buf);
+		int numChunks = (numStates + CHUNK_STATES - 1) / CHUNK_STATES;
+		int window = Math.min(numChunks, 2 * numThreads);
+		ExportBuffer[] chunkBufs = new ExportBuffer[window];
+		for (int i = 0; i < window; i++) {
+			chunkBufs[i] = new ExportBuffer();
+		}
+		PrismException[] errors = new PrismException[window];
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		try {
+			for (int first = 0; first < numChunks; first += window) {
+				int firstChunk = first;
+				int lastChunk = Math.min(first + window, numChunks);
+				pool.submit(() -> IntStream.range(firstChunk, lastChunk).parallel().forEach(c -> {
+					ExportBuffer chunkBuf = chunkBufs[c - firstChunk];
+					int lo = c * CHUNK_STATES;
+					int hi = Math.min(lo + CHUNK_STATES, numStates);
+					try {
+						for (int s = lo; s < hi; s++) {
+							formatter.formatRows(s, chunkBuf);
+						}
+					} catch (PrismException e) {
+						errors[c - firstChunk] = e;
+					}
+				})).get();
+				for (int i = 0; i < lastChunk - firstChunk; i++) {
+					if (errors[i] != null) {
+						throw errors[i];
+					}
+					write(chunkBufs[i]);
+				}
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new PrismException("Model export failed: " + e.getMessage());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Write out any sequentially formatted output.
+	 * This should be called once exporting is finished and before any other use of the {@link PrismLog}.
+	 */
+	public void flush() throws PrismException
+	{
+		write(buf);
+		out.flush();
+	}
+
+	/**
+	 * Write the contents of a buffer and then empty it.
+	 */
+	private void write(ExportBuffer b) throws PrismException
+	{
+		if (b.size() == 0) {
+			return;
+		}
+		if (channel != null) {
+			out.flush();
+			ByteBuffer bytes = b.toByteBuffer();
+			try {
+				while (bytes.hasRemaining()) {
+					channel.write(bytes);
+				}
+			} catch (IOException e) {
+				throw new PrismException("Could not write to file: " + e.getMessage());
+			}
+		} else {
+			out.print(b.toString());
+		}
+		b.reset();
+	}
+}
@@ -101,26 +101,28 @@ public class DRNExporter<Value> extends ModelExporter<Value>
 		// Output states and transitions
 		out.println("@model");
 
-		// Iterate through states
-		for (int s = 0; s < numStates; s++) {
+		// Iterate through states (formatted in parallel, if enabled)
+		ChunkedExportWriter writer = createWriter(out);
+		writer.writeStates(numStates, (s, buf) -> {
 
 			// Output state info
-			out.print("state " + s);
+			buf.append("state ").append(s);
 			if (modelType.partiallyObservable()) {
-				out.print(" {" + ((PartiallyObservableModel<Value>) model).getObservation(s) +"}");
+				buf.append(" {").append(((PartiallyObservableModel<Value>) model).getObservation(s)).append('}');
 			}
 			if (modelType.continuousTime()) {
-				out.print(" !" + ((CTMC<Value>) model).getExitRate(s));
+				buf.append(" !").append(((CTMC<Value>) model).getExitRate(s));
 			}
 			if (numRewards > 0) {
-				out.print(" " + getStateRewardTuple(getRewards(), s).toStringReversed(e -> formatValue(e, evalRewards), ", "));
+				buf.append(' ');
+				appendRewardTupleReversed(buf, getStateRewardTuple(getRewards(), s), numRewards, evalRewards);
 			}
 			for (int i = 0; i < numLabels; i++) {
 				if (getLabel(i).get(s)) {
-					out.print(" " + getLabelName(i));
+					buf.append(' ').append(getLabelName(i));
 				}
 			}
-			out.println();
+			buf.appendln();
 
 			// Iterate through choices
 			int numChoices = 1;
@@ -128,22 +130,41 @@ public class DRNExporter<Value> extends ModelExporter<Value>
 				numChoices = ((NondetModel<Value>) model).getNumChoices(s);
 			}
 			for (int j = 0; j < numChoices; j++) {
-				out.print("\taction ");
+				buf.append("\taction ");
 				if (modelType.nondeterministic() && showActions) {
 					Object action = ((NondetModel<Value>) model).getAction(s, j);
-					out.print(action != null ? action : "__NOLABEL__");
+					buf.append(action != null ? action : "__NOLABEL__");
 				} else {
-					out.print(j);
+					buf.append(j);
 				}
 				if (numRewards > 0) {
-					out.print(" " + getTransitionRewardTuple(getRewards(), s, j).toStringReversed(e -> formatValue(e, evalRewards), ", "));
+					buf.append(' ');
+					appendRewardTupleReversed(buf, getTransitionRewardTuple(getRewards(), s, j), numRewards, evalRewards);
 				}
-				out.println();
+				buf.appendln();
 				// Print out (sorted) transitions
 				for (Transition<?> transition : getSortedTransitionsIterator(model, s, j, showActions)) {
-					out.println("\t\t" + transition.target + " : " + transition.toString(modelExportOptions));
+					buf.append("\t\t").append(transition.target).append(" : ");
+					transition.appendTo(buf, modelExportOptions);
+					buf.appendln();
 				}
 			}
+		});
+		writer.flush();
+	}
+
+	/**
+	 * Append a tuple of rewards, in reverse order, in the form "[r_n, ..., r_1]".
+	 */
+	private void appendRewardTupleReversed(ExportBuffer buf, RewardTuple<Value> tuple, int numRewards, Evaluator<Value> evalRewards)
+	{
+		buf.append('[');
+		for (int r = numRewards - 1; r >= 0; r--) {
+			appendValue(buf, tuple.get(r), evalRewards);
+			if (r > 0) {
+				buf.append(", ");
+			}
 		}
+		buf.append(']');
 	}
 }
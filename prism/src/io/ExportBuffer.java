@@ -0,0 +1,338 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package io;
+
+import common.Interval;
+import prism.Evaluator;
+import prism.PrismUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer into which the rows of exported files are formatted,
+ * avoiding the intermediate strings created by concatenation and {@code String.format}.
+ * Buffers are intended to be reused, see {@link #reset()}.
+ * Text is encoded as UTF-8 (in practice, exported files are almost entirely ASCII).
+ */
+public class ExportBuffer
+{
+	/** Line separator, as used by {@code println} */
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	/**
+	 * Does {@code Double.toString} produce the same digits as {@code java.util.Formatter}?
+	 * This is the case before JDK 19, where both use the same (not always shortest) digit generation;
+	 * from JDK 19, {@code Double.toString} gives the shortest digits, but {@code Formatter} is unchanged.
+	 * Checked using a value for which the two differ.
+	 */
+	private static final boolean TOSTRING_MATCHES_FORMATTER = Double.toString(2.82879384806159E17).equals("2.82879384806159008E17");
+
+	/** Contents of the buffer */
+	private byte[] bytes;
+	/** Number of bytes used */
+	private int size;
+	/** Scratch space for the digits of numbers */
+	private final byte[] digits = new byte[32];
+	/** Assume digits from {@code Double.toString} match those used by {@code Formatter}? (can be disabled for testing) */
+	boolean trustToStringDigits = TOSTRING_MATCHES_FORMATTER;
+
+	/**
+	 * Create an empty buffer.
+	 */
+	public ExportBuffer()
+	{
+		this(1 << 16);
+	}
+
+	/**
+	 * Create an empty buffer, with space for {@code capacity} bytes initially.
+	 */
+	public ExportBuffer(int capacity)
+	{
+		bytes = new byte[Math.max(capacity, 16)];
+	}
+
+	/**
+	 * Get the number of bytes currently in the buffer.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Empty the buffer (but keep the space allocated for reuse).
+	 */
+	public void reset()
+	{
+		size = 0;
+	}
+
+	/**
+	 * Get (a view of) the contents of the buffer, e.g. for writing to a channel.
+	 */
+	public ByteBuffer toByteBuffer()
+	{
+		return ByteBuffer.wrap(bytes, 0, size);
+	}
+
+	@Override
+	public String toString()
+	{
+		return new String(bytes, 0, size, StandardCharsets.UTF_8);
+	}
+
+	// Appending text
+
+	public ExportBuffer append(char c)
+	{
+		if (c < 0x80) {
+			ensureCapacity(1);
+			bytes[size++] = (byte) c;
+			return this;
+		}
+		return append(String.valueOf(c));
+	}
+
+	public ExportBuffer append(String s)
+	{
+		int len = s.length();
+		ensureCapacity(len);
+		for (int i = 0; i < len; i++) {
+			char c = s.charAt(i);
+			if (c >= 0x80) {
+				// Fall back to a full encoding for non-ASCII text
+				byte[] encoded = s.substring(i).getBytes(StandardCharsets.UTF_8);
+				ensureCapacity(encoded.length);
+				System.arraycopy(encoded, 0, bytes, size, encoded.length);
+				size += encoded.length;
+				return this;
+			}
+			bytes[size++] = (byte) c;
+		}
+		return this;
+	}
+
+	public ExportBuffer append(Object obj)
+	{
+		return append(String.valueOf(obj));
+	}
+
+	public ExportBuffer append(int i)
+	{
+		return append((long) i);
+	}
+
+	public ExportBuffer append(long l)
+	{
+		if (l == Long.MIN_VALUE) {
+			return append(Long.toString(l));
+		}
+		ensureCapacity(20);
+		if (l < 0) {
+			bytes[size++] = '-';
+			l = -l;
+		}
+		int n = 0;
+		do {
+			digits[n++] = (byte) ('0' + (l % 10));
+			l /= 10;
+		} while (l > 0);
+		while (n > 0) {
+			bytes[size++] = digits[--n];
+		}
+		return this;
+	}
+
+	/**
+	 * Append a line separator (the same as used by {@code println}).
+	 */
+	public ExportBuffer appendln()
+	{
+		return append(LINE_SEPARATOR);
+	}
+
+	// Appending values
+
+	/**
+	 * Append a value, formatted for export to {@code precision} significant digits,
+	 * exactly as done by {@link Evaluator#toStringExport(Object, int)}.
+	 * Doubles (and intervals of doubles) are formatted directly into the buffer.
+	 */
+	@SuppressWarnings("unchecked")
+	public <Value> ExportBuffer appendValue(Value value, Evaluator<Value> eval, int precision)
+	{
+		if (eval instanceof Evaluator.EvaluatorDouble) {
+			return appendDouble((Double) value, precision);
+		} else if (eval instanceof Evaluator.EvaluatorDoubleInterval) {
+			Interval<Double> intv = (Interval<Double>) value;
+			return append('[').appendDouble(intv.getLower(), precision).append(',').appendDouble(intv.getUpper(), precision).append(']');
+		} else {
+			return append(eval.toStringExport(value, precision));
+		}
+	}
+
+	/**
+	 * Append a double, formatted as by {@link PrismUtils#formatDouble(int, double)},
+	 * i.e., printf's %.(prec)g with trailing zeros removed, but without the overhead
+	 * of {@code String.format} and regular expressions. Output is identical:
+	 * like {@code java.util.Formatter}, the digits are obtained by rounding (half up)
+	 * a decimal representation that uniquely identifies the double, here from {@code Double.toString}.
+	 * Where this may not give the same digits as {@code Formatter} (from JDK 19),
+	 * and the result of rounding could depend on which digits are used,
+	 * {@link PrismUtils#formatDouble(int, double)} is called instead.
+	 * @param d The double
+	 * @param prec Precision (significant digits) >= 1
+	 */
+	public ExportBuffer appendDouble(double d, int prec)
+	{
+		// Leave zeros, infinities and NaN to the standard method
+		if (d == 0.0 || Double.isNaN(d) || Double.isInfinite(d)) {
+			return append(PrismUtils.formatDouble(prec, d));
+		}
+		if (prec < 1) {
+			throw new IllegalArgumentException("Precision has to be >= 1; got " + prec);
+		}
+		// Extract digits/exponent of the shortest representation (d1.d2d3... x 10^exp)
+		String str = Double.toString(Math.abs(d));
+		int len = str.length();
+		int n = 0;
+		int numIntDigits = -1;
+		int exp = 0;
+		for (int i = 0; i < len; i++) {
+			char c = str.charAt(i);
+			if (c == '.') {
+				numIntDigits = n;
+			} else if (c == 'E') {
+				exp = Integer.parseInt(str.substring(i + 1));
+				break;
+			} else if (n > 0 || c != '0') {
+				digits[n++] = (byte) (c - '0');
+			} else if (numIntDigits >= 0) {
+				// Leading zero after the decimal point
+				exp--;
+			}
+		}
+		exp += (numIntDigits > 0 ? numIntDigits : 0) - 1;
+		if (!trustToStringDigits && !isRoundingUnambiguous(d, n, exp, prec)) {
+			return append(PrismUtils.formatDouble(prec, d));
+		}
+		// Round (half up) to the required number of significant digits
+		if (n > prec) {
+			boolean roundUp = digits[prec] >= 5;
+			n = prec;
+			if (roundUp) {
+				int i = n - 1;
+				while (i >= 0 && digits[i] == 9) {
+					i--;
+				}
+				if (i < 0) {
+					digits[0] = 1;
+					n = 1;
+					exp++;
+				} else {
+					digits[i]++;
+					n = i + 1;
+				}
+			}
+		}
+		// Strip trailing zeros
+		while (n > 1 && digits[n - 1] == 0) {
+			n--;
+		}
+		// Output in scientific or fixed notation (following %g)
+		ensureCapacity(n + prec + 10);
+		if (d < 0) {
+			bytes[size++] = '-';
+		}
+		if (exp < -4 || exp >= prec) {
+			bytes[size++] = (byte) ('0' + digits[0]);
+			if (n > 1) {
+				bytes[size++] = '.';
+				appendDigits(1, n);
+			}
+			bytes[size++] = 'e';
+			bytes[size++] = (byte) (exp < 0 ? '-' : '+');
+			if (Math.abs(exp) < 10) {
+				bytes[size++] = '0';
+			}
+			append(Math.abs(exp));
+		} else if (exp >= 0) {
+			for (int i = 0; i <= exp; i++) {
+				bytes[size++] = (byte) ('0' + (i < n ? digits[i] : 0));
+			}
+			if (n > exp + 1) {
+				bytes[size++] = '.';
+				appendDigits(exp + 1, n);
+			}
+		} else {
+			bytes[size++] = '0';
+			bytes[size++] = '.';
+			for (int i = -1; i > exp; i--) {
+				bytes[size++] = '0';
+			}
+			appendDigits(0, n);
+		}
+		return this;
+	}
+
+	/**
+	 * Check whether rounding the digits {@code digits[0..n)} of {@code d} (i.e., d1.d2d3... x 10^exp)
+	 * to {@code prec} significant digits gives the same result as for any other decimal that identifies {@code d}.
+	 * All such decimals are within ulp(d) of each other, so this holds if the digits are further
+	 * than that (with a margin for rounding errors here) from any rounding boundary (...d_prec 5).
+	 */
+	private boolean isRoundingUnambiguous(double d, int n, int exp, int prec)
+	{
+		// Digits beyond prec, as a fraction of a unit in the last place kept
+		double frac = 0.0;
+		double scale = 0.1;
+		for (int i = prec; i < n; i++) {
+			frac += digits[i] * scale;
+			scale /= 10;
+		}
+		double unit = Math.pow(10, exp - prec + 1);
+		return Math.abs(frac - 0.5) * unit > 2 * Math.ulp(d);
+	}
+
+	/**
+	 * Append the digits with indices {@code from} (inclusive) to {@code to} (exclusive)
+	 * from the scratch space (capacity should already have been ensured).
+	 */
+	private void appendDigits(int from, int to)
+	{
+		for (int i = from; i < to; i++) {
+			bytes[size++] = (byte) ('0' + digits[i]);
+		}
+	}
+
+	/**
+	 * Make sure there is space for {@code extra} more bytes.
+	 */
+	private void ensureCapacity(int extra)
+	{
+		if (size + extra > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+		}
+	}
+}
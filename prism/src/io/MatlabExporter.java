@@ -83,13 +83,12 @@ public class MatlabExporter<Value> extends ModelExporter<Value>
 
 		// Print states
 		out.println("states=[");
-		int numStates = statesList.size();
-		for (int i = 0; i < numStates; i++) {
-			out.println(statesList.get(i).toStringNoParentheses());
-		}
+		ChunkedExportWriter writer = createWriter(out);
+		writer.writeStates(statesList.size(), (s, buf) -> buf.append(statesList.get(s).toStringNoParentheses()).appendln());
 
 		// Print footer
-		out.println("];");
+		writer.getBuffer().append("];").appendln();
+		writer.flush();
 	}
 
 	/**
@@ -114,13 +113,12 @@ public class MatlabExporter<Value> extends ModelExporter<Value>
 
 		// Print states + observations
 		out.println("obs=[");
-		int numObservations = model.getNumObservations();
-		for (int i = 0; i < numObservations; i++) {
-			out.println(observationsList.get(i).toStringNoParentheses());
-		}
+		ChunkedExportWriter writer = createWriter(out);
+		writer.writeStates(model.getNumObservations(), (o, buf) -> buf.append(observationsList.get(o).toStringNoParentheses()).appendln());
 
 		// Print footer
-		out.println("];");
+		writer.getBuffer().append("];").appendln();
+		writer.flush();
 	}
 
 	/**
@@ -145,13 +143,14 @@ public class MatlabExporter<Value> extends ModelExporter<Value>
 		out.println();
 
 		// Go through states and print satisfying label indices for each one
-		for (int s = 0; s < numStates; s++) {
-			boolean first = true;
+		ChunkedExportWriter writer = createWriter(out);
+		writer.writeStates(numStates, (s, buf) -> {
 			for (int i = 0; i < numLabels; i++) {
 				if (labelStates.get(i).get(s)) {
-					out.println(varName + "_" + labelNames.get(i) + "(" + (s + 1) + ")=1;");
+					buf.append(varName).append('_').append(labelNames.get(i)).append('(').append(s + 1).append(")=1;").appendln();
 				}
 			}
-		}
+		});
+		writer.flush();
 	}
 }
@@ -129,6 +129,11 @@ public class ModelExportOptions implements Cloneable
 	 */
 	private Optional<CompressionFormat> zipFormat = Optional.empty();
 
+	/**
+	 * Number of threads used to format exported files (0 means all available processors)
+	 */
+	private Optional<Integer> numThreads = Optional.empty();
+
 	// Constructors
 
 	/**
@@ -264,6 +269,15 @@ public class ModelExportOptions implements Cloneable
 		return this;
 	}
 
+	/**
+	 * Set number of threads used to format exported files (0 means all available processors)
+	 */
+	public ModelExportOptions setNumThreads(int numThreads)
+	{
+		this.numThreads = Optional.of(numThreads);
+		return this;
+	}
+
 	/**
 	 * Apply any options that have been set in another {@link ModelExportOptions} to this one.
 	 */
@@ -305,6 +319,9 @@ public class ModelExportOptions implements Cloneable
 		if (other.zipFormat.isPresent()) {
 			setCompressionFormat(other.getCompressionFormat());
 		}
+		if (other.numThreads.isPresent()) {
+			setNumThreads(other.getNumThreads());
+		}
 	}
 
 	/**
@@ -435,6 +452,14 @@ public class ModelExportOptions implements Cloneable
 		return zipFormat.orElse(CompressionFormat.GZIP);
 	}
 
+	/**
+	 * Number of threads used to format exported files (0 means all available processors)
+	 */
+	public int getNumThreads()
+	{
+		return numThreads.orElse(0);
+	}
+
 	/**
 	 * Perform a shallow copy of the options.
 	 */
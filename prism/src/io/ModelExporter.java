@@ -308,6 +308,15 @@ public abstract class ModelExporter<Value>
 
 	// Utility functions
 
+	/**
+	 * Create a {@link ChunkedExportWriter} for exporting to {@code out},
+	 * based on the {@link ModelExportOptions}.
+	 */
+	protected ChunkedExportWriter createWriter(PrismLog out)
+	{
+		return new ChunkedExportWriter(out, modelExportOptions.getNumThreads());
+	}
+
 	/**
 	 * Format a {@code Value} as a string, based on the {@link Evaluator} and {@link ModelExportOptions}.
 	 */
@@ -316,6 +325,15 @@ public abstract class ModelExporter<Value>
 		return theEval.toStringExport(value, modelExportOptions.getModelPrecision());
 	}
 
+	/**
+	 * Format a {@code Value} into an {@link ExportBuffer}, based on the {@link Evaluator} and {@link ModelExportOptions}.
+	 * This is equivalent to, but faster than, appending {@link #formatValue(Object, Evaluator)}.
+	 */
+	public void appendValue(ExportBuffer buf, Value value, Evaluator<Value> theEval)
+	{
+		buf.appendValue(value, theEval, modelExportOptions.getModelPrecision());
+	}
+
 	/**
 	 * Format a {@code Value} as a string, based on the {@link Evaluator} and {@link ModelExportOptions}.
 	 */
@@ -81,38 +81,40 @@ public class PrismExplicitExporter<Value> extends ModelExporter<Value>
 		boolean showInit = modelType.partiallyObservable();
 
 		// Output .tra file file header
+		ChunkedExportWriter writer = createWriter(out);
+		ExportBuffer buf = writer.getBuffer();
 		int numStates = model.getNumStates();
-		out.print(numStates);
+		buf.append(numStates);
 		if (modelType.nondeterministic()) {
-			out.print(" " + ((NondetModel<ValueM>) model).getNumChoices());
+			buf.append(' ').append(((NondetModel<ValueM>) model).getNumChoices());
 		}
-		out.print(" " + model.getNumTransitions());
+		buf.append(' ').append(model.getNumTransitions());
 		if (modelType.partiallyObservable()) {
-			out.print(" " + ((PartiallyObservableModel<ValueM>) model).getNumObservations());
+			buf.append(' ').append(((PartiallyObservableModel<ValueM>) model).getNumObservations());
 		}
-		out.print("\n");
+		buf.append('\n');
 
 		// Output initial states, if required
 		if (showInit) {
 			for (int s : model.getInitialStates()) {
-				out.print("-");
+				buf.append('-');
 				if (modelType.nondeterministic()) {
-					out.print(" -");
+					buf.append(" -");
 				}
-				out.print(" " + s);
+				buf.append(' ').append(s);
 				if (modelType.isProbabilistic()) {
-					out.print(" -");
+					buf.append(" -");
 				}
 				if (modelType.partiallyObservable()) {
-					out.print(" " + ((PartiallyObservableModel<ValueM>) model).getObservation(s));
+					buf.append(' ').append(((PartiallyObservableModel<ValueM>) model).getObservation(s));
 				}
-				out.print("\n");
+				buf.append('\n');
 			}
 		}
 
 		// Output transitions in .tra format
-		// Iterate through states
-		for (int s = 0; s < numStates; s++) {
+		// Iterate through states (formatted in parallel, if enabled)
+		writer.writeStates(numStates, (s, sBuf) -> {
 			int numChoices = 1;
 			if (modelType.nondeterministic()) {
 				numChoices = ((NondetModel<ValueM>) model).getNumChoices(s);
@@ -121,24 +123,26 @@ public class PrismExplicitExporter<Value> extends ModelExporter<Value>
 			for (int j = 0; j < numChoices; j++) {
 				// Print out (sorted) transitions
 				for (Transition<?> transition : getSortedTransitionsIterator(model, s, j, showActions)) {
-					out.print(s);
+					sBuf.append(s);
 					if (modelType.nondeterministic()) {
-						out.print(" " + j);
+						sBuf.append(' ').append(j);
 					}
-					out.print(" " + transition.target);
+					sBuf.append(' ').append(transition.target);
 					if (modelType.isProbabilistic()) {
-						out.print(" " + transition.toString(modelExportOptions));
+						sBuf.append(' ');
+						transition.appendTo(sBuf, modelExportOptions);
 					}
 					if (modelType.partiallyObservable()) {
-						out.print(" " + ((PartiallyObservableModel<ValueM>) model).getObservation(transition.target));
+						sBuf.append(' ').append(((PartiallyObservableModel<ValueM>) model).getObservation(transition.target));
 					}
 					if (showActions && transition.action != null && !"".equals(transition.action)) {
-						out.print(" " + transition.action);
+						sBuf.append(' ').append(transition.action);
 					}
-					out.print("\n");
+					sBuf.append('\n');
 				}
 			}
-		}
+		});
+		writer.flush();
 	}
 
 	/**
@@ -165,13 +169,17 @@ public class PrismExplicitExporter<Value> extends ModelExporter<Value>
 		}
 		// Output non-zero rewards
 		printStateRewardsHeader(out, rewardStructName, noexportheaders);
-		out.println(numStates + " " + nonZeroRews);
-		for (int s = 0; s < numStates; s++) {
+		ChunkedExportWriter writer = createWriter(out);
+		writer.getBuffer().append(numStates).append(' ').append(nonZeroRews).appendln();
+		writer.writeStates(numStates, (s, buf) -> {
 			Value d = rewards.getStateReward(s);
 			if (!evalRewards.isZero(d)) {
-				out.println(s + " " + formatValue(d, evalRewards));
+				buf.append(s).append(' ');
+				appendValue(buf, d, evalRewards);
+				buf.appendln();
 			}
-		}
+		});
+		writer.flush();
 	}
 
 	/**
@@ -218,7 +226,7 @@ public class PrismExplicitExporter<Value> extends ModelExporter<Value>
 		int nonZeroRews = 0;
 		for (int s = 0; s < numStates; s++) {
 			if (nondet) {
-				int numChoices = ((NondetModel<Value>) model).getNumChoices();
+				int numChoices = ((NondetModel<Value>) model).getNumChoices(s);
 				for (int j = 0; j < numChoices; j++) {
 					Value d = rewards.getTransitionReward(s, j);
 					if (!evalRewards.isZero(d)) {
@@ -232,21 +240,25 @@ public class PrismExplicitExporter<Value> extends ModelExporter<Value>
 		}
 		// Output non-zero rewards
 		printTransRewardsHeader(out, rewardStructName, noexportheaders);
-		out.print(numStates);
+		ChunkedExportWriter writer = createWriter(out);
+		ExportBuffer buf = writer.getBuffer();
+		buf.append(numStates);
 		if (nondet) {
-			out.print(" " + ((NondetModel<Value>) model).getNumChoices());
+			buf.append(' ').append(((NondetModel<Value>) model).getNumChoices());
 		}
-		out.println(" " + nonZeroRews);
-		for (int s = 0; s < numStates; s++) {
+		buf.append(' ').append(nonZeroRews).appendln();
+		writer.writeStates(numStates, (s, sBuf) -> {
 			if (nondet) {
-				int numChoices = ((NondetModel<Value>) model).getNumChoices();
+				int numChoices = ((NondetModel<Value>) model).getNumChoices(s);
 				for (int j = 0; j < numChoices; j++) {
 					Value d = rewards.getTransitionReward(s, j);
 					if (!evalRewards.isZero(d)) {
 						// For nondet models, the choice reward is displayed by all transitions
 						// (which we sort, in order to match the output for the model)
 						for (Transition<?> transition : getSortedTransitionsIterator(model, s, j, modelExportOptions.getShowActions())) {
-							out.println(s + " " + j + " " + transition.target + " " + formatValue(d, evalRewards));
+							sBuf.append(s).append(' ').append(j).append(' ').append(transition.target).append(' ');
+							appendValue(sBuf, d, evalRewards);
+							sBuf.appendln();
 						}
 					}
 				}
@@ -254,11 +266,14 @@ public class PrismExplicitExporter<Value> extends ModelExporter<Value>
 				DTMC<?> mcModel = (model instanceof IDTMC) ? ((IDTMC<Value>) model).getIntervalModel() : (DTMC<Value>) model;
 				for (Transition<Value> transition : getSortedTransitionRewardsIterator(mcModel, rewards, s, true)) {
 					if (!transition.isZero()) {
-						out.println(s + " " + transition.target + " " + transition.toString(modelExportOptions));
+						sBuf.append(s).append(' ').append(transition.target).append(' ');
+						transition.appendTo(sBuf, modelExportOptions);
+						sBuf.appendln();
 					}
 				}
 			}
-		}
+		});
+		writer.flush();
 	}
 
 	/**
@@ -309,10 +324,9 @@ public class PrismExplicitExporter<Value> extends ModelExporter<Value>
 		out.println(")");
 
 		// Print states
-		int numStates = statesList.size();
-		for (int i = 0; i < numStates; i++) {
-			out.println(i + ":" + statesList.get(i).toString());
-		}
+		ChunkedExportWriter writer = createWriter(out);
+		writer.writeStates(statesList.size(), (s, buf) -> buf.append(s).append(':').append(statesList.get(s).toString()).appendln());
+		writer.flush();
 	}
 
 	/**
@@ -336,10 +350,9 @@ public class PrismExplicitExporter<Value> extends ModelExporter<Value>
 		out.println(")");
 
 		// Print states + observations
-		int numObservations = model.getNumObservations();
-		for (int i = 0; i < numObservations; i++) {
-			out.println(i + ":" + observationsList.get(i).toString());
-		}
+		ChunkedExportWriter writer = createWriter(out);
+		writer.writeStates(model.getNumObservations(), (o, buf) -> buf.append(o).append(':').append(observationsList.get(o).toString()).appendln());
+		writer.flush();
 	}
 
 	/**
@@ -363,20 +376,22 @@ public class PrismExplicitExporter<Value> extends ModelExporter<Value>
 		out.println();
 
 		// Go through states and print satisfying label indices for each one
-		for (int s = 0; s < numStates; s++) {
+		ChunkedExportWriter writer = createWriter(out);
+		writer.writeStates(numStates, (s, buf) -> {
 			boolean first = true;
 			for (int i = 0; i < numLabels; i++) {
 				if (labelStates.get(i).get(s)) {
 					if (first) {
-						out.print(s + ":");
+						buf.append(s).append(':');
 						first = false;
 					}
-					out.print(" " + i);
+					buf.append(' ').append(i);
 				}
 			}
 			if (!first) {
-				out.println();
+				buf.appendln();
 			}
-		}
+		});
+		writer.flush();
 	}
 }
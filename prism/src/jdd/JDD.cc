@@ -103,6 +103,13 @@ JNIEXPORT void JNICALL Java_jdd_JDD_DD_1SetCUDDEpsilon(JNIEnv *env, jclass cls,
 
 //------------------------------------------------------------------------------
 
+JNIEXPORT jlong JNICALL Java_jdd_JDD_DD_1GetCUDDMemoryInUse(JNIEnv *env, jclass cls)
+{
+	return (jlong)Cudd_ReadMemoryInUse(ddman);
+}
+
+//------------------------------------------------------------------------------
+
 JNIEXPORT void JNICALL Java_jdd_JDD_DD_1CloseDownCUDD(JNIEnv *env, jclass cls, jboolean check)
 {
 	DD_CloseDownCUDD(ddman, check);
@@ -44,6 +44,7 @@ public class JDD
 	private static native void DD_InitialiseCUDD(long max_mem, double epsilon);
 	private static native void DD_SetCUDDMaxMem(long max_mem);
 	private static native void DD_SetCUDDEpsilon(double epsilon);
+	private static native long DD_GetCUDDMemoryInUse();
 	private static native void DD_CloseDownCUDD(boolean check);
 	static native void DD_Ref(long dd);
 	static native void DD_Deref(long dd);
@@ -260,6 +261,15 @@ public class JDD
 	{
 		DD_SetCUDDEpsilon(epsilon);
 	}
+
+	/**
+	 * get the memory (in bytes) currently in use by cudd
+	 * <br>[ REFS: <i>none</i>, DEREFS: <i>none</i> ]
+	 */
+	public static long GetCUDDMemoryInUse()
+	{
+		return DD_GetCUDDMemoryInUse();
+	}
 		
 	/**
 	 * close down cudd
@@ -42,6 +42,7 @@ public class JDDLibrary implements PrismLibrary
         long cuddMaxMem = PrismUtils.convertMemoryStringtoKB(prism.getCUDDMaxMem());
         JDD.InitialiseCUDD(cuddMaxMem, prism.getCUDDEpsilon());
         cuddInitialised = true;
+        Telemetry.setNativeMemorySupplier(JDD::GetCUDDMemoryInUse);
     }
 
     @Override
@@ -79,6 +80,7 @@ public class JDDLibrary implements PrismLibrary
     public void closeDown(boolean check)
     {
         if (cuddInitialised) {
+            Telemetry.setNativeMemorySupplier(null);
             JDD.CloseDownCUDD(check);
             cuddInitialised = false;
         }
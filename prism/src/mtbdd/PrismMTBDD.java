@@ -108,7 +108,9 @@ public class PrismMTBDD
 			jdd.SanityJDD.checkIsStateSet(start, rows);
 		}
 
+		long l = System.currentTimeMillis();
 		long ptr = PM_Reachability(trans01.ptr(), rows.array(), rows.n(), cols.array(), cols.n(), start.ptr());
+		Telemetry.phase("reachability", System.currentTimeMillis() - l);
 		return JDD.ptrToNode(ptr);
 	}
 
@@ -144,7 +146,9 @@ public class PrismMTBDD
 			jdd.SanityJDD.checkIsContainedIn(no, reach);
 		}
 
+		long l = System.currentTimeMillis();
 		long ptr = PM_Prob1(trans01.ptr(), reach.ptr(), rows.array(), rows.n(), cols.array(), cols.n(), b1.ptr(), b2.ptr(), no.ptr());
+		Telemetry.phase("prob1", System.currentTimeMillis() - l);
 		return JDD.ptrToNode(ptr);
 	}
 
@@ -176,7 +180,9 @@ public class PrismMTBDD
 			jdd.SanityJDD.checkIsContainedIn(b2, reach);
 		}
 
+		long l = System.currentTimeMillis();
 		long ptr = PM_Prob0(trans01.ptr(), reach.ptr(), rows.array(), rows.n(), cols.array(), cols.n(), b1.ptr(), b2.ptr());
+		Telemetry.phase("prob0", System.currentTimeMillis() - l);
 		return JDD.ptrToNode(ptr);
 	}
 
@@ -213,7 +219,9 @@ public class PrismMTBDD
 			jdd.SanityJDD.checkIsContainedIn(no, reach);
 		}
 
+		long l = System.currentTimeMillis();
 		long ptr = PM_Prob1E(trans01.ptr(), reach.ptr(), rows.array(), rows.n(), cols.array(), cols.n(), nd.array(), nd.n(), b1.ptr(), b2.ptr(), no.ptr());
+		Telemetry.phase("prob1e", System.currentTimeMillis() - l);
 		return JDD.ptrToNode(ptr);
 	}
 
@@ -248,7 +256,9 @@ public class PrismMTBDD
 			jdd.SanityJDD.checkIsStateSet(no, rows);
 			jdd.SanityJDD.checkIsContainedIn(no, reach);
 		}
+		long l = System.currentTimeMillis();
 		long ptr = PM_Prob1A(trans01.ptr(), reach.ptr(), nondetMask.ptr(), rows.array(), rows.n(), cols.array(), cols.n(), nd.array(), nd.n(), no.ptr(), b2.ptr());
+		Telemetry.phase("prob1a", System.currentTimeMillis() - l);
 		return JDD.ptrToNode(ptr);
 	}
 
@@ -284,7 +294,9 @@ public class PrismMTBDD
 			jdd.SanityJDD.checkIsContainedIn(b2, reach);
 		}
 
+		long l = System.currentTimeMillis();
 		long ptr = PM_Prob0E(trans01.ptr(), reach.ptr(), nondetMask.ptr(), rows.array(), rows.n(), cols.array(), cols.n(), nd.array(), nd.n(), b1.ptr(), b2.ptr());
+		Telemetry.phase("prob0e", System.currentTimeMillis() - l);
 		return JDD.ptrToNode(ptr);
 	}
 
@@ -317,7 +329,9 @@ public class PrismMTBDD
 			jdd.SanityJDD.checkIsContainedIn(b2, reach);
 		}
 
+		long l = System.currentTimeMillis();
 		long ptr = PM_Prob0A(trans01.ptr(), reach.ptr(), rows.array(), rows.n(), cols.array(), cols.n(), nd.array(), nd.n(), b1.ptr(), b2.ptr());
+		Telemetry.phase("prob0a", System.currentTimeMillis() - l);
 		return JDD.ptrToNode(ptr);
 	}
 	
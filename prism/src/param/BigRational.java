@@ -38,13 +38,20 @@ import prism.PrismLangException;
  * (NAN)are provided. For them, the usual rules apply (INF * INF = INF,
  * MINF&INF=MINF, etc.), with the exception that INF+MINF=0, INF-INF=0, etc
  * rather than NAN.
+ * <br>
+ * Internally, numbers whose numerator and denominator both fit into a {@code long}
+ * (which is the case for the vast majority of transition probabilities/rates)
+ * are stored as a pair of longs, and arithmetic on them is done using
+ * overflow-checked long operations (including GCD computation for cancellation).
+ * Only if an overflow occurs is the computation done using BigIntegers.
+ * This is transparent to users of this class.
  *
  * @author Ernst Moritz Hahn <emhahn@cs.ox.ac.uk> (University of Oxford)
  */
 public final class BigRational extends Number implements Comparable<BigRational>
 {
 	/** Serial version for serialisation */
-	private static final long serialVersionUID = 8273185089413305187L;
+	private static final long serialVersionUID = -4196328617536107254L;
 
 	/** the BigInteger "-1" */
 	private final static BigInteger BMONE = BigInteger.ONE.negate();
@@ -70,10 +77,14 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	/** the BigRational "not a number" */
 	public final static BigRational NAN = new BigRational(BigInteger.ZERO, BigInteger.ZERO);
 
-	/** numerator */
+	/** numerator, if stored as a BigInteger (null if stored as a long) */
 	private BigInteger num;
-	/** denominator */
+	/** denominator, if stored as a BigInteger (null if stored as a long) */
 	private BigInteger den;
+	/** numerator, if stored as a long (i.e., if {@code num == null}); never Long.MIN_VALUE */
+	private long lnum;
+	/** denominator, if stored as a long (i.e., if {@code den == null}); never Long.MIN_VALUE */
+	private long lden;
 
 	// constructors
 
@@ -82,8 +93,8 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public BigRational()
 	{
-		this.num = BigInteger.ZERO;
-		this.den = BigInteger.ONE;
+		this.lnum = 0;
+		this.lden = 1;
 	}
 
 	/**
@@ -93,8 +104,7 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public BigRational(BigInteger num)
 	{
-		this.num = num;
-		this.den = BigInteger.ONE;
+		set(num, BigInteger.ONE);
 	}
 
 	/**
@@ -119,6 +129,15 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 * @param cancel true to ensure resulting BigRational is coprime
 	 */
 	public BigRational(BigInteger num, BigInteger den, boolean cancel)
+	{
+		init(num, den, cancel);
+	}
+
+	/**
+	 * Set the value of this BigRational to {@code num} / {@code den},
+	 * applying cancellation if {@code cancel} is true.
+	 */
+	private void init(BigInteger num, BigInteger den, boolean cancel)
 	{
 		if (den.equals(BigInteger.ZERO)) {
 			int cmp = num.compareTo(BigInteger.ZERO);
@@ -134,8 +153,7 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (cancel) {
 			canceled(num, den);
 		} else {
-			this.num = num;
-			this.den = den;
+			set(num, den);
 		}
 	}
 
@@ -157,8 +175,31 @@ public final class BigRational extends Number implements Comparable<BigRational>
 				den = den.negate();
 			}
 		}
-		this.num = num;
-		this.den = den;
+		set(num, den);
+	}
+
+	/**
+	 * Long version of {@link #canceled(BigInteger, BigInteger)}.
+	 * Neither {@code num} nor {@code den} can be Long.MIN_VALUE.
+	 */
+	private void canceled(long num, long den)
+	{
+		if (num == 0) {
+			if (den != 0) {
+				// not NaN (= 0/0), so this is a real zero:
+				// normalise by setting denominator to 1
+				den = 1;
+			}
+		} else {
+			long gcd = gcd(num, den);
+			num /= gcd;
+			den /= gcd;
+			if (den < 0) {
+				num = -num;
+				den = -den;
+			}
+		}
+		set(num, den);
 	}
 
 	/**
@@ -170,7 +211,14 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public BigRational(long num, long den)
 	{
-		this(BigInteger.valueOf(num), BigInteger.valueOf(den));
+		if (num == Long.MIN_VALUE || den == Long.MIN_VALUE) {
+			init(BigInteger.valueOf(num), BigInteger.valueOf(den), true);
+			return;
+		}
+		if (den == 0) {
+			num = Long.signum(num);
+		}
+		canceled(num, den);
 	}
 
 	/**
@@ -192,16 +240,16 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	public  BigRational(double value)
 	{
 		if (java.lang.Double.isNaN(value)) {
-			this.num = BigInteger.ZERO;
-			this.den = BigInteger.ZERO;
+			set(0, 0);
+			return;
 		}
 		if (value == java.lang.Double.POSITIVE_INFINITY) {
-			this.num = BigInteger.ONE;
-			this.den = BigInteger.ZERO;
+			set(1, 0);
+			return;
 		}
 		if (value == java.lang.Double.NEGATIVE_INFINITY) {
-			this.num = BMONE;
-			this.den = BigInteger.ZERO;
+			set(-1, 0);
+			return;
 		}
 		// Test whether value must be an integer
 		if (value <= -0x1.0P52 || value >= 0x1.0P52) {
@@ -213,8 +261,7 @@ public final class BigRational extends Number implements Comparable<BigRational>
 				exp += 1;
 			}
 			// No need to cancel as denumerator is one
-			this.num = BigInteger.valueOf((long) value).shiftLeft(exp);
-			this.den = BigInteger.ONE;
+			set(BigInteger.valueOf((long) value).shiftLeft(exp), BigInteger.ONE);
 		} else {
 			// Determine smallest exponent such that value = long_value / 2^exp
 			int exp = 0;
@@ -224,8 +271,7 @@ public final class BigRational extends Number implements Comparable<BigRational>
 				exp += 1;
 			}
 			// No need to cancel as exp is the smallest exponent
-			this.num = BigInteger.valueOf((long) value);
-			this.den = BigInteger.ONE.shiftLeft(exp);
+			set(BigInteger.valueOf((long) value), BigInteger.ONE.shiftLeft(exp));
 		}
 	}
 
@@ -239,16 +285,13 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	public BigRational(String string)
 	{
 		if (string.equals("Infinity") || string.equals("+Infinity") || string.equals("Inf") || string.equals("+Inf")) {
-			this.num = BigInteger.ONE;
-			this.den = BigInteger.ZERO;
+			set(1, 0);
 			return;
 		} else if (string.equals("-Infinity") || string.equals("-Inf")) {
-			this.num = BigInteger.ONE.negate();
-			this.den = BigInteger.ZERO;
+			set(-1, 0);
 			return;
 		} else if (string.equals("NaN")) {
-			this.num = BigInteger.ZERO;
-			this.den = BigInteger.ZERO;
+			set(0, 0);
 			return;
 		}
 		string = string.trim();
@@ -292,9 +335,7 @@ public final class BigRational extends Number implements Comparable<BigRational>
 			} else { // expo < 0
 				den = ten.pow(-expo);
 			}
-			BigRational result = new BigRational(num, den, true);
-			this.num = result.num;
-			this.den = result.den;
+			init(num, den, true);
 		} else {
 			// fractional
 			if (slashIdx == 0 || slashIdx == string.length()-1) {
@@ -307,6 +348,8 @@ public final class BigRational extends Number implements Comparable<BigRational>
 			BigRational r = num.divide(den);
 			this.num = r.num;
 			this.den = r.den;
+			this.lnum = r.lnum;
+			this.lden = r.lden;
 			return;
 		}
 	}
@@ -320,7 +363,7 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	{
 		if (value instanceof BigRational) {
 			BigRational v = (BigRational)value;
-			return new BigRational(v.num, v.den);
+			return v.isLong() ? new BigRational(v.lnum, v.lden) : new BigRational(v.num, v.den);
 		} else if (value instanceof BigInteger) {
 			return new BigRational((BigInteger) value);
 		} else if (value instanceof Integer) {
@@ -340,6 +383,133 @@ public final class BigRational extends Number implements Comparable<BigRational>
 
 	// helper functions
 
+	/**
+	 * Is this number stored as a pair of longs (rather than BigIntegers)?
+	 */
+	private boolean isLong()
+	{
+		return num == null;
+	}
+
+	/**
+	 * Set the value of this BigRational to {@code num} / {@code den}, without cancellation.
+	 * Neither {@code num} nor {@code den} can be Long.MIN_VALUE.
+	 */
+	private void set(long num, long den)
+	{
+		this.num = null;
+		this.den = null;
+		this.lnum = num;
+		this.lden = den;
+	}
+
+	/**
+	 * Set the value of this BigRational to {@code num} / {@code den}, without cancellation.
+	 * If possible, the value is stored as a pair of longs.
+	 */
+	private void set(BigInteger num, BigInteger den)
+	{
+		if (fitsLong(num) && fitsLong(den)) {
+			set(num.longValue(), den.longValue());
+		} else {
+			this.num = num;
+			this.den = den;
+		}
+	}
+
+	/**
+	 * Create a BigRational {@code num} / {@code den}, stored as longs, without cancellation.
+	 * Neither {@code num} nor {@code den} can be Long.MIN_VALUE.
+	 */
+	private static BigRational ofLongs(long num, long den)
+	{
+		BigRational r = new BigRational();
+		r.lnum = num;
+		r.lden = den;
+		return r;
+	}
+
+	/**
+	 * Can a BigInteger be stored in a long (excluding Long.MIN_VALUE)?
+	 */
+	private static boolean fitsLong(BigInteger b)
+	{
+		return b.bitLength() < 64 && b.longValue() != Long.MIN_VALUE;
+	}
+
+	/**
+	 * Sentinel value returned by overflow-checked long operations in case of overflow.
+	 * Since Long.MIN_VALUE is never used for a stored numerator/denominator,
+	 * it is also treated as an overflow.
+	 */
+	private static final long OVERFLOW = Long.MIN_VALUE;
+
+	/**
+	 * Multiply two longs, returning {@link #OVERFLOW} on overflow.
+	 */
+	private static long multiplyChecked(long a, long b)
+	{
+		long r = a * b;
+		if (Math.multiplyHigh(a, b) != (r >> 63)) {
+			return OVERFLOW;
+		}
+		return r;
+	}
+
+	/**
+	 * Add two longs, returning {@link #OVERFLOW} on overflow.
+	 */
+	private static long addChecked(long a, long b)
+	{
+		long r = a + b;
+		if (((a ^ r) & (b ^ r)) < 0) {
+			return OVERFLOW;
+		}
+		return r;
+	}
+
+	/**
+	 * Greatest common divisor of two longs (binary GCD).
+	 * Neither {@code a} nor {@code b} can be Long.MIN_VALUE.
+	 * The result is non-negative; gcd(a,0) = |a|.
+	 */
+	private static long gcd(long a, long b)
+	{
+		a = Math.abs(a);
+		b = Math.abs(b);
+		if (a == 0) {
+			return b;
+		}
+		if (b == 0) {
+			return a;
+		}
+		int shift = Long.numberOfTrailingZeros(a | b);
+		a >>= Long.numberOfTrailingZeros(a);
+		do {
+			b >>= Long.numberOfTrailingZeros(b);
+			if (a > b) {
+				long t = b;
+				b = a;
+				a = t;
+			}
+			b -= a;
+		} while (b != 0);
+		return a << shift;
+	}
+
+	/**
+	 * Hash code of a long, computed identically to {@link BigInteger#hashCode()}
+	 * for the BigInteger with the same value.
+	 */
+	private static int hashCodeOfLong(long l)
+	{
+		long mag = Math.abs(l);
+		int hi = (int) (mag >>> 32);
+		int lo = (int) mag;
+		int hashCode = (hi != 0) ? 31 * hi + lo : lo;
+		return hashCode * Long.signum(l);
+	}
+
 	/**
 	 * Negates this number.
 	 * Negation of INF, MINF are as usual, negation of NAN is NAN.
@@ -348,6 +518,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public BigRational negate()
 	{
+		if (isLong()) {
+			return ofLongs(-lnum, lden);
+		}
 		return new BigRational(num.negate(), den, false);
 	}
 
@@ -358,6 +531,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public BigRational cancel()
 	{
+		if (isLong()) {
+			return new BigRational(lnum, lden);
+		}
 		return new BigRational(this.num, this.den, true);
 	}
 
@@ -377,8 +553,24 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (this.isMInf() || other.isMInf()) {
 			return MINF;
 		}
-		BigInteger num = this.num.multiply(other.den).add(other.num.multiply(this.den));
-		BigInteger den = this.den.multiply(other.den);
+		if (this.isLong() && other.isLong()) {
+			if (cancel && this.lden == other.lden) {
+				long num = addChecked(this.lnum, other.lnum);
+				if (num != OVERFLOW) {
+					return new BigRational(num, this.lden);
+				}
+			} else {
+				long num1 = multiplyChecked(this.lnum, other.lden);
+				long num2 = multiplyChecked(other.lnum, this.lden);
+				long den = multiplyChecked(this.lden, other.lden);
+				long num = (num1 == OVERFLOW || num2 == OVERFLOW) ? OVERFLOW : addChecked(num1, num2);
+				if (num != OVERFLOW && den != OVERFLOW) {
+					return cancel ? new BigRational(num, den) : ofLongs(num, den);
+				}
+			}
+		}
+		BigInteger num = this.getNum().multiply(other.getDen()).add(other.getNum().multiply(this.getDen()));
+		BigInteger den = this.getDen().multiply(other.getDen());
 		return new BigRational(num, den, cancel);
 	}
 
@@ -407,8 +599,25 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (other.isMInf()) {
 			return MINF;
 		}
-		BigInteger num = this.num.multiply(other.den).subtract(other.num.multiply(this.den));
-		BigInteger den = this.den.multiply(other.den);
+		if (this.isLong() && other.isLong()) {
+			// (other.lnum is never Long.MIN_VALUE, so can be negated safely)
+			if (this.lden == other.lden) {
+				long num = addChecked(this.lnum, -other.lnum);
+				if (num != OVERFLOW) {
+					return new BigRational(num, this.lden);
+				}
+			} else {
+				long num1 = multiplyChecked(this.lnum, other.lden);
+				long num2 = multiplyChecked(-other.lnum, this.lden);
+				long den = multiplyChecked(this.lden, other.lden);
+				long num = (num1 == OVERFLOW || num2 == OVERFLOW) ? OVERFLOW : addChecked(num1, num2);
+				if (num != OVERFLOW && den != OVERFLOW) {
+					return new BigRational(num, den);
+				}
+			}
+		}
+		BigInteger num = this.getNum().multiply(other.getDen()).subtract(other.getNum().multiply(this.getDen()));
+		BigInteger den = this.getDen().multiply(other.getDen());
 		return new BigRational(num, den);
 	}
 
@@ -429,8 +638,25 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (this.isInf() || other.isInf()) {
 			return this.signum() * other.signum() == 1 ? INF : MINF;
 		}
-		BigInteger num = this.num.multiply(other.num);
-		BigInteger den = this.den.multiply(other.den);
+		if (this.isLong() && other.isLong()) {
+			long num1 = this.lnum, den1 = this.lden, num2 = other.lnum, den2 = other.lden;
+			if (cancel && den1 != 0 && den2 != 0) {
+				// cancel crosswise first, to reduce the risk of overflow
+				long gcd1 = gcd(num1, den2);
+				long gcd2 = gcd(num2, den1);
+				num1 /= gcd1;
+				den2 /= gcd1;
+				num2 /= gcd2;
+				den1 /= gcd2;
+			}
+			long num = multiplyChecked(num1, num2);
+			long den = multiplyChecked(den1, den2);
+			if (num != OVERFLOW && den != OVERFLOW) {
+				return cancel ? new BigRational(num, den) : ofLongs(num, den);
+			}
+		}
+		BigInteger num = this.getNum().multiply(other.getNum());
+		BigInteger den = this.getDen().multiply(other.getDen());
 		return new BigRational(num, den, cancel);
 	}
 
@@ -488,7 +714,12 @@ public final class BigRational extends Number implements Comparable<BigRational>
 			}
 		}
 
-		BigRational inverseOther = new BigRational(other.den, other.num, cancel);
+		BigRational inverseOther;
+		if (other.isLong()) {
+			inverseOther = cancel ? new BigRational(other.lden, other.lnum) : ofLongs(other.lden, other.lnum);
+		} else {
+			inverseOther = new BigRational(other.den, other.num, cancel);
+		}
 		return multiply(inverseOther, cancel);
 	}
 
@@ -525,6 +756,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	{
 		if (isInf()) return 1;
 		if (isMInf()) return -1;
+		if (isLong()) {
+			return Long.signum(lnum) * Long.signum(lden);
+		}
 		return num.signum() * den.signum();
 	}
 
@@ -541,12 +775,12 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (exponent == 0) {
 			return ONE;
 		} else if (exponent > 0) {
-			num = this.num.pow(exponent);
-			den = this.den.pow(exponent);
+			num = this.getNum().pow(exponent);
+			den = this.getDen().pow(exponent);
 		} else { // exponent < 0
 			exponent = -exponent;
-			num = this.den.pow(exponent);
-			den = this.num.pow(exponent);
+			num = this.getDen().pow(exponent);
+			den = this.getNum().pow(exponent);
 		}
 		return new BigRational(num, den, false);
 	}
@@ -575,7 +809,10 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (isMInf()) {
 			return other.isMInf();
 		}
-		return this.num.equals(other.num) && this.den.equals(other.den);
+		if (this.isLong() && other.isLong()) {
+			return this.lnum == other.lnum && this.lden == other.lden;
+		}
+		return this.getNum().equals(other.getNum()) && this.getDen().equals(other.getDen());
 	}
 
 	/**
@@ -586,6 +823,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	@Override
 	public int hashCode()
 	{
+		if (isLong()) {
+			return 37 * hashCodeOfLong(lnum) + hashCodeOfLong(lden);
+		}
 		return 37 * num.hashCode() + den.hashCode();
 	}
 
@@ -612,7 +852,13 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		} else if (isZero()) {
 			return 0.0;
 		}
+		if (isLong() && Math.abs(lnum) <= (1L << 53) && Math.abs(lden) <= (1L << 53)) {
+			// both exactly representable as doubles, so division is correctly rounded
+			return (double) lnum / (double) lden;
+		}
 		BigInteger shiftedNum;
+		BigInteger num = getNum();
+		BigInteger den = getDen();
 		int signum = num.signum() * den.signum();
 		BigInteger posNum = num.abs();
 		BigInteger posDen = den.abs();
@@ -654,6 +900,12 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (!isInteger()) {
 			throw new ArithmeticException("Can not convert fractional number to int");
 		}
+		if (isLong()) {
+			if (lnum < Integer.MIN_VALUE || lnum > Integer.MAX_VALUE) {
+				throw new ArithmeticException("Can not convert BigInteger to int, value " + this + " out of range");
+			}
+			return (int) lnum;
+		}
 		int value = getNum().intValue();
 		if (!getNum().equals(BigInteger.valueOf(value))) {
 			throw new ArithmeticException("Can not convert BigInteger to int, value " + this + " out of range");
@@ -691,6 +943,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (!isInteger()) {
 			throw new ArithmeticException("Can not convert fractional number to long");
 		}
+		if (isLong()) {
+			return lnum;
+		}
 		long value = getNum().longValue();
 		if (!getNum().equals(BigInteger.valueOf(value))) {
 			throw new ArithmeticException("Can not convert BigInteger to long, value " + this + " out of range");
@@ -748,6 +1003,8 @@ public final class BigRational extends Number implements Comparable<BigRational>
 			return "Inf";
 		} else if (isMInf()) {
 			return "-Inf";
+		} else if (isLong()) {
+			return lden == 1 ? Long.toString(lnum) : lnum + "/" + lden;
 		} else if (den.equals(BigInteger.ONE)) {
 			return num.toString();
 		} else {
@@ -777,7 +1034,16 @@ public final class BigRational extends Number implements Comparable<BigRational>
 				return -1;
 			}
 		}
-		return this.num.multiply(other.den).compareTo(other.num.multiply(this.den));
+		if (this.isLong() && other.isLong()) {
+			// compare the (exact, 128-bit) products num1*den2 and num2*den1
+			long hi1 = Math.multiplyHigh(this.lnum, other.lden);
+			long hi2 = Math.multiplyHigh(other.lnum, this.lden);
+			if (hi1 != hi2) {
+				return hi1 < hi2 ? -1 : 1;
+			}
+			return Integer.signum(Long.compareUnsigned(this.lnum * other.lden, other.lnum * this.lden));
+		}
+		return this.getNum().multiply(other.getDen()).compareTo(other.getNum().multiply(this.getDen()));
 	}
 
 	/**
@@ -821,7 +1087,7 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public BigInteger getNum()
 	{
-		return num;
+		return isLong() ? BigInteger.valueOf(lnum) : num;
 	}
 
 	/**
@@ -831,7 +1097,7 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public BigInteger getDen()
 	{
-		return den;
+		return isLong() ? BigInteger.valueOf(lden) : den;
 	}
 
 	/**
@@ -841,6 +1107,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public BigRational abs()
 	{
+		if (isLong()) {
+			return lnum < 0 ? new BigRational(-lnum, lden) : this;
+		}
 		if (num.signum() == -1) {
 			return new BigRational(num.negate(), den);
 		} else {
@@ -857,6 +1126,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (isSpecial()) {
 			throw new PrismLangException("Can not compute ceil of " + this);
 		}
+		if (isLong() && lden > 0) {
+			return new BigRational(-Math.floorDiv(-lnum, lden));
+		}
 
 		BigInteger[] divideAndRemainder = getNum().divideAndRemainder(getDen());
 
@@ -880,6 +1152,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (isSpecial()) {
 			throw new PrismLangException("Can not compute floor of " + this);
 		}
+		if (isLong() && lden > 0) {
+			return new BigRational(Math.floorDiv(lnum, lden));
+		}
 
 		BigInteger[] divideAndRemainder = getNum().divideAndRemainder(getDen());
 		switch (divideAndRemainder[1].compareTo(BigInteger.ZERO)) {
@@ -944,6 +1219,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public boolean isZero()
 	{
+		if (isLong()) {
+			return lnum == 0 && lden == 1;
+		}
 		return num.equals(BigInteger.ZERO) && den.equals(BigInteger.ONE);
 	}
 
@@ -954,6 +1232,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public boolean isOne()
 	{
+		if (isLong()) {
+			return lnum == 1 && lden == 1;
+		}
 		return num.equals(BigInteger.ONE) && den.equals(BigInteger.ONE);
 	}
 
@@ -964,6 +1245,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public boolean isNaN()
 	{
+		if (isLong()) {
+			return lnum == 0 && lden == 0;
+		}
 		return num.equals(BigInteger.ZERO) && den.equals(BigInteger.ZERO);
 	}
 
@@ -974,6 +1258,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public boolean isInf()
 	{
+		if (isLong()) {
+			return lnum == 1 && lden == 0;
+		}
 		return num.equals(BigInteger.ONE) && den.equals(BigInteger.ZERO);
 	}
 
@@ -984,6 +1271,9 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public boolean isMInf()
 	{
+		if (isLong()) {
+			return lnum == -1 && lden == 0;
+		}
 		return num.equals(BMONE) && den.equals(BigInteger.ZERO);
 	}
 
@@ -1019,7 +1309,7 @@ public final class BigRational extends Number implements Comparable<BigRational>
 	 */
 	public boolean isInteger()
 	{
-		return isRational() && getDen().equals(BigInteger.ONE);
+		return isRational() && (isLong() ? lden == 1 : den.equals(BigInteger.ONE));
 	}
 
 	/**
@@ -1074,6 +1364,12 @@ public final class BigRational extends Number implements Comparable<BigRational>
 		if (!isInteger()) {
 			throw new PrismLangException("Can not convert fractional number to int");
 		}
+		if (isLong()) {
+			if (lnum < Integer.MIN_VALUE || lnum > Integer.MAX_VALUE) {
+				throw new PrismLangException("Can not convert BigInteger to int, value out of range");
+			}
+			return (int) lnum;
+		}
 		int value = getNum().intValue();
 		if (!getNum().equals(BigInteger.valueOf(value))) {
 			throw new PrismLangException("Can not convert BigInteger to int, value out of range");
@@ -30,6 +30,8 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Random;
 
+import prism.PrismException;
+
 /**
  * Implements a region representation by a box (hyper-rectangle).
  * This means that for each parameter we have a lower and upper bound, and
@@ -261,7 +263,7 @@ final class BoxRegion extends Region {
 	}
 
 	@Override
-	RegionValues binaryOp(int op, StateValues values1, StateValues values2) {
+	RegionValues binaryOp(int op, StateValues values1, StateValues values2) throws PrismException {
 		RegionValues result;
 		if ((op == Region.EQ || op == Region.NE || op == Region.GT || op == Region.GE || op ==  Region.LT || op == Region.LE)) {
 			result = cmpOp(op, values1, values2);
@@ -288,16 +290,12 @@ final class BoxRegion extends Region {
 		return result;
 	}
 
-	private RegionValues cmpOp(int op, StateValues op1, StateValues op2) {
+	private RegionValues cmpOp(int op, StateValues op1, StateValues op2) throws PrismException {
 		ConstraintChecker checker = factory.getConstraintChecker();
-		RegionsTODO remaining = new RegionsTODO();
-		remaining.add(this);
 		BigRational requiredVolume = this.volume().multiply(BigRational.ONE.subtract(factory.getPrecision()));
-		BigRational doneVolume = BigRational.ZERO;
-		RegionValues result = new RegionValues(factory);
-		Function lastFunction = null;
-		while (doneVolume.compareTo(requiredVolume) == -1) {
-			BoxRegion region = (BoxRegion) remaining.poll();
+		return factory.createRefiner().refine(this, requiredVolume, reg -> {
+			BoxRegion region = (BoxRegion) reg;
+			Function lastFunction = null;
 			StateValues newValues = new StateValues(op1.getNumStates(), factory.getInitialState());
 			boolean allDecided = true;
 			for (int state = 0; state < op1.getNumStates(); state++) {
@@ -350,14 +348,11 @@ final class BoxRegion extends Region {
 				}
 			}
 			if (allDecided) {
-				result.add(region, newValues);
-				doneVolume = doneVolume.add(region.volume());
+				return RegionRefiner.Outcome.decided(newValues);
 			} else {
-				remaining.addAll(region.split(lastFunction));
+				return RegionRefiner.Outcome.split(region.split(lastFunction));
 			}
-		}
-		
-		return result;
+		});
 	}
 	
 	/**
@@ -37,7 +37,9 @@ import prism.PrismException;
  */
 final class CachedFunction extends Function {
 	/** unique number of cached function this function represents */
-	private int number;
+	private final int number;
+	/** function this function represents */
+	private final Function function;
 	/** factory this function belongs to */
 	private CachedFunctionFactory factory;
 	
@@ -45,12 +47,14 @@ final class CachedFunction extends Function {
 	 * Constructs a new cached function.
 	 * 
 	 * @param factory function factory this function belongs to
+	 * @param function function this function represents
 	 * @param number unique number of cached function this function represents
 	 */
-	CachedFunction(CachedFunctionFactory factory, int number)
+	CachedFunction(CachedFunctionFactory factory, Function function, int number)
 	{
 		super(factory);
 		this.factory = factory;
+		this.function = function;
 		this.number = number;
 	}
 	
@@ -64,10 +68,20 @@ final class CachedFunction extends Function {
 		return number;
 	}
 	
+	/**
+	 * Returns the function this function represents.
+	 * 
+	 * @return function represented
+	 */
+	Function getFunction()
+	{
+		return function;
+	}
+	
 	@Override
 	public String toString()
 	{
-		return factory.getFunction(number).toString();
+		return function.toString();
 	}
 	
 	@Override
@@ -29,8 +29,8 @@ package param;
 import parser.ast.Expression;
 import prism.PrismException;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Function factory implementing a cache for functions from other factories.
@@ -39,6 +39,11 @@ import java.util.HashMap;
  * cache for operations on functions, so that if an operation on the same
  * two functions has already been performed before, the result will be
  * looked up instead of being performed again.
+ * <br>
+ * The operation cache is bounded in size, with least-recently-used entries
+ * being evicted (see {@link FunctionCache}). Both the function and operation
+ * cache are thread-safe, so this factory can be used concurrently if the
+ * factory of which functions are cached can.
  * 
  * @author Ernst Moritz Hahn <emhahn@cs.ox.ac.uk> (University of Oxford)
  * @see FunctionFactory
@@ -50,8 +55,10 @@ final class CachedFunctionFactory extends FunctionFactory {
 	 *
 	 * @author Ernst Moritz Hahn <emhahn@cs.ox.ac.uk> (University of Oxford)
 	 */
-	private class OpCacheKey
+	private static final class OpCacheKey
 	{
+		/** operation ({@code ADD}, {@code MULT} or {@code STAR}) */
+		final int op;
 		/** first operand */
 		CachedFunction first;
 		/** second operand */
@@ -59,12 +66,15 @@ final class CachedFunctionFactory extends FunctionFactory {
 		
 		/**
 		 * Construct a new operation cache entry.
+		 * For unary operations, {@code first} and {@code second} should be equal.
 		 * 
+		 * @param op operation
 		 * @param first first operand
 		 * @param second second operand
 		 */
-		public OpCacheKey(CachedFunction first, CachedFunction second)
+		public OpCacheKey(int op, CachedFunction first, CachedFunction second)
 		{
+			this.op = op;
 			if (second.getNumber() > first.getNumber()) {
 				CachedFunction swap = first;
 				first = second;
@@ -77,58 +87,65 @@ final class CachedFunctionFactory extends FunctionFactory {
 		@Override
 		public boolean equals(Object obj) {
 			OpCacheKey key = (OpCacheKey) obj;
-			return first == key.first && second == key.second;
+			return op == key.op && first == key.first && second == key.second;
 		}
 		
 		@Override
 		public int hashCode() {
 			int hash = first.getNumber();
 			hash = second.getNumber() + (hash << 6) + (hash << 16) - hash;
+			hash = op + (hash << 6) + (hash << 16) - hash;
 			return hash;
 		}
 	}
 	
+	/** operation cache key for additions (and indirectly subtractions) */
+	private static final int ADD = 0;
+	/** operation cache key for multiplications (and indirectly divisions) */
+	private static final int MULT = 1;
+	/** operation cache key for star operation */
+	private static final int STAR = 2;
+
 	/** function factory of which we cache functions */
 	private FunctionFactory context;
-	/** maps each function from {@code context} to a unique integer */
-	private HashMap<Function, Integer> functionToNumber;
-	/** maps each integer to function from {@code context}, cf. also {@code functionToNumber} */
-	private ArrayList<Function> functions;
-	/** list of all function of this function factory */ 
-	private ArrayList<CachedFunction> cachedFunctions;
+	/** maps each function from {@code context} to its unique cached function */
+	private ConcurrentHashMap<Function, CachedFunction> functionToCached;
 	/** next new function will be assigned this number */
-	private int nextFunctionNumber;
+	private AtomicInteger nextFunctionNumber;
 	/** function representing one (1) */
 	private CachedFunction one;
 	/** function representing zero (0) */
 	private CachedFunction zero;
 	/** true iff operation cache is to be used */
 	private boolean useOpCache;
-	/** cache for additions (and indirectly subtractions) */		
-	private HashMap<OpCacheKey, CachedFunction> addCache;
-	/** cache for multiplications (and indirectly divisions) */	
-	private HashMap<OpCacheKey, CachedFunction> multCache;
-	/** cache for star operation */
-	private HashMap<CachedFunction, CachedFunction> starCache;
+	/** cache for additions, multiplications and star operations */
+	private FunctionCache<OpCacheKey, CachedFunction> opCache;
 	
 	/**
-	 * Constructs a new cached function factory.
+	 * Constructs a new cached function factory, with unbounded operation cache.
 	 * Will cache functions of the given {@code context}.
 	 * 
 	 * @param context function factory to cache functions of
 	 */
 	public CachedFunctionFactory(FunctionFactory context) {
+		this(context, 0);
+	}
+
+	/**
+	 * Constructs a new cached function factory.
+	 * Will cache functions of the given {@code context}.
+	 * 
+	 * @param context function factory to cache functions of
+	 * @param maxOpCacheMegabytes maximal (approximate) size of operation cache in MB (0 = unbounded)
+	 */
+	public CachedFunctionFactory(FunctionFactory context, long maxOpCacheMegabytes) {
 		super(context.parameterNames, context.lowerBounds, context.upperBounds);
 		this.context = context;
-		functionToNumber = new HashMap<Function, Integer>();
-		cachedFunctions = new ArrayList<CachedFunction>();
-		functions = new ArrayList<Function>();
-		nextFunctionNumber = 0;
+		functionToCached = new ConcurrentHashMap<Function, CachedFunction>();
+		nextFunctionNumber = new AtomicInteger();
 		one = makeUnique(context.getOne());
 		zero = makeUnique(context.getZero());
-		addCache = new HashMap<OpCacheKey, CachedFunction>();
-		multCache = new HashMap<OpCacheKey, CachedFunction>();
-		starCache = new HashMap<CachedFunction, CachedFunction>();
+		opCache = FunctionCache.withMemoryLimit(maxOpCacheMegabytes);
 		useOpCache = true;
 	}
 	
@@ -143,38 +160,35 @@ final class CachedFunctionFactory extends FunctionFactory {
 	}
 	
 	/**
-	 * Returns the unique integer representing the given function.
-	 * In case the function already exists in the function cache, returns
-	 * the assigned integer. Otherwise, inserts function in the cache and
-	 * returns the newly assigned integer.
-	 * 
-	 * @param function function to return unique integer of
-	 * @return unique integer representing function
+	 * Returns statistics about the function and operation caches, as a string.
 	 */
-	private CachedFunction makeUnique(Function function)
+	String getCacheStatistics()
 	{
-		Integer number = functionToNumber.get(function);
-		if (number != null) {
-			return cachedFunctions.get(number);
-		} else {
-			CachedFunction cachedFunction = new CachedFunction(this, nextFunctionNumber);
-			functionToNumber.put(function, nextFunctionNumber);
-			cachedFunctions.add(cachedFunction);
-			functions.add(function);
-			nextFunctionNumber++;
-			return cachedFunction;
-		}
+		return functionToCached.size() + " functions; operation cache: " + opCache;
+	}
+
+	@Override
+	public boolean isThreadSafe()
+	{
+		return context.isThreadSafe();
 	}
 	
 	/**
-	 * Returns integer with the given unique number.
+	 * Returns the unique cached function representing the given function.
+	 * In case the function already exists in the function cache, returns
+	 * the existing cached function. Otherwise, inserts function in the cache
+	 * and returns a new cached function with a newly assigned integer.
 	 * 
-	 * @param number number of function to return
-	 * @return function with the given number
+	 * @param function function to return unique cached function of
+	 * @return unique cached function representing function
 	 */
-	Function getFunction(int number)
+	private CachedFunction makeUnique(Function function)
 	{
-		return functions.get(number);
+		CachedFunction cachedFunction = functionToCached.get(function);
+		if (cachedFunction != null) {
+			return cachedFunction;
+		}
+		return functionToCached.computeIfAbsent(function, f -> new CachedFunction(this, f, nextFunctionNumber.getAndIncrement()));
 	}
 	
 	@Override
@@ -191,7 +205,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 
 	private Function getFunctionFromCache(Function cached)
 	{
-		return functions.get(((CachedFunction) cached).getNumber());
+		return ((CachedFunction) cached).getFunction();
 	}
 	
 	Function add(Function cached1, Function cached2)
@@ -199,8 +213,8 @@ final class CachedFunctionFactory extends FunctionFactory {
 		Function result;
 		OpCacheKey opCacheKey = null;
 		if (useOpCache) {
-			opCacheKey = new OpCacheKey((CachedFunction) cached1, (CachedFunction) cached2);
-			result = addCache.get(opCacheKey);
+			opCacheKey = new OpCacheKey(ADD, (CachedFunction) cached1, (CachedFunction) cached2);
+			result = opCache.get(opCacheKey);
 			if (result != null) {
 				return result;
 			}
@@ -209,7 +223,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 		Function function2 = getFunctionFromCache(cached2);
 		result = makeUnique(function1.add(function2));
 		if (useOpCache) {
-			addCache.put(opCacheKey, (CachedFunction) result);
+			opCache.put(opCacheKey, (CachedFunction) result);
 		}
 		return result;
 	}
@@ -225,8 +239,8 @@ final class CachedFunctionFactory extends FunctionFactory {
 		Function result;
 		OpCacheKey opCacheKey = null;
 		if (useOpCache) {
-			opCacheKey = new OpCacheKey((CachedFunction) cached1, (CachedFunction) cached2);
-			result = multCache.get(opCacheKey);
+			opCacheKey = new OpCacheKey(MULT, (CachedFunction) cached1, (CachedFunction) cached2);
+			result = opCache.get(opCacheKey);
 			if (result != null) {
 				return result;
 			}
@@ -235,7 +249,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 		Function function2 = getFunctionFromCache(cached2);
 		result = makeUnique(function1.multiply(function2));
 		if (useOpCache) {
-			multCache.put(opCacheKey, (CachedFunction) result);
+			opCache.put(opCacheKey, (CachedFunction) result);
 		}
 		return result;
 	}
@@ -255,8 +269,10 @@ final class CachedFunctionFactory extends FunctionFactory {
 
 	Function star(Function cached) {
 		Function result;
+		OpCacheKey opCacheKey = null;
 		if (useOpCache) {
-			result = starCache.get(cached);
+			opCacheKey = new OpCacheKey(STAR, (CachedFunction) cached, (CachedFunction) cached);
+			result = opCache.get(opCacheKey);
 			if (result != null) {
 				return result;
 			}
@@ -264,7 +280,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 		Function function = getFunctionFromCache(cached);
 		result = makeUnique(function.star());
 		if (useOpCache) {
-			starCache.put((CachedFunction) cached, (CachedFunction) result);
+			opCache.put(opCacheKey, (CachedFunction) result);
 		}
 		return result;
 	}
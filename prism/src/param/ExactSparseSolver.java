@@ -0,0 +1,367 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package param;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+
+import explicit.DTMC;
+import explicit.MDP;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+/**
+ * Exact computation of reachability probabilities and expected accumulated
+ * rewards for Markov chains whose transition probabilities are rational
+ * constants (i.e., for the exact engine), and of optimal values for MDPs,
+ * using policy iteration on top of this.
+ * <br>
+ * In contrast to {@link StateEliminator}, which works on (rational) functions,
+ * the model is stored in sparse (CSR) form as an array of {@link BigRational}s,
+ * benefitting from their compact representation of small fractions.
+ * Linear equation systems are solved by sparse Gaussian elimination,
+ * eliminating states in order of increasing distance to the target,
+ * followed by back substitution.
+ */
+final class ExactSparseSolver
+{
+	/** number of states */
+	private final int numStates;
+	/** start of the choices for each state (in {@code rowStarts}) */
+	private final int[] choiceStarts;
+	/** start of the transitions for each choice (in {@code cols}/{@code probs}) */
+	private final int[] rowStarts;
+	/** successor state for each transition */
+	private final int[] cols;
+	/** probability for each transition */
+	private final BigRational[] probs;
+
+	/**
+	 * Create a solver for a DTMC, storing its transitions in sparse form.
+	 * (For a CTMC, the embedded DTMC should be passed in.)
+	 * @param dtmc the DTMC, with constant transition probabilities
+	 */
+	ExactSparseSolver(DTMC<Function> dtmc)
+	{
+		numStates = dtmc.getNumStates();
+		choiceStarts = new int[numStates + 1];
+		rowStarts = new int[numStates + 1];
+		cols = new int[dtmc.getNumTransitions()];
+		probs = new BigRational[cols.length];
+		int j = 0;
+		for (int s = 0; s < numStates; s++) {
+			choiceStarts[s] = s;
+			rowStarts[s] = j;
+			Iterator<Map.Entry<Integer, Function>> iter = dtmc.getTransitionsIterator(s);
+			while (iter.hasNext()) {
+				Map.Entry<Integer, Function> e = iter.next();
+				cols[j] = e.getKey();
+				probs[j] = e.getValue().asBigRational();
+				j++;
+			}
+		}
+		choiceStarts[numStates] = numStates;
+		rowStarts[numStates] = j;
+	}
+
+	/**
+	 * Create a solver for an MDP, storing its transitions in sparse form.
+	 * @param mdp the MDP, with constant transition probabilities
+	 */
+	ExactSparseSolver(MDP<Function> mdp)
+	{
+		numStates = mdp.getNumStates();
+		choiceStarts = new int[numStates + 1];
+		rowStarts = new int[mdp.getNumChoices() + 1];
+		cols = new int[mdp.getNumTransitions()];
+		probs = new BigRational[cols.length];
+		int c = 0, j = 0;
+		for (int s = 0; s < numStates; s++) {
+			choiceStarts[s] = c;
+			int numChoices = mdp.getNumChoices(s);
+			for (int i = 0; i < numChoices; i++) {
+				rowStarts[c++] = j;
+				Iterator<Map.Entry<Integer, Function>> iter = mdp.getTransitionsIterator(s, i);
+				while (iter.hasNext()) {
+					Map.Entry<Integer, Function> e = iter.next();
+					cols[j] = e.getKey();
+					probs[j] = e.getValue().asBigRational();
+					j++;
+				}
+			}
+		}
+		choiceStarts[numStates] = c;
+		rowStarts[c] = j;
+	}
+
+	/**
+	 * Get the total number of choices (rows).
+	 */
+	int getNumChoices()
+	{
+		return rowStarts.length - 1;
+	}
+
+	/**
+	 * Get the index of the row for choice {@code i} of state {@code s}.
+	 */
+	int getRow(int s, int i)
+	{
+		return choiceStarts[s] + i;
+	}
+
+	/**
+	 * Compute reachability probabilities (if {@code rewards} is null) or expected
+	 * accumulated rewards to reach {@code target}, while remaining in {@code remain},
+	 * for the Markov chain induced by the choices in {@code strat}.
+	 * States outside {@code remain} and {@code target} are absorbing and have
+	 * probability 0 / reward infinity, as do any states which reach them with
+	 * positive probability (for the reward case).
+	 * @param strat choice for each state (null = first choice, e.g. for a DTMC)
+	 * @param remain remain in these states (null = all)
+	 * @param target target states
+	 * @param rewards reward for each row (choice), or null for probabilities
+	 */
+	BigRational[] solveMC(int[] strat, BitSet remain, BitSet target, BigRational[] rewards)
+	{
+		boolean doRewards = rewards != null;
+		int[] rows = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			rows[s] = choiceStarts[s] + (strat == null ? 0 : strat[s]);
+		}
+		BitSet unknown = new BitSet(numStates);
+		unknown.set(0, numStates);
+		unknown.andNot(target);
+		if (remain != null) {
+			unknown.and(remain);
+		}
+
+		// Compute predecessor lists for the induced Markov chain
+		IntArrayList[] pre = new IntArrayList[numStates];
+		for (int s = unknown.nextSetBit(0); s >= 0; s = unknown.nextSetBit(s + 1)) {
+			for (int j = rowStarts[rows[s]]; j < rowStarts[rows[s] + 1]; j++) {
+				int t = cols[j];
+				if (pre[t] == null) {
+					pre[t] = new IntArrayList();
+				}
+				pre[t].add(s);
+			}
+		}
+		// Find states that can reach the target (and, in doing so, an elimination order)
+		int[] order = new int[numStates];
+		int numOrdered = backwardBFS(target, pre, unknown, order);
+		BitSet canReach = new BitSet(numStates);
+		for (int k = 0; k < numOrdered; k++) {
+			canReach.set(order[k]);
+		}
+		// Find states with known value: 0 (prob) or infinity (reward)
+		BitSet known = new BitSet(numStates);
+		known.set(0, numStates);
+		known.andNot(canReach);
+		known.andNot(target);
+		BigRational knownValue = doRewards ? BigRational.INF : BigRational.ZERO;
+		if (doRewards) {
+			// states which reach "known" states (with infinite reward) also have infinite reward
+			int[] inf = new int[numStates];
+			int numInf = backwardBFS(known, pre, unknown, inf);
+			for (int k = 0; k < numInf; k++) {
+				known.set(inf[k]);
+			}
+		}
+		BitSet maybe = (BitSet) unknown.clone();
+		maybe.andNot(known);
+
+		// Build the linear equation system x = A.x + b for the "maybe" states
+		@SuppressWarnings("unchecked")
+		Int2ObjectOpenHashMap<BigRational>[] succ = (Int2ObjectOpenHashMap<BigRational>[]) new Int2ObjectOpenHashMap<?>[numStates];
+		IntOpenHashSet[] pred = new IntOpenHashSet[numStates];
+		BigRational[] b = new BigRational[numStates];
+		for (int s = maybe.nextSetBit(0); s >= 0; s = maybe.nextSetBit(s + 1)) {
+			succ[s] = new Int2ObjectOpenHashMap<>();
+			pred[s] = new IntOpenHashSet();
+		}
+		for (int s = maybe.nextSetBit(0); s >= 0; s = maybe.nextSetBit(s + 1)) {
+			BigRational bs = doRewards ? rewards[rows[s]] : BigRational.ZERO;
+			for (int j = rowStarts[rows[s]]; j < rowStarts[rows[s] + 1]; j++) {
+				int t = cols[j];
+				if (maybe.get(t)) {
+					BigRational p = succ[s].get(t);
+					succ[s].put(t, p == null ? probs[j] : p.add(probs[j]));
+					pred[t].add(s);
+				} else if (!doRewards && target.get(t)) {
+					bs = bs.add(probs[j]);
+				}
+			}
+			b[s] = bs;
+		}
+
+		// Eliminate states (those near the target first)
+		int numMaybe = 0;
+		int[] elimOrder = new int[maybe.cardinality()];
+		for (int k = 0; k < numOrdered; k++) {
+			if (maybe.get(order[k])) {
+				elimOrder[numMaybe++] = order[k];
+			}
+		}
+		for (int s : elimOrder) {
+			eliminate(s, succ, pred, b);
+		}
+
+		// Back substitution
+		BigRational[] soln = new BigRational[numStates];
+		for (int s = 0; s < numStates; s++) {
+			soln[s] = target.get(s) ? (doRewards ? BigRational.ZERO : BigRational.ONE) : knownValue;
+		}
+		for (int k = numMaybe - 1; k >= 0; k--) {
+			int s = elimOrder[k];
+			BigRational val = b[s];
+			for (Int2ObjectMap.Entry<BigRational> e : succ[s].int2ObjectEntrySet()) {
+				val = val.add(e.getValue().multiply(soln[e.getIntKey()]));
+			}
+			soln[s] = val;
+		}
+		return soln;
+	}
+
+	/**
+	 * Compute optimal (min/max) reachability probabilities (if {@code rewards} is null)
+	 * or expected accumulated rewards, using policy iteration.
+	 * On return, {@code strat} contains an optimal strategy.
+	 * @param strat initial strategy (should ensure convergence, see ValueComputer)
+	 * @param remain remain in these states (null = all)
+	 * @param target target states
+	 * @param rewards reward for each row (choice), or null for probabilities
+	 * @param min minimise (true) or maximise (false)?
+	 */
+	BigRational[] solveMDP(int[] strat, BitSet remain, BitSet target, BigRational[] rewards, boolean min)
+	{
+		while (true) {
+			BigRational[] soln = solveMC(strat, remain, target, rewards);
+			boolean changed = false;
+			for (int s = 0; s < numStates; s++) {
+				if ((remain != null && !remain.get(s)) || target.get(s)) {
+					continue;
+				}
+				BigRational bestVal = soln[s];
+				int numChoices = choiceStarts[s + 1] - choiceStarts[s];
+				for (int i = 0; i < numChoices; i++) {
+					int row = choiceStarts[s] + i;
+					BigRational choiceVal = rewards == null ? BigRational.ZERO : rewards[row];
+					for (int j = rowStarts[row]; j < rowStarts[row + 1]; j++) {
+						choiceVal = choiceVal.add(probs[j].multiply(soln[cols[j]]));
+					}
+					if (bestVal.compareTo(choiceVal) == (min ? 1 : -1)) {
+						strat[s] = i;
+						bestVal = choiceVal;
+						changed = true;
+					}
+				}
+			}
+			if (!changed) {
+				return soln;
+			}
+		}
+	}
+
+	/**
+	 * Eliminate state {@code s} from the equation system stored in {@code succ}/{@code b}:
+	 * remove its self-loop (if any) and redirect all incoming transitions from
+	 * non-eliminated states to its successors.
+	 */
+	private static void eliminate(int s, Int2ObjectOpenHashMap<BigRational>[] succ, IntOpenHashSet[] pred, BigRational[] b)
+	{
+		Int2ObjectOpenHashMap<BigRational> succS = succ[s];
+		// Remove self-loop
+		BigRational loop = succS.remove(s);
+		if (loop != null) {
+			pred[s].remove(s);
+			BigRational factor = BigRational.ONE.divide(BigRational.ONE.subtract(loop));
+			for (Int2ObjectMap.Entry<BigRational> e : succS.int2ObjectEntrySet()) {
+				e.setValue(e.getValue().multiply(factor));
+			}
+			b[s] = b[s].multiply(factor);
+		}
+		// Redirect transitions from predecessors
+		IntIterator iter = pred[s].iterator();
+		while (iter.hasNext()) {
+			int u = iter.nextInt();
+			Int2ObjectOpenHashMap<BigRational> succU = succ[u];
+			BigRational pUS = succU.remove(s);
+			for (Int2ObjectMap.Entry<BigRational> e : succS.int2ObjectEntrySet()) {
+				int t = e.getIntKey();
+				BigRational p = pUS.multiply(e.getValue());
+				BigRational pOld = succU.get(t);
+				succU.put(t, pOld == null ? p : pOld.add(p));
+				pred[t].add(u);
+			}
+			b[u] = b[u].add(pUS.multiply(b[s]));
+		}
+		// Detach s from the remaining equation system
+		// (its own row is kept for back substitution)
+		for (int t : succS.keySet()) {
+			pred[t].remove(s);
+		}
+		pred[s] = null;
+	}
+
+	/**
+	 * Backward breadth-first search from the states in {@code from}, via
+	 * predecessors in {@code pre}, restricted to states in {@code within}.
+	 * The states found (excluding those in {@code from}) are stored in {@code found},
+	 * in order of increasing distance; their number is returned.
+	 */
+	private int backwardBFS(BitSet from, IntArrayList[] pre, BitSet within, int[] found)
+	{
+		BitSet seen = (BitSet) from.clone();
+		int numFound = 0;
+		// Start from predecessors of initial set
+		for (int t = from.nextSetBit(0); t >= 0 && t < numStates; t = from.nextSetBit(t + 1)) {
+			numFound = addPredecessors(t, pre, within, seen, found, numFound);
+		}
+		for (int k = 0; k < numFound; k++) {
+			numFound = addPredecessors(found[k], pre, within, seen, found, numFound);
+		}
+		return numFound;
+	}
+
+	/**
+	 * Helper for {@link #backwardBFS}: add unseen predecessors of {@code t} to {@code found}.
+	 */
+	private static int addPredecessors(int t, IntArrayList[] pre, BitSet within, BitSet seen, int[] found, int numFound)
+	{
+		if (pre[t] == null) {
+			return numFound;
+		}
+		IntIterator iter = pre[t].iterator();
+		while (iter.hasNext()) {
+			int s = iter.nextInt();
+			if (within.get(s) && !seen.get(s)) {
+				seen.set(s);
+				found[numFound++] = s;
+			}
+		}
+		return numFound;
+	}
+}
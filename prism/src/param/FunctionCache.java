@@ -0,0 +1,267 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package param;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe, size-bounded cache with least-recently-used (LRU) eviction,
+ * used to store the results of operations on functions.
+ * The cache is split into a number of segments, each of which is an
+ * access-ordered {@link LinkedHashMap} with its own lock, so that
+ * concurrent accesses to different segments do not block each other.
+ * Eviction is LRU per segment.
+ * <br>
+ * The cache can be bounded by its number of entries, or by its (approximate) memory usage,
+ * see {@link #withMemoryLimit(long)}. Memory usage only accounts for the cache's own entries
+ * (map node, LRU links and a small key object), estimated as {@link #ENTRY_BYTES} each:
+ * the functions referred to are owned by the factory's table of unique functions,
+ * so evicting an entry does not free them.
+ * Statistics (hits, misses, evictions, entries, approximate memory usage)
+ * are maintained, see {@link #toString()}.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @see CachedFunctionFactory
+ */
+final class FunctionCache<K, V>
+{
+	/**
+	 * approximate memory usage (in bytes) of a cache entry, excluding the functions it refers to:
+	 * a linked hash map node (~40), its share of the hash table (~8) and a key object with
+	 * an operation code and two references (~24), rounded up
+	 */
+	static final int ENTRY_BYTES = 80;
+	/** default number of segments */
+	static final int DEFAULT_NUM_SEGMENTS = 16;
+
+	/**
+	 * Segment of the cache: an access-ordered map of bounded size.
+	 */
+	private static final class Segment<K, V> extends LinkedHashMap<K, V>
+	{
+		private static final long serialVersionUID = 1L;
+		/** maximum number of entries (0 = unbounded) */
+		private final long maxEntries;
+		/** number of entries evicted from this segment */
+		private long numEvictions;
+
+		Segment(long maxEntries)
+		{
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+		{
+			if (maxEntries > 0 && size() > maxEntries) {
+				numEvictions++;
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/** segments of the cache (number is a power of 2) */
+	private final Segment<K, V>[] segments;
+	/** number of successful lookups */
+	private final LongAdder numHits = new LongAdder();
+	/** number of unsuccessful lookups */
+	private final LongAdder numMisses = new LongAdder();
+
+	/**
+	 * Create a new cache with the default number of segments.
+	 *
+	 * @param maxEntries maximum number of entries (0 = unbounded)
+	 */
+	FunctionCache(long maxEntries)
+	{
+		this(maxEntries, DEFAULT_NUM_SEGMENTS);
+	}
+
+	/**
+	 * Create a new cache.
+	 *
+	 * @param maxEntries maximum number of entries (0 = unbounded)
+	 * @param numSegments number of segments (rounded up to a power of 2)
+	 */
+	@SuppressWarnings("unchecked")
+	FunctionCache(long maxEntries, int numSegments)
+	{
+		int n = 1;
+		while (n < numSegments) {
+			n <<= 1;
+		}
+		// Entries per segment, rounded up (unless unbounded)
+		long maxEntriesPerSegment = maxEntries <= 0 ? 0 : (maxEntries + n - 1) / n;
+		segments = (Segment<K, V>[]) new Segment<?, ?>[n];
+		for (int i = 0; i < n; i++) {
+			segments[i] = new Segment<>(maxEntriesPerSegment);
+		}
+	}
+
+	/**
+	 * Create a new cache, bounded by (approximate) memory usage,
+	 * with the default number of segments.
+	 *
+	 * @param maxMegabytes maximum memory usage in MB (0 = unbounded)
+	 */
+	static <K, V> FunctionCache<K, V> withMemoryLimit(long maxMegabytes)
+	{
+		return new FunctionCache<>(maxMegabytes * 1024 * 1024 / ENTRY_BYTES);
+	}
+
+	/**
+	 * Look up the value for a key, or return null if not present.
+	 * The entry becomes the most recently used one of its segment.
+	 *
+	 * @param key key to look up
+	 * @return value for key, or null
+	 */
+	V get(K key)
+	{
+		Segment<K, V> segment = segmentFor(key);
+		V value;
+		synchronized (segment) {
+			value = segment.get(key);
+		}
+		if (value != null) {
+			numHits.increment();
+		} else {
+			numMisses.increment();
+		}
+		return value;
+	}
+
+	/**
+	 * Store a value for a key, possibly evicting the least recently used
+	 * entry of its segment.
+	 *
+	 * @param key key to store value for
+	 * @param value value to store
+	 */
+	void put(K key, V value)
+	{
+		Segment<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			segment.put(key, value);
+		}
+	}
+
+	/**
+	 * Remove all entries (statistics are kept).
+	 */
+	void clear()
+	{
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Get the number of entries currently stored.
+	 */
+	long getNumEntries()
+	{
+		long numEntries = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				numEntries += segment.size();
+			}
+		}
+		return numEntries;
+	}
+
+	/**
+	 * Get the number of successful lookups so far.
+	 */
+	long getNumHits()
+	{
+		return numHits.sum();
+	}
+
+	/**
+	 * Get the number of unsuccessful lookups so far.
+	 */
+	long getNumMisses()
+	{
+		return numMisses.sum();
+	}
+
+	/**
+	 * Get the number of entries evicted so far.
+	 */
+	long getNumEvictions()
+	{
+		long numEvictions = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				numEvictions += segment.numEvictions;
+			}
+		}
+		return numEvictions;
+	}
+
+	/**
+	 * Get the fraction of lookups which were successful (0 if there were none).
+	 */
+	double getHitRate()
+	{
+		long hits = getNumHits();
+		long total = hits + getNumMisses();
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+
+	/**
+	 * Get the approximate memory usage of the cache (in bytes),
+	 * excluding the functions its entries refer to.
+	 */
+	long getMemoryUsage()
+	{
+		return getNumEntries() * ENTRY_BYTES;
+	}
+
+	@Override
+	public String toString()
+	{
+		long numEntries = getNumEntries();
+		return String.format("%d entries (~%.1f MB), %d hits, %d misses (hit rate %.1f%%), %d evictions",
+				numEntries, numEntries * ENTRY_BYTES / (1024.0 * 1024.0), getNumHits(), getNumMisses(), 100 * getHitRate(), getNumEvictions());
+	}
+
+	/**
+	 * Get the segment responsible for a key.
+	 */
+	private Segment<K, V> segmentFor(K key)
+	{
+		int h = key.hashCode();
+		// Spread bits, as the low bits are often poorly distributed
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return segments[h & (segments.length - 1)];
+	}
+}
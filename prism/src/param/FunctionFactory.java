@@ -82,7 +82,8 @@ public abstract class FunctionFactory
 		if (functionType.equals("JAS")) {
 			return new JasFunctionFactory(paramNames, lower, upper);
 		} else if (functionType.equals("JAS-cached")) {
-			return new CachedFunctionFactory(new JasFunctionFactory(paramNames, lower, upper));
+			long maxCacheMegabytes = settings.getInteger(PrismSettings.PRISM_PARAM_FUNCTION_CACHE_SIZE);
+			return new CachedFunctionFactory(new JasFunctionFactory(paramNames, lower, upper), maxCacheMegabytes);
 		} else if (functionType.equals("DAG")) {
 			double dagMaxError = settings.getDouble(PrismSettings.PRISM_PARAM_DAG_MAX_ERROR);
 			return new DagFunctionFactory(paramNames, lower, upper, dagMaxError, false);
@@ -183,6 +184,16 @@ public abstract class FunctionFactory
 	public Function getVar(String var) {
 		return getVar(varnameToInt.get(var));
 	}
+
+	/**
+	 * Returns whether operations on functions of this factory may be
+	 * performed concurrently from several threads.
+	 * 
+	 * @return true iff this factory and its functions are thread-safe
+	 */
+	public boolean isThreadSafe() {
+		return false;
+	}
 	
 	/**
 	 * Returns name of variable with the given index.
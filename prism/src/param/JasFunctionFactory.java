@@ -155,4 +155,10 @@ final class JasFunctionFactory extends FunctionFactory {
 	public Function getVar(int var) {
 		return parameters[var];
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		// JAS polynomials and quotients are immutable
+		return true;
+	}
 }
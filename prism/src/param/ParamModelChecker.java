@@ -105,6 +105,7 @@ import prism.PrismException;
 import prism.PrismSettings;
 import prism.PrismNotSupportedException;
 import prism.Result;
+import prism.Telemetry;
 import edu.jas.kern.ComputerThreads;
 import explicit.Model;
 import prism.RewardGenerator;
@@ -152,6 +153,9 @@ final public class ParamModelChecker extends PrismComponent
 	private int numRandomPoints;
 	private Lumper.BisimType bisimType;
 	private boolean simplifyRegions;
+	private int eliminationThreads;
+	private int regionThreads;
+	private int timeBudget;
 
 	/**
 	 * Constructor
@@ -201,6 +205,15 @@ final public class ParamModelChecker extends PrismComponent
 			throw new PrismException("unknown bisimulation type " + bisimTypeString);							
 		}
 		simplifyRegions = settings.getBoolean(PrismSettings.PRISM_PARAM_SUBSUME_REGIONS);
+		eliminationThreads = settings.getInteger(PrismSettings.PRISM_PARAM_ELIM_THREADS);
+		if (eliminationThreads == 0) {
+			eliminationThreads = Runtime.getRuntime().availableProcessors();
+		}
+		regionThreads = settings.getInteger(PrismSettings.PRISM_PARAM_REGION_THREADS);
+		if (regionThreads == 0) {
+			regionThreads = Runtime.getRuntime().availableProcessors();
+		}
+		timeBudget = settings.getInteger(PrismSettings.PRISM_PARAM_TIME_BUDGET);
 		}
 	}
 	
@@ -250,7 +263,9 @@ final public class ParamModelChecker extends PrismComponent
 		constraintChecker = new ConstraintChecker(numRandomPoints);
 		regionFactory = new BoxRegionFactory(functionFactory, constraintChecker, precision,
 				model.getNumStates(), model.getFirstInitialState(), simplifyRegions, splitMethod);
-		valueComputer = new ValueComputer(this, mode, regionFactory, precision, eliminationOrder, bisimType);
+		long deadline = timeBudget > 0 ? System.currentTimeMillis() + 1000L * timeBudget : Long.MAX_VALUE;
+		regionFactory.setRefinementOptions(regionThreads, deadline);
+		valueComputer = new ValueComputer(this, mode, regionFactory, precision, eliminationOrder, bisimType, eliminationThreads);
 		
 		long timer = 0;
 		
@@ -276,7 +291,15 @@ final public class ParamModelChecker extends PrismComponent
 		RegionValues vals = checkExpression(model, expr, needStates);
 		timer = System.currentTimeMillis() - timer;
 		mainLog.println("\nTime for model checking: " + timer / 1000.0 + " seconds.");
+		Telemetry.phase("model checking", timer);
+		if (verbosity > 5 && functionFactory instanceof CachedFunctionFactory) {
+			mainLog.println("Function cache: " + ((CachedFunctionFactory) functionFactory).getCacheStatistics());
+		}
 
+		if (regionFactory.isDeadlineReached()) {
+			double coverage = 100 * vals.getCoveredVolume().doubleValue();
+			mainLog.printWarning("Region refinement stopped after time budget of " + timeBudget + "s: results cover only " + coverage + "% of the parameter space.");
+		}
 		if (constraintChecker.unsoundCheckWasUsed()) {
 			mainLog.printWarning("Computation of Boolean values / parameter regions used heuristic sampling, results are potentially inaccurate.");
 		}
@@ -28,6 +28,8 @@ package param;
 
 import java.util.ArrayList;
 
+import prism.PrismException;
+
 /**
  * A region represents a subset of the valid parameter values.
  * New regions can be produced using the corresponding {@code RegionFactory},
@@ -93,7 +95,7 @@ abstract class Region {
 	 */
 	abstract boolean contains(Region other);
 	
-	abstract RegionValues binaryOp(int op, StateValues values1, StateValues values2);
+	abstract RegionValues binaryOp(int op, StateValues values1, StateValues values2) throws PrismException;
 
 	abstract RegionValues ITE(StateValues valueI, StateValues valueT, StateValues valueE);
 
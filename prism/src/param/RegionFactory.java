@@ -47,6 +47,12 @@ abstract class RegionFactory {
 	 * that is if they can be represented by a single larger region
 	 * and are assigned the same values */
 	protected boolean subsumeRegions;
+	/** number of threads used to check regions during refinement */
+	protected int refinementThreads = 1;
+	/** time (as in {@link System#currentTimeMillis()}) after which to stop refinement */
+	protected long refinementDeadline = Long.MAX_VALUE;
+	/** whether refinement was stopped due to the deadline */
+	private volatile boolean deadlineReached;
 
 	/**
 	 * Covers the whole parameter space with the values specified.
@@ -172,6 +178,49 @@ abstract class RegionFactory {
 		return initialState;
 	}
 	
+	/**
+	 * Sets the options used for refinement of regions.
+	 * 
+	 * @param refinementThreads number of threads used to check regions
+	 * @param refinementDeadline time after which to stop refinement ({@code Long.MAX_VALUE} = none)
+	 */
+	void setRefinementOptions(int refinementThreads, long refinementDeadline)
+	{
+		this.refinementThreads = refinementThreads;
+		this.refinementDeadline = refinementDeadline;
+	}
+
+	/**
+	 * Creates a new region refiner, using the refinement options of this factory.
+	 * Regions are only checked concurrently if the function factory is thread-safe.
+	 * 
+	 * @return new region refiner
+	 */
+	RegionRefiner createRefiner()
+	{
+		int numThreads = functionFactory.isThreadSafe() ? refinementThreads : 1;
+		return new RegionRefiner(this, numThreads, refinementDeadline);
+	}
+
+	/**
+	 * Notes that refinement has been stopped due to the deadline.
+	 */
+	void setDeadlineReached()
+	{
+		deadlineReached = true;
+	}
+
+	/**
+	 * Returns whether refinement has been stopped due to the deadline
+	 * (so that results cover less than the required volume).
+	 * 
+	 * @return true iff the refinement deadline was reached
+	 */
+	boolean isDeadlineReached()
+	{
+		return deadlineReached;
+	}
+
 	/**
 	 * Returns whether regions are to be subsumed if possible.
 	 * 
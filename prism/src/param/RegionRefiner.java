@@ -0,0 +1,213 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package param;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import prism.PrismException;
+
+/**
+ * Scheduler for the refinement of parameter regions.
+ * Starting from a single region, regions are repeatedly taken from a queue
+ * and checked; each check either decides the region (assigning values to it),
+ * asks for it to be split, or discards it (e.g. because the model is not
+ * well-defined there). Refinement stops once the decided volume reaches
+ * the required volume.
+ * <br>
+ * Regions are processed largest first, i.e., those contributing most to the
+ * undecided volume, see {@link RegionsTODO}. If more than one thread is used,
+ * regions are checked concurrently by a pool of workers, which share the
+ * (thread-safe) function factory and constraint checker, and thus any
+ * functions and decisions cached in them.
+ * <br>
+ * If a deadline is given, refinement also stops once it has passed,
+ * in which case the values computed so far (covering less than the
+ * required volume) are returned.
+ */
+final class RegionRefiner
+{
+	/**
+	 * Check of a single region, as performed by a worker.
+	 */
+	@FunctionalInterface
+	interface RegionCheck
+	{
+		/**
+		 * Check a region.
+		 *
+		 * @param region region to check
+		 * @return outcome of the check
+		 */
+		Outcome check(Region region) throws PrismException;
+	}
+
+	/**
+	 * Outcome of checking a region.
+	 */
+	static final class Outcome
+	{
+		/** values, if region was decided */
+		final StateValues values;
+		/** subregions, if region needs to be split */
+		final List<Region> split;
+
+		private Outcome(StateValues values, List<Region> split)
+		{
+			this.values = values;
+			this.split = split;
+		}
+
+		/**
+		 * Region was decided, with the given values.
+		 */
+		static Outcome decided(StateValues values)
+		{
+			return new Outcome(values, null);
+		}
+
+		/**
+		 * Region is undecided, and is to be replaced by the given subregions.
+		 */
+		static Outcome split(List<Region> split)
+		{
+			return new Outcome(null, split);
+		}
+
+		/**
+		 * Region is to be discarded (its volume is no longer required).
+		 */
+		static Outcome discard()
+		{
+			return new Outcome(null, null);
+		}
+	}
+
+	/** region factory (for results) */
+	private RegionFactory regionFactory;
+	/** number of worker threads */
+	private int numThreads;
+	/** time (as in {@link System#currentTimeMillis()}) after which to stop refinement */
+	private long deadline;
+
+	/**
+	 * Create a new region refiner.
+	 *
+	 * @param regionFactory region factory to use
+	 * @param numThreads number of worker threads (1 = check regions in calling thread)
+	 * @param deadline time after which to stop refinement ({@code Long.MAX_VALUE} = none)
+	 */
+	RegionRefiner(RegionFactory regionFactory, int numThreads, long deadline)
+	{
+		this.regionFactory = regionFactory;
+		this.numThreads = numThreads;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Refine a region until a given volume has been decided (or the deadline passed).
+	 * If refinement is stopped due to the deadline, this is recorded in the region factory.
+	 *
+	 * @param region initial region
+	 * @param requiredVolume volume which needs to be decided
+	 * @param check check to perform on each region
+	 * @return values for the decided regions
+	 */
+	RegionValues refine(Region region, BigRational requiredVolume, RegionCheck check) throws PrismException
+	{
+		RegionValues result = new RegionValues(regionFactory);
+		RegionsTODO todo = new RegionsTODO();
+		todo.add(region);
+		BigRational volume = BigRational.ZERO;
+
+		if (numThreads <= 1) {
+			while (volume.compareTo(requiredVolume) == -1 && !todo.isEmpty()) {
+				if (System.currentTimeMillis() > deadline) {
+					regionFactory.setDeadlineReached();
+					break;
+				}
+				Region currentRegion = todo.poll();
+				Outcome outcome = check.check(currentRegion);
+				if (outcome.values != null) {
+					volume = volume.add(currentRegion.volume());
+					result.add(currentRegion, outcome.values);
+				} else if (outcome.split != null) {
+					todo.addAll(outcome.split);
+				} else {
+					requiredVolume = requiredVolume.subtract(currentRegion.volume());
+				}
+			}
+			return result;
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		CompletionService<Outcome> completion = new ExecutorCompletionService<>(pool);
+		// Regions currently being checked, by (future) outcome
+		Map<Future<Outcome>, Region> inFlight = new HashMap<>();
+		try {
+			while (volume.compareTo(requiredVolume) == -1) {
+				if (System.currentTimeMillis() > deadline) {
+					regionFactory.setDeadlineReached();
+					break;
+				}
+				// Keep all workers busy, with the largest regions
+				while (inFlight.size() < numThreads && !todo.isEmpty()) {
+					Region next = todo.poll();
+					inFlight.put(completion.submit(() -> check.check(next)), next);
+				}
+				if (inFlight.isEmpty()) {
+					break;
+				}
+				Future<Outcome> done = completion.take();
+				Region currentRegion = inFlight.remove(done);
+				Outcome outcome = done.get();
+				if (outcome.values != null) {
+					volume = volume.add(currentRegion.volume());
+					result.add(currentRegion, outcome.values);
+				} else if (outcome.split != null) {
+					todo.addAll(outcome.split);
+				} else {
+					requiredVolume = requiredVolume.subtract(currentRegion.volume());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PrismException("Parallel region refinement was interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof PrismException) {
+				throw (PrismException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException("parallel region refinement failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		return result;
+	}
+}
@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.Map.Entry;
 
 import parser.State;
+import prism.PrismException;
 import prism.PrismLog;
 
 /**
@@ -141,6 +142,18 @@ public final class RegionValues implements Iterable<Entry<Region, StateValues>>
 		return regions.size();
 	}
 
+	/**
+	 * Returns the volume covered by the regions, as a fraction of the whole parameter space.
+	 */
+	public BigRational getCoveredVolume()
+	{
+		BigRational volume = BigRational.ZERO;
+		for (Region region : regions) {
+			volume = volume.add(region.volume());
+		}
+		return volume;
+	}
+
 	public StateValues getResult(int number)
 	{
 		return values.get(regions.get(number));
@@ -303,7 +316,7 @@ public final class RegionValues implements Iterable<Entry<Region, StateValues>>
 		return values.get(regions.get(0)).getStateValue(0) instanceof StateBoolean;
 	}
 
-	public RegionValues binaryOp(int op, RegionValues other)
+	public RegionValues binaryOp(int op, RegionValues other) throws PrismException
 	{
 		RegionValues result = new RegionValues(factory);
 		RegionValuesIntersections co = new RegionValuesIntersections(this, other);
@@ -317,7 +330,7 @@ public final class RegionValues implements Iterable<Entry<Region, StateValues>>
 		return result;
 	}
 
-	public RegionValues binaryOp(int op, BigRational p)
+	public RegionValues binaryOp(int op, BigRational p) throws PrismException
 	{
 		RegionValues result = new RegionValues(factory);
 		Function pFn = factory.getFunctionFactory().fromBigRational(p);
@@ -329,7 +342,7 @@ public final class RegionValues implements Iterable<Entry<Region, StateValues>>
 		return result;
 	}
 
-	public RegionValues binaryOp(BigRational p, int op)
+	public RegionValues binaryOp(BigRational p, int op) throws PrismException
 	{
 		RegionValues result = new RegionValues(factory);
 		Function pFn = factory.getFunctionFactory().fromBigRational(p);
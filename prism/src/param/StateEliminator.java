@@ -32,6 +32,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * Performs computation of reachability probabilities and rewards.
@@ -43,6 +46,13 @@ import java.util.ListIterator;
  * is maintained, but the state no longer has any incoming transitions,
  * except in some cases self loops. This way, after all states have been
  * treated, the value of concern can be obtained by a simple computation.
+ * <br>
+ * If more than one thread is requested (and the function factory is
+ * thread-safe), states are eliminated in parallel: the elimination order
+ * is split into contiguous regions, and the "interior" states of each region
+ * (all of whose predecessors and successors are in the same region) are
+ * eliminated concurrently, one thread per region. The remaining (boundary)
+ * states are then eliminated sequentially.
  * 
  * @author Ernst Moritz Hahn <emhahn@cs.ox.ac.uk> (University of Oxford)
  */
@@ -69,6 +79,8 @@ final class StateEliminator {
 	private MutablePMC pmc;
 	/** order in which states are eliminated */
 	private EliminationOrder eliminationOrder;
+	/** number of threads used for elimination */
+	private int numThreads;
 	
 	/**
 	 * Create a new state eliminator object.
@@ -77,9 +89,22 @@ final class StateEliminator {
 	 * @param eliminationOrder order in which states shall be eliminated
 	 */
 	StateEliminator(MutablePMC pmc, EliminationOrder eliminationOrder)
+	{
+		this(pmc, eliminationOrder, 1);
+	}
+
+	/**
+	 * Create a new state eliminator object.
+	 * 
+	 * @param pmc parametric Markov chain to compute values of
+	 * @param eliminationOrder order in which states shall be eliminated
+	 * @param numThreads number of threads to use for elimination
+	 */
+	StateEliminator(MutablePMC pmc, EliminationOrder eliminationOrder, int numThreads)
 	{
 		this.pmc = pmc;
 		this.eliminationOrder = eliminationOrder;
+		this.numThreads = numThreads;
 	}
 	
 	/**
@@ -288,8 +313,76 @@ final class StateEliminator {
 			throw new RuntimeException("unknown state elimination order");
 		}
 		
-		for (int stateNr = 0; stateNr < pmc.getNumStates(); stateNr++) {
-			eliminate(states[stateNr]);
+		if (numThreads > 1 && pmc.getFunctionFactory().isThreadSafe()) {
+			eliminateParallel(states);
+		} else {
+			for (int stateNr = 0; stateNr < pmc.getNumStates(); stateNr++) {
+				eliminate(states[stateNr]);
+			}
+		}
+	}
+
+	/**
+	 * Eliminate all states of the model, in parallel.
+	 * The given order is split into contiguous regions (several per thread,
+	 * for load balancing). First, states all of whose neighbours are in the
+	 * same region are eliminated, concurrently for each region, in the given
+	 * order. Eliminating such a state only modifies states of its own region,
+	 * and only adds transitions between states of its own region, so these
+	 * states remain "interior" until they are eliminated.
+	 * Then, the remaining states are eliminated sequentially in the given order.
+	 * 
+	 * @param order states in order of elimination (duplicates are ignored)
+	 */
+	private void eliminateParallel(int[] order)
+	{
+		// Remove duplicates (forward orders do not contain unreachable states)
+		BitSet seen = new BitSet(pmc.getNumStates());
+		int[] states = IntStream.of(order).filter(state -> {
+			boolean isNew = !seen.get(state);
+			seen.set(state);
+			return isNew;
+		}).toArray();
+		int numStates = states.length;
+		int numRegions = Math.min(numStates, 4 * numThreads);
+		int[] region = new int[pmc.getNumStates()];
+		for (int stateNr = 0; stateNr < numStates; stateNr++) {
+			region[states[stateNr]] = (int) ((long) stateNr * numRegions / numStates);
+		}
+		BitSet interior = new BitSet(pmc.getNumStates());
+		for (int stateNr = 0; stateNr < numStates; stateNr++) {
+			int state = states[stateNr];
+			boolean isInterior = true;
+			for (int succState : pmc.transitionTargets.get(state)) {
+				isInterior &= region[succState] == region[state];
+			}
+			for (int predState : pmc.incoming.get(state)) {
+				isInterior &= region[predState] == region[state];
+			}
+			interior.set(state, isInterior);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		try {
+			pool.submit(() -> IntStream.range(0, numRegions).parallel().forEach(r -> {
+				int first = (int) (((long) r * numStates + numRegions - 1) / numRegions);
+				int last = (int) (((long) (r + 1) * numStates + numRegions - 1) / numRegions);
+				for (int stateNr = first; stateNr < last; stateNr++) {
+					if (interior.get(states[stateNr])) {
+						eliminate(states[stateNr]);
+					}
+				}
+			})).get();
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException("parallel state elimination failed", e);
+		} finally {
+			pool.shutdown();
+		}
+
+		for (int stateNr = 0; stateNr < numStates; stateNr++) {
+			if (!interior.get(states[stateNr])) {
+				eliminate(states[stateNr]);
+			}
 		}
 	}
 
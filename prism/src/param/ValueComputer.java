@@ -246,12 +246,14 @@ final class ValueComputer extends PrismComponent
 	private FunctionFactory functionFactory;
 	private ConstraintChecker constraintChecker;
 	private BigRational precision;
+	// (caches are accessed via synchronized methods, as regions may be checked concurrently)
 	private HashMap<SchedulerCacheKey,ArrayList<Scheduler>> schedCache;
 	private HashMap<ResultCacheKey,ResultCacheEntry> resultCache;
 	private StateEliminator.EliminationOrder eliminationOrder;
 	private Lumper.BisimType bisimType;
+	private int eliminationThreads;
 
-	ValueComputer(PrismComponent parent, ParamMode mode, RegionFactory regionFactory, BigRational precision, StateEliminator.EliminationOrder eliminationOrder, Lumper.BisimType bisimType) {
+	ValueComputer(PrismComponent parent, ParamMode mode, RegionFactory regionFactory, BigRational precision, StateEliminator.EliminationOrder eliminationOrder, Lumper.BisimType bisimType, int eliminationThreads) {
 		super(parent);
 		this.mode = mode;
 		this.regionFactory = regionFactory;
@@ -262,6 +264,7 @@ final class ValueComputer extends PrismComponent
 		this.resultCache = new HashMap<ResultCacheKey,ResultCacheEntry>();
 		this.eliminationOrder = eliminationOrder;
 		this.bisimType = bisimType;
+		this.eliminationThreads = eliminationThreads;
 	}
 
 	RegionValues computeUnbounded(Model<?> model, RegionValues b1, RegionValues b2, boolean min, Rewards<?> rew) throws PrismException {
@@ -306,13 +309,17 @@ final class ValueComputer extends PrismComponent
 			}
 		}
 
-		MutablePMC pmc = buildAlterablePMCForReach(dtmc, b1, b2, mcRewards);
-		// TODO
-//		if (rew != null && mode == ParamMode.EXACT) {
-//			rew.checkForNonNormalRewards();
-//		}
-
-		StateValues values = computeValues(pmc, dtmc.getFirstInitialState());
+		StateValues values;
+		if (mode == ParamMode.EXACT) {
+			values = computeUnboundedMCExact(dtmc, b1, b2, mcRewards);
+		} else {
+			MutablePMC pmc = buildAlterablePMCForReach(dtmc, b1, b2, mcRewards);
+			// TODO
+//			if (rew != null && mode == ParamMode.EXACT) {
+//				rew.checkForNonNormalRewards();
+//			}
+			values = computeValues(pmc, dtmc.getFirstInitialState());
+		}
 
 		// Set value of infinity states
 		if (mcRewards != null) {
@@ -328,10 +335,6 @@ final class ValueComputer extends PrismComponent
 	{
 		BigRational precisionForThisRegion = region.volume().multiply(precision);
 		BigRational requiredVolume = region.volume().subtract(precisionForThisRegion);
-		RegionValues result = new RegionValues(regionFactory);
-		RegionsTODO todo = new RegionsTODO();
-		todo.add(region);
-		BigRational volume = BigRational.ZERO;
 
 		if (mdpRewards != null) {
 			// determine infinity states
@@ -350,8 +353,12 @@ final class ValueComputer extends PrismComponent
 		Scheduler initialScheduler = new Scheduler(mdp);
 		precomputeScheduler(mdp, initialScheduler, b1, b2, mdpRewards, min);
 
-		while (volume.compareTo(requiredVolume) == -1) {
-			Region currentRegion = todo.poll();
+		if (mode == ParamMode.EXACT) {
+			return regionFactory.completeCover(computeUnboundedMDPExact(mdp, b1, b2, min, mdpRewards, initialScheduler));
+		}
+
+		// Regions may be checked concurrently; the caches of results/schedulers are shared
+		return regionFactory.createRefiner().refine(region, requiredVolume, currentRegion -> {
 			Point midPoint = ((BoxRegion)currentRegion).getMidPoint();
 			Scheduler scheduler = computeOptConcreteReachScheduler(midPoint, mdp, b1, b2, min, mdpRewards, initialScheduler);
 			if (scheduler == null) {
@@ -359,13 +366,12 @@ final class ValueComputer extends PrismComponent
 				if (currentRegion.volume().compareTo(precisionForThisRegion) <= 0) {
 					// region is below precision threshold, treat as undefined
 					// and adjust required volume
-					requiredVolume = requiredVolume.subtract(currentRegion.volume());
+					return RegionRefiner.Outcome.discard();
 				} else {
 					// we split the current region
 					// TODO: Would be nice to try and analyse the well-definedness constraints
-					todo.addAll(currentRegion.split());
+					return RegionRefiner.Outcome.split(currentRegion.split());
 				}
-				continue;
 			}
 
 			ResultCacheEntry resultCacheEntry = lookupValues(PropType.REACH, b1, b2, mdpRewards, scheduler, min);
@@ -391,16 +397,80 @@ final class ValueComputer extends PrismComponent
 				}
 			}
 			if (ok) {
-				volume = volume.add(currentRegion.volume());
-				result.add(currentRegion, values);
+				return RegionRefiner.Outcome.decided(values);
 			} else {
-				todo.addAll(currentRegion.split(choiceValue));
+				return RegionRefiner.Outcome.split(currentRegion.split(choiceValue));
+			}
+		});
+	}
+	
+	/**
+	 * Compute P[ b1 U b2 ] or R[ b1 U b2 ] for a DTMC/CTMC in exact mode,
+	 * i.e., where all transition probabilities/rates and rewards are constants,
+	 * using {@link ExactSparseSolver}.
+	 * States with infinite reward are expected to have been removed from {@code b1}.
+	 */
+	private StateValues computeUnboundedMCExact(DTMC<Function> dtmc, StateValues b1, StateValues b2, MCRewards<Function> mcRewards) throws PrismException
+	{
+		int numStates = dtmc.getNumStates();
+		// Switch to embedded DTMC for a CTMC (and normalise rewards accordingly)
+		DTMC<Function> dtmcEmb = dtmc.getModelType() == ModelType.CTMC ? ((CTMC<Function>) dtmc).getImplicitEmbeddedDTMC() : dtmc;
+		BigRational[] rewards = null;
+		if (mcRewards != null) {
+			rewards = new BigRational[numStates];
+			for (int s = 0; s < numStates; s++) {
+				BigRational r = mcRewards.getStateReward(s).asBigRational();
+				if (dtmc.getModelType() == ModelType.CTMC) {
+					BigRational exitRate = ((CTMC<Function>) dtmc).getExitRate(s).asBigRational();
+					if (!exitRate.isZero()) {
+						r = r.divide(exitRate);
+					}
+				}
+				rewards[s] = r;
 			}
 		}
+		ExactSparseSolver solver = new ExactSparseSolver(dtmcEmb);
+		BigRational[] soln = solver.solveMC(null, b1.toBitSet(), b2.toBitSet(), rewards);
+		return toStateValues(soln, dtmc.getFirstInitialState());
+	}
 
-		return result;
+	/**
+	 * Compute Pmin/Pmax[ b1 U b2 ] or Rmin/Rmax[ b1 U b2 ] for an MDP in exact mode,
+	 * i.e., where all transition probabilities and rewards are constants,
+	 * using policy iteration with {@link ExactSparseSolver}.
+	 * States with infinite reward are expected to have been removed from {@code b1}.
+	 * @param initialScheduler an initial scheduler that ensures that policy iteration will converge
+	 */
+	private StateValues computeUnboundedMDPExact(MDP<Function> mdp, StateValues b1, StateValues b2, boolean min, MDPRewards<Function> mdpRewards, Scheduler initialScheduler) throws PrismException
+	{
+		ExactSparseSolver solver = new ExactSparseSolver(mdp);
+		BigRational[] rewards = null;
+		if (mdpRewards != null) {
+			rewards = new BigRational[solver.getNumChoices()];
+			for (int s = 0; s < mdp.getNumStates(); s++) {
+				BigRational stateReward = mdpRewards.getStateReward(s).asBigRational();
+				for (int i = 0; i < mdp.getNumChoices(s); i++) {
+					rewards[solver.getRow(s, i)] = stateReward.add(mdpRewards.getTransitionReward(s, i).asBigRational());
+				}
+			}
+		}
+		int[] strat = initialScheduler.choices.clone();
+		BigRational[] soln = solver.solveMDP(strat, b1.toBitSet(), b2.toBitSet(), rewards, min);
+		return toStateValues(soln, mdp.getFirstInitialState());
 	}
-	
+
+	/**
+	 * Convert an array of exact values to a StateValues object.
+	 */
+	private StateValues toStateValues(BigRational[] soln, int initState)
+	{
+		StateValues values = new StateValues(soln.length, initState);
+		for (int s = 0; s < soln.length; s++) {
+			values.setStateValue(s, functionFactory.fromBigRational(soln[s]));
+		}
+		return values;
+	}
+
 	private Function[] computeCompare(MDP<Function> model, StateValues b1, StateValues b2,
 			MDPRewards<Function> mdpRewards, Scheduler scheduler, boolean min,
 			StateValues values) {
@@ -432,14 +502,14 @@ final class ValueComputer extends PrismComponent
 		return allValues.toArray(new Function[0]);
 	}
 
-	private void storeValues(PropType propType, StateValues b1, StateValues b2,
+	private synchronized void storeValues(PropType propType, StateValues b1, StateValues b2,
 			Rewards<?> rew, Scheduler scheduler, boolean min, StateValues values, Function[] compare) {
 		ResultCacheKey cacheKey = new ResultCacheKey(propType, b1, b2, rew, scheduler, min);
 		ResultCacheEntry resultCacheEntry = new ResultCacheEntry(values, compare);
 		resultCache.put(cacheKey, resultCacheEntry);
 	}
 
-	private ResultCacheEntry lookupValues(PropType propType, StateValues b1, StateValues b2,
+	private synchronized ResultCacheEntry lookupValues(PropType propType, StateValues b1, StateValues b2,
 			Rewards<?> rew, Scheduler scheduler, boolean min) {
 		ResultCacheKey cacheKey = new ResultCacheKey(propType, b1, b2, rew, scheduler, min);
 		ResultCacheEntry resultCacheEntry = resultCache.get(cacheKey);
@@ -541,7 +611,7 @@ final class ValueComputer extends PrismComponent
 		return scheduler;
 	}
 	
-	private void storeScheduler(PropType propType, StateValues b1, StateValues b2, boolean min,
+	private synchronized void storeScheduler(PropType propType, StateValues b1, StateValues b2, boolean min,
 			Rewards<?> rew, Scheduler scheduler) {
 		SchedulerCacheKey cacheKey = new SchedulerCacheKey(propType, b1, b2, min, rew, null);
 		ArrayList<Scheduler> schedulers = schedCache.get(cacheKey);
@@ -552,7 +622,7 @@ final class ValueComputer extends PrismComponent
 		schedulers.add(scheduler);		
 	}
 
-	private Scheduler lookupScheduler(Point point, MDP<Function> mdp, PropType propType, StateValues b1, StateValues b2,
+	private synchronized Scheduler lookupScheduler(Point point, MDP<Function> mdp, PropType propType, StateValues b1, StateValues b2,
 			boolean min, Rewards<?> rew)
 	{
 		SchedulerCacheKey cacheKey = new SchedulerCacheKey(propType, b1, b2, min, rew, null);
@@ -798,7 +868,7 @@ final class ValueComputer extends PrismComponent
 		}
 		
 		MutablePMC quot = lumper.getQuotient();
-		StateEliminator eliminator = new StateEliminator(quot, eliminationOrder);
+		StateEliminator eliminator = new StateEliminator(quot, eliminationOrder, eliminationThreads);
 		eliminator.eliminate();
 		int[] origToCopy = lumper.getOriginalToOptimised();
 		StateValues result = new StateValues(pmc.getNumStates(), initState);
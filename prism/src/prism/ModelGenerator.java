@@ -509,4 +509,20 @@ public interface ModelGenerator<Value> extends ModelInfo
 		// Undefined by default
 		throw new PrismException("Observation not defined");
 	}
+
+	/**
+	 * Get the player that owns state {@code state}, i.e., that picks which of its choices is taken.
+	 * Returns the index of the player (0-indexed).
+	 * For models that do not have multiple players, 0 can be returned.
+	 * (for turn-based games only)
+	 * @param state The state
+	 */
+	public default int getPlayer(State state) throws PrismException
+	{
+		if (!getModelType().multiplePlayers()) {
+			return 0;
+		}
+		// Undefined by default
+		throw new PrismException("State ownership (player) not defined");
+	}
 }
@@ -36,8 +36,10 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import common.iterable.Range;
+import explicit.BuiltModelCache;
 import explicit.CTMC;
 import explicit.CTMCModelChecker;
 import explicit.ConstructModel;
@@ -48,6 +50,10 @@ import explicit.ExplicitFiles2Rewards;
 import explicit.FastAdaptiveUniformisation;
 import explicit.FastAdaptiveUniformisationModelChecker;
 import explicit.ModelModelGenerator;
+import explicit.PartialOrderReduction;
+import explicit.rewards.ConstructRewards;
+import explicit.rewards.Rewards;
+import explicit.rewards.Rewards2RewardGenerator;
 import io.UMBImporter;
 import io.ExplicitModelImporter;
 import io.ModelExportOptions;
@@ -333,6 +339,10 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		ModelBuildType modelBuildType = null;
 		// Are we doing digital clocks translation for PTAs?
 		boolean modelDigitalClocks = false;
+		// Atomic propositions preserved by partial-order reduction of the built model (null if not reduced)
+		List<Expression> porAtomicProps = null;
+		// Reward generator for reward structures built along with the (explicit) model (null if none)
+		RewardGenerator<?> builtRewardGenerator = null;
 
 		/** Default constructor */
 		ModelDetails()
@@ -357,6 +367,8 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			modelExpl = other.modelExpl;
 			modelBuildType = other.modelBuildType;
 			modelDigitalClocks = other.modelDigitalClocks;
+			porAtomicProps = other.porAtomicProps;
+			builtRewardGenerator = other.builtRewardGenerator;
 		}
 	}
 
@@ -379,6 +391,10 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	private int engineOld = -1;
 	private boolean engineSwitched = false;
 
+	// Atomic propositions of the property for which a model is about to be built,
+	// to be preserved by partial-order reduction (null if none)
+	private List<Expression> porAtomicProps = null;
+
 	//------------------------------------------------------------------------------
 	// Constructors + options methods
 	//------------------------------------------------------------------------------
@@ -1160,6 +1176,11 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		for (PrismLibrary lib : libraries) {
 			lib.notifySettings(settings);
 		}
+		try {
+			Telemetry.configure(settings);
+		} catch (PrismException e) {
+			mainLog.printWarning(e.getMessage());
+		}
 	}
 
 	//------------------------------------------------------------------------------
@@ -1302,6 +1323,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 		mainLog.print("Memory limits: cudd=" + getCUDDMaxMem());
 		mainLog.println(", java(heap)=" + PrismUtils.convertBytesToMemoryString(Runtime.getRuntime().maxMemory()));
+		Telemetry.configure(settings);
 	}
 
 	/**
@@ -1360,6 +1382,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		// open file
 		mainLog.print("\nParsing PRISM model file \"" + file + "\"...\n");
 		strModel = new FileInputStream(file);
+		long l = System.currentTimeMillis();
 
 		try {
 			// obtain exclusive access to the prism parser
@@ -1377,6 +1400,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 
 		modulesFile.tidyUp();
+		Telemetry.phase("model parsing", System.currentTimeMillis() - l);
 
 		return modulesFile;
 	}
@@ -1574,6 +1598,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 
 		// open file
 		strProperties = new FileInputStream(file);
+		long l = System.currentTimeMillis();
 
 		try {
 			// obtain exclusive access to the prism parser
@@ -1592,6 +1617,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 
 		if (tidy)
 			propertiesFile.tidyUp();
+		Telemetry.phase("property parsing", System.currentTimeMillis() - l);
 
 		return propertiesFile;
 	}
@@ -2252,6 +2278,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	{
 		mainLog.printSeparator();
 		chooseEngineForModelBuild();
+		porAtomicProps = null;
 		doBuildModel();
 	}
 
@@ -2266,6 +2293,73 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			doBuildModel();
 	}
 
+	/**
+	 * Get the key under which the model built from the current PRISM model is stored
+	 * in the built model cache: this covers the model itself, the constant values
+	 * and the options that affect explicit model construction.
+	 */
+	private String getBuiltModelCacheKey()
+	{
+		return BuiltModelCache.key(getPRISMModel().toString(),
+				String.valueOf(getUndefinedModelValues()),
+				"fixdl=" + getFixDeadlocks(),
+				"symm=" + settings.getString(PrismSettings.PRISM_SYMM_RED_PARAMS),
+				"por=" + settings.getBoolean(PrismSettings.PRISM_PARTIAL_ORDER_REDUCTION) + " " + porAtomicProps);
+	}
+
+	/**
+	 * If out-of-core storage is enabled (and applicable), move the transition matrix of a model
+	 * just built by the explicit engine into a memory-mapped file, and return the resulting model;
+	 * otherwise return the model unchanged. Only (double-valued) DTMCs and MDPs are supported.
+	 */
+	@SuppressWarnings("unchecked")
+	private explicit.Model<?> storeOutOfCore(explicit.Model<?> model) throws PrismException
+	{
+		String dir = settings.getString(PrismSettings.PRISM_OUT_OF_CORE_DIR);
+		if ("".equals(dir) || getCurrentEngine() != PrismEngine.EXPLICIT) {
+			return model;
+		}
+		if (model.getModelType() != ModelType.DTMC && model.getModelType() != ModelType.MDP) {
+			mainLog.printWarning("Out-of-core storage is not supported for " + model.getModelType() + "s; the model is kept in memory");
+			return model;
+		}
+		long l = System.currentTimeMillis();
+		explicit.Model<?> mapped = explicit.SparseMatrixFile.toMappedModel((explicit.Model<Double>) model, new File(dir), mainLog);
+		l = System.currentTimeMillis() - l;
+		mainLog.println("Time for out-of-core storage: " + l / 1000.0 + " seconds.");
+		return mapped;
+	}
+
+	/**
+	 * Build all reward structures for the current (explicit) built model in a single parallel pass
+	 * and store them for later use (model checking, export). This is only possible for PRISM models
+	 * built with the explicit engine (and not interval models); otherwise, as usual,
+	 * the rewards are built separately for each reward structure when needed.
+	 */
+	@SuppressWarnings("unchecked")
+	private void buildAllRewardStructures() throws PrismException
+	{
+		RewardGenerator<?> rewardGen = getRewardGenerator();
+		if (getCurrentEngine() != PrismEngine.EXPLICIT || getModelType().uncertain() || !(rewardGen instanceof ModulesFileModelGenerator) || rewardGen.getNumRewardStructs() == 0) {
+			return;
+		}
+		explicit.Model<Double> modelExpl = (explicit.Model<Double>) getBuiltModelExplicit();
+		long l = System.currentTimeMillis();
+		ConstructRewards constructRewards = new ConstructRewards(this);
+		List<Rewards<Double>> rewards = constructRewards.buildAllRewardStructures(modelExpl, ((ModulesFileModelGenerator<?>) rewardGen).getModulesFile());
+		currentModelDetails.builtRewardGenerator = new Rewards2RewardGenerator<Double>(rewardGen, modelExpl)
+		{
+			@Override
+			public Rewards<Double> getTheRewardObject(int r)
+			{
+				return rewards.get(r);
+			}
+		};
+		l = System.currentTimeMillis() - l;
+		mainLog.println("Time for construction of " + rewards.size() + " reward structure(s): " + l / 1000.0 + " seconds.");
+		Telemetry.phase("reward construction", l, rewards.size());
+	}
+
 	/**
 	 * If required (based on model type), switch engine to enable building.
 	 */
@@ -2365,10 +2459,27 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 					} catch (PrismException e){
 						throw e.prepend("Explicit engine: ");
 					}
-					ConstructModel constructModel = new ConstructModel(this);
-					constructModel.setFixDeadlocks(getFixDeadlocks());
-					newModelExpl = constructModel.constructModel(getModelGenerator());
+					// Reuse a cached model, if available
+					BuiltModelCache modelCache = getModelSource() == ModelSource.PRISM_MODEL && getCurrentEngine() == PrismEngine.EXPLICIT ? BuiltModelCache.create(this) : null;
+					String modelCacheKey = modelCache == null ? null : getBuiltModelCacheKey();
+					newModelExpl = modelCache == null ? null : modelCache.load(modelCacheKey, getModelGenerator());
+					if (newModelExpl != null) {
+						mainLog.println("\nLoaded model from cache (key " + modelCacheKey.substring(0, 16) + ")");
+					} else {
+						ConstructModel constructModel = new ConstructModel(this);
+						constructModel.setFixDeadlocks(getFixDeadlocks());
+						constructModel.setPartialOrderReductionAtomicProps(porAtomicProps);
+						newModelExpl = constructModel.constructModel(getModelGenerator());
+						newModelExpl = storeOutOfCore(newModelExpl);
+						if (modelCache != null && modelCache.store(modelCacheKey, newModelExpl)) {
+							mainLog.println("Stored model in cache (key " + modelCacheKey.substring(0, 16) + ")");
+						}
+					}
 					setBuiltModel(getModelBuildTypeForEngine(getCurrentEngine()), newModelExpl);
+					currentModelDetails.porAtomicProps = porAtomicProps;
+					if (settings.getBoolean(PrismSettings.PRISM_FUSED_REWARDS)) {
+						buildAllRewardStructures();
+					}
 					break;
 				case EXPLICIT_FILES:
 					ExplicitFiles2Model expf2model = new ExplicitFiles2Model(this);
@@ -2391,6 +2502,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 
 			l = System.currentTimeMillis() - l;
 			mainLog.println("\nTime for model construction: " + l / 1000.0 + " seconds.");
+			Telemetry.phase("model construction", l);
 
 			// In UMB test mode, to an export/import roundtrip
 			if (testUMB && !(getModelSource() == ModelSource.EXPLICIT_FILES)) {
@@ -3053,6 +3165,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 		l = System.currentTimeMillis() - l;
 		mainLog.println("\nTime for BSCC computation: " + l / 1000.0 + " seconds.");
+		Telemetry.phase("BSCC computation", l);
 
 		// print message
 		mainLog.print("\nExporting BSCCs ");
@@ -3143,6 +3256,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 		l = System.currentTimeMillis() - l;
 		mainLog.println("\nTime for MEC computation: " + l / 1000.0 + " seconds.");
+		Telemetry.phase("MEC computation", l);
 
 		// print message
 		mainLog.print("\nExporting MECs ");
@@ -3230,6 +3344,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 		l = System.currentTimeMillis() - l;
 		mainLog.println("\nTime for SCC computation: " + l / 1000.0 + " seconds.");
+		Telemetry.phase("SCC computation", l);
 
 		// print message
 		mainLog.print("\nExporting SCCs ");
@@ -3294,6 +3409,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		ModelExportOptions newExportOptions = new ModelExportOptions();
 		newExportOptions.setModelPrecision(settings.getInteger(PrismSettings.PRISM_EXPORT_MODEL_PRECISION));
 		newExportOptions.setPrintHeaders(settings.getBoolean(PrismSettings.PRISM_EXPORT_MODEL_HEADERS));
+		newExportOptions.setNumThreads(settings.getInteger(PrismSettings.PRISM_EXPORT_MODEL_THREADS));
 		newExportOptions.apply(exportOptions);
 		return newExportOptions;
 	}
@@ -3341,6 +3457,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		if (!isModelSourceDigitalClocks())
 			mainLog.printSeparator();
 		mainLog.println("\nModel checking: " + prop);
+		Telemetry.beginProperty(prop.toString());
 		if (getUndefinedModelValues() != null && getUndefinedModelValues().getNumValues() > 0)
 			mainLog.println("Model constants: " + getUndefinedModelValues());
 		if (definedPFConstants != null && definedPFConstants.getNumValues() > 0)
@@ -3427,8 +3544,25 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			setEngine(Prism.EXPLICIT);
 		}
 		try {
+			// Partial-order reduction (explicit engine, MDPs) is specific to the atomic propositions
+			// of the property, so a model reduced for another property may need rebuilding
+			porAtomicProps = null;
+			if (settings.getBoolean(PrismSettings.PRISM_PARTIAL_ORDER_REDUCTION) && getModelType() == ModelType.MDP && getCurrentEngine() == PrismEngine.EXPLICIT) {
+				porAtomicProps = PartialOrderReduction.getAtomicPropositions(getModelInfo(), propertiesFile, prop.getExpression());
+			}
+			if (modelIsBuilt() && currentModelDetails.porAtomicProps != null) {
+				List<String> builtProps = currentModelDetails.porAtomicProps.stream().map(Expression::toString).collect(Collectors.toList());
+				if (porAtomicProps == null || !porAtomicProps.stream().allMatch(ap -> builtProps.contains(ap.toString()))) {
+					mainLog.println("\nRebuilding model, since it was reduced for a different property...");
+					clearBuiltModel();
+				}
+			}
 			// Build model, if necessary
-			buildModelIfRequired();
+			try {
+				buildModelIfRequired();
+			} finally {
+				porAtomicProps = null;
+			}
 
 			// Compatibility check
 			if (genStrat && getModelType().nondeterministic() && getCurrentEngine() == PrismEngine.SYMBOLIC) {
@@ -3910,6 +4044,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 		l = System.currentTimeMillis() - l;
 		mainLog.println("\nTime for steady-state probability computation: " + l / 1000.0 + " seconds.");
+		Telemetry.phase("steady-state probability computation", l);
 		return probs;
 	}
 
@@ -4095,6 +4230,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 		l = System.currentTimeMillis() - l;
 		mainLog.println("\nTime for transient probability computation: " + l / 1000.0 + " seconds.");
+		Telemetry.phase("transient probability computation", l);
 		return probs;
 	}
 
@@ -4204,6 +4340,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			}
 			l = System.currentTimeMillis() - l;
 			mainLog.println("\nTime for transient probability computation: " + l / 1000.0 + " seconds.");
+			Telemetry.phase("transient probability computation", l);
 
 			// If output is to a file and there are multiple points, change filename
 			File fileOutActual;
@@ -4291,6 +4428,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		for (int i = numLibs - 1; i >= 0; i--) {
 			libraries.get(i).closeDown(check);
 		}
+		Telemetry.stop();
 	}
 
 	//------------------------------------------------------------------------------
@@ -4422,6 +4560,8 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 		currentModelDetails.modelExpl = null;
 		currentModelDetails.modelBuildType = null;
+		currentModelDetails.porAtomicProps = null;
+		currentModelDetails.builtRewardGenerator = null;
 		clearStrategy();
 	}
 
@@ -4468,7 +4608,8 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	{
 		// Create model checker
 		explicit.StateModelChecker mc = explicit.StateModelChecker.createModelChecker(getModelType(), this);
-		mc.setModelCheckingInfo(getModelInfo(), propertiesFile, getRewardGenerator());
+		RewardGenerator<?> rewardGen = currentModelDetails.builtRewardGenerator != null ? currentModelDetails.builtRewardGenerator : getRewardGenerator();
+		mc.setModelCheckingInfo(getModelInfo(), propertiesFile, rewardGen);
 		// Pass any additional local settings
 		mc.setExportTarget(exportTarget);
 		mc.setExportTargetFilename(exportTargetFilename);
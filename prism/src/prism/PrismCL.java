@@ -64,8 +64,10 @@ import simulator.method.APMCiterations;
 import simulator.method.CIconfidence;
 import simulator.method.CIiterations;
 import simulator.method.CIwidth;
+import simulator.method.ImportanceSamplingMethod;
 import simulator.method.SPRTMethod;
 import simulator.method.SimulationMethod;
+import simulator.method.SplittingMethod;
 
 import static prism.PrismSettings.RANGE_EXPORT_DOUBLE_PRECISION;
 
@@ -191,6 +193,10 @@ public class PrismCL implements PrismModelListener
 	private boolean simMaxRewardGiven = false;
 	private boolean simMaxPathGiven = false;
 	private boolean simManual = false;
+	private String simImportance = null;
+	private int simEffort = 100;
+	private double simLevelStep = 1.0;
+	private double simBias = 2.0;
 	private SimulationMethod simMethod = null;
 
 	// strategy export info
@@ -1674,10 +1680,10 @@ public class PrismCL implements PrismModelListener
 				else if (sw.equals("simmethod")) {
 					if (i < args.length - 1) {
 						s = args[++i];
-						if (s.equals("ci") || s.equals("aci") || s.equals("apmc") || s.equals("sprt"))
+						if (s.equals("ci") || s.equals("aci") || s.equals("apmc") || s.equals("sprt") || s.equals("split") || s.equals("is"))
 							simMethodName = s;
 						else
-							errorAndExit("Unrecognised option for -" + sw + " switch (options are: ci, aci, apmc, sprt)");
+							errorAndExit("Unrecognised option for -" + sw + " switch (options are: ci, aci, apmc, sprt, split, is)");
 					} else {
 						errorAndExit("No parameter specified for -" + sw + " switch");
 					}
@@ -1792,6 +1798,57 @@ public class PrismCL implements PrismModelListener
 					}
 				}
 
+				// importance function for rare-event simulation
+				else if (sw.equals("simimportance")) {
+					if (i < args.length - 1) {
+						simImportance = args[++i];
+					} else {
+						errorAndExit("No value specified for -" + sw + " switch");
+					}
+				}
+				// number of paths per level for importance splitting
+				else if (sw.equals("simeffort")) {
+					if (i < args.length - 1) {
+						try {
+							simEffort = Integer.parseInt(args[++i]);
+							if (simEffort <= 0)
+								throw new NumberFormatException("");
+						} catch (NumberFormatException e) {
+							errorAndExit("Invalid value for -" + sw + " switch");
+						}
+					} else {
+						errorAndExit("No value specified for -" + sw + " switch");
+					}
+				}
+				// level width for importance splitting
+				else if (sw.equals("simlevel")) {
+					if (i < args.length - 1) {
+						try {
+							simLevelStep = Double.parseDouble(args[++i]);
+							if (!(simLevelStep > 0))
+								throw new NumberFormatException("");
+						} catch (NumberFormatException e) {
+							errorAndExit("Invalid value for -" + sw + " switch");
+						}
+					} else {
+						errorAndExit("No value specified for -" + sw + " switch");
+					}
+				}
+				// bias factor for importance sampling
+				else if (sw.equals("simbias")) {
+					if (i < args.length - 1) {
+						try {
+							simBias = Double.parseDouble(args[++i]);
+							if (!(simBias > 0))
+								throw new NumberFormatException("");
+						} catch (NumberFormatException e) {
+							errorAndExit("Invalid value for -" + sw + " switch");
+						}
+					} else {
+						errorAndExit("No value specified for -" + sw + " switch");
+					}
+				}
+
 				// FURTHER OPTIONS - NEED TIDYING/FIXING
 
 				// zero-reward loops check on
@@ -2714,6 +2771,31 @@ public class PrismCL implements PrismModelListener
 			if (simNumSamplesGiven) {
 				mainLog.printWarning("Option -simsamples is not used for the SPRT method and is being ignored");
 			}
+		}
+		// Rare-event simulation: importance splitting or importance sampling
+		else if (simMethodName.equals("split") || simMethodName.equals("is")) {
+			if (isReward) {
+				throw new PrismException("Cannot use rare-event simulation methods on reward properties");
+			}
+			if (simImportance == null) {
+				throw new PrismException("An importance function (switch -simimportance) is needed for rare-event simulation");
+			}
+			if (simWidthGiven) {
+				mainLog.printWarning("Option -simwidth is not used for rare-event simulation methods and is being ignored");
+			}
+			if (simApproxGiven) {
+				mainLog.printWarning("Option -simapprox is not used for rare-event simulation methods and is being ignored");
+			}
+			PropertiesFile pfImportance = prism.parsePropertiesString(simImportance);
+			if (pfImportance.getNumProperties() != 1) {
+				throw new PrismException("Invalid importance function \"" + simImportance + "\"");
+			}
+			Expression importance = pfImportance.getProperty(0);
+			if (simMethodName.equals("split")) {
+				aSimMethod = new SplittingMethod(simConfidence, simNumSamples, importance, simEffort, simLevelStep);
+			} else {
+				aSimMethod = new ImportanceSamplingMethod(simConfidence, simNumSamples, importance, simBias);
+			}
 		} else
 			throw new PrismException("Unknown simulation method \"" + simMethodName + "\"");
 
@@ -2797,7 +2879,7 @@ public class PrismCL implements PrismModelListener
 		mainLog.println();
 		mainLog.println("SIMULATION OPTIONS:");
 		mainLog.println("-sim ........................... Use the PRISM simulator to approximate results of model checking");
-		mainLog.println("-simmethod <name> .............. Specify the method for approximate model checking (ci, aci, apmc, sprt)");
+		mainLog.println("-simmethod <name> .............. Specify the method for approximate model checking (ci, aci, apmc, sprt, split, is)");
 		mainLog.println("-simsamples <n> ................ Set the number of samples for the simulator (CI/ACI/APMC methods)");
 		mainLog.println("-simconf <x> ................... Set the confidence parameter for the simulator (CI/ACI/APMC methods)");
 		mainLog.println("-simwidth <x> .................. Set the interval width for the simulator (CI/ACI methods)");
@@ -2806,6 +2888,13 @@ public class PrismCL implements PrismModelListener
 		mainLog.println("-simvar <n> .................... Set the minimum number of samples to know the variance is null or not");
 		mainLog.println("-simmaxrwd <x> ................. Set the maximum reward -- useful to display the CI/ACI methods progress");
 		mainLog.println("-simpathlen <n> ................ Set the maximum path length for the simulator");
+		mainLog.println("-simimportance <expr> .......... Set the importance function for rare-event simulation (split/is methods)");
+		mainLog.println("-simeffort <n> ................. Set the number of paths per level for importance splitting [default: 100]");
+		mainLog.println("-simlevel <x> .................. Set the level width (of the importance function) for importance splitting [default: 1]");
+		mainLog.println("-simbias <x> ................... Set the bias for importance-increasing transitions in importance sampling [default: 2]");
+		mainLog.println("-simcache <n> .................. Set max. size (MB) of the simulator's transition cache, 0 = disabled [default: 0]");
+		mainLog.println("-simctmc <name> ................ Set the path generation method for CTMCs (standard, ssa, tau) [default: standard]");
+		mainLog.println("-simtaueps <x> ................. Set the error bound (relative propensity change) for tau-leaping [default: 0.03]");
 
 		mainLog.println();
 		mainLog.println("You can also use \"prism -help xxx\" for help on some switches -xxx with non-obvious syntax.");
@@ -30,6 +30,7 @@ import java.io.BufferedOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
+import java.nio.channels.FileChannel;
 
 /**
  * A {@link PrismLog} that will write to a file (or stdout).
@@ -42,6 +43,8 @@ public class PrismFileLog extends PrismPrintStreamLog
 	protected boolean stdout;
 	/** Are we using native code to write to the file? */
 	protected boolean nativeCode;
+	/** Channel for the underlying file (null if writing to stdout or using native code) */
+	protected FileChannel fileChannel;
 
 	/**
 	 * Create a {@link PrismLog} which will write to {@code filename}, overwriting any previous contents.
@@ -90,6 +93,7 @@ public class PrismFileLog extends PrismPrintStreamLog
 		this.filename = filename;
 		this.stdout = "stdout".equals(filename);
 		this.nativeCode = nativeCode;
+		this.fileChannel = null;
 		try {
 			if (nativeCode) {
 				setPrintStream(new PrismFileLogNative(filename, append));
@@ -97,7 +101,9 @@ public class PrismFileLog extends PrismPrintStreamLog
 				if (stdout) {
 					setPrintStream(System.out);
 				} else {
-					setPrintStream(new PrintStream(new BufferedOutputStream(new FileOutputStream(filename, append))));
+					FileOutputStream fileOut = new FileOutputStream(filename, append);
+					fileChannel = fileOut.getChannel();
+					setPrintStream(new PrintStream(new BufferedOutputStream(fileOut)));
 				}
 			}
 		} catch (FileNotFoundException e) {
@@ -119,6 +125,16 @@ public class PrismFileLog extends PrismPrintStreamLog
 		}
 	}
 
+	/**
+	 * Get a channel for writing directly to the underlying file, bypassing the log's own buffering,
+	 * or null if this is not possible (writing to stdout or using native code).
+	 * The log should be flushed before writing to the channel.
+	 */
+	public FileChannel getFileChannel()
+	{
+		return fileChannel;
+	}
+
 	/**
 	 * Get the filename (or "stdout" if writing to standard output)
 	 **/
@@ -101,9 +101,16 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_TERM_CRIT_PARAM				= "prism.termCritParam";//"prism.terminationEpsilon";
 	public static final	String PRISM_MAX_ITERS						= "prism.maxIters";//"prism.maxIterations";
 	public static final String PRISM_EXPORT_ITERATIONS				= "prism.exportIterations";
+	public static final String PRISM_SS_DIRECT_MAX_STATES			= "prism.ssDirectMaxStates";
+	public static final String PRISM_CHECKPOINT_FILE				= "prism.checkpointFile";
+	public static final String PRISM_CHECKPOINT_INTERVAL			= "prism.checkpointInterval";
+	public static final String PRISM_CHECKPOINT_RESUME				= "prism.checkpointResume";
+	public static final String PRISM_OUT_OF_CORE_DIR				= "prism.outOfCoreDir";
+	public static final String PRISM_MODEL_CACHE_DIR				= "prism.modelCacheDir";
 	public static final	String PRISM_GRID_RESOLUTION				= "prism.gridResolution";
 	public static final String PRISM_EXPORT_MODEL_PRECISION         = "prism.exportModelPrecision";
 	public static final String PRISM_EXPORT_MODEL_HEADERS           = "prism.exportModelHeaders";
+	public static final String PRISM_EXPORT_MODEL_THREADS           = "prism.exportModelThreads";
 
 	public static final	String PRISM_CUDD_MAX_MEM					= "prism.cuddMaxMem";
 	public static final	String PRISM_CUDD_EPSILON					= "prism.cuddEpsilon";
@@ -116,8 +123,14 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_DO_SS_DETECTION				= "prism.doSSDetect";
 	public static final	String PRISM_EXTRA_DD_INFO					= "prism.extraDDInfo";
 	public static final	String PRISM_EXTRA_REACH_INFO				= "prism.extraReachInfo";
+	public static final String PRISM_TELEMETRY_FILE					= "prism.telemetryFile";
+	public static final String PRISM_TELEMETRY_JFR					= "prism.telemetryJfr";
 	public static final String PRISM_SCC_METHOD						= "prism.sccMethod";
+	public static final String PRISM_EXPLICIT_SCC_METHOD				= "prism.explicitSccMethod";
+	public static final String PRISM_EXPLICIT_SCC_THREADS				= "prism.explicitSccThreads";
 	public static final String PRISM_SYMM_RED_PARAMS					= "prism.symmRedParams";
+	public static final String PRISM_PARTIAL_ORDER_REDUCTION			= "prism.partialOrderReduction";
+	public static final String PRISM_FUSED_REWARDS					= "prism.fusedRewards";
 	public static final	String PRISM_EXACT_ENABLED					= "prism.exact.enabled";
 	public static final String PRISM_PTA_METHOD					= "prism.ptaMethod";
 	public static final String PRISM_TRANSIENT_METHOD				= "prism.transientMethod";
@@ -130,9 +143,11 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_MULTI_MAX_POINTS				= "prism.multiMaxIters";
 	public static final	String PRISM_PARETO_EPSILON					= "prism.paretoEpsilon";
 	public static final	String PRISM_EXPORT_PARETO_FILENAME			= "prism.exportParetoFileName";
+	public static final	String PRISM_MULTI_THREADS					= "prism.multiThreads";
 	
 	public static final String PRISM_LTL2DA_TOOL					= "prism.ltl2daTool";
 	public static final String PRISM_LTL2DA_SYNTAX					= "prism.ltl2daSyntax";
+	public static final String PRISM_LTL2DA_CACHE_DIR				= "prism.ltl2daCacheDir";
 
 	public static final	String PRISM_JDD_SANITY_CHECKS					= "prism.ddsanity";
 
@@ -145,6 +160,10 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_PARAM_RANDOM_POINTS			= "prism.param.randomPoints";
 	public static final	String PRISM_PARAM_SUBSUME_REGIONS			= "prism.param.subsumeRegions";
 	public static final String PRISM_PARAM_DAG_MAX_ERROR			= "prism.param.functionDagMaxError";
+	public static final String PRISM_PARAM_FUNCTION_CACHE_SIZE		= "prism.param.functionCacheSize";
+	public static final String PRISM_PARAM_ELIM_THREADS				= "prism.param.elimThreads";
+	public static final String PRISM_PARAM_REGION_THREADS			= "prism.param.regionThreads";
+	public static final String PRISM_PARAM_TIME_BUDGET				= "prism.param.timeBudget";
 
 	public static final String PRISM_FAU_EPSILON					= "prism.fau.epsilon";
 	public static final String PRISM_FAU_DELTA						= "prism.fau.delta";
@@ -166,6 +185,9 @@ public class PrismSettings implements Observer
 	public static final	String SIMULATOR_NEW_PATH_ASK_VIEW			= "simulator.newPathAskView";
 	public static final	String SIMULATOR_RENDER_ALL_VALUES			= "simulator.renderAllValues";
 	public static final String SIMULATOR_NETWORK_FILE				= "simulator.networkFile";
+	public static final String SIMULATOR_TRANSITION_CACHE			= "simulator.transitionCache";
+	public static final String SIMULATOR_CTMC_METHOD				= "simulator.ctmcMethod";
+	public static final String SIMULATOR_TAU_EPSILON				= "simulator.tauEpsilon";
 	
 	//GUI Model
 	public static final	String MODEL_AUTO_PARSE						= "model.autoParse";
@@ -279,12 +301,26 @@ public class PrismSettings implements Observer
 																			"Maximum number of iterations to perform if iterative methods do not converge." },
 			{ BOOLEAN_TYPE,		PRISM_EXPORT_ITERATIONS,				"Export iterations (debug/visualisation)",			"4.3.1",			false,														"",
 																			"Export solution vectors for iteration algorithms to iterations.html"},
+			{ INTEGER_TYPE,		PRISM_SS_DIRECT_MAX_STATES,				"Max. BSCC size for direct steady-state",	"4.10.2",			Integer.valueOf(5000),														"0,",
+																			"Maximum size (number of states) of BSCCs whose steady-state probabilities are computed directly (sparse LU factorisation), rather than iteratively, by the explicit engine (0 = never)."},
+			{ STRING_TYPE,		PRISM_CHECKPOINT_FILE,					"Checkpoint file",						"4.10.2",			"",		null,
+																			"If non-empty, a file to which the state of long-running iterative computations (explicit engine) is periodically saved, so that they can be resumed later."},
+			{ INTEGER_TYPE,		PRISM_CHECKPOINT_INTERVAL,				"Checkpoint interval",					"4.10.2",			Integer.valueOf(600),														"0,",
+																			"Minimum time (in seconds) between successive checkpoints of an iterative computation."},
+			{ BOOLEAN_TYPE,		PRISM_CHECKPOINT_RESUME,				"Resume from checkpoint",				"4.10.2",			Boolean.valueOf(false),														"",
+																			"Whether to resume iterative computations from the checkpoint file, if it contains a checkpoint for the same model and computation."},
+			{ STRING_TYPE,		PRISM_OUT_OF_CORE_DIR,					"Out-of-core storage directory",		"4.10.2",			"",		null,
+																			"If non-empty, a directory in which the transition matrices of DTMCs/MDPs built by the explicit engine are stored, as memory-mapped files, rather than in the Java heap. Files are reused for identical models."},
+			{ STRING_TYPE,		PRISM_MODEL_CACHE_DIR,					"Built model cache directory",			"4.10.2",			"",		null,
+																			"If non-empty, a directory in which DTMCs/CTMCs/MDPs built by the explicit engine from PRISM models are cached, keyed by the model, constants and build options, and reloaded (memory-mapped) rather than rebuilt."},
 			{ INTEGER_TYPE,		PRISM_GRID_RESOLUTION,					"Fixed grid resolution",			    "4.5",			Integer.valueOf(10),															"1,",																						
 																			"The resolution for the fixed grid approximation algorithm for POMDPs." },
 			{ INTEGER_TYPE,		PRISM_EXPORT_MODEL_PRECISION,			"Precision of model export",			"4.7",			16,																		RANGE_EXPORT_DOUBLE_PRECISION.min() + "-" + RANGE_EXPORT_DOUBLE_PRECISION.max(),
 																			"Export model probabilities/rewards to n significant decimal places."},
 			{ BOOLEAN_TYPE,		PRISM_EXPORT_MODEL_HEADERS,				"Include headers in model exports",		"4.7",			Boolean.valueOf(true),															"",
 																			"Whether to include #-commented header lines when exporting model data to explicit files."},
+			{ INTEGER_TYPE,		PRISM_EXPORT_MODEL_THREADS,				"Model export threads",			"4.10.2",			Integer.valueOf(0),															"0,",
+																			"Number of threads used to format model data when exporting explicit models to (text) files. 0 means use all available processors." },
 			// MODEL CHECKING OPTIONS:
 			{ BOOLEAN_TYPE,		PRISM_PRECOMPUTATION,					"Use precomputation",					"2.1",			Boolean.valueOf(true),															"",																							
 																			"Whether to use model checking precomputation algorithms (Prob0, Prob1, etc.), where optional." },
@@ -306,8 +342,16 @@ public class PrismSettings implements Observer
 																			"Use steady-state detection during CTMC transient probability computation." },
 			{ CHOICE_TYPE,		PRISM_SCC_METHOD,						"SCC decomposition method",				"3.2",			"Lockstep",																	"Xie-Beerel,Lockstep,SCC-Find",																
 																			"Which algorithm to use for (symbolic) decomposition of a graph into strongly connected components (SCCs)." },
+			{ CHOICE_TYPE,		PRISM_EXPLICIT_SCC_METHOD,				"Explicit SCC decomposition method",		"4.10.2",			"Tarjan",																	"Tarjan,Forward-backward",																
+																			"Which algorithm to use for (explicit) decomposition of a graph into strongly connected components (SCCs). Forward-backward is parallel and intended for very large models." },
+			{ INTEGER_TYPE,		PRISM_EXPLICIT_SCC_THREADS,				"Explicit SCC decomposition threads",		"4.10.2",			Integer.valueOf(0),															"0,",
+																			"Number of threads used by the forward-backward (explicit) SCC decomposition method. 0 means use all available processors." },
 			{ STRING_TYPE,		PRISM_SYMM_RED_PARAMS,					"Symmetry reduction parameters",		"3.2",			"",																	"",																
 																			"Parameters for symmetry reduction (format: \"i j\" where i and j are the number of modules before and after the symmetric ones; empty string means symmetry reduction disabled)." },
+			{ BOOLEAN_TYPE,		PRISM_PARTIAL_ORDER_REDUCTION,			"Partial-order reduction",				"4.10.2",			Boolean.valueOf(false),														"",
+																			"Whether to apply (ample set) partial-order reduction when building MDPs with the explicit engine. Only unbounded, next-free Pmin/Pmax properties are preserved." },
+			{ BOOLEAN_TYPE,		PRISM_FUSED_REWARDS,					"Fused reward construction",				"4.10.2",			Boolean.valueOf(false),														"",
+																			"Whether to build all reward structures of a PRISM model in a single (parallel) pass, straight after (explicit engine) model construction, rather than separately when each is first needed." },
 			{ STRING_TYPE,		PRISM_AR_OPTIONS,						"Abstraction refinement options",		"3.3",			"",																	"",																
 																			"Various options passed to the asbtraction-refinement engine (e.g. for PTA model checking)." },
 			{ BOOLEAN_TYPE,		PRISM_PATH_VIA_AUTOMATA,				"All path formulas via automata",			"4.2.1",			Boolean.valueOf(false),									"",
@@ -322,6 +366,8 @@ public class PrismSettings implements Observer
 																			"Determines to what precision the Pareto curve will be approximated." },
 			{ STRING_TYPE,		PRISM_EXPORT_PARETO_FILENAME,			"Pareto curve export filename",			"4.0.3",			"",															"0,",																						
 																			"If non-empty, any Pareto curve generated will be exported to this file." },
+			{ INTEGER_TYPE,		PRISM_MULTI_THREADS,					"Multi-objective threads",			"4.10.2",			Integer.valueOf(0),															"0,",
+																			"Number of threads used to optimise independent weight vectors concurrently in (explicit engine) multi-objective model checking. 0 means use all available processors." },
 			// OUTPUT OPTIONS:
 			{ BOOLEAN_TYPE,		PRISM_VERBOSE,							"Verbose output",						"2.1",		Boolean.valueOf(false),															"",																							
 																			"Display verbose output to log." },
@@ -329,6 +375,10 @@ public class PrismSettings implements Observer
 																			"Display extra information about (MT)BDDs used during and after model construction." },
 			{ BOOLEAN_TYPE,		PRISM_EXTRA_REACH_INFO,					"Extra reachability information",		"3.1.1",		Boolean.valueOf(false),															"0,",																						
 																			"Display extra information about progress of reachability during model construction." },
+			{ STRING_TYPE,		PRISM_TELEMETRY_FILE,					"Telemetry file",						"4.10.2",		"",		null,
+																			"If non-empty, a file to which performance telemetry for each model checking phase (parsing, construction, precomputation, solution, ...) is written, as one JSON object per line." },
+			{ BOOLEAN_TYPE,		PRISM_TELEMETRY_JFR,					"Telemetry JFR events",					"4.10.2",		Boolean.valueOf(false),															"",
+																			"Whether to also emit performance telemetry as Java Flight Recorder events (of type prism.Telemetry)." },
 			// SPARSE/HYBRID/MTBDD OPTIONS:
 			{ BOOLEAN_TYPE,		PRISM_COMPACT,							"Use compact schemes",					"2.1",			Boolean.valueOf(true),															"",																							
 																			"Use additional optimisations for compressing sparse matrices and vectors with repeated values." },
@@ -363,6 +413,9 @@ public class PrismSettings implements Observer
 			{ CHOICE_TYPE,		PRISM_LTL2DA_SYNTAX,					"LTL syntax for external LTL->DA tool",		"4.2.1",			"LBT",		"LBT,Spin,Spot,Rabinizer",
 																			"The syntax for LTL formulas passed to the external LTL->DA tool."},
 
+			{ STRING_TYPE,		PRISM_LTL2DA_CACHE_DIR,					"LTL->DA cache directory",		"4.10.2",			"",		null,
+																			"If non-empty, a directory in which deterministic automata constructed for LTL formulas are stored (in HOA format) and reused."},
+
 			// DEBUG / SANITY CHECK OPTIONS:
 			{ BOOLEAN_TYPE,		PRISM_JDD_SANITY_CHECKS,					"Do BDD sanity checks",			"4.3.1",			Boolean.valueOf(false),		"",
 																			"Perform internal sanity checks during computations (can cause significant slow-down)." },
@@ -386,6 +439,14 @@ public class PrismSettings implements Observer
 																			"Subsume adjacent regions during parametric model checking." },
 			{ DOUBLE_TYPE,		PRISM_PARAM_DAG_MAX_ERROR,				"Parametric model checking max. DAG error",	"4.1",			Double.valueOf(1E-100),															"",
 																			"Maximal error probability (i.e. maximum probability of of a wrong result) in DAG function representation used for parametric model checking." },
+			{ INTEGER_TYPE,		PRISM_PARAM_FUNCTION_CACHE_SIZE,		"Parametric model checking function cache size",	"4.10.2",			Integer.valueOf(512),															"0,",
+																			"Maximal size (in MB, approximately) of the cache for operations on functions used for parametric model checking (JAS-cached only). Least-recently used entries are evicted. 0 means unbounded." },
+			{ INTEGER_TYPE,		PRISM_PARAM_ELIM_THREADS,				"Parametric model checking elimination threads",	"4.10.2",			Integer.valueOf(1),																"0,",
+																			"Number of threads used for state elimination during parametric model checking (JAS/JAS-cached only). 0 means use all available processors." },
+			{ INTEGER_TYPE,		PRISM_PARAM_REGION_THREADS,				"Parametric model checking region threads",	"4.10.2",			Integer.valueOf(1),																"0,",
+																			"Number of threads used to check parameter regions concurrently during parametric model checking (JAS/JAS-cached only). 0 means use all available processors." },
+			{ INTEGER_TYPE,		PRISM_PARAM_TIME_BUDGET,				"Parametric model checking time budget",	"4.10.2",			Integer.valueOf(0),																"0,",
+																			"Time limit (in seconds) for refinement of parameter regions during parametric model checking, after which the regions decided so far are reported. 0 means no limit." },
 			
 			// FAST ADAPTIVE UNIFORMISATION																
 			{ DOUBLE_TYPE,      PRISM_FAU_EPSILON,						"FAU epsilon",		 					"4.1",   	 	Double.valueOf(1E-6),     													"",
@@ -425,7 +486,13 @@ public class PrismSettings implements Observer
 			{ CHOICE_TYPE,		SIMULATOR_RENDER_ALL_VALUES,			"Path render style",					"3.2",		"Render all values",		"Render changes,Render all values",
 																			"Display style for paths in the simulator user interface: only show variable values when they change, or show all values regardless." },
 			{ FILE_TYPE,		SIMULATOR_NETWORK_FILE,					"Network profile",						"2.1",		new File(""),				"",
-																			"File specifying the network profile used by the distributed PRISM simulator." }
+																			"File specifying the network profile used by the distributed PRISM simulator." },
+			{ INTEGER_TYPE,		SIMULATOR_TRANSITION_CACHE,				"Transition cache size (MB)",			"4.10.2",	Integer.valueOf(0),				"0,",
+																			"Maximum size (in MB) of the cache of transitions computed for each state during sampling (0 = disabled). Only used for models whose states fit in 64 bits." },
+			{ CHOICE_TYPE,		SIMULATOR_CTMC_METHOD,					"CTMC simulation method",				"4.10.2",	"Standard",					"Standard,SSA,Tau-leaping",
+																			"Method used to generate paths of CTMCs for sampling: the standard simulator, or (for reaction networks) the optimised stochastic simulation algorithm (SSA) or adaptive tau-leaping." },
+			{ DOUBLE_TYPE,		SIMULATOR_TAU_EPSILON,					"Tau-leaping error bound",				"4.10.2",	Double.valueOf(0.03),			"0.0,1.0",
+																			"Bound on the relative change of reaction propensities during a leap, for tau-leaping simulation." }
 		},
 		{
 			{ BOOLEAN_TYPE,		MODEL_AUTO_PARSE,						"Auto parse",							"2.1",			Boolean.valueOf(true),															"",																							"Parse PRISM models automatically as they are loaded/edited in the text editor." },
@@ -1196,6 +1263,62 @@ public class PrismSettings implements Observer
 		else if (sw.equals("exportiterations")) {
 			set(PRISM_EXPORT_ITERATIONS, true);
 		}
+		// direct steady-state solution for small BSCCs
+		else if (sw.equals("ssdirectmax")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 0)
+						throw new NumberFormatException("");
+					set(PRISM_SS_DIRECT_MAX_STATES, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		// checkpointing of iterative computations
+		else if (sw.equals("checkpoint")) {
+			if (i < args.length - 1) {
+				set(PRISM_CHECKPOINT_FILE, args[++i]);
+			} else {
+				throw new PrismException("The -" + sw + " switch requires one argument (a filename)");
+			}
+		}
+		else if (sw.equals("checkpointinterval")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 0)
+						throw new NumberFormatException("");
+					set(PRISM_CHECKPOINT_INTERVAL, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		else if (sw.equals("resume")) {
+			set(PRISM_CHECKPOINT_RESUME, true);
+		}
+		// out-of-core storage of explicit models
+		else if (sw.equals("outofcore")) {
+			if (i < args.length - 1) {
+				set(PRISM_OUT_OF_CORE_DIR, args[++i]);
+			} else {
+				throw new PrismException("The -" + sw + " switch requires one argument (a directory)");
+			}
+		}
+		// cache of built models
+		else if (sw.equals("modelcache")) {
+			if (i < args.length - 1) {
+				set(PRISM_MODEL_CACHE_DIR, args[++i]);
+			} else {
+				throw new PrismException("The -" + sw + " switch requires one argument (a directory)");
+			}
+		}
 		// fixed grid resolution
 		else if (sw.equals("gridresolution")) {
 			if (i < args.length - 1) {
@@ -1230,6 +1353,21 @@ public class PrismSettings implements Observer
 		else if (sw.equals("noexportheaders")) {
 			set(PRISM_EXPORT_MODEL_HEADERS, false);
 		}
+		// threads for model export
+		else if (sw.equals("exportthreads")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 0)
+						throw new NumberFormatException("");
+					set(PRISM_EXPORT_MODEL_THREADS, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
 
 		// MODEL CHECKING OPTIONS:
 		
@@ -1300,6 +1438,35 @@ public class PrismSettings implements Observer
 				throw new PrismException("No parameter specified for -" + sw + " switch");
 			}
 		}
+		// Explicit SCC computation algorithm
+		else if (sw.equals("explicitsccmethod")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("tarjan"))
+					set(PRISM_EXPLICIT_SCC_METHOD, "Tarjan");
+				else if (s.equals("fb"))
+					set(PRISM_EXPLICIT_SCC_METHOD, "Forward-backward");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: tarjan, fb)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		// Threads for explicit SCC computation
+		else if (sw.equals("sccthreads")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 0)
+						throw new NumberFormatException("");
+					set(PRISM_EXPLICIT_SCC_THREADS, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
 		// Enable symmetry reduction
 		else if (sw.equals("symm")) {
 			if (i < args.length - 2) {
@@ -1308,6 +1475,14 @@ public class PrismSettings implements Observer
 				throw new PrismException("-symm switch requires two parameters (num. modules before/after symmetric ones)");
 			}
 		}
+		// Enable partial-order reduction
+		else if (sw.equals("por")) {
+			set(PRISM_PARTIAL_ORDER_REDUCTION, true);
+		}
+		// Enable fused reward construction
+		else if (sw.equals("fusedrewards")) {
+			set(PRISM_FUSED_REWARDS, true);
+		}
 		// Abstraction-refinement engine options string (append if already partially specified)
 		else if (sw.equals("aroptions")) {
 			if (i < args.length - 1) {
@@ -1371,6 +1546,21 @@ public class PrismSettings implements Observer
 				throw new PrismException("No file specified for -" + sw + " switch");
 			}
 		}
+		// Threads for weight vectors in (explicit) multi-objective model checking
+		else if (sw.equals("multithreads")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 0)
+						throw new NumberFormatException("");
+					set(PRISM_MULTI_THREADS, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
 		
 		// OUTPUT OPTIONS:
 		
@@ -1386,6 +1576,17 @@ public class PrismSettings implements Observer
 		else if (sw.equals("extrareachinfo")) {
 			set(PRISM_EXTRA_REACH_INFO, true);
 		}
+		// Performance telemetry
+		else if (sw.equals("telemetry")) {
+			if (i < args.length - 1) {
+				set(PRISM_TELEMETRY_FILE, args[++i]);
+			} else {
+				throw new PrismException("The -" + sw + " switch requires one argument (a filename)");
+			}
+		}
+		else if (sw.equals("telemetryjfr")) {
+			set(PRISM_TELEMETRY_JFR, true);
+		}
 		
 		// SPARSE/HYBRID/MTBDD OPTIONS:
 		
@@ -1555,6 +1756,14 @@ public class PrismSettings implements Observer
 			}
 		}
 
+		else if (sw.equals("ltl2dacache")) {
+			if (i < args.length - 1) {
+				set(PRISM_LTL2DA_CACHE_DIR, args[++i]);
+			} else {
+				throw new PrismException("The -" + sw + " switch requires one argument (path to a directory)");
+			}
+		}
+
 		// DEBUGGING / SANITY CHECKS
 		else if (sw.equals("ddsanity")) {
 			set(PRISM_JDD_SANITY_CHECKS, true);
@@ -1650,6 +1859,46 @@ public class PrismSettings implements Observer
 			boolean b = Boolean.parseBoolean(args[++i]);
 			set(PRISM_PARAM_SUBSUME_REGIONS, b);
 		}
+		else if (sw.equals("paramcachesize")) {
+			try {
+				j = Integer.parseInt(args[++i]);
+				if (j < 0)
+					throw new NumberFormatException();
+				set(PRISM_PARAM_FUNCTION_CACHE_SIZE, j);
+			} catch (NumberFormatException e) {
+				throw new PrismException("Invalid value for -" + sw + " switch");
+			}
+		}
+		else if (sw.equals("paramelimthreads")) {
+			try {
+				j = Integer.parseInt(args[++i]);
+				if (j < 0)
+					throw new NumberFormatException();
+				set(PRISM_PARAM_ELIM_THREADS, j);
+			} catch (NumberFormatException e) {
+				throw new PrismException("Invalid value for -" + sw + " switch");
+			}
+		}
+		else if (sw.equals("paramregionthreads")) {
+			try {
+				j = Integer.parseInt(args[++i]);
+				if (j < 0)
+					throw new NumberFormatException();
+				set(PRISM_PARAM_REGION_THREADS, j);
+			} catch (NumberFormatException e) {
+				throw new PrismException("Invalid value for -" + sw + " switch");
+			}
+		}
+		else if (sw.equals("paramtimebudget")) {
+			try {
+				j = Integer.parseInt(args[++i]);
+				if (j < 0)
+					throw new NumberFormatException();
+				set(PRISM_PARAM_TIME_BUDGET, j);
+			} catch (NumberFormatException e) {
+				throw new PrismException("Invalid value for -" + sw + " switch");
+			}
+		}
 		else if (sw.equals("paramdagmaxerror")) {
 			try {
 				d = Double.parseDouble(args[++i]);
@@ -1737,6 +1986,53 @@ public class PrismSettings implements Observer
 				throw new PrismException("No value specified for -" + sw + " switch");
 			}
 		}
+		
+		// SIMULATOR OPTIONS
+		
+		else if (sw.equals("simcache")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 0)
+						throw new NumberFormatException("");
+					set(SIMULATOR_TRANSITION_CACHE, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+
+		else if (sw.equals("simctmc")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("standard"))
+					set(SIMULATOR_CTMC_METHOD, "Standard");
+				else if (s.equals("ssa"))
+					set(SIMULATOR_CTMC_METHOD, "SSA");
+				else if (s.equals("tau"))
+					set(SIMULATOR_CTMC_METHOD, "Tau-leaping");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: standard, ssa, tau)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		else if (sw.equals("simtaueps")) {
+			if (i < args.length - 1) {
+				try {
+					d = Double.parseDouble(args[++i]);
+					if (d <= 0 || d >= 1)
+						throw new NumberFormatException("");
+					set(SIMULATOR_TAU_EPSILON, d);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
 
 		// HIDDEN OPTIONS
 		
@@ -1833,6 +2129,7 @@ public class PrismSettings implements Observer
 		mainLog.println("EXPORT OPTIONS:");
 		mainLog.println("-exportmodelprecision <n>....... Export probabilities/rewards with n significant decimal places");
 		mainLog.println("-noexportheaders ............... Don't include headers when exporting rewards");
+		mainLog.println("-exportthreads <n> ............. Threads for formatting model exports (explicit engine), 0 = all processors [default: 0]");
 		mainLog.println();
 		mainLog.println("ENGINES/METHODS:");
 		mainLog.println("-mtbdd (or -m) ................. Use the MTBDD engine");
@@ -1888,7 +2185,11 @@ public class PrismSettings implements Observer
 		mainLog.println("-zerorewardcheck ............... Check for absence of zero-reward loops");
 		mainLog.println("-nossdetect .................... Disable steady-state detection for CTMC transient computations");
 		mainLog.println("-sccmethod <name> .............. Specify (symbolic) SCC computation method (xiebeerel, lockstep, sccfind)");
+		mainLog.println("-explicitsccmethod <name> ...... Specify (explicit) SCC computation method (tarjan, fb) [default: tarjan]");
+		mainLog.println("-sccthreads <n> ................ Threads for (explicit) forward-backward SCC computation, 0 = all processors [default: 0]");
 		mainLog.println("-symm <string> ................. Symmetry reduction options string");
+		mainLog.println("-por ........................... Use partial-order reduction for MDP construction (explicit engine)");
+		mainLog.println("-fusedrewards .................. Build all reward structures in one parallel pass after model construction (explicit engine)");
 		mainLog.println("-aroptions <string> ............ Abstraction-refinement engine options string");
 		mainLog.println("-pathviaautomata ............... Handle all path formulas via automata constructions");
 		mainLog.println("-nodasimplify .................. Do not attempt to simplify deterministic automata, acceptance conditions");
@@ -1896,7 +2197,14 @@ public class PrismSettings implements Observer
 		mainLog.println("-exportadvmdp <file> ........... Export an adversary from MDP model checking (as an MDP)");
 		mainLog.println("-ltl2datool <exec> ............. Run executable <exec> to convert LTL formulas to deterministic automata");
 		mainLog.println("-ltl2dasyntax <x> .............. Specify output format for -ltl2datool switch (lbt, spin, spot, rabinizer)");
+		mainLog.println("-ltl2dacache <dir> ............. Store/reuse deterministic automata for LTL formulas in directory <dir>");
 		mainLog.println("-exportiterations .............. Export vectors for iteration algorithms to file");
+		mainLog.println("-ssdirectmax <n> ............... Max. BSCC size for direct steady-state solution (explicit engine) [default: 5000]");
+		mainLog.println("-checkpoint <file> ............. Periodically save state of iterative computations to <file> (explicit engine)");
+		mainLog.println("-checkpointinterval <n> ........ Minimum time between checkpoints, in seconds [default: 600]");
+		mainLog.println("-resume ........................ Resume iterative computations from the -checkpoint file, if it matches");
+		mainLog.println("-outofcore <dir> ............... Store DTMC/MDP transition matrices in memory-mapped files in <dir> (explicit engine)");
+		mainLog.println("-modelcache <dir> .............. Cache models built by the explicit engine in <dir> and reuse them when unchanged");
 		mainLog.println("-pmaxquotient .................. For Pmax computations in MDPs, compute in the MEC quotient");
 		
 		mainLog.println();
@@ -1905,11 +2213,14 @@ public class PrismSettings implements Observer
 		mainLog.println("-multimaxpoints <n> ............ Maximal number of corner points for (valiter-based) multi-objective");
 		mainLog.println("-paretoepsilon <x> ............. Threshold for Pareto curve approximation");
 		mainLog.println("-exportpareto <file> ........... When computing Pareto curves, export points to a file");
+		mainLog.println("-multithreads <n> .............. Threads for weight vectors (explicit engine), 0 = all processors [default: 0]");
 		mainLog.println();
 		mainLog.println("OUTPUT OPTIONS:");
 		mainLog.println("-verbose (or -v) ............... Verbose mode: print out state lists and probability vectors");
 		mainLog.println("-extraddinfo ................... Display extra info about some (MT)BDDs");
 		mainLog.println("-extrareachinfo ................ Display extra info about progress of reachability");
+		mainLog.println("-telemetry <file> .............. Write performance telemetry for each phase to <file> (JSON lines)");
+		mainLog.println("-telemetryjfr .................. Emit performance telemetry as Java Flight Recorder events");
 		mainLog.println();
 		mainLog.println("SPARSE/HYBRID/MTBDD OPTIONS:");
 		mainLog.println("-nocompact ..................... Switch off \"compact\" sparse storage schemes");
@@ -1933,6 +2244,10 @@ public class PrismSettings implements Observer
 		mainLog.println("-paramrandompoints <n> ......... Set number of random points to evaluate per region [default: 5]");
 		mainLog.println("-paramsubsumeregions <b> ....... Subsume adjacent regions during analysis [default: true]");
 		mainLog.println("-paramdagmaxerror <b> .......... Maximal error probability allowed for DAG function representation [default: 1E-100]");
+		mainLog.println("-paramcachesize <n> ............ Set max. size (MB) of function operation cache, 0 = unbounded [default: 512]");
+		mainLog.println("-paramelimthreads <n> .......... Set number of threads for state elimination, 0 = all processors [default: 1]");
+		mainLog.println("-paramregionthreads <n> ........ Set number of threads for checking regions, 0 = all processors [default: 1]");
+		mainLog.println("-paramtimebudget <n> ........... Stop region refinement after <n> seconds, 0 = no limit [default: 0]");
 		mainLog.println();
 		mainLog.println("FAST ADAPTIVE UNIFORMISATION (FAU) OPTIONS:");
 		mainLog.println("-fauepsilon <x> ................ Set probability threshold of birth process in FAU [default: 1e-6]");
@@ -0,0 +1,349 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package prism;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.function.LongSupplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Structured performance telemetry for model checking phases
+ * (parsing, model construction, reachability, precomputation,
+ * SCC/MEC decomposition, numerical solution, ...).
+ * <br>
+ * Records are written as one JSON object per line to a file
+ * (see {@link PrismSettings#PRISM_TELEMETRY_FILE}) and/or emitted
+ * as Java Flight Recorder events of type {@code prism.Telemetry}
+ * (see {@link PrismSettings#PRISM_TELEMETRY_JFR}).
+ * Each record is tagged with the property currently being checked
+ * and includes the peak Java heap usage since the start of that property
+ * and, if available, the memory currently in use by CUDD.
+ * <br>
+ * All methods are static and are (cheap) no-ops when telemetry is disabled,
+ * so callers that need to do extra work to produce a record
+ * (e.g. computing a residual) should first check {@link #isEnabled()}.
+ */
+public class Telemetry
+{
+	/**
+	 * JFR event for a single telemetry record.
+	 */
+	@Name("prism.Telemetry")
+	@Label("PRISM Telemetry")
+	@Category("PRISM")
+	@Description("Timing/memory record for a PRISM model checking phase")
+	@StackTrace(false)
+	static class TelemetryEvent extends jdk.jfr.Event
+	{
+		@Label("Kind")
+		String kind;
+		@Label("Property")
+		String property;
+		@Label("Phase")
+		String phase;
+		@Label("Phase Duration")
+		@Timespan(Timespan.MILLISECONDS)
+		long millis;
+		@Label("Count")
+		long count;
+		@Label("Residual")
+		double residual;
+		@Label("Peak Heap")
+		@DataAmount
+		long peakHeap;
+		@Label("CUDD Memory")
+		@DataAmount
+		long cuddMemory;
+	}
+
+	/** Is telemetry enabled? */
+	private static volatile boolean enabled = false;
+	/** JSON lines output (null if not used) */
+	private static PrintWriter jsonOut = null;
+	/** Filename for JSON lines output ("" if not used) */
+	private static String jsonFile = "";
+	/** Emit JFR events? */
+	private static boolean jfr = false;
+	/** Property currently being checked (null if none) */
+	private static String property = null;
+	/** Start time, for record time stamps */
+	private static long startTime = 0;
+	/** Source of native (CUDD) memory usage (null if not available) */
+	private static volatile LongSupplier nativeMemory = null;
+
+	/**
+	 * Is telemetry currently enabled?
+	 */
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * (Re)configure telemetry from the relevant PRISM settings.
+	 * Output is only restarted if the settings have actually changed.
+	 */
+	public static void configure(PrismSettings settings) throws PrismException
+	{
+		String file = settings.getString(PrismSettings.PRISM_TELEMETRY_FILE);
+		boolean useJfr = settings.getBoolean(PrismSettings.PRISM_TELEMETRY_JFR);
+		if (file == null) {
+			file = "";
+		}
+		synchronized (Telemetry.class) {
+			if (file.equals(jsonFile) && useJfr == jfr) {
+				return;
+			}
+		}
+		start(file, useJfr);
+	}
+
+	/**
+	 * Start telemetry, writing JSON lines to {@code file} (if non-empty)
+	 * and emitting JFR events (if {@code useJfr} is true).
+	 * Any existing telemetry output is closed first.
+	 */
+	public static synchronized void start(String file, boolean useJfr) throws PrismException
+	{
+		stop();
+		if (file != null && !"".equals(file)) {
+			try {
+				jsonOut = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+			} catch (IOException e) {
+				throw new PrismException("Could not open telemetry file \"" + file + "\"");
+			}
+			jsonFile = file;
+		}
+		jfr = useJfr;
+		startTime = System.currentTimeMillis();
+		enabled = jsonOut != null || jfr;
+	}
+
+	/**
+	 * Stop telemetry, flushing and closing any output.
+	 */
+	public static synchronized void stop()
+	{
+		enabled = false;
+		if (jsonOut != null) {
+			jsonOut.close();
+			jsonOut = null;
+		}
+		jsonFile = "";
+		jfr = false;
+		property = null;
+	}
+
+	/**
+	 * Set the source of native (CUDD) memory usage, in bytes (null to unset).
+	 */
+	public static void setNativeMemorySupplier(LongSupplier supplier)
+	{
+		nativeMemory = supplier;
+	}
+
+	/**
+	 * Notify the start of model checking for a property.
+	 * Subsequent records are tagged with it, and peak heap usage is reset.
+	 */
+	public static synchronized void beginProperty(String prop)
+	{
+		if (!enabled) {
+			return;
+		}
+		property = prop;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pool.resetPeakUsage();
+			}
+		}
+		record("property", null, 0, -1, Double.NaN);
+	}
+
+	/**
+	 * Record the duration (in milliseconds) of a phase.
+	 */
+	public static void phase(String phase, long millis)
+	{
+		phase(phase, millis, -1);
+	}
+
+	/**
+	 * Record the duration (in milliseconds) of a phase, along with
+	 * a count associated with it, e.g. a number of states (-1 if none).
+	 */
+	public static void phase(String phase, long millis, long count)
+	{
+		if (enabled) {
+			record("phase", phase, millis, count, Double.NaN);
+		}
+	}
+
+	/**
+	 * Record the outcome of an iterative numerical method:
+	 * number of iterations (i.e., kernel calls), total time (in milliseconds)
+	 * and final residual (NaN if unknown). The average time per kernel call
+	 * is included in the JSON output.
+	 */
+	public static void iterations(String method, long iters, long millis, double residual)
+	{
+		if (enabled) {
+			record("solve", method, millis, iters, residual);
+		}
+	}
+
+	/**
+	 * Record the residual (e.g. maximum difference between successive
+	 * solution vectors) after a single iteration of a numerical method.
+	 */
+	public static void residual(String method, long iter, double residual)
+	{
+		if (enabled) {
+			record("iteration", method, 0, iter, residual);
+		}
+	}
+
+	/**
+	 * Write a record to all enabled outputs.
+	 */
+	private static synchronized void record(String kind, String phase, long millis, long count, double residual)
+	{
+		if (!enabled) {
+			return;
+		}
+		long peakHeap = getPeakHeap();
+		LongSupplier nativeMem = nativeMemory;
+		long cuddMemory = nativeMem == null ? -1 : nativeMem.getAsLong();
+		if (jsonOut != null) {
+			StringBuilder sb = new StringBuilder(128);
+			sb.append("{\"time\":").append(System.currentTimeMillis() - startTime);
+			sb.append(",\"kind\":");
+			appendJSONString(sb, kind);
+			if (property != null) {
+				sb.append(",\"property\":");
+				appendJSONString(sb, property);
+			}
+			if (phase != null) {
+				sb.append(",\"phase\":");
+				appendJSONString(sb, phase);
+			}
+			if (!"iteration".equals(kind) && !"property".equals(kind)) {
+				sb.append(",\"ms\":").append(millis);
+			}
+			if (count >= 0) {
+				sb.append("solve".equals(kind) ? ",\"iterations\":" : "iteration".equals(kind) ? ",\"iteration\":" : ",\"count\":").append(count);
+				if ("solve".equals(kind) && count > 0) {
+					sb.append(",\"msPerIteration\":").append((double) millis / count);
+				}
+			}
+			if (Double.isFinite(residual)) {
+				sb.append(",\"residual\":").append(residual);
+			}
+			sb.append(",\"peakHeap\":").append(peakHeap);
+			if (cuddMemory >= 0) {
+				sb.append(",\"cuddMemory\":").append(cuddMemory);
+			}
+			sb.append('}');
+			jsonOut.println(sb);
+			// Per-iteration records are frequent, so leave those buffered
+			if (!"iteration".equals(kind)) {
+				jsonOut.flush();
+			}
+		}
+		if (jfr) {
+			TelemetryEvent event = new TelemetryEvent();
+			if (event.isEnabled()) {
+				event.kind = kind;
+				event.property = property;
+				event.phase = phase;
+				event.millis = millis;
+				event.count = count;
+				event.residual = residual;
+				event.peakHeap = peakHeap;
+				event.cuddMemory = cuddMemory;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Get the peak Java heap usage (in bytes), summed over heap memory pools,
+	 * since the last reset (i.e. the start of the current property).
+	 */
+	private static long getPeakHeap()
+	{
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	/**
+	 * Append a string to a StringBuilder as a (quoted, escaped) JSON string.
+	 */
+	private static void appendJSONString(StringBuilder sb, String s)
+	{
+		sb.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		sb.append('"');
+	}
+}
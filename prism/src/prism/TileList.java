@@ -122,6 +122,11 @@ public class TileList
 	 * Dimension of the space, determined from the initial tile.
 	 */
 	protected int dim;
+	/**
+	 * Tiles whose hyperplanes were returned by the last call to
+	 * {@link #getCandidateHyperplanes(int)}, or null if there is no such batch.
+	 */
+	protected List<Tile> batchTiles;
 
 	/**
 	 * Creates a new instance of the TileList, originally containing only one
@@ -208,6 +213,51 @@ public class TileList
 		return null;
 	}
 
+	/**
+	 * Returns up to {@code max} weight vectors, each of which could yield a new
+	 * Pareto point when used, so that they can be optimised independently (e.g. in parallel).
+	 * The resulting points must be passed, in the same order, to {@link #addNewPoints(List)}.
+	 * While the boundaries are still being explored, at most one vector is returned.
+	 * An empty list is returned if no candidate point exists.
+	 */
+	public List<Point> getCandidateHyperplanes(int max)
+	{
+		List<Point> weights = new ArrayList<Point>();
+		if (this.currentProjectionIndex < this.dim) {
+			batchTiles = null;
+			Point p = getCandidateHyperplane();
+			if (p != null)
+				weights.add(p);
+			return weights;
+		}
+		batchTiles = new ArrayList<Tile>();
+		for (Tile t : list) {
+			if (weights.size() >= max)
+				break;
+			if (!t.isUpperBound(dim)) {
+				batchTiles.add(t);
+				weights.add(Tile.getWeightsForTile(t));
+			}
+		}
+		return weights;
+	}
+
+	/**
+	 * Adds the points obtained by optimising in the directions returned
+	 * by the last call to {@link #getCandidateHyperplanes(int)}.
+	 * Each point only determines whether its own tile is an upper bound;
+	 * tiles that were already split by an earlier point of the batch are simply refined.
+	 */
+	public void addNewPoints(List<Point> points) throws PrismException
+	{
+		for (int i = 0; i < points.size(); i++) {
+			if (batchTiles != null && list.contains(batchTiles.get(i)))
+				batchTiles.get(i).hyperplaneSuggested = true;
+			addNewPoint(points.get(i));
+		}
+		batchTiles = null;
+	}
+
 	/**
 	 * Returns the number of different points that form the tiles of this
 	 * TileList. The implementation is rather inefficient and is intended
@@ -40,6 +40,9 @@ public class ForwardsReach
 	protected BitSet targetLocs;
 	protected Constraint targetConstraint;
 
+	// Whether to merge symbolic states into existing ones whose zone includes theirs
+	protected boolean subsumption = true;
+
 	// Extra information associated with reachability graph
 	protected BitSet target; // Bit set specifying target states
 	protected List<Integer> initialStates; // Initial states
@@ -56,6 +59,19 @@ public class ForwardsReach
 		this.mainLog = log;
 	}
 
+	// Settings
+
+	/**
+	 * Set whether to use zone subsumption (inclusion checking) during forwards reachability:
+	 * a newly found symbolic state whose zone is included in the zone of an already
+	 * found state with the same location is not added (or explored); transitions to it
+	 * lead to the existing state instead. Default is true.
+	 */
+	public void setSubsumption(boolean subsumption)
+	{
+		this.subsumption = subsumption;
+	}
+
 	// Accessors for other info generated during construction of reachability graph
 
 	public BitSet getTarget()
@@ -89,7 +105,7 @@ public class ForwardsReach
 	{
 		LocZone init, lz, lz2;
 		LinkedList<LocZone> X;
-		StateStorage<LocZone> Yset;
+		LocZoneSet Yset;
 		//LocZoneSetOld Zset;
 		ReachabilityGraph graph;
 		int src, dest, count, dests[];
@@ -113,7 +129,7 @@ public class ForwardsReach
 		
 		// Initialise data structures
 		graph = new ReachabilityGraph(pta);
-		Yset = new IndexedSet<LocZone>();
+		Yset = new LocZoneSet(subsumption);
 		X = new LinkedList<LocZone>();
 		target = new BitSet();
 
@@ -251,7 +267,10 @@ public class ForwardsReach
 		timer = System.currentTimeMillis() - timer;
 		mainLog.println("Graph constructed in " + (timer / 1000.0) + " secs.");
 		mainLog.print("Graph: " + graph.states.size() + " symbolic states");
-		mainLog.println(" (" + initialStates.size() + " initial, " + target.cardinality() + " target)");
+		mainLog.print(" (" + initialStates.size() + " initial, " + target.cardinality() + " target");
+		if (subsumption)
+			mainLog.print(", " + Yset.getNumSubsumed() + " subsumed");
+		mainLog.println(")");
 
 		// Print a warning if there are no target states
 		if (target.cardinality() == 0)
@@ -28,15 +28,43 @@ package pta;
 
 import java.util.*;
 
+/**
+ * Indexed set of symbolic states (location/zone pairs), i.e. the passed list of a forwards
+ * zone-based reachability search. Optionally (if subsumption is enabled), a state is not added
+ * if its zone is included in the zone of an existing state with the same location;
+ * the index of the latter is then returned by {@link #getIndexOfLastAdd()}.
+ * Inclusion checks are only done for convex zones (DBMs) and against states of the same location.
+ */
 public class LocZoneSet
 {
+	// States, by index
+	private ArrayList<LocZone> list;
+	// Map from states to indices (for exact matches)
 	private HashMap<LocZone, Integer> set;
+	// Indices of the states for each location (if subsumption is enabled)
+	private HashMap<Integer, ArrayList<Integer>> locStates;
 	private int indexOfLastAdd;
+	// Number of states not added because they were included in an existing one
+	private int numSubsumed;
 
+	/**
+	 * Create an empty set (without subsumption).
+	 */
 	public LocZoneSet()
 	{
+		this(false);
+	}
+
+	/**
+	 * Create an empty set, with subsumption enabled if {@code subsumption} is true.
+	 */
+	public LocZoneSet(boolean subsumption)
+	{
+		list = new ArrayList<LocZone>();
 		set = new HashMap<LocZone, Integer>();
+		locStates = subsumption ? new HashMap<Integer, ArrayList<Integer>>() : null;
 		indexOfLastAdd = -1;
+		numSubsumed = 0;
 	}
 
 	public boolean add(int loc, Zone z)
@@ -44,17 +72,52 @@ public class LocZoneSet
 		return add(new LocZone(loc, z));
 	}
 
+	/**
+	 * Add a state, unless it is already present (or, if subsumption is enabled,
+	 * included in an existing state). Returns true iff it was added.
+	 * In either case, the index of the new/existing state is available
+	 * afterwards from {@link #getIndexOfLastAdd()}.
+	 */
 	public boolean add(LocZone lz)
 	{
 		Integer i = set.get(lz);
 		if (i != null) {
 			indexOfLastAdd = i;
 			return false;
-		} else {
-			indexOfLastAdd = set.size();
-			set.put(lz, set.size());
-			return true;
 		}
+		if (locStates != null) {
+			int j = findIncluding(lz);
+			if (j != -1) {
+				indexOfLastAdd = j;
+				numSubsumed++;
+				return false;
+			}
+			locStates.computeIfAbsent(lz.loc, k -> new ArrayList<Integer>()).add(list.size());
+		}
+		indexOfLastAdd = list.size();
+		set.put(lz, list.size());
+		list.add(lz);
+		return true;
+	}
+
+	/**
+	 * Find the index of an existing state with the same location as {@code lz}
+	 * whose zone includes that of {@code lz}, or return -1 if there is none.
+	 */
+	private int findIncluding(LocZone lz)
+	{
+		if (!(lz.zone instanceof DBM))
+			return -1;
+		ArrayList<Integer> indices = locStates.get(lz.loc);
+		if (indices == null)
+			return -1;
+		DBM dbm = (DBM) lz.zone;
+		for (int j : indices) {
+			Zone z = list.get(j).zone;
+			if (z instanceof DBM && ((DBM) z).includes(dbm))
+				return j;
+		}
+		return -1;
 	}
 
 	public boolean contains(LocZone lz)
@@ -67,28 +130,27 @@ public class LocZoneSet
 		return indexOfLastAdd;
 	}
 
+	/**
+	 * Get the number of states that were not added because they were included in an existing one.
+	 */
+	public int getNumSubsumed()
+	{
+		return numSubsumed;
+	}
+
 	public boolean isEmpty()
 	{
-		return set.isEmpty();
+		return list.isEmpty();
 	}
 
 	public int size()
 	{
-		return set.size();
+		return list.size();
 	}
 
 	public ArrayList<LocZone> toArrayList()
 	{
-		int i, n;
-
-		n = set.size();
-		ArrayList<LocZone> list = new ArrayList<LocZone>(n);
-		for (i = 0; i < n ; i++)
-			list.add(null);
-		for (Map.Entry<LocZone, Integer> e : set.entrySet()) {
-			list.set(e.getValue(), e.getKey());
-		}
-		return list;
+		return new ArrayList<LocZone>(list);
 	}
 
 	public String toString()
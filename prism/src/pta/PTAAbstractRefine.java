@@ -53,6 +53,10 @@ public class PTAAbstractRefine extends QuantAbstractRefine
 	// bit of time, but at the expense of some space). 
 	boolean storeValidZones = true;
 
+	// Do we use zone subsumption (inclusion checking) when building
+	// the forwards reachability graph (see ForwardsReach)?
+	boolean subsumption = true;
+
 	/**
 	 * Default constructor.
 	 */
@@ -79,6 +83,18 @@ public class PTAAbstractRefine extends QuantAbstractRefine
 		return abstractRefine(min);
 	}
 
+	@Override
+	public void parseOption(String opt) throws PrismException
+	{
+		if (opt.equals("subsumption")) {
+			subsumption = true;
+		} else if (opt.equals("nosubsumption")) {
+			subsumption = false;
+		} else {
+			super.parseOption(opt);
+		}
+	}
+
 	// Implementation of initialise() for abstraction-refinement loop; see superclass for details 
 
 	@Override
@@ -90,6 +106,7 @@ public class PTAAbstractRefine extends QuantAbstractRefine
 
 		// Build forwards reachability graph
 		forwardsReach = new ForwardsReach(mainLog);
+		forwardsReach.setSubsumption(subsumption);
 		graph = forwardsReach.buildForwardsGraph(pta, targetLocs, targetConstraint);
 		// Store the set of target/initial states from forwards reachability
 		target = forwardsReach.getTarget();
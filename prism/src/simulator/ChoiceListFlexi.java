@@ -215,6 +215,15 @@ public class ChoiceListFlexi<Value> implements Choice<Value>
 		return probability.size();
 	}
 
+	/**
+	 * Get the list of updates making up the ith transition
+	 * (one for each module taking part in this choice).
+	 */
+	public List<Update> getUpdates(int i)
+	{
+		return updates.get(i);
+	}
+
 	@Override
 	public String getUpdateString(int i, State currentState) throws PrismLangException
 	{
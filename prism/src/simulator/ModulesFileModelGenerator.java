@@ -20,6 +20,8 @@ import parser.ast.ExpressionLiteral;
 import parser.ast.LabelList;
 import parser.ast.ModulesFile;
 import parser.ast.RewardStruct;
+import parser.ast.Update;
+import parser.ast.Updates;
 import parser.type.Type;
 import parser.type.TypeClock;
 import parser.visitor.ASTTraverseModify;
@@ -68,6 +70,8 @@ public class ModulesFileModelGenerator<Value> implements ModelGenerator<Value>,
 	protected TransitionList<Value> transitionList;
 	// Has the transition list been built? 
 	protected boolean transitionListBuilt;
+	// Optional cache of transition lists, keyed by (packed) state
+	protected TransitionListCache<Value> transitionListCache;
 	
 	// List of currently available transitions (interval models)
 	protected TransitionList<Interval<Value>> transitionListInt;
@@ -317,8 +321,47 @@ public class ModulesFileModelGenerator<Value> implements ModelGenerator<Value>,
 		}
 		transitionListBuilt = false;
 		transitionListIntBuilt = false;
+		// Any cached transitions are for the old constant values
+		transitionListCache = null;
 	}
 	
+	/**
+	 * Enable caching of the transition lists computed for each explored state,
+	 * up to an (estimated) size of {@code sizeMB} megabytes, or disable it if {@code sizeMB} is 0.
+	 * Caching is only possible for non-interval models whose states can be packed
+	 * into a single long (see {@link TransitionListCache#canPack(VarList)});
+	 * otherwise, this method does nothing and returns false.
+	 * The cache is discarded when the values of undefined constants are changed.
+	 * @return true iff caching is enabled
+	 */
+	public boolean setTransitionListCache(int sizeMB)
+	{
+		transitionListCache = null;
+		if (sizeMB > 0 && !modelType.uncertain() && varList != null && TransitionListCache.canPack(varList)) {
+			transitionListCache = new TransitionListCache<>(varList, sizeMB);
+			transitionList = new TransitionList<Value>(eval);
+			transitionListBuilt = false;
+		}
+		return transitionListCache != null;
+	}
+	
+	/**
+	 * Get the cache of transition lists (null if caching is not enabled).
+	 */
+	public TransitionListCache<Value> getTransitionListCache()
+	{
+		return transitionListCache;
+	}
+
+	/**
+	 * Get the model used for exploration, i.e., a copy of the original one
+	 * in which constants have been replaced with their values.
+	 */
+	public ModulesFile getModulesFile()
+	{
+		return modulesFile;
+	}
+
 	// Methods for ModelInfo interface
 	
 	@Override
@@ -678,6 +721,29 @@ public class ModulesFileModelGenerator<Value> implements ModelGenerator<Value>,
 		return getTransitionList().getChoice(index).computeTarget(offset, exploreState, varList);
 	}
 
+	/**
+	 * Get the command that the ith choice of the state currently being explored stems from,
+	 * in the form of its Updates object, if the choice stems from a single command
+	 * (i.e., only one module takes part in it). Otherwise, return null.
+	 */
+	public Updates getChoiceCommandUpdates(int index) throws PrismException
+	{
+		Choice<?> choice = getTransitionList().getChoice(index);
+		if (!(choice instanceof ChoiceListFlexi)) {
+			return null;
+		}
+		ChoiceListFlexi<?> ch = (ChoiceListFlexi<?>) choice;
+		Updates ups = null;
+		for (int j = 0; j < ch.size(); j++) {
+			List<Update> list = ch.getUpdates(j);
+			if (list.size() != 1 || (ups != null && list.get(0).getParent() != ups)) {
+				return null;
+			}
+			ups = list.get(0).getParent();
+		}
+		return ups;
+	}
+
 	@Override
 	public boolean isLabelTrue(int i) throws PrismException
 	{
@@ -838,12 +904,42 @@ public class ModulesFileModelGenerator<Value> implements ModelGenerator<Value>,
 		}
 		// Compute the current transition list, if required
 		if (!transitionListBuilt) {
-			updater.calculateTransitions(exploreState, transitionList);
+			if (transitionListCache == null) {
+				updater.calculateTransitions(exploreState, transitionList);
+			} else {
+				calculateTransitionsCached();
+			}
 			transitionListBuilt = true;
 		}
 		return transitionList;
 	}
 	
+	/**
+	 * Set transitionList to the transitions of the current state, reusing
+	 * a previously computed list from the cache if possible.
+	 * Cached lists are shared, so a new list is created for each cache miss.
+	 */
+	private void calculateTransitionsCached() throws PrismException
+	{
+		long key;
+		try {
+			key = transitionListCache.pack(exploreState);
+		} catch (PrismLangException e) {
+			// Out-of-range state: just compute transitions without the cache
+			transitionList = new TransitionList<Value>(eval);
+			updater.calculateTransitions(exploreState, transitionList);
+			return;
+		}
+		TransitionList<Value> cached = transitionListCache.get(key);
+		if (cached != null) {
+			transitionList = cached;
+		} else {
+			transitionList = new TransitionList<Value>(eval);
+			updater.calculateTransitions(exploreState, transitionList);
+			transitionListCache.put(key, transitionList);
+		}
+	}
+	
 	/**
 	 * Returns the current list of available transitions (interval models), generating it first if this has not yet been done.
 	 */
@@ -30,6 +30,7 @@ package simulator;
 import java.util.Date;
 
 import cern.jet.random.Exponential;
+import cern.jet.random.Poisson;
 import cern.jet.random.Uniform;
 import cern.jet.random.engine.MersenneTwister;
 
@@ -42,6 +43,7 @@ public class RandomNumberGenerator
 	private MersenneTwister random;
 	private Uniform uniform;
 	private Exponential exponential;
+	private Poisson poisson;
 
 	/**
 	 * Create a new random number generator (seeded, by default, with the current time).
@@ -60,6 +62,8 @@ public class RandomNumberGenerator
 		uniform = new Uniform(random);
 		// Create exponential generator (rate 1.0 but this is ignored from now on)
 		exponential = new Exponential(1.0, random);
+		// Create Poisson generator (mean 1.0 but this is ignored from now on)
+		poisson = new Poisson(1.0, random);
 	}
 
 	/**
@@ -94,4 +98,12 @@ public class RandomNumberGenerator
 		return exponential.nextDouble(x);
 		//return (-Math.log(random.nextDouble())) / x;
 	}
+
+	/**
+	 * Pick a random integer according to a Poisson distribution with mean x.
+	 */
+	public int randomPoissonInt(double x)
+	{
+		return x == 0.0 ? 0 : poisson.nextInt(x);
+	}
 }
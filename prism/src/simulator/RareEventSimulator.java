@@ -0,0 +1,430 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import parser.EvaluateContext.EvalMode;
+import parser.EvaluateContextState;
+import parser.State;
+import parser.ast.Expression;
+import parser.ast.ExpressionProb;
+import parser.ast.ExpressionTemporal;
+import parser.ast.ExpressionUnaryOp;
+import parser.type.TypeBool;
+import parser.type.TypeDouble;
+import parser.type.TypeInt;
+import prism.ModelGenerator;
+import prism.ModelType;
+import prism.PrismException;
+import prism.PrismLangException;
+import prism.PrismNotSupportedException;
+
+/**
+ * Rare-event simulation of (time/step-bounded) until properties {@code P=? [ a U b ]} for DTMCs and CTMCs.
+ * Two estimators are provided, both guided by an importance function over states,
+ * whose value should increase as states get closer to the target {@code b}:
+ * <ul>
+ * <li> fixed-effort importance splitting: the importance function is split into levels
+ *      (of width {@code levelStep}); for each level in turn, a fixed number of paths
+ *      is started from the states where paths entered the level, to estimate the
+ *      conditional probability of reaching the next level (or the target);
+ *      the estimate is the product of these probabilities.
+ * <li> importance sampling: paths are generated with the probabilities (or rates) of
+ *      transitions that increase the importance function multiplied by a bias factor,
+ *      and each successful path is weighted by its likelihood ratio.
+ *      For CTMCs, the sojourn times are still sampled with the original exit rates,
+ *      so time-bounded properties are also handled.
+ * </ul>
+ * Each call to {@link #estimateBySplitting(State, int, double)} or
+ * {@link #estimateByImportanceSampling(State, double)} returns an independent,
+ * unbiased estimate of the probability, from which confidence intervals can be computed.
+ */
+public class RareEventSimulator
+{
+	// Outcomes of simulating a path (segment)
+	private static final int FAIL = 0;
+	private static final int TARGET = 1;
+	private static final int LEVEL_UP = 2;
+
+	/**
+	 * Point reached by a path: a state, plus the time/steps elapsed so far.
+	 */
+	private static class PathPoint
+	{
+		State state;
+		double time;
+		long steps;
+		int level;
+		boolean target;
+
+		PathPoint(State state, int level)
+		{
+			this.state = state;
+			this.level = level;
+		}
+
+		PathPoint(PathPoint point)
+		{
+			state = point.state;
+			time = point.time;
+			steps = point.steps;
+			level = point.level;
+			target = point.target;
+		}
+	}
+
+	// Model and random number generator
+	private ModelGenerator<Double> modelGen;
+	private RandomNumberGenerator rng;
+	private boolean continuousTime;
+	private boolean fixDeadlocks;
+
+	// Property info: a U<=bound b
+	private Expression left;
+	private Expression right;
+	private double bound;
+
+	// Importance function
+	private Expression importance;
+
+	// Maximum number of steps for a path
+	private long maxPathLength;
+
+	// Storage for the current state's transitions (importance sampling)
+	private double[] probs = new double[16];
+	private double[] biasedProbs = new double[16];
+	private State[] targets = new State[16];
+
+	// Statistics
+	private long numPaths;
+	private long numTruncated;
+
+	/**
+	 * Create a rare-event simulator for a property {@code P=? [ a U b ]}, {@code P=? [ a U<=T b ]},
+	 * {@code P=? [ F b ]} or {@code P=? [ F<=T b ]}, with constants already replaced.
+	 * @param modelGen Model generator (DTMC or CTMC)
+	 * @param rng Random number generator
+	 * @param expr The property
+	 * @param importance Importance function (numerical expression over model variables)
+	 * @param maxPathLength Maximum number of steps of a path
+	 * @param fixDeadlocks Whether deadlocks are being fixed (otherwise, they are an error)
+	 */
+	public RareEventSimulator(ModelGenerator<Double> modelGen, RandomNumberGenerator rng, ExpressionProb expr, Expression importance, long maxPathLength,
+			boolean fixDeadlocks) throws PrismException
+	{
+		this.modelGen = modelGen;
+		this.rng = rng;
+		this.importance = importance;
+		this.maxPathLength = maxPathLength;
+		this.fixDeadlocks = fixDeadlocks;
+		ModelType modelType = modelGen.getModelType();
+		if (modelType != ModelType.DTMC && modelType != ModelType.CTMC) {
+			throw new PrismNotSupportedException("Rare-event simulation is only supported for DTMCs and CTMCs");
+		}
+		continuousTime = modelType.continuousTime();
+		if (!(importance.getType() instanceof TypeInt || importance.getType() instanceof TypeDouble)) {
+			throw new PrismException("Importance function \"" + importance + "\" is not numerical");
+		}
+		extractUntil(expr.getExpression());
+	}
+
+	/**
+	 * Extract the operands/bound of the until formula that is being estimated.
+	 */
+	private void extractUntil(Expression expr) throws PrismException
+	{
+		while (expr instanceof ExpressionUnaryOp && ((ExpressionUnaryOp) expr).getOperator() == ExpressionUnaryOp.PARENTH) {
+			expr = ((ExpressionUnaryOp) expr).getOperand();
+		}
+		if (expr instanceof ExpressionTemporal && ((ExpressionTemporal) expr).getOperator() == ExpressionTemporal.P_F) {
+			expr = ((ExpressionTemporal) expr).convertToUntilForm();
+		}
+		if (!(expr instanceof ExpressionTemporal && ((ExpressionTemporal) expr).getOperator() == ExpressionTemporal.P_U)) {
+			throw new PrismNotSupportedException("Rare-event simulation only supports until (U) and eventually (F) properties");
+		}
+		ExpressionTemporal exprTemp = (ExpressionTemporal) expr;
+		left = exprTemp.getOperand1();
+		right = exprTemp.getOperand2();
+		if (exprTemp.getLowerBound() != null && exprTemp.getLowerBound().evaluateDouble() > 0) {
+			throw new PrismNotSupportedException("Rare-event simulation does not support lower time bounds");
+		}
+		if (exprTemp.getUpperBound() == null) {
+			bound = Double.POSITIVE_INFINITY;
+		} else if (continuousTime) {
+			bound = exprTemp.getUpperBound().evaluateDouble();
+		} else {
+			int k = exprTemp.getUpperBound().evaluateInt();
+			bound = exprTemp.upperBoundIsStrict() ? k - 1 : k;
+		}
+		if (bound < 0) {
+			throw new PrismException("Invalid upper bound in until formula");
+		}
+	}
+
+	// Estimators
+
+	/**
+	 * Compute one estimate of the probability using fixed-effort importance splitting.
+	 * @param initialState The initial state
+	 * @param effort Number of paths simulated for each level
+	 * @param levelStep Width of each level (in terms of the importance function)
+	 */
+	public double estimateBySplitting(State initialState, int effort, double levelStep) throws PrismException
+	{
+		List<PathPoint> points = new ArrayList<>();
+		points.add(new PathPoint(initialState, getLevel(initialState, levelStep)));
+		int level = points.get(0).level;
+		double estimate = 1.0;
+		while (true) {
+			// Start paths from the entry points of the current level, in turn,
+			// and record where they reach the next level (or the target)
+			List<PathPoint> next = new ArrayList<>(effort);
+			for (int j = 0; j < effort; j++) {
+				PathPoint point = new PathPoint(points.get(j % points.size()));
+				if (point.target || simulate(point, level, levelStep) != FAIL) {
+					next.add(point);
+				}
+			}
+			if (next.isEmpty()) {
+				return 0.0;
+			}
+			estimate *= next.size() / (double) effort;
+			points = next;
+			// Move to the lowest level now entered by all paths
+			// (skipping any levels crossed by all of them), or stop if all are at the target
+			int minLevel = Integer.MAX_VALUE;
+			for (PathPoint point : points) {
+				if (!point.target) {
+					minLevel = Math.min(minLevel, point.level);
+				}
+			}
+			if (minLevel == Integer.MAX_VALUE) {
+				return estimate;
+			}
+			level = minLevel;
+		}
+	}
+
+	/**
+	 * Compute one estimate of the probability using importance sampling,
+	 * i.e. the likelihood ratio of a path generated with biased probabilities/rates
+	 * if it satisfies the property, and 0 otherwise.
+	 * @param initialState The initial state
+	 * @param bias Factor by which the probabilities/rates of transitions that increase importance are multiplied
+	 */
+	public double estimateByImportanceSampling(State initialState, double bias) throws PrismException
+	{
+		PathPoint point = new PathPoint(initialState, 0);
+		numPaths++;
+		double likelihood = 1.0;
+		while (true) {
+			int outcome = checkPoint(point, Integer.MAX_VALUE, 1.0);
+			if (outcome == TARGET) {
+				return likelihood;
+			} else if (outcome == FAIL) {
+				return 0.0;
+			}
+			// Compute original and biased probabilities (or rates) of transitions
+			int numTransitions = modelGen.getNumTransitions();
+			ensureCapacity(numTransitions);
+			double current = importance.evaluateDouble(point.state);
+			double sum = 0.0;
+			double biasedSum = 0.0;
+			int t = 0;
+			for (int i = 0, numChoices = modelGen.getNumChoices(); i < numChoices; i++) {
+				for (int offset = 0, n = modelGen.getNumTransitions(i); offset < n; offset++, t++) {
+					probs[t] = modelGen.getTransitionProbability(i, offset);
+					targets[t] = modelGen.computeTransitionTarget(i, offset);
+					biasedProbs[t] = importance.evaluateDouble(targets[t]) > current ? bias * probs[t] : probs[t];
+					sum += probs[t];
+					biasedSum += biasedProbs[t];
+				}
+			}
+			// Sojourn time uses the original exit rate
+			if (continuousTime) {
+				point.time += rng.randomExpDouble(sum);
+			}
+			// Pick a transition according to the biased probabilities
+			double x = rng.randomUnifDouble(biasedSum);
+			double tot = 0.0;
+			for (t = 0; t < numTransitions - 1; t++) {
+				tot += biasedProbs[t];
+				if (x < tot)
+					break;
+			}
+			likelihood *= (probs[t] / sum) / (biasedProbs[t] / biasedSum);
+			if (numTransitions == 1 && targets[t].equals(point.state)) {
+				// Absorbing (non-target) state
+				return 0.0;
+			}
+			point.state = targets[t];
+			point.steps++;
+		}
+	}
+
+	/**
+	 * Simulate a path from a point, until it reaches the target (returns TARGET),
+	 * a state of a level higher than {@code level} (returns LEVEL_UP) or fails (returns FAIL).
+	 * The point is updated to the last state of the path.
+	 */
+	private int simulate(PathPoint point, int level, double levelStep) throws PrismException
+	{
+		numPaths++;
+		while (true) {
+			int outcome = checkPoint(point, level, levelStep);
+			if (outcome != -1) {
+				return outcome;
+			}
+			// Pick a (random) transition
+			double sum = modelGen.getProbabilitySum();
+			if (continuousTime) {
+				point.time += rng.randomExpDouble(sum);
+			}
+			double x = rng.randomUnifDouble(sum);
+			double tot = 0.0;
+			State target = null;
+			int numChoices = modelGen.getNumChoices();
+			for (int i = 0; i < numChoices && target == null; i++) {
+				for (int offset = 0, n = modelGen.getNumTransitions(i); offset < n; offset++) {
+					tot += modelGen.getTransitionProbability(i, offset);
+					if (x < tot || (i == numChoices - 1 && offset == n - 1)) {
+						target = modelGen.computeTransitionTarget(i, offset);
+						break;
+					}
+				}
+			}
+			if (modelGen.getNumTransitions() == 1 && target.equals(point.state)) {
+				// Absorbing (non-target) state
+				return FAIL;
+			}
+			point.state = target;
+			point.steps++;
+		}
+	}
+
+	/**
+	 * Explore the state of a path point and determine whether the path
+	 * has reached the target (TARGET), reached a level higher than {@code level} (LEVEL_UP),
+	 * or failed (FAIL); otherwise, return -1.
+	 */
+	private int checkPoint(PathPoint point, int level, double levelStep) throws PrismException
+	{
+		modelGen.exploreState(point.state);
+		// Bound exceeded (on entering the state)
+		if (point.time > bound) {
+			return FAIL;
+		}
+		if (evaluateBoolean(right, point.state)) {
+			point.target = true;
+			return TARGET;
+		}
+		if (!evaluateBoolean(left, point.state)) {
+			return FAIL;
+		}
+		if (level < Integer.MAX_VALUE) {
+			int newLevel = getLevel(point.state, levelStep);
+			if (newLevel > level) {
+				point.level = newLevel;
+				return LEVEL_UP;
+			}
+		}
+		// Step bound reached (for discrete time)
+		if (!continuousTime && point.steps >= bound) {
+			return FAIL;
+		}
+		if (modelGen.getNumChoices() == 0) {
+			if (!fixDeadlocks) {
+				throw new PrismException("Deadlock found in state " + point.state.toString(modelGen));
+			}
+			return FAIL;
+		}
+		if (point.steps >= maxPathLength) {
+			numTruncated++;
+			return FAIL;
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the level of a state, i.e. its importance divided by the level width (rounded down).
+	 */
+	private int getLevel(State state, double levelStep) throws PrismLangException
+	{
+		return (int) Math.floor(importance.evaluateDouble(state) / levelStep);
+	}
+
+	/**
+	 * Evaluate a Boolean expression in the state currently explored by the model generator
+	 * (including labels, which are evaluated by the model generator).
+	 */
+	private boolean evaluateBoolean(Expression expr, State state) throws PrismLangException
+	{
+		EvaluateContextState ec = new EvaluateContextState(state)
+		{
+			@Override
+			public Boolean getLabelValue(String name) throws PrismLangException
+			{
+				try {
+					if ("deadlock".equals(name)) {
+						return modelGen.isDeadlock();
+					} else if ("init".equals(name)) {
+						return modelGen.isInitialState(state);
+					}
+					return modelGen.isLabelTrue(name);
+				} catch (PrismException e) {
+					throw new PrismLangException(e.getMessage());
+				}
+			}
+		};
+		return TypeBool.getInstance().castValueTo(expr.evaluate(ec), EvalMode.FP);
+	}
+
+	private void ensureCapacity(int n)
+	{
+		if (probs.length < n) {
+			int size = Math.max(n, 2 * probs.length);
+			probs = new double[size];
+			biasedProbs = new double[size];
+			targets = new State[size];
+		}
+	}
+
+	// Statistics
+
+	/**
+	 * Get the number of paths (or path segments, for splitting) simulated so far.
+	 */
+	public long getNumPaths()
+	{
+		return numPaths;
+	}
+
+	/**
+	 * Get the number of paths (or path segments) that were stopped
+	 * because they reached the maximum path length.
+	 */
+	public long getNumTruncated()
+	{
+		return numTruncated;
+	}
+}
@@ -0,0 +1,1024 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import parser.EvaluateContextState;
+import parser.State;
+import parser.VarList;
+import parser.ast.Command;
+import parser.ast.DeclarationInt;
+import parser.ast.Expression;
+import parser.ast.ExpressionBinaryOp;
+import parser.ast.ExpressionProb;
+import parser.ast.ExpressionReward;
+import parser.ast.ExpressionTemporal;
+import parser.ast.ExpressionUnaryOp;
+import parser.ast.ExpressionVar;
+import parser.ast.Module;
+import parser.ast.ModulesFile;
+import parser.ast.Update;
+import parser.ast.Updates;
+import parser.type.TypeInt;
+import prism.ModelGenerator;
+import prism.ModelType;
+import prism.PrismException;
+import prism.PrismLangException;
+import prism.PrismNotSupportedException;
+import prism.RewardGenerator;
+
+/**
+ * Accelerated simulation of CTMCs that model (chemical) reaction networks,
+ * i.e., population models such as those produced by {@link prism.Reactions2Prism}.
+ * Each reaction is a command (or a set of commands synchronising on an action)
+ * with a single update whose assignments all have the form {@code x'=x+c}
+ * for integer variables {@code x} and constants {@code c};
+ * its propensity is the rate of the update if the guard is true, and 0 otherwise.
+ * Two methods are provided:
+ * <ul>
+ * <li> SSA: Gillespie's direct method, where only the propensities of reactions that
+ *      depend on variables changed by the last reaction are re-evaluated (dependency graph),
+ *      and the next reaction is picked by composition-rejection, i.e., by first selecting
+ *      a group of reactions whose propensities are within a factor of 2, then sampling
+ *      uniformly within the group and accepting with probability proportional to the propensity;
+ * <li> tau-leaping: the adaptive method of Cao, Gillespie and Petzold, which fires a Poisson-distributed
+ *      number of each (non-critical) reaction over a leap whose length is chosen so that the
+ *      relative change in propensities is bounded by epsilon; reactions that are close to exhausting
+ *      a variable's range are treated as critical (at most one fires per leap), leaps that would leave
+ *      a variable's range are halved, and exact SSA steps are used when leaping would not pay off.
+ * </ul>
+ * Properties are evaluated directly on the generated paths (see {@link #addProperty(Expression)});
+ * with tau-leaping, they are only evaluated at the end of each leap
+ * (leaps are shortened to end at the time bounds of properties).
+ */
+public class ReactionNetworkSimulator
+{
+	/** Simulation methods */
+	public enum Method
+	{
+		SSA, TAU_LEAPING
+	}
+
+	// Parameters of tau-leaping (see Cao, Gillespie and Petzold, J. Chem. Phys. 124, 2006)
+	/** Reactions that can fire fewer times than this before exhausting a variable are critical */
+	private static final int CRITICAL_FIRINGS = 10;
+	/** Use SSA steps instead of a leap if the leap is shorter than this multiple of the expected SSA step */
+	private static final double SSA_THRESHOLD = 10.0;
+	/** Number of SSA steps to perform when leaping does not pay off */
+	private static final int SSA_STEPS = 100;
+	/** Factor by which the relative change bound (epsilon) is divided for each variable (g_i) */
+	private static final double CHANGE_FACTOR = 2.0;
+
+	// Composition-rejection groups (one per binary exponent of propensity)
+	private static final int GROUP_OFFSET = 1100;
+	private static final int NUM_GROUPS = 2200;
+	/** Number of propensity updates after which group sums are recomputed (to avoid round-off drift) */
+	private static final int RESUM_INTERVAL = 100000;
+
+	// Model and random number generator
+	private ModelGenerator<Double> modelGen;
+	private RewardGenerator<Double> rewardGen;
+	private RandomNumberGenerator rng;
+	private Method method;
+	private double epsilon;
+	private boolean fixDeadlocks;
+
+	// Variables (and their ranges)
+	private int numVars;
+	private long[] low;
+	private long[] high;
+
+	// Reactions
+	private int numReactions;
+	private Expression[] guards;
+	private Expression[] rates;
+	private String[] actions;
+	/** Variables changed by each reaction */
+	private int[][] changeVars;
+	/** Amounts by which each reaction changes its variables */
+	private int[][] changeAmounts;
+	/** For each reaction, the reactions whose propensities depend on variables it changes */
+	private int[][] dependents;
+
+	// Current path
+	private State state;
+	private int[] values;
+	private double time;
+	private EvaluateContextState ec;
+	private double[] propensities;
+
+	// Composition-rejection groups
+	private double[] groupSums = new double[NUM_GROUPS];
+	private int[][] groupMembers = new int[NUM_GROUPS][];
+	private int[] groupSizes = new int[NUM_GROUPS];
+	private IntArrayList activeGroups = new IntArrayList();
+	private int[] reactionGroup;
+	private int[] reactionPos;
+	private int numUpdatesSinceResum;
+
+	// Storage for leaps
+	private boolean[] critical;
+	private int[] firings;
+	private long[] deltas;
+
+	// Properties
+	private List<PathProperty> properties = new ArrayList<>();
+	private int numUnknown;
+
+	// Statistics
+	private long numEvents;
+	private long numLeaps;
+	private long numRejectedLeaps;
+
+	/**
+	 * Create a simulator for the reaction network described by a model generator.
+	 * Throws a {@link PrismNotSupportedException} if the model is not a reaction network
+	 * (i.e., it does not have the structure described in the class documentation).
+	 * @param modelGen Model generator (which must be for a CTMC described in the PRISM language)
+	 * @param rewardGen Reward generator (for reward properties)
+	 * @param rng Random number generator
+	 * @param method Simulation method
+	 * @param epsilon Bound on the relative change of propensities during a leap (tau-leaping)
+	 * @param fixDeadlocks Whether deadlocks are being fixed (otherwise, they are an error)
+	 */
+	public ReactionNetworkSimulator(ModelGenerator<Double> modelGen, RewardGenerator<Double> rewardGen, RandomNumberGenerator rng, Method method, double epsilon,
+			boolean fixDeadlocks) throws PrismException
+	{
+		this.modelGen = modelGen;
+		this.rewardGen = rewardGen;
+		this.rng = rng;
+		this.method = method;
+		this.epsilon = epsilon;
+		this.fixDeadlocks = fixDeadlocks;
+		if (modelGen.getModelType() != ModelType.CTMC) {
+			throw new PrismNotSupportedException("Reaction network simulation is only supported for CTMCs");
+		}
+		if (!(modelGen instanceof ModulesFileModelGenerator)) {
+			throw new PrismNotSupportedException("Reaction network simulation is only supported for PRISM models");
+		}
+		if (epsilon <= 0 || epsilon >= 1) {
+			throw new PrismException("Invalid tau-leaping error bound " + epsilon + " (should be in (0,1))");
+		}
+		extractReactions(((ModulesFileModelGenerator<Double>) modelGen).getModulesFile(), modelGen.createVarList());
+	}
+
+	/**
+	 * Extract the reactions from a model (with constants replaced), and build the dependency graph.
+	 */
+	private void extractReactions(ModulesFile modulesFile, VarList varList) throws PrismException
+	{
+		numVars = varList.getNumVars();
+		low = new long[numVars];
+		high = new long[numVars];
+		for (int v = 0; v < numVars; v++) {
+			if (varList.getDeclarationType(v) instanceof DeclarationInt) {
+				low[v] = varList.getLow(v);
+				high[v] = varList.getHigh(v);
+			} else {
+				low[v] = Integer.MIN_VALUE;
+				high[v] = Integer.MAX_VALUE;
+			}
+		}
+		List<List<Command>> reactions = new ArrayList<>();
+		List<String> reactionActions = new ArrayList<>();
+		// Unlabelled commands are reactions on their own
+		for (int m = 0; m < modulesFile.getNumModules(); m++) {
+			for (Command command : modulesFile.getModule(m).getCommands()) {
+				if (command.isUnlabelled()) {
+					reactions.add(List.of(command));
+					reactionActions.add(null);
+				}
+			}
+		}
+		// Labelled commands synchronise with one command from each module with the action
+		for (String action : modulesFile.getSynchs()) {
+			List<Command> commands = new ArrayList<>();
+			boolean blocked = false;
+			for (int m = 0; m < modulesFile.getNumModules(); m++) {
+				Module module = modulesFile.getModule(m);
+				if (!module.usesSynch(action)) {
+					continue;
+				}
+				int count = 0;
+				for (Command command : module.getCommands()) {
+					if (action.equals(command.getSynch())) {
+						commands.add(command);
+						count++;
+					}
+				}
+				if (count == 0) {
+					blocked = true;
+				} else if (count > 1) {
+					throw new PrismNotSupportedException("Action \"" + action + "\" labels more than one command in module \"" + module.getName() + "\"");
+				}
+			}
+			if (!blocked) {
+				reactions.add(commands);
+				reactionActions.add(action);
+			}
+		}
+		// Build reactions
+		numReactions = reactions.size();
+		guards = new Expression[numReactions];
+		rates = new Expression[numReactions];
+		actions = reactionActions.toArray(new String[0]);
+		changeVars = new int[numReactions][];
+		changeAmounts = new int[numReactions][];
+		List<BitSet> readVars = new ArrayList<>();
+		for (int j = 0; j < numReactions; j++) {
+			Expression guard = null;
+			Expression rate = null;
+			IntArrayList vars = new IntArrayList();
+			IntArrayList amounts = new IntArrayList();
+			for (Command command : reactions.get(j)) {
+				Updates updates = command.getUpdates();
+				if (updates.getNumUpdates() != 1) {
+					throw new PrismNotSupportedException("Command \"" + command + "\" does not have a single update");
+				}
+				guard = guard == null ? command.getGuard() : Expression.And(guard, command.getGuard());
+				Expression r = updates.getProbability(0) == null ? Expression.Double(1.0) : updates.getProbability(0);
+				rate = rate == null ? r : Expression.Times(rate, r);
+				Update update = updates.getUpdate(0);
+				for (int i = 0; i < update.getNumElements(); i++) {
+					int v = update.getVarIndex(i);
+					int amount = extractChange(update.getExpression(i), v);
+					if (!(varList.getType(v) instanceof TypeInt)) {
+						throw new PrismNotSupportedException("Update \"" + update + "\" changes a non-integer variable");
+					}
+					if (amount != 0) {
+						vars.add(v);
+						amounts.add(amount);
+					}
+				}
+			}
+			guards[j] = (Expression) guard.simplify();
+			rates[j] = (Expression) rate.simplify();
+			changeVars[j] = vars.toIntArray();
+			changeAmounts[j] = amounts.toIntArray();
+			BitSet read = new BitSet();
+			for (String name : guards[j].getAllVars()) {
+				read.set(varList.getIndex(name));
+			}
+			for (String name : rates[j].getAllVars()) {
+				read.set(varList.getIndex(name));
+			}
+			readVars.add(read);
+		}
+		// Dependency graph
+		dependents = new int[numReactions][];
+		for (int j = 0; j < numReactions; j++) {
+			IntArrayList deps = new IntArrayList();
+			for (int k = 0; k < numReactions; k++) {
+				for (int v : changeVars[j]) {
+					if (readVars.get(k).get(v)) {
+						deps.add(k);
+						break;
+					}
+				}
+			}
+			dependents[j] = deps.toIntArray();
+		}
+		// Allocate storage
+		propensities = new double[numReactions];
+		reactionGroup = new int[numReactions];
+		reactionPos = new int[numReactions];
+		critical = new boolean[numReactions];
+		firings = new int[numReactions];
+		deltas = new long[numVars];
+	}
+
+	/**
+	 * Get the (constant) amount by which an update expression {@code expr} for variable {@code v}
+	 * changes it, i.e., {@code c} for {@code x+c}, {@code c+x} or {@code x-c}.
+	 */
+	private static int extractChange(Expression expr, int v) throws PrismException
+	{
+		if (expr instanceof ExpressionVar && ((ExpressionVar) expr).getIndex() == v) {
+			return 0;
+		}
+		if (expr instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp exprBin = (ExpressionBinaryOp) expr;
+			Expression op1 = exprBin.getOperand1();
+			Expression op2 = exprBin.getOperand2();
+			boolean var1 = op1 instanceof ExpressionVar && ((ExpressionVar) op1).getIndex() == v;
+			boolean var2 = op2 instanceof ExpressionVar && ((ExpressionVar) op2).getIndex() == v;
+			if (exprBin.getOperator() == ExpressionBinaryOp.PLUS) {
+				if (var1 && op2.isConstant() && op2.getType() instanceof TypeInt) {
+					return op2.evaluateInt();
+				}
+				if (var2 && op1.isConstant() && op1.getType() instanceof TypeInt) {
+					return op1.evaluateInt();
+				}
+			} else if (exprBin.getOperator() == ExpressionBinaryOp.MINUS) {
+				if (var1 && op2.isConstant() && op2.getType() instanceof TypeInt) {
+					return -op2.evaluateInt();
+				}
+			}
+		}
+		throw new PrismNotSupportedException("Update \"" + expr + "\" does not change a variable by a constant amount");
+	}
+
+	/**
+	 * Get the number of reactions in the network.
+	 */
+	public int getNumReactions()
+	{
+		return numReactions;
+	}
+
+	// Properties
+
+	/**
+	 * Add a (processed, i.e. with constants/labels replaced) property to be evaluated on each path
+	 * and return its index. Supported properties are P operators for until formulas
+	 * (or formulas that can be converted to them, e.g. F/G) with no lower time bound,
+	 * and R operators for instantaneous (I=t) or time-bounded cumulative (C&lt;=t) rewards.
+	 * Otherwise, a {@link PrismNotSupportedException} is thrown.
+	 */
+	public int addProperty(Expression prop) throws PrismException
+	{
+		PathProperty pathProp;
+		if (prop instanceof ExpressionProb) {
+			pathProp = createUntilProperty(((ExpressionProb) prop).getExpression(), false);
+		} else if (prop instanceof ExpressionReward && ((ExpressionReward) prop).getExpression() instanceof ExpressionTemporal) {
+			ExpressionReward exprRew = (ExpressionReward) prop;
+			ExpressionTemporal exprTemp = (ExpressionTemporal) exprRew.getExpression();
+			int rsi = exprRew.getRewardStructIndexByIndexObject(rewardGen, null);
+			if (exprTemp.getOperator() == ExpressionTemporal.R_I) {
+				pathProp = new InstRewardProperty(rsi, exprTemp.getUpperBound().evaluateDouble());
+			} else if (exprTemp.getOperator() == ExpressionTemporal.R_C && exprTemp.getUpperBound() != null) {
+				pathProp = new CumulRewardProperty(rsi, exprTemp.getUpperBound().evaluateDouble());
+			} else {
+				throw new PrismNotSupportedException("Property \"" + prop + "\" is not supported by reaction network simulation");
+			}
+		} else {
+			throw new PrismNotSupportedException("Property \"" + prop + "\" is not supported by reaction network simulation");
+		}
+		properties.add(pathProp);
+		return properties.size() - 1;
+	}
+
+	private PathProperty createUntilProperty(Expression expr, boolean negated) throws PrismException
+	{
+		if (expr instanceof ExpressionUnaryOp) {
+			ExpressionUnaryOp exprUnary = (ExpressionUnaryOp) expr;
+			if (exprUnary.getOperator() == ExpressionUnaryOp.PARENTH) {
+				return createUntilProperty(exprUnary.getOperand(), negated);
+			} else if (exprUnary.getOperator() == ExpressionUnaryOp.NOT) {
+				return createUntilProperty(exprUnary.getOperand(), !negated);
+			}
+		} else if (expr instanceof ExpressionTemporal) {
+			ExpressionTemporal exprTemp = (ExpressionTemporal) expr;
+			if (exprTemp.getOperator() == ExpressionTemporal.P_U) {
+				if (exprTemp.getLowerBound() != null && exprTemp.getLowerBound().evaluateDouble() > 0) {
+					throw new PrismNotSupportedException("Reaction network simulation does not support lower time bounds");
+				}
+				double bound = exprTemp.getUpperBound() == null ? Double.POSITIVE_INFINITY : exprTemp.getUpperBound().evaluateDouble();
+				return new UntilProperty(exprTemp.getOperand1(), exprTemp.getOperand2(), bound, negated);
+			} else if (exprTemp.getOperator() != ExpressionTemporal.P_X) {
+				return createUntilProperty(exprTemp.convertToUntilForm(), negated);
+			}
+		}
+		throw new PrismNotSupportedException("Path formula \"" + expr + "\" is not supported by reaction network simulation");
+	}
+
+	/**
+	 * Get the value (Boolean for P, Double for R) of a property on the last path generated.
+	 */
+	public Object getPropertyValue(int index)
+	{
+		return properties.get(index).value;
+	}
+
+	// Path generation
+
+	/**
+	 * Generate a path from {@code initialState}, until the values of all properties are known.
+	 * Returns false if this did not happen within {@code maxPathLength} steps
+	 * (each SSA step or leap counts as one step).
+	 */
+	public boolean generatePath(State initialState, long maxPathLength) throws PrismException
+	{
+		// Initialise path
+		state = new State(initialState);
+		values = new int[numVars];
+		for (int v = 0; v < numVars; v++) {
+			if (state.varValues[v] instanceof Integer) {
+				values[v] = (Integer) state.varValues[v];
+			}
+		}
+		time = 0.0;
+		ec = new EvaluateContextState(state)
+		{
+			@Override
+			public Boolean getLabelValue(String name) throws PrismLangException
+			{
+				try {
+					if ("deadlock".equals(name)) {
+						return activeGroups.isEmpty();
+					} else if ("init".equals(name)) {
+						return modelGen.isInitialState(state);
+					}
+				} catch (PrismException e) {
+					throw new PrismLangException(e.getMessage());
+				}
+				throw new PrismLangException("Unknown label \"" + name + "\"");
+			}
+		};
+		initialisePropensities();
+		numUnknown = properties.size();
+		for (PathProperty prop : properties) {
+			prop.reset();
+		}
+		enterState();
+		// Generate steps until all properties are known
+		long steps = 0;
+		while (numUnknown > 0) {
+			if (steps >= maxPathLength) {
+				return false;
+			}
+			if (method == Method.TAU_LEAPING) {
+				steps += leap(maxPathLength - steps);
+			} else {
+				ssaStep(getHorizon());
+				steps++;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the earliest time bound (after the current time) of the properties whose values are not yet known.
+	 */
+	private double getHorizon()
+	{
+		double horizon = Double.POSITIVE_INFINITY;
+		for (PathProperty prop : properties) {
+			if (!prop.known && prop.timeBound > time) {
+				horizon = Math.min(horizon, prop.timeBound);
+			}
+		}
+		return horizon;
+	}
+
+	/**
+	 * Update the properties on entering the current state (at the current time).
+	 */
+	private void enterState() throws PrismException
+	{
+		for (PathProperty prop : properties) {
+			if (!prop.known) {
+				prop.enter();
+			}
+		}
+		if (numUnknown > 0 && activeGroups.isEmpty()) {
+			// Deadlock: the state is kept forever
+			if (!fixDeadlocks) {
+				throw new PrismException("Deadlock found in state " + state.toString(modelGen));
+			}
+			for (PathProperty prop : properties) {
+				if (!prop.known) {
+					prop.hold(Double.POSITIVE_INFINITY);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Update the properties for the current state being kept for {@code duration} time units.
+	 */
+	private void holdState(double duration) throws PrismException
+	{
+		for (PathProperty prop : properties) {
+			if (!prop.known) {
+				prop.hold(duration);
+			}
+		}
+	}
+
+	/**
+	 * Perform one SSA step from the current (non-deadlock) state, but stop at time {@code horizon}
+	 * (with no reaction) if the next reaction would occur after it.
+	 */
+	private void ssaStep(double horizon) throws PrismException
+	{
+		double dt = rng.randomExpDouble(getTotalPropensity());
+		if (time + dt > horizon) {
+			// Memorylessness allows us to stop at the horizon and resample the delay from there
+			holdState(horizon - time);
+			time = horizon;
+			enterState();
+			return;
+		}
+		holdState(dt);
+		int j = selectReaction();
+		for (int i = 0; i < changeVars[j].length; i++) {
+			int v = changeVars[j][i];
+			long x = values[v] + changeAmounts[j][i];
+			if (x < low[v] || x > high[v]) {
+				throw new PrismException("Reaction " + (actions[j] == null ? "" : "[" + actions[j] + "] ") + "takes variable " + modelGen.getVarName(v) + " out of range in state " + state.toString(modelGen));
+			}
+		}
+		for (PathProperty prop : properties) {
+			if (!prop.known) {
+				prop.fire(j, 1);
+			}
+		}
+		fire(j, 1);
+		numEvents++;
+		for (int k : dependents[j]) {
+			setPropensity(k, computePropensity(k));
+		}
+		time += dt;
+		enterState();
+	}
+
+	/**
+	 * Perform one leap (or, if leaping does not pay off, a batch of SSA steps)
+	 * from the current (non-deadlock) state. Returns the number of steps performed (at most {@code maxSteps}).
+	 */
+	private long leap(long maxSteps) throws PrismException
+	{
+		double a0 = getTotalPropensity();
+		double horizon = getHorizon();
+		// Identify critical reactions, i.e., those that could exhaust a variable's range within a few firings
+		double a0Critical = 0.0;
+		for (int j = 0; j < numReactions; j++) {
+			critical[j] = false;
+			if (propensities[j] > 0) {
+				for (int i = 0; i < changeVars[j].length; i++) {
+					int v = changeVars[j][i];
+					int c = changeAmounts[j][i];
+					long room = c < 0 ? (values[v] - low[v]) / -c : (high[v] - values[v]) / c;
+					if (room < CRITICAL_FIRINGS) {
+						critical[j] = true;
+						a0Critical += propensities[j];
+						break;
+					}
+				}
+			}
+		}
+		// Choose leap length for non-critical reactions, bounding the expected relative change
+		// of each variable that they consume (i.e., decrease)
+		double tau1 = Double.POSITIVE_INFINITY;
+		for (int v = 0; v < numVars; v++) {
+			double mean = 0.0;
+			double var = 0.0;
+			boolean consumed = false;
+			for (int j = 0; j < numReactions; j++) {
+				if (critical[j] || propensities[j] == 0) {
+					continue;
+				}
+				for (int i = 0; i < changeVars[j].length; i++) {
+					if (changeVars[j][i] == v) {
+						int c = changeAmounts[j][i];
+						mean += c * propensities[j];
+						var += (double) c * c * propensities[j];
+						consumed |= c < 0;
+					}
+				}
+			}
+			if (consumed) {
+				double maxChange = Math.max(epsilon * Math.abs(values[v]) / CHANGE_FACTOR, 1.0);
+				if (mean != 0) {
+					tau1 = Math.min(tau1, maxChange / Math.abs(mean));
+				}
+				tau1 = Math.min(tau1, maxChange * maxChange / var);
+			}
+		}
+		// If the leap would be short (or no state change is expected), use exact SSA steps instead
+		if (tau1 < SSA_THRESHOLD / a0 || (tau1 == Double.POSITIVE_INFINITY && a0Critical == 0)) {
+			return ssaSteps(Math.min(SSA_STEPS, maxSteps));
+		}
+		// Leap, halving the leap length if any variable would leave its range
+		while (true) {
+			if (tau1 < SSA_THRESHOLD / a0) {
+				return ssaSteps(Math.min(SSA_STEPS, maxSteps));
+			}
+			double tau2 = a0Critical > 0 ? rng.randomExpDouble(a0Critical) : Double.POSITIVE_INFINITY;
+			double tau = Math.min(tau1, tau2);
+			int criticalReaction = -1;
+			if (time + tau > horizon) {
+				tau = horizon - time;
+			} else if (tau2 <= tau1) {
+				criticalReaction = selectCriticalReaction(a0Critical);
+			}
+			boolean ok = true;
+			Arrays.fill(deltas, 0);
+			for (int j = 0; j < numReactions; j++) {
+				firings[j] = (j == criticalReaction) ? 1 : (critical[j] || propensities[j] == 0) ? 0 : rng.randomPoissonInt(propensities[j] * tau);
+				for (int i = 0; i < changeVars[j].length; i++) {
+					deltas[changeVars[j][i]] += (long) firings[j] * changeAmounts[j][i];
+				}
+			}
+			for (int v = 0; v < numVars && ok; v++) {
+				long x = values[v] + deltas[v];
+				ok = x >= low[v] && x <= high[v];
+			}
+			if (!ok) {
+				numRejectedLeaps++;
+				tau1 /= 2;
+				continue;
+			}
+			// Apply the leap
+			holdState(tau);
+			for (int j = 0; j < numReactions; j++) {
+				if (firings[j] > 0) {
+					for (PathProperty prop : properties) {
+						if (!prop.known) {
+							prop.fire(j, firings[j]);
+						}
+					}
+					fire(j, firings[j]);
+					numEvents += firings[j];
+				}
+			}
+			for (int k = 0; k < numReactions; k++) {
+				setPropensity(k, computePropensity(k));
+			}
+			time += tau;
+			numLeaps++;
+			enterState();
+			return 1;
+		}
+	}
+
+	/**
+	 * Perform up to {@code maxSteps} SSA steps (stopping early if all properties become known).
+	 * Returns the number of steps performed.
+	 */
+	private long ssaSteps(long maxSteps) throws PrismException
+	{
+		long steps = 0;
+		while (numUnknown > 0 && steps < maxSteps) {
+			ssaStep(getHorizon());
+			steps++;
+		}
+		return steps;
+	}
+
+	/**
+	 * Pick a critical reaction, with probability proportional to its propensity.
+	 */
+	private int selectCriticalReaction(double a0Critical)
+	{
+		double x = rng.randomUnifDouble(a0Critical);
+		int last = -1;
+		for (int j = 0; j < numReactions; j++) {
+			if (critical[j]) {
+				last = j;
+				x -= propensities[j];
+				if (x < 0) {
+					return j;
+				}
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Fire reaction {@code j} {@code n} times, updating the current state.
+	 */
+	private void fire(int j, int n)
+	{
+		for (int i = 0; i < changeVars[j].length; i++) {
+			int v = changeVars[j][i];
+			values[v] += n * changeAmounts[j][i];
+			state.varValues[v] = values[v];
+		}
+	}
+
+	// Propensities and composition-rejection selection
+
+	/**
+	 * Compute the propensity of reaction {@code j} in the current state.
+	 */
+	private double computePropensity(int j) throws PrismException
+	{
+		if (!guards[j].evaluateBoolean(ec)) {
+			return 0.0;
+		}
+		double rate = rates[j].evaluateDouble(ec);
+		if (!(rate >= 0 && rate < Double.POSITIVE_INFINITY)) {
+			throw new PrismException("Invalid rate " + rate + " for reaction " + (actions[j] == null ? "" : "[" + actions[j] + "] ") + "in state " + state.toString(modelGen));
+		}
+		return rate;
+	}
+
+	private void initialisePropensities() throws PrismException
+	{
+		for (int g : activeGroups) {
+			groupSizes[g] = 0;
+			groupSums[g] = 0.0;
+		}
+		activeGroups.clear();
+		for (int j = 0; j < numReactions; j++) {
+			propensities[j] = 0.0;
+			reactionGroup[j] = -1;
+			setPropensity(j, computePropensity(j));
+		}
+		numUpdatesSinceResum = 0;
+	}
+
+	/**
+	 * Set the propensity of reaction {@code j}, moving it between composition-rejection groups as needed.
+	 */
+	private void setPropensity(int j, double a)
+	{
+		int oldGroup = reactionGroup[j];
+		int newGroup = a > 0 ? Math.getExponent(a) + GROUP_OFFSET : -1;
+		if (oldGroup == newGroup) {
+			if (newGroup != -1) {
+				groupSums[newGroup] += a - propensities[j];
+			}
+		} else {
+			if (oldGroup != -1) {
+				// Remove from old group (swapping in the last member)
+				int last = groupMembers[oldGroup][--groupSizes[oldGroup]];
+				groupMembers[oldGroup][reactionPos[j]] = last;
+				reactionPos[last] = reactionPos[j];
+				if (groupSizes[oldGroup] == 0) {
+					groupSums[oldGroup] = 0.0;
+					activeGroups.rem(oldGroup);
+				} else {
+					groupSums[oldGroup] -= propensities[j];
+				}
+			}
+			if (newGroup != -1) {
+				if (groupSizes[newGroup] == 0) {
+					activeGroups.add(newGroup);
+					if (groupMembers[newGroup] == null) {
+						groupMembers[newGroup] = new int[4];
+					}
+				} else if (groupSizes[newGroup] == groupMembers[newGroup].length) {
+					groupMembers[newGroup] = Arrays.copyOf(groupMembers[newGroup], 2 * groupSizes[newGroup]);
+				}
+				reactionPos[j] = groupSizes[newGroup];
+				groupMembers[newGroup][groupSizes[newGroup]++] = j;
+				groupSums[newGroup] += a;
+			}
+			reactionGroup[j] = newGroup;
+		}
+		propensities[j] = a;
+		if (++numUpdatesSinceResum >= RESUM_INTERVAL) {
+			resumGroups();
+		}
+	}
+
+	/**
+	 * Recompute the sums of propensities of each group from scratch.
+	 */
+	private void resumGroups()
+	{
+		for (int g : activeGroups) {
+			double sum = 0.0;
+			for (int i = 0; i < groupSizes[g]; i++) {
+				sum += propensities[groupMembers[g][i]];
+			}
+			groupSums[g] = sum;
+		}
+		numUpdatesSinceResum = 0;
+	}
+
+	/**
+	 * Get the sum of the propensities of all reactions in the current state.
+	 */
+	private double getTotalPropensity()
+	{
+		double a0 = 0.0;
+		for (int g : activeGroups) {
+			a0 += groupSums[g];
+		}
+		return a0;
+	}
+
+	/**
+	 * Pick a reaction, with probability proportional to its propensity:
+	 * select a group (linearly, there are few) and then a reaction within it, by rejection.
+	 */
+	private int selectReaction()
+	{
+		double x = rng.randomUnifDouble(getTotalPropensity());
+		int group = activeGroups.getInt(activeGroups.size() - 1);
+		for (int g : activeGroups) {
+			x -= groupSums[g];
+			if (x < 0) {
+				group = g;
+				break;
+			}
+		}
+		// All propensities in the group are below 2^(exponent+1)
+		double max = Math.scalb(1.0, group - GROUP_OFFSET + 1);
+		while (true) {
+			int j = groupMembers[group][rng.randomUnifInt(groupSizes[group])];
+			if (rng.randomUnifDouble(max) < propensities[j]) {
+				return j;
+			}
+		}
+	}
+
+	// Statistics
+
+	/**
+	 * Get the number of reaction events simulated so far.
+	 */
+	public long getNumEvents()
+	{
+		return numEvents;
+	}
+
+	/**
+	 * Get the number of leaps performed so far (tau-leaping).
+	 */
+	public long getNumLeaps()
+	{
+		return numLeaps;
+	}
+
+	/**
+	 * Get the number of leaps rejected (and halved) so far, because a variable would leave its range.
+	 */
+	public long getNumRejectedLeaps()
+	{
+		return numRejectedLeaps;
+	}
+
+	// Properties evaluated along a path
+
+	/**
+	 * A property being evaluated along a path.
+	 */
+	private abstract class PathProperty
+	{
+		/** Time bound (infinite if none) */
+		double timeBound = Double.POSITIVE_INFINITY;
+		/** Value on the current path, once known */
+		Object value;
+		boolean known;
+
+		void reset()
+		{
+			value = null;
+			known = false;
+		}
+
+		void setValue(Object value)
+		{
+			this.value = value;
+			known = true;
+			numUnknown--;
+		}
+
+		/** The current state has been entered (at the current time) */
+		abstract void enter() throws PrismException;
+
+		/** The current state is kept for {@code duration} time units */
+		abstract void hold(double duration) throws PrismException;
+
+		/** Reaction {@code j} fires {@code n} times (in the current state) */
+		void fire(int j, int n) throws PrismException
+		{
+		}
+	}
+
+	/**
+	 * Until formula {@code left U<=timeBound right}, possibly negated.
+	 */
+	private class UntilProperty extends PathProperty
+	{
+		Expression left;
+		Expression right;
+		boolean negated;
+
+		UntilProperty(Expression left, Expression right, double timeBound, boolean negated)
+		{
+			this.left = left;
+			this.right = right;
+			this.timeBound = timeBound;
+			this.negated = negated;
+		}
+
+		@Override
+		void enter() throws PrismException
+		{
+			if (time > timeBound) {
+				setValue(negated);
+			} else if (right.evaluateBoolean(ec)) {
+				setValue(!negated);
+			} else if (!left.evaluateBoolean(ec)) {
+				setValue(negated);
+			}
+		}
+
+		@Override
+		void hold(double duration)
+		{
+			// (infinite duration, i.e. a deadlock, means the target is never reached)
+			if (time + duration > timeBound || duration == Double.POSITIVE_INFINITY) {
+				setValue(negated);
+			}
+		}
+	}
+
+	/**
+	 * Instantaneous reward at time {@code timeBound}.
+	 */
+	private class InstRewardProperty extends PathProperty
+	{
+		int rsi;
+
+		InstRewardProperty(int rsi, double timeBound)
+		{
+			this.rsi = rsi;
+			this.timeBound = timeBound;
+		}
+
+		@Override
+		void enter() throws PrismException
+		{
+			if (time == timeBound) {
+				setValue(rewardGen.getStateReward(rsi, state));
+			}
+		}
+
+		@Override
+		void hold(double duration) throws PrismException
+		{
+			if (time + duration > timeBound) {
+				setValue(rewardGen.getStateReward(rsi, state));
+			}
+		}
+	}
+
+	/**
+	 * Reward cumulated up to time {@code timeBound}.
+	 */
+	private class CumulRewardProperty extends PathProperty
+	{
+		int rsi;
+		double total;
+
+		CumulRewardProperty(int rsi, double timeBound)
+		{
+			this.rsi = rsi;
+			this.timeBound = timeBound;
+		}
+
+		@Override
+		void reset()
+		{
+			super.reset();
+			total = 0.0;
+		}
+
+		@Override
+		void enter() throws PrismException
+		{
+			if (time >= timeBound) {
+				setValue(total);
+			}
+		}
+
+		@Override
+		void hold(double duration) throws PrismException
+		{
+			double reward = rewardGen.rewardStructHasStateRewards(rsi) ? rewardGen.getStateReward(rsi, state) : 0.0;
+			if (time + duration > timeBound) {
+				setValue(total + reward * (timeBound - time));
+			} else {
+				total += reward * duration;
+			}
+		}
+
+		@Override
+		void fire(int j, int n) throws PrismException
+		{
+			if (rewardGen.rewardStructHasTransitionRewards(rsi)) {
+				total += n * rewardGen.getStateActionReward(rsi, state, actions[j]);
+			}
+		}
+	}
+}
@@ -43,8 +43,12 @@ import parser.ast.LabelList;
 import parser.ast.PropertiesFile;
 import parser.type.Type;
 import prism.*;
+import simulator.method.RareEventMethod;
 import simulator.method.SimulationMethod;
 import simulator.sampler.Sampler;
+import simulator.sampler.SamplerBoolean;
+import simulator.sampler.SamplerDouble;
+import simulator.sampler.SamplerRareEvent;
 import strat.Strategy;
 import strat.StrategyGenerator;
 import userinterface.graph.Graph;
@@ -211,6 +215,15 @@ public class SimulatorEngine extends PrismComponent
 		// Clear storage for strategy
 		stratGen = null;
 
+		// Enable caching of transitions, if requested (and possible),
+		// or clear any cache left from a previous use of the model generator
+		int cacheSize = getSettings().getInteger(PrismSettings.SIMULATOR_TRANSITION_CACHE);
+		if (modelGen instanceof ModulesFileModelGenerator) {
+			if (!((ModulesFileModelGenerator<?>) modelGen).setTransitionListCache(cacheSize) && cacheSize > 0) {
+				mainLog.printWarning("Simulator transition cache is not supported for this model");
+			}
+		}
+
 		// Initialise storage (should be re-done for each new path etc. but doesn't hurt)
 		initialise();
 	}
@@ -1812,11 +1825,19 @@ public class SimulatorEngine extends PrismComponent
 				validPropsCount++;
 				// Attach a SimulationMethod object to each property's sampler
 				SimulationMethod simMethodNew = simMethod.clone();
-				propertySamplers.get(indices[i]).setSimulationMethod(simMethodNew);
 				// Pass property details to SimuationMethod
 				// (note that we use the copy stored in properties, which has been processed)
 				try {
+					// Rare-event methods use their own sampler and path generation
+					if (simMethodNew instanceof RareEventMethod) {
+						propertySamplers.set(indices[i], new SamplerRareEvent(propertySamplers.get(indices[i])));
+					}
+					propertySamplers.get(indices[i]).setSimulationMethod(simMethodNew);
 					simMethodNew.setExpression(properties.get(indices[i]));
+					if (simMethodNew instanceof RareEventMethod) {
+						RareEventMethod rareEventMethod = (RareEventMethod) simMethodNew;
+						rareEventMethod.setSimulator(createRareEventSimulator(rareEventMethod, properties.get(indices[i]), propertiesFile, maxPathLength));
+					}
 				} catch (PrismException e) {
 					// In case of error, also need to remove property/sampler from list
 					properties.remove(indices[i]);
@@ -1831,7 +1852,7 @@ public class SimulatorEngine extends PrismComponent
 
 		// As long as there are at least some valid props, do sampling
 		if (validPropsCount > 0) {
-			doSampling(initialState, maxPathLength);
+			doSampling(initialState, maxPathLength, simMethod);
 		}
 
 		// Process the results
@@ -1928,11 +1949,19 @@ public class SimulatorEngine extends PrismComponent
 				validPropsCount++;
 				// Attach a SimulationMethod object to each property's sampler
 				SimulationMethod simMethodNew = simMethod.clone();
-				propertySamplers.get(indices[i]).setSimulationMethod(simMethodNew);
 				// Pass property details to SimuationMethod
 				// (note that we use the copy stored in properties, which has been processed)
 				try {
+					// Rare-event methods use their own sampler and path generation
+					if (simMethodNew instanceof RareEventMethod) {
+						propertySamplers.set(indices[i], new SamplerRareEvent(propertySamplers.get(indices[i])));
+					}
+					propertySamplers.get(indices[i]).setSimulationMethod(simMethodNew);
 					simMethodNew.setExpression(properties.get(indices[i]));
+					if (simMethodNew instanceof RareEventMethod) {
+						RareEventMethod rareEventMethod = (RareEventMethod) simMethodNew;
+						rareEventMethod.setSimulator(createRareEventSimulator(rareEventMethod, properties.get(indices[i]), propertiesFile, maxPathLength));
+					}
 				} catch (PrismException e) {
 					// In case of error, also need to remove property/sampler from list
 					// (NB: this will be at the end of the list so no re-indexing issues)
@@ -1949,7 +1978,7 @@ public class SimulatorEngine extends PrismComponent
 
 		// As long as there are at least some valid props, do sampling
 		if (validPropsCount > 0) {
-			doSampling(initialState, maxPathLength);
+			doSampling(initialState, maxPathLength, simMethod);
 		}
 
 		// Process the results
@@ -1979,6 +2008,28 @@ public class SimulatorEngine extends PrismComponent
 		//mainLog.print(resultsCollection.toStringPartial(undefinedConstants.getMFConstantValues(), true, " ", " : ", false));
 	}
 
+	/**
+	 * Execute sampling for the set of currently loaded properties, generating paths in the way
+	 * required by the simulation method and model: rare-event simulation, accelerated
+	 * simulation of reaction networks (if selected and applicable), or the standard simulator.
+	 * @param initialState Initial state (if null, is selected randomly)
+	 * @param maxPathLength The maximum path length for sampling
+	 * @param simMethod The simulation method
+	 */
+	private void doSampling(State initialState, long maxPathLength, SimulationMethod simMethod) throws PrismException
+	{
+		if (simMethod instanceof RareEventMethod) {
+			doRareEventSampling(initialState);
+			return;
+		}
+		ReactionNetworkSimulator reactionSim = createReactionNetworkSimulator(initialState);
+		if (reactionSim != null) {
+			doReactionSampling(reactionSim, initialState, maxPathLength);
+		} else {
+			doSampling(initialState, maxPathLength);
+		}
+	}
+
 	/**
 	 * Execute sampling for the set of currently loaded properties.
 	 * Sample paths are from the specified initial state and maximum length.
@@ -2010,6 +2061,14 @@ public class SimulatorEngine extends PrismComponent
 		long start, stop;
 		double time_taken;
 
+		// Transition cache, if in use
+		TransitionListCache<?> transitionListCache = null;
+		if (modelGen instanceof ModulesFileModelGenerator) {
+			transitionListCache = ((ModulesFileModelGenerator<?>) modelGen).getTransitionListCache();
+			if (transitionListCache != null)
+				transitionListCache.resetStats();
+		}
+
 		// Start
 		start = System.currentTimeMillis();
 		mainLog.print("\nSampling progress: [");
@@ -2105,6 +2164,8 @@ public class SimulatorEngine extends PrismComponent
 			mainLog.print(iters + " iterations in " + time_taken + " seconds (average " + PrismUtils.formatDouble(2, time_taken / iters) + ")\n");
 			mainLog.print("Path length statistics: average " + PrismUtils.formatDouble(2, avgPathLength) + ", min " + minPathFound + ", max " + maxPathFound
 					+ "\n");
+			if (transitionListCache != null)
+				mainLog.print("Transition cache: " + transitionListCache.getStatsString() + "\n");
 		} else {
 			mainLog.print(" ...\n\nSampling terminated early after " + iters + " iterations.\n");
 		}
@@ -2128,6 +2189,200 @@ public class SimulatorEngine extends PrismComponent
 		}
 	}
 
+	/**
+	 * Create a simulator for rare-event simulation of a (processed) property,
+	 * using the importance function of a rare-event simulation method.
+	 */
+	private RareEventSimulator createRareEventSimulator(RareEventMethod rareEventMethod, Expression prop, PropertiesFile pf, long maxPathLength) throws PrismException
+	{
+		if (rareEventMethod.getImportanceFunction() == null) {
+			throw new PrismException("No importance function specified for rare-event simulation");
+		}
+		// Get rid of any constants in the importance function and simplify
+		Expression importance = rareEventMethod.getImportanceFunction().deepCopy();
+		importance = (Expression) importance.replaceConstants(mfConstants);
+		if (pf != null) {
+			importance = (Expression) importance.replaceConstants(pf.getConstantValues());
+		}
+		importance = (Expression) importance.simplify();
+		boolean fixdl = getSettings().getBoolean(PrismSettings.PRISM_FIX_DEADLOCKS);
+		return new RareEventSimulator(modelGen, rng, (ExpressionProb) prop, importance, maxPathLength, fixdl);
+	}
+
+	/**
+	 * Execute rare-event sampling for the set of currently loaded properties
+	 * (whose simulation methods are all instances of {@link RareEventMethod}).
+	 * Each sample is an estimate of the probability for a property, generated by its method;
+	 * properties are sampled one after the other.
+	 * @param initialState Initial state (if null, the default one is used)
+	 */
+	private void doRareEventSampling(State initialState) throws PrismException
+	{
+		int iters = 0;
+		int numProps = propertySamplers.size();
+		int lastPercentageDone = 0;
+		int percentageDone = 0;
+		long numPaths = 0, numTruncated = 0;
+
+		if (initialState == null) {
+			if (!modelGen.hasSingleInitialState()) {
+				throw new PrismNotSupportedException("Random choice of multiple initial states not yet supported");
+			}
+			initialState = modelGen.getInitialState();
+		}
+
+		// Start
+		long start = System.currentTimeMillis();
+		mainLog.print("\nSampling progress: [");
+		mainLog.flush();
+
+		for (int p = 0; p < numProps; p++) {
+			SamplerRareEvent sampler = (SamplerRareEvent) propertySamplers.get(p);
+			RareEventMethod method = (RareEventMethod) sampler.getSimulationMethod();
+			int n = 0;
+			while (!method.shouldStopNow(n, sampler)) {
+				// Display progress (over all properties)
+				percentageDone = ((100 * p + method.getProgress(n, sampler)) / numProps / 10) * 10;
+				if (percentageDone > lastPercentageDone) {
+					lastPercentageDone = percentageDone;
+					mainLog.print(" " + lastPercentageDone + "%");
+					mainLog.flush();
+				}
+				// Generate a new estimate
+				sampler.reset();
+				sampler.setSample(method.sample(initialState));
+				sampler.updateStats();
+				n++;
+			}
+			iters += n;
+			numPaths += method.getSimulator().getNumPaths();
+			numTruncated += method.getSimulator().getNumTruncated();
+		}
+
+		// Print details
+		mainLog.println(" 100% ]");
+		double timeTaken = (System.currentTimeMillis() - start) / 1000.0;
+		mainLog.print("\nSampling complete: ");
+		mainLog.print(iters + " iterations in " + timeTaken + " seconds (average " + PrismUtils.formatDouble(2, timeTaken / iters) + ")\n");
+		mainLog.print("Paths simulated: " + numPaths + "\n");
+		if (numTruncated > 0) {
+			mainLog.printWarning(numTruncated + " paths reached the maximum path length and were treated as not satisfying the property; consider increasing it");
+		}
+	}
+
+	/**
+	 * Create a simulator for reaction networks for the currently loaded properties,
+	 * if one has been selected for CTMCs in the settings.
+	 * Returns null if the standard simulator should be used instead
+	 * (with a warning if this is because the model or properties are not supported).
+	 */
+	private ReactionNetworkSimulator createReactionNetworkSimulator(State initialState) throws PrismException
+	{
+		String ctmcMethod = getSettings().getString(PrismSettings.SIMULATOR_CTMC_METHOD);
+		if ("Standard".equals(ctmcMethod) || modelGen.getModelType() != ModelType.CTMC) {
+			return null;
+		}
+		ReactionNetworkSimulator.Method method = "SSA".equals(ctmcMethod) ? ReactionNetworkSimulator.Method.SSA : ReactionNetworkSimulator.Method.TAU_LEAPING;
+		double epsilon = getSettings().getDouble(PrismSettings.SIMULATOR_TAU_EPSILON);
+		boolean fixdl = getSettings().getBoolean(PrismSettings.PRISM_FIX_DEADLOCKS);
+		try {
+			if (initialState == null && !modelGen.hasSingleInitialState()) {
+				throw new PrismNotSupportedException("Random choice of multiple initial states not supported");
+			}
+			ReactionNetworkSimulator reactionSim = new ReactionNetworkSimulator(modelGen, rewardGen, rng, method, epsilon, fixdl);
+			for (Expression prop : properties) {
+				reactionSim.addProperty(prop);
+			}
+			mainLog.println("\nUsing " + ctmcMethod + " simulation of reaction network (" + reactionSim.getNumReactions() + " reactions)");
+			return reactionSim;
+		} catch (PrismNotSupportedException e) {
+			mainLog.printWarning("Using the standard simulator rather than " + ctmcMethod + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Execute sampling for the set of currently loaded properties,
+	 * generating paths with a simulator for reaction networks.
+	 * @param reactionSim Simulator (to which the properties have been added, in order)
+	 * @param initialState Initial state (if null, the default one is used)
+	 * @param maxPathLength The maximum path length (number of SSA steps or leaps)
+	 */
+	private void doReactionSampling(ReactionNetworkSimulator reactionSim, State initialState, long maxPathLength) throws PrismException
+	{
+		int iters = 0;
+		boolean stoppedEarly = false;
+		int lastPercentageDone = 0;
+		int percentageDone = 0;
+
+		if (initialState == null) {
+			initialState = modelGen.getInitialState();
+		}
+
+		// Start
+		long start = System.currentTimeMillis();
+		mainLog.print("\nSampling progress: [");
+		mainLog.flush();
+
+		// Main sampling loop
+		while (true) {
+			// See if all properties are done; if so, stop sampling
+			boolean allDone = true;
+			for (Sampler sampler : propertySamplers) {
+				if (!sampler.getSimulationMethod().shouldStopNow(iters, sampler))
+					allDone = false;
+			}
+			if (allDone)
+				break;
+
+			// Display progress (of slowest property)
+			percentageDone = 100;
+			for (Sampler sampler : propertySamplers) {
+				percentageDone = Math.min(percentageDone, sampler.getSimulationMethod().getProgress(iters, sampler));
+			}
+			if (percentageDone > lastPercentageDone) {
+				lastPercentageDone = percentageDone;
+				mainLog.print(" " + lastPercentageDone + "%");
+				mainLog.flush();
+			}
+
+			iters++;
+
+			// Generate a path and pass the property values to the samplers
+			if (!reactionSim.generatePath(initialState, maxPathLength)) {
+				stoppedEarly = true;
+				break;
+			}
+			for (int p = 0; p < propertySamplers.size(); p++) {
+				Sampler sampler = propertySamplers.get(p);
+				Object value = reactionSim.getPropertyValue(p);
+				if (sampler instanceof SamplerBoolean) {
+					((SamplerBoolean) sampler).setCurrentValue((Boolean) value);
+				} else {
+					((SamplerDouble) sampler).setCurrentValue((Double) value);
+				}
+				sampler.updateStats();
+			}
+		}
+
+		// Print details
+		if (!stoppedEarly) {
+			mainLog.println(" 100% ]");
+			double timeTaken = (System.currentTimeMillis() - start) / 1000.0;
+			mainLog.print("\nSampling complete: ");
+			mainLog.print(iters + " iterations in " + timeTaken + " seconds (average " + PrismUtils.formatDouble(2, timeTaken / iters) + ")\n");
+			mainLog.print("Reaction events: " + reactionSim.getNumEvents() + " (average " + PrismUtils.formatDouble(2, reactionSim.getNumEvents() / (double) iters) + " per path)");
+			if (reactionSim.getNumLeaps() > 0) {
+				mainLog.print(", leaps: " + reactionSim.getNumLeaps() + " (" + reactionSim.getNumRejectedLeaps() + " rejected)");
+			}
+			mainLog.println();
+		} else {
+			mainLog.print(" ...\n\nSampling terminated early after " + iters + " iterations.\n");
+			throw new PrismException(
+					"One or more of the properties being sampled could not be checked on a sample. Consider increasing the maximum path length");
+		}
+	}
+
 	/**
 	 * Halt the sampling algorithm in its tracks (not implemented).
 	 */
@@ -0,0 +1,204 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import parser.State;
+import parser.VarList;
+import parser.type.TypeBool;
+import parser.type.TypeInt;
+import prism.PrismLangException;
+
+/**
+ * Bounded cache of the transition lists computed for each state,
+ * used to avoid re-evaluating guards and updates for states that are
+ * visited repeatedly, e.g. across the many paths generated for statistical model checking.
+ * States are stored as keys packed into a single long, which is only possible
+ * if all variables are integers/Booleans and fit into 64 bits in total (see {@link #canPack(VarList)}).
+ * Entries are evicted in least-recently-used order, once the (estimated) size exceeds a limit.
+ * Cached transition lists are shared, so must not be modified once added.
+ */
+public class TransitionListCache<Value>
+{
+	// Estimated size (bytes) of an entry, its choices and its transitions
+	private static final long ENTRY_BYTES = 96;
+	private static final long CHOICE_BYTES = 64;
+	private static final long TRANSITION_BYTES = 48;
+
+	/** Variable info, for packing states */
+	private VarList varList;
+	/** Offset (number of bits) of each variable in a packed state */
+	private int[] shifts;
+	/** Cached transition lists, in order of last use */
+	private Long2ObjectLinkedOpenHashMap<TransitionList<Value>> cache = new Long2ObjectLinkedOpenHashMap<>();
+	/** Maximum (estimated) size of the cache, in bytes */
+	private long maxBytes;
+	/** Current (estimated) size of the cache, in bytes */
+	private long numBytes;
+
+	// Statistics
+	private long numHits;
+	private long numMisses;
+	private long numEvictions;
+
+	/**
+	 * Create a cache for states over the variables {@code varList},
+	 * whose (estimated) size is at most {@code sizeMB} megabytes.
+	 * The variables must be packable (see {@link #canPack(VarList)}).
+	 */
+	public TransitionListCache(VarList varList, int sizeMB)
+	{
+		this.varList = varList;
+		maxBytes = sizeMB * 1024L * 1024L;
+		int numVars = varList.getNumVars();
+		shifts = new int[numVars];
+		int shift = 0;
+		for (int i = 0; i < numVars; i++) {
+			shifts[i] = shift;
+			shift += varList.getRangeLogTwo(i);
+		}
+	}
+
+	/**
+	 * Can states over the variables {@code varList} be packed into a single long?
+	 * This requires all variables to be integers or Booleans, using at most 64 bits in total.
+	 */
+	public static boolean canPack(VarList varList)
+	{
+		int numBits = 0;
+		for (int i = 0; i < varList.getNumVars(); i++) {
+			if (!(varList.getType(i) instanceof TypeInt || varList.getType(i) instanceof TypeBool)) {
+				return false;
+			}
+			numBits += varList.getRangeLogTwo(i);
+		}
+		return numBits <= 64;
+	}
+
+	/**
+	 * Pack a state into a long.
+	 * Throws an exception if a variable value is out of range.
+	 */
+	public long pack(State state) throws PrismLangException
+	{
+		long key = 0;
+		for (int i = 0; i < shifts.length; i++) {
+			key |= ((long) varList.encodeToInt(i, state.varValues[i])) << shifts[i];
+		}
+		return key;
+	}
+
+	/**
+	 * Get the transition list stored for a (packed) state, or null if there is none.
+	 */
+	public TransitionList<Value> get(long key)
+	{
+		TransitionList<Value> transitionList = cache.getAndMoveToLast(key);
+		if (transitionList == null) {
+			numMisses++;
+		} else {
+			numHits++;
+		}
+		return transitionList;
+	}
+
+	/**
+	 * Store the transition list for a (packed) state,
+	 * evicting the least recently used entries if the cache becomes too large.
+	 * Lists too large to fit in the cache on their own are not stored.
+	 */
+	public void put(long key, TransitionList<Value> transitionList)
+	{
+		long bytes = estimateBytes(transitionList);
+		if (bytes > maxBytes) {
+			return;
+		}
+		TransitionList<Value> old = cache.putAndMoveToLast(key, transitionList);
+		if (old != null) {
+			numBytes -= estimateBytes(old);
+		}
+		numBytes += bytes;
+		while (numBytes > maxBytes) {
+			numBytes -= estimateBytes(cache.removeFirst());
+			numEvictions++;
+		}
+	}
+
+	/**
+	 * Estimate the size (in bytes) of a cache entry for a transition list.
+	 */
+	private static long estimateBytes(TransitionList<?> transitionList)
+	{
+		return ENTRY_BYTES + CHOICE_BYTES * transitionList.getNumChoices() + TRANSITION_BYTES * transitionList.getNumTransitions();
+	}
+
+	/**
+	 * Remove all entries from the cache (but keep the statistics).
+	 */
+	public void clear()
+	{
+		cache.clear();
+		numBytes = 0;
+	}
+
+	/**
+	 * Get the number of entries currently in the cache.
+	 */
+	public int size()
+	{
+		return cache.size();
+	}
+
+	public long getNumHits()
+	{
+		return numHits;
+	}
+
+	public long getNumMisses()
+	{
+		return numMisses;
+	}
+
+	public long getNumEvictions()
+	{
+		return numEvictions;
+	}
+
+	/**
+	 * Reset the hit/miss/eviction statistics.
+	 */
+	public void resetStats()
+	{
+		numHits = 0;
+		numMisses = 0;
+		numEvictions = 0;
+	}
+
+	/**
+	 * Get a summary of the cache statistics, e.g. for printing to a log.
+	 */
+	public String getStatsString()
+	{
+		long numLookups = numHits + numMisses;
+		double hitRate = numLookups == 0 ? 0.0 : 100.0 * numHits / numLookups;
+		return numHits + "/" + numLookups + " hits (" + String.format("%.1f", hitRate) + "%), " + cache.size() + " states stored, " + numEvictions + " evictions";
+	}
+}
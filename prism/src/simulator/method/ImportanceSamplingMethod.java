@@ -0,0 +1,75 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator.method;
+
+import parser.State;
+import parser.ast.Expression;
+import prism.PrismException;
+
+/**
+ * SimulationMethod class for importance sampling.
+ * Paths are generated with the probabilities (or rates) of transitions that increase
+ * the importance function multiplied by a bias factor, and each sample is the
+ * likelihood ratio of a path (if it satisfies the property) or 0 (otherwise).
+ */
+public final class ImportanceSamplingMethod extends RareEventMethod
+{
+	// Factor applied to transitions that increase importance
+	private double bias;
+
+	public ImportanceSamplingMethod(double confidenceLevel, int iterations, Expression importanceFunction, double bias)
+	{
+		super(confidenceLevel, iterations, importanceFunction);
+		this.bias = bias;
+	}
+
+	@Override
+	public String getName()
+	{
+		return "IS";
+	}
+
+	@Override
+	public String getFullName()
+	{
+		return "Importance sampling";
+	}
+
+	@Override
+	public double sample(State initialState) throws PrismException
+	{
+		return simulator.estimateByImportanceSampling(initialState, bias);
+	}
+
+	@Override
+	protected String getMethodParametersString()
+	{
+		return "importance function=" + importanceFunction + ", bias=" + bias;
+	}
+
+	@Override
+	public SimulationMethod clone()
+	{
+		ImportanceSamplingMethod m = new ImportanceSamplingMethod(confidence, numSamples, importanceFunction, bias);
+		copyTo(m);
+		return m;
+	}
+}
@@ -0,0 +1,188 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator.method;
+
+import cern.jet.stat.Probability;
+import parser.State;
+import parser.ast.Expression;
+import parser.ast.ExpressionProb;
+import prism.Accuracy;
+import prism.PrismException;
+import simulator.RareEventSimulator;
+import simulator.sampler.Sampler;
+
+/**
+ * SimulationMethod class(es) for rare-event simulation, i.e. where each sample
+ * is an independent estimate of a (small) probability, produced by a {@link RareEventSimulator}
+ * and guided by a user-specified importance function.
+ * The number of samples is fixed; as for the CI method, the width of the
+ * confidence interval is computed afterwards (from the variance of the estimates).
+ */
+public abstract class RareEventMethod extends CIMethod
+{
+	// Importance function (as specified, i.e. constants may not be defined yet)
+	protected Expression importanceFunction;
+	// Simulator used to generate estimates (for the property attached to this object)
+	protected RareEventSimulator simulator;
+	// Estimate of variance (from sampling)
+	protected double varEstimator;
+
+	public RareEventMethod(double confidenceLevel, int iterations, Expression importanceFunction)
+	{
+		this.confidence = confidenceLevel;
+		this.numSamples = iterations;
+		this.importanceFunction = importanceFunction;
+		varEstimator = 0.0;
+	}
+
+	/**
+	 * Get the importance function used to guide simulation.
+	 */
+	public Expression getImportanceFunction()
+	{
+		return importanceFunction;
+	}
+
+	/**
+	 * Set the simulator used to generate estimates for the attached property.
+	 */
+	public void setSimulator(RareEventSimulator simulator)
+	{
+		this.simulator = simulator;
+	}
+
+	/**
+	 * Get the simulator used to generate estimates for the attached property.
+	 */
+	public RareEventSimulator getSimulator()
+	{
+		return simulator;
+	}
+
+	/**
+	 * Generate a new (independent) estimate of the probability for the attached property.
+	 * @param initialState The initial state
+	 */
+	public abstract double sample(State initialState) throws PrismException;
+
+	/**
+	 * Get the parameters specific to this method as a string.
+	 */
+	protected abstract String getMethodParametersString();
+
+	@Override
+	public void setExpression(Expression expr) throws PrismException
+	{
+		if (!(expr instanceof ExpressionProb)) {
+			throw new PrismException("Rare-event simulation methods can only be applied to P properties");
+		}
+		super.setExpression(expr);
+	}
+
+	@Override
+	public void computeMissingParameterAfterSim()
+	{
+		double quantile;
+		// Only compute for numSamples > 1
+		// (Student's t-distribution only defined for v > 0)
+		if (numSamples > 1) {
+			// (Note: Colt's studentTinverse seems to break for v=1 so do manually)
+			if (numSamples - 1 > 1) {
+				quantile = Probability.studentTInverse(confidence, numSamples - 1);
+			} else {
+				quantile = Math.tan((0.5 - confidence / 2) * Math.PI);
+			}
+			width = quantile * Math.sqrt(varEstimator / numSamples);
+			missingParameterComputed = true;
+		}
+	}
+
+	@Override
+	public Object getMissingParameter() throws PrismException
+	{
+		if (!missingParameterComputed)
+			throw new PrismException("Missing parameter not computed yet");
+		return width;
+	}
+
+	@Override
+	public String getParametersString()
+	{
+		String widthString = missingParameterComputed ? "" + width : "unknown";
+		return "width=" + widthString + ", confidence=" + confidence + ", number of samples=" + numSamples + ", " + getMethodParametersString();
+	}
+
+	@Override
+	public boolean shouldStopNow(int iters, Sampler sampler)
+	{
+		if (iters >= numSamples) {
+			// Store final variance for confidence computation later
+			varEstimator = sampler.getVariance();
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int getProgress(int iters, Sampler sampler)
+	{
+		return ((10 * iters) / numSamples) * 10;
+	}
+
+	@Override
+	public Object getResult(Sampler sampler) throws PrismException
+	{
+		if (!missingParameterComputed)
+			computeMissingParameterAfterSim();
+		return super.getResult(sampler);
+	}
+
+	@Override
+	public Accuracy getResultAccuracy(Sampler sampler) throws PrismException
+	{
+		if (!missingParameterComputed)
+			computeMissingParameterAfterSim();
+		return super.getResultAccuracy(sampler);
+	}
+
+	@Override
+	public String getResultExplanation(Sampler sampler) throws PrismException
+	{
+		if (!missingParameterComputed)
+			computeMissingParameterAfterSim();
+		double mean = sampler.getMeanValue();
+		String relErr = mean > 0 ? ", relative error " + (width / mean) : "";
+		return super.getResultExplanation(sampler) + relErr;
+	}
+
+	/**
+	 * Copy the state of this object to another one (e.g. when cloning).
+	 * The simulator is not copied, since it is specific to the attached property.
+	 */
+	protected void copyTo(RareEventMethod m)
+	{
+		m.width = width;
+		m.missingParameterComputed = missingParameterComputed;
+		m.prOp = prOp;
+		m.theta = theta;
+		m.varEstimator = varEstimator;
+	}
+}
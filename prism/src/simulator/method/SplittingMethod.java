@@ -0,0 +1,77 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator.method;
+
+import parser.State;
+import parser.ast.Expression;
+import prism.PrismException;
+
+/**
+ * SimulationMethod class for fixed-effort importance splitting.
+ * Each sample is the product of the estimated probabilities of moving between
+ * successive levels of the importance function, using a fixed number of paths per level.
+ */
+public final class SplittingMethod extends RareEventMethod
+{
+	// Number of paths per level
+	private int effort;
+	// Width of each level (in terms of the importance function)
+	private double levelStep;
+
+	public SplittingMethod(double confidenceLevel, int iterations, Expression importanceFunction, int effort, double levelStep)
+	{
+		super(confidenceLevel, iterations, importanceFunction);
+		this.effort = effort;
+		this.levelStep = levelStep;
+	}
+
+	@Override
+	public String getName()
+	{
+		return "Splitting";
+	}
+
+	@Override
+	public String getFullName()
+	{
+		return "Fixed-effort importance splitting";
+	}
+
+	@Override
+	public double sample(State initialState) throws PrismException
+	{
+		return simulator.estimateBySplitting(initialState, effort, levelStep);
+	}
+
+	@Override
+	protected String getMethodParametersString()
+	{
+		return "importance function=" + importanceFunction + ", effort=" + effort + ", level width=" + levelStep;
+	}
+
+	@Override
+	public SimulationMethod clone()
+	{
+		SplittingMethod m = new SplittingMethod(confidence, numSamples, importanceFunction, effort, levelStep);
+		copyTo(m);
+		return m;
+	}
+}
@@ -105,6 +105,16 @@ public abstract class SamplerBoolean extends Sampler
 		return Math.pow(p1 / p0, numTrue) * Math.pow((1 - p1) / (1 - p0), numSamples - numTrue);
 	}
 
+	/**
+	 * Set the (actual, i.e., taking negation into account) value for the current path,
+	 * when it has been computed without updating the sampler along the path.
+	 */
+	public void setCurrentValue(boolean b)
+	{
+		value = b != negated;
+		valueKnown = true;
+	}
+
 	/**
 	 * Negate the meaning of this sampler.
 	 */
@@ -96,6 +96,16 @@ public abstract class SamplerDouble extends Sampler
 		return Double.valueOf(value);
 	}
 
+	/**
+	 * Set the value for the current path,
+	 * when it has been computed without updating the sampler along the path.
+	 */
+	public void setCurrentValue(double d)
+	{
+		value = d;
+		valueKnown = true;
+	}
+
 	@Override
 	public double getMeanValue()
 	{
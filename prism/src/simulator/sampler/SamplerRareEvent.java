@@ -0,0 +1,83 @@
+//==============================================================================
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator.sampler;
+
+import prism.ModelGenerator;
+import prism.PrismException;
+import simulator.Path;
+
+/**
+ * Sampler used by rare-event simulation methods (see {@link simulator.method.RareEventMethod}).
+ * Each sample is an (unbiased) estimate of a probability, computed by the method,
+ * e.g. a likelihood-weighted path outcome, or a product of level-crossing probabilities.
+ * If updated along an ordinary path, the value is the (0/1) outcome of the underlying path property.
+ */
+public class SamplerRareEvent extends SamplerDouble
+{
+	/** Sampler for the underlying path property */
+	private SamplerBoolean pathSampler;
+
+	/**
+	 * Construct a rare-event sampler for the path property of another sampler.
+	 * This must be a (Boolean) sampler for a P operator.
+	 */
+	public SamplerRareEvent(Sampler pathSampler) throws PrismException
+	{
+		if (!(pathSampler instanceof SamplerBoolean)) {
+			throw new PrismException("Rare-event simulation is only supported for P properties");
+		}
+		this.pathSampler = (SamplerBoolean) pathSampler;
+		reset();
+		resetStats();
+	}
+
+	@Override
+	public void reset()
+	{
+		super.reset();
+		pathSampler.reset();
+	}
+
+	@Override
+	public boolean update(Path path, ModelGenerator modelGen) throws PrismException
+	{
+		if (!valueKnown && pathSampler.update(path, modelGen)) {
+			valueKnown = true;
+			value = (Boolean) pathSampler.getCurrentValue() ? 1.0 : 0.0;
+		}
+		return valueKnown;
+	}
+
+	@Override
+	public boolean needsBoundedNumSteps()
+	{
+		return pathSampler.needsBoundedNumSteps();
+	}
+
+	/**
+	 * Set the value of the current sample, as computed by a rare-event simulation method.
+	 */
+	public void setSample(double value)
+	{
+		this.value = value;
+		valueKnown = true;
+	}
+}
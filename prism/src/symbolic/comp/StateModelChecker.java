@@ -238,6 +238,7 @@ public class StateModelChecker extends PrismNativeComponent implements ModelChec
 		vals = checkExpression(expr, model.getReach().copy());
 		timer = System.currentTimeMillis() - timer;
 		mainLog.println("\nTime for model checking: " + timer / 1000.0 + " seconds.");
+		Telemetry.phase("model checking", timer);
 
 		// Print result to log
 		resultString = "Result";
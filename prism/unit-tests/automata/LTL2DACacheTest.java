@@ -0,0 +1,92 @@
+package automata;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import acceptance.AcceptanceOmega;
+import acceptance.AcceptanceReach;
+import acceptance.AcceptanceType;
+import jltl2ba.SimpleLTL;
+import jltl2dstar.LTL2Rabin;
+
+/**
+ * Tests for {@link LTL2DACache}.
+ */
+public class LTL2DACacheTest
+{
+	@Test
+	void storeAndLoadWithRenamedAPs() throws Exception
+	{
+		Path dir = Files.createTempDirectory("prism-da-cache-test");
+		try {
+			LTL2DACache cache = new LTL2DACache(dir);
+			// Note: translation may modify the formula, so look up entries first
+			SimpleLTL ltl = SimpleLTL.parseFormulaLBT("U L0 G L1");
+			LTL2DACache.Entry entry = cache.getEntry(ltl, "jltl2dstar", AcceptanceType.RABIN);
+			LTL2DACache.Entry entryAcc = cache.getEntry(ltl, "jltl2dstar", AcceptanceType.RABIN, AcceptanceType.REACH);
+			LTL2DACache.Entry entryExt = cache.getEntry(ltl, "external tool", AcceptanceType.RABIN);
+			assertNull(entry.load());
+			DA<BitSet, ? extends AcceptanceOmega> da = LTL2Rabin.ltl2da(ltl, AcceptanceType.RABIN);
+			entry.store(da);
+			// Same formula, up to AP names, so same entry
+			SimpleLTL ltl2 = SimpleLTL.parseFormulaLBT("U L3 G L2");
+			LTL2DACache.Entry entry2 = cache.getEntry(ltl2, "jltl2dstar", AcceptanceType.RABIN);
+			assertEquals(entry.getFile(), entry2.getFile());
+			DA<BitSet, ? extends AcceptanceOmega> da2 = entry2.load();
+			assertEquals(da.size(), da2.size());
+			assertEquals(da.getAcceptance().getType(), da2.getAcceptance().getType());
+			for (int i = 0; i < da.getAPList().size(); i++) {
+				String renamed = da.getAPList().get(i).equals("L0") ? "L3" : "L2";
+				assertEquals(renamed, da2.getAPList().get(i));
+			}
+			// Different allowed acceptance or translation give different entries
+			assertNotEquals(entry.getFile(), entryAcc.getFile());
+			assertNotEquals(entry.getFile(), entryExt.getFile());
+		} finally {
+			for (File file : dir.toFile().listFiles()) {
+				file.delete();
+			}
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	void reachAcceptanceIsPreserved() throws Exception
+	{
+		Path dir = Files.createTempDirectory("prism-da-cache-test");
+		try {
+			LTL2DACache cache = new LTL2DACache(dir);
+			SimpleLTL ltl = SimpleLTL.parseFormulaLBT("F L0");
+			LTL2DACache.Entry entry = cache.getEntry(ltl, "jltl2dstar", AcceptanceType.REACH);
+			DA<BitSet, ? extends AcceptanceOmega> da = LTL2Rabin.ltl2da(ltl, AcceptanceType.RABIN);
+			BitSet goal = new BitSet();
+			for (int s = 0; s < da.size(); s++) {
+				if (da.getAcceptance().isBSCCAccepting(bitSetOf(s))) {
+					goal.set(s);
+				}
+			}
+			DA.switchAcceptance(da, new AcceptanceReach(goal));
+			entry.store(da);
+			DA<BitSet, ? extends AcceptanceOmega> da2 = entry.load();
+			assertEquals(AcceptanceType.REACH, da2.getAcceptance().getType());
+			assertEquals(goal, ((AcceptanceReach) da2.getAcceptance()).getGoalStates());
+		} finally {
+			for (File file : dir.toFile().listFiles()) {
+				file.delete();
+			}
+			Files.delete(dir);
+		}
+	}
+
+	private static BitSet bitSetOf(int s)
+	{
+		BitSet bs = new BitSet();
+		bs.set(s);
+		return bs;
+	}
+}
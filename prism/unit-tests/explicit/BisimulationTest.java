@@ -0,0 +1,145 @@
+package explicit;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+/**
+ * Tests for {@link Bisimulation}.
+ */
+public class BisimulationTest
+{
+	private static BitSet bits(int... states)
+	{
+		BitSet bs = new BitSet();
+		for (int s : states) {
+			bs.set(s);
+		}
+		return bs;
+	}
+
+	@Test
+	void dtmcSymmetricBranchesAreMerged() throws PrismException
+	{
+		// 0 -> 1, 2 (0.5 each); 1 -> 3; 2 -> 4; 3, 4 goal (self-loops)
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(5);
+		dtmc.setProbability(0, 1, 0.5);
+		dtmc.setProbability(0, 2, 0.5);
+		dtmc.setProbability(1, 3, 1.0);
+		dtmc.setProbability(2, 4, 1.0);
+		dtmc.setProbability(3, 3, 1.0);
+		dtmc.setProbability(4, 4, 1.0);
+		dtmc.addInitialState(0);
+		Bisimulation<Double> bisim = new Bisimulation<>(new PrismComponent());
+		Model<Double> min = bisim.minimise(dtmc, List.of("goal"), List.of(bits(3, 4)));
+		assertEquals(3, min.getNumStates());
+		assertEquals(1, min.getNumInitialStates());
+		DTMC<Double> minDTMC = (DTMC<Double>) min;
+		int init = min.getFirstInitialState();
+		assertEquals(1, minDTMC.getNumTransitions(init));
+		assertEquals(1, min.getLabelStates("goal").cardinality());
+	}
+
+	@Test
+	void dtmcDifferentProbabilitiesAreSplit() throws PrismException
+	{
+		// 0 -> goal w.p. 0.5, 1 -> goal w.p. 0.25
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(4);
+		dtmc.setProbability(0, 2, 0.5);
+		dtmc.setProbability(0, 3, 0.5);
+		dtmc.setProbability(1, 2, 0.25);
+		dtmc.setProbability(1, 3, 0.75);
+		dtmc.setProbability(2, 2, 1.0);
+		dtmc.setProbability(3, 3, 1.0);
+		Bisimulation<Double> bisim = new Bisimulation<>(new PrismComponent());
+		Model<Double> min = bisim.minimise(dtmc, List.of("goal"), List.of(bits(2)));
+		assertEquals(4, min.getNumStates());
+	}
+
+	@Test
+	void dtmcRoundOffDifferencesAreMerged() throws PrismException
+	{
+		// 0 -> goal w.p. 0.1 + 0.2, 1 -> goal w.p. 0.3
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(5);
+		dtmc.setProbability(0, 2, 0.1);
+		dtmc.setProbability(0, 3, 0.2);
+		dtmc.setProbability(0, 4, 0.7);
+		dtmc.setProbability(1, 2, 0.3);
+		dtmc.setProbability(1, 4, 0.7);
+		for (int s = 2; s < 5; s++) {
+			dtmc.setProbability(s, s, 1.0);
+		}
+		Bisimulation<Double> bisim = new Bisimulation<>(new PrismComponent());
+		Model<Double> min = bisim.minimise(dtmc, List.of("goal"), List.of(bits(2, 3)));
+		// Blocks: {0,1}, {2,3}, {4}
+		assertEquals(3, min.getNumStates());
+	}
+
+	@Test
+	void mdpChoiceSetsAreCompared() throws PrismException
+	{
+		// States 0 and 1 have the same set of lifted choices (in a different order,
+		// and with a duplicate for 1); state 2 lacks one of them
+		MDPSimple<Double> mdp = new MDPSimple<>(6);
+		mdp.addChoice(0, distr(3, 1.0));
+		mdp.addChoice(0, distr(5, 1.0));
+		mdp.addChoice(1, distr(5, 1.0));
+		mdp.addChoice(1, distr(4, 1.0));
+		mdp.addChoice(1, distr(3, 1.0));
+		mdp.addChoice(2, distr(3, 1.0));
+		for (int s = 3; s < 6; s++) {
+			mdp.addChoice(s, distr(s, 1.0));
+		}
+		mdp.addInitialState(0);
+		mdp.addInitialState(1);
+		Bisimulation<Double> bisim = new Bisimulation<>(new PrismComponent());
+		Model<Double> min = bisim.minimise(mdp, List.of("goal", "low"), List.of(bits(3, 4), bits(0, 1, 2)));
+		// Blocks: {0,1}, {2}, {3,4}, {5}
+		assertEquals(4, min.getNumStates());
+		assertEquals(1, min.getNumInitialStates());
+		MDP<Double> minMDP = (MDP<Double>) min;
+		assertEquals(2, minMDP.getNumChoices(min.getFirstInitialState()));
+	}
+
+	@Test
+	void mdpChoiceActionsAreCompared() throws PrismException
+	{
+		// States 0 and 1 have the same lifted choices, but with different action labels;
+		// state 2 matches state 0, including its labels
+		MDPSimple<Double> mdp = new MDPSimple<>(5);
+		mdp.addActionLabelledChoice(0, distr(3, 1.0), "a");
+		mdp.addActionLabelledChoice(0, distr(4, 1.0), "b");
+		mdp.addActionLabelledChoice(1, distr(3, 1.0), "b");
+		mdp.addActionLabelledChoice(1, distr(4, 1.0), "a");
+		mdp.addActionLabelledChoice(2, distr(4, 1.0), "b");
+		mdp.addActionLabelledChoice(2, distr(3, 1.0), "a");
+		for (int s = 3; s < 5; s++) {
+			mdp.addChoice(s, distr(s, 1.0));
+		}
+		mdp.addInitialState(0);
+		Bisimulation<Double> bisim = new Bisimulation<>(new PrismComponent());
+		Model<Double> min = bisim.minimise(mdp, List.of("goal"), List.of(bits(3)));
+		// Blocks: {0,2}, {1}, {3}, {4}
+		assertEquals(4, min.getNumStates());
+		MDP<Double> minMDP = (MDP<Double>) min;
+		int init = min.getFirstInitialState();
+		assertEquals(2, minMDP.getNumChoices(init));
+		for (int i = 0; i < 2; i++) {
+			int target = minMDP.getTransitionsIterator(init, i).next().getKey();
+			boolean toGoal = min.getLabelStates("goal").get(target);
+			assertEquals(toGoal ? "a" : "b", minMDP.getAction(init, i));
+		}
+	}
+
+	private static Distribution<Double> distr(int s, double p)
+	{
+		Distribution<Double> distr = Distribution.ofDouble();
+		distr.add(s, p);
+		return distr;
+	}
+}
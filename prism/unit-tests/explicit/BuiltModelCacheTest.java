@@ -0,0 +1,115 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import prism.ModelType;
+import prism.PrismComponent;
+import prism.PrismDevNullLog;
+import prism.PrismException;
+import prism.TestModelGenerator;
+
+/**
+ * Tests for {@link BuiltModelCache}.
+ */
+public class BuiltModelCacheTest
+{
+	/** As {@link TestModelGenerator}, but a CTMC (with rates 0.5) */
+	private static class TestCTMCGenerator extends TestModelGenerator
+	{
+		public TestCTMCGenerator(int n)
+		{
+			super(n);
+		}
+
+		@Override
+		public ModelType getModelType()
+		{
+			return ModelType.CTMC;
+		}
+	}
+
+	private static BuiltModelCache cache(Path dir)
+	{
+		PrismComponent parent = new PrismComponent();
+		parent.setLog(new PrismDevNullLog());
+		return new BuiltModelCache(parent, dir.toFile());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testDTMC(@TempDir Path dir) throws PrismException
+	{
+		TestModelGenerator modelGen = new TestModelGenerator(20);
+		DTMC<Double> built = (DTMC<Double>) new ConstructModel(new PrismComponent()).constructModel(modelGen);
+		BuiltModelCache cache = cache(dir);
+		String key = BuiltModelCache.key("test", "n=20");
+		assertNull(cache.load(key, modelGen));
+		assertTrue(cache.store(key, built));
+
+		Model<Double> loaded = cache.load(key, modelGen);
+		assertTrue(loaded instanceof DTMCSparseMapped);
+		assertEquals(built.getNumStates(), loaded.getNumStates());
+		assertEquals(built.getNumTransitions(), loaded.getNumTransitions());
+		assertEquals(built.getStatesList(), loaded.getStatesList());
+		assertEquals(built.getLabelStates("goal"), loaded.getLabelStates("goal"));
+		assertEquals(built.getFirstInitialState(), loaded.getFirstInitialState());
+		assertEquals(built.getVarList().getNumVars(), loaded.getVarList().getNumVars());
+
+		DTMCModelChecker mc = new DTMCModelChecker(new PrismComponent());
+		double[] expected = mc.computeReachProbs(built, built.getLabelStates("goal")).soln;
+		assertArrayEquals(expected, mc.computeReachProbs((DTMC<Double>) loaded, loaded.getLabelStates("goal")).soln, 1e-12);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testCTMC(@TempDir Path dir) throws PrismException
+	{
+		TestModelGenerator modelGen = new TestCTMCGenerator(10);
+		CTMC<Double> built = (CTMC<Double>) new ConstructModel(new PrismComponent()).constructModel(modelGen);
+		BuiltModelCache cache = cache(dir);
+		String key = BuiltModelCache.key("ctmc");
+		assertTrue(cache.store(key, built));
+		Model<Double> loaded = cache.load(key, modelGen);
+		assertEquals(ModelType.CTMC, loaded.getModelType());
+		for (int s = 0; s < built.getNumStates(); s++) {
+			assertEquals(built.getExitRate(s), ((CTMC<Double>) loaded).getExitRate(s), 1e-12);
+		}
+	}
+
+	@Test
+	public void testInvalidEntries(@TempDir Path dir) throws PrismException, IOException
+	{
+		TestModelGenerator modelGen = new TestModelGenerator(5);
+		Model<?> built = new ConstructModel(new PrismComponent()).constructModel(modelGen);
+		BuiltModelCache cache = cache(dir);
+		String key = BuiltModelCache.key("a");
+		cache.store(key, built);
+		// Corrupt entries are ignored
+		File info = dir.resolve(key + ".info").toFile();
+		Files.write(info.toPath(), new byte[] { 1, 2, 3 });
+		assertNull(cache.load(key, modelGen));
+		// Interval models are not supported
+		assertFalse(cache.store(key, new IDTMCSimple<Double>(1)));
+	}
+
+	@Test
+	public void testKey()
+	{
+		assertEquals(BuiltModelCache.key("a", "b"), BuiltModelCache.key("a", "b"));
+		assertNotEquals(BuiltModelCache.key("a", "b"), BuiltModelCache.key("ab", ""));
+		assertNotEquals(BuiltModelCache.key("a", "b"), BuiltModelCache.key("a", "c"));
+	}
+}
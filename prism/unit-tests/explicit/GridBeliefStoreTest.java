@@ -0,0 +1,55 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismException;
+
+/**
+ * Tests for {@link GridBeliefStore}.
+ */
+public class GridBeliefStoreTest
+{
+	@Test
+	public void testAddAndLookup() throws PrismException
+	{
+		GridBeliefStore store = new GridBeliefStore(3, 10, 0);
+		assertEquals(0, store.add(0, new double[] { 0.3, 0.7, 0.0 }));
+		assertEquals(1, store.add(1, new double[] { 0.3, 0.7, 0.0 }));
+		assertEquals(2, store.add(0, new double[] { 0.0, 0.7, 0.3 }));
+		// Points already present (up to round-off) are not added again
+		assertEquals(0, store.add(0, new double[] { 0.1 + 0.2, 0.7, 0.0 }));
+		assertEquals(3, store.size());
+		assertEquals(2, store.indexOf(0, new double[] { 0.0, 0.7, 0.1 + 0.2 }));
+		assertEquals(-1, store.indexOf(1, new double[] { 0.0, 0.7, 0.3 }));
+		assertEquals(1, store.getObservation(1));
+		assertEquals(0.7, store.getProbability(2, 1));
+		Belief belief = store.getBelief(2);
+		assertEquals(0, belief.so);
+		assertArrayEquals(new double[] { 0.0, 0.7, 0.3 }, belief.bu);
+	}
+
+	@Test
+	public void testGrowth() throws PrismException
+	{
+		int resolution = 1000;
+		GridBeliefStore store = new GridBeliefStore(2, resolution, 1);
+		for (int i = 0; i <= resolution; i++) {
+			assertEquals(i, store.add(i % 3, new double[] { (double) i / resolution, (double) (resolution - i) / resolution }));
+		}
+		assertEquals(resolution + 1, store.size());
+		for (int i = 0; i <= resolution; i++) {
+			assertEquals(i, store.indexOf(i % 3, new double[] { (double) i / resolution, (double) (resolution - i) / resolution }));
+		}
+	}
+
+	@Test
+	public void testTooManyPoints()
+	{
+		// Storage for the distributions would exceed the maximum array size
+		assertThrows(PrismException.class, () -> new GridBeliefStore(64, 10, 1 << 26));
+	}
+}
@@ -0,0 +1,110 @@
+package explicit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import common.Interval;
+import prism.Evaluator;
+
+/**
+ * Tests for {@link IMDPSparse}, comparing its robust steps against those of {@link IMDPSimple}.
+ */
+public class IMDPSparseTest
+{
+	/** Build a random IMDP with intervals that admit at least one distribution. */
+	private static IMDPSimple<Double> randomIMDP(long seed, int numStates)
+	{
+		Random random = new Random(seed);
+		Evaluator<Interval<Double>> eval = Evaluator.forDoubleInterval();
+		IMDPSimple<Double> imdp = new IMDPSimple<>(numStates);
+		imdp.setIntervalEvaluator(eval);
+		for (int s = 0; s < numStates; s++) {
+			int numChoices = 1 + random.nextInt(3);
+			for (int c = 0; c < numChoices; c++) {
+				Distribution<Interval<Double>> distr = new Distribution<>(eval);
+				int numSuccs = 1 + random.nextInt(6);
+				double mid = 1.0 / numSuccs;
+				for (int i = 0; i < numSuccs; i++) {
+					int t = random.nextInt(numStates);
+					if (distr.contains(t))
+						continue;
+					distr.add(t, new Interval<>(mid * random.nextDouble(), Math.min(1.0, mid * (1 + random.nextDouble()))));
+				}
+				if (distr.size() == 1)
+					distr.set(distr.iterator().next().getKey(), new Interval<>(1.0, 1.0));
+				imdp.addChoice(s, distr);
+			}
+		}
+		return imdp;
+	}
+
+	@Test
+	void robustStepsMatchSimple()
+	{
+		int numStates = 500;
+		IMDPSimple<Double> simple = randomIMDP(1, numStates);
+		IMDPSparse sparse = new IMDPSparse(simple);
+		assertEquals(simple.getNumTransitions(), sparse.getNumTransitions());
+		Random random = new Random(2);
+		double[] vect = new double[numStates];
+		for (boolean minUnc : new boolean[] { true, false }) {
+			MinMax minMax = MinMax.max().setMinUnc(minUnc);
+			// Repeat with different values, so that stored orderings are reused
+			for (int iter = 0; iter < 5; iter++) {
+				for (int s = 0; s < numStates; s++) {
+					vect[s] = random.nextDouble();
+				}
+				for (int s = 0; s < numStates; s++) {
+					assertEquals(simple.getNumChoices(s), sparse.getNumChoices(s));
+					for (int k = 0; k < simple.getNumChoices(s); k++) {
+						assertEquals(simple.mvMultUncSingle(s, k, vect, minMax), sparse.mvMultUncSingle(s, k, vect, minMax), 1e-12);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void concurrentRobustStepsMatchSimple() throws Exception
+	{
+		int numStates = 500;
+		IMDPSimple<Double> simple = randomIMDP(3, numStates);
+		IMDPSparse sparse = new IMDPSparse(simple);
+		// Several threads do robust steps on the same model, each with its own values
+		int numThreads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < numThreads; i++) {
+				long seed = 10 + i;
+				futures.add(executor.submit(() -> {
+					Random random = new Random(seed);
+					double[] vect = new double[numStates];
+					for (int iter = 0; iter < 20; iter++) {
+						for (int s = 0; s < numStates; s++) {
+							vect[s] = random.nextDouble();
+						}
+						MinMax minMax = MinMax.max().setMinUnc(iter % 2 == 0);
+						for (int s = 0; s < numStates; s++) {
+							for (int k = 0; k < simple.getNumChoices(s); k++) {
+								assertEquals(simple.mvMultUncSingle(s, k, vect, minMax), sparse.mvMultUncSingle(s, k, vect, minMax), 1e-12);
+							}
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
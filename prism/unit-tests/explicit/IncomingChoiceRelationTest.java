@@ -0,0 +1,157 @@
+package explicit;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link PredecessorRelation} and {@link IncomingChoiceRelation},
+ * comparing the (parallel) backward searches against the fixed points
+ * computed with the single-step methods of {@link NondetModel}.
+ */
+public class IncomingChoiceRelationTest
+{
+	/** Build a random MDP (large enough for frontiers to be expanded in parallel). */
+	private static MDPSimple<Double> randomMDP(long seed, int numStates)
+	{
+		Random random = new Random(seed);
+		MDPSimple<Double> mdp = new MDPSimple<>(numStates);
+		for (int s = 0; s < numStates; s++) {
+			int numChoices = random.nextInt(4);
+			for (int c = 0; c < numChoices; c++) {
+				Distribution<Double> distr = Distribution.ofDouble();
+				int numSuccs = 1 + random.nextInt(3);
+				for (int i = 0; i < numSuccs; i++) {
+					distr.add(random.nextInt(numStates), 1.0 / numSuccs);
+				}
+				mdp.addChoice(s, distr);
+			}
+		}
+		return mdp;
+	}
+
+	private static BitSet randomSet(Random random, int numStates, double p)
+	{
+		BitSet bs = new BitSet();
+		for (int s = 0; s < numStates; s++) {
+			if (random.nextDouble() < p)
+				bs.set(s);
+		}
+		return bs;
+	}
+
+	/** Least fixed point of prob0step, starting from target. */
+	private static BitSet prob0FixedPoint(MDPSimple<Double> mdp, BitSet unknown, BitSet target, boolean forall)
+	{
+		BitSet u = (BitSet) target.clone();
+		BitSet soln = (BitSet) target.clone();
+		do {
+			u = (BitSet) soln.clone();
+			mdp.prob0step(unknown, u, forall, soln);
+		} while (!soln.equals(u));
+		return u;
+	}
+
+	/** Nested fixed point of prob1Astep/prob1Estep. */
+	private static BitSet prob1FixedPoint(MDPSimple<Double> mdp, BitSet unknown, BitSet target, boolean forall)
+	{
+		BitSet u = new BitSet();
+		u.set(0, mdp.getNumStates());
+		while (true) {
+			BitSet v = (BitSet) target.clone();
+			BitSet soln = (BitSet) target.clone();
+			do {
+				v = (BitSet) soln.clone();
+				if (forall)
+					mdp.prob1Astep(unknown, u, v, soln);
+				else
+					mdp.prob1Estep(unknown, u, v, soln, null);
+			} while (!soln.equals(v));
+			if (v.equals(u))
+				return u;
+			u = v;
+		}
+	}
+
+	@Test
+	void preStarMatchesFixedPoints()
+	{
+		int numStates = 5000;
+		for (long seed = 0; seed < 5; seed++) {
+			MDPSimple<Double> mdp = randomMDP(seed, numStates);
+			Random random = new Random(seed + 100);
+			BitSet target = randomSet(random, numStates, 0.05);
+			BitSet unknown = randomSet(random, numStates, 0.9);
+			unknown.andNot(target);
+			IncomingChoiceRelation incoming = new IncomingChoiceRelation(mdp);
+			for (boolean forall : new boolean[] { false, true }) {
+				// prob0
+				assertEquals(prob0FixedPoint(mdp, unknown, target, forall), incoming.calculatePreStar(unknown, target, null, forall));
+				// prob1
+				BitSet u = new BitSet();
+				u.set(0, numStates);
+				while (true) {
+					BitSet v = incoming.calculatePreStar(unknown, target, incoming.getSafeChoices(mdp, unknown, u), forall);
+					if (v.equals(u))
+						break;
+					u = v;
+				}
+				assertEquals(prob1FixedPoint(mdp, unknown, target, forall), u);
+			}
+		}
+	}
+
+	@Test
+	void predecessorsMatchSuccessors()
+	{
+		int numStates = 3000;
+		MDPSimple<Double> mdp = randomMDP(42, numStates);
+		PredecessorRelation pre = new PredecessorRelation(mdp);
+		IncomingChoiceRelation incoming = new IncomingChoiceRelation(mdp);
+		int numPre = 0;
+		int numIncoming = 0;
+		for (int t = 0; t < numStates; t++) {
+			int last = -1;
+			for (int p : pre.getPre(t)) {
+				assertTrue(p > last);
+				assertTrue(mdp.isSuccessor(p, t));
+				last = p;
+				numPre++;
+			}
+			for (IncomingChoiceRelation.Choice choice : incoming.getIncomingChoices(t)) {
+				assertTrue(mdp.getChoice(choice.getState(), choice.getChoice()).contains(t));
+				numIncoming++;
+			}
+		}
+		int numEdges = 0;
+		int numChoiceEdges = 0;
+		for (int s = 0; s < numStates; s++) {
+			numEdges += (int) mdp.getSuccessors(s).distinct().stream().count();
+			for (int c = 0; c < mdp.getNumChoices(s); c++) {
+				numChoiceEdges += mdp.getNumTransitions(s, c);
+			}
+		}
+		assertEquals(numEdges, numPre);
+		assertEquals(numChoiceEdges, numIncoming);
+
+		// Pre* with remain/absorbing, compared to a simple sequential search
+		Random random = new Random(7);
+		BitSet remain = randomSet(random, numStates, 0.8);
+		BitSet target = randomSet(random, numStates, 0.01);
+		BitSet absorbing = randomSet(random, numStates, 0.1);
+		BitSet expected = (BitSet) target.clone();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int s = 0; s < numStates; s++) {
+				if (!expected.get(s) && remain.get(s) && !absorbing.get(s) && mdp.someSuccessorsInSet(s, expected)) {
+					expected.set(s);
+					changed = true;
+				}
+			}
+		}
+		assertEquals(expected, pre.calculatePreStar(remain, target, absorbing));
+	}
+}
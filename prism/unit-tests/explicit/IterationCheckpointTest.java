@@ -0,0 +1,176 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import prism.Evaluator;
+import prism.PrismComponent;
+import prism.PrismDevNullLog;
+import prism.PrismException;
+import prism.PrismSettings;
+
+/**
+ * Tests for {@link IterationCheckpoint}.
+ */
+public class IterationCheckpointTest
+{
+	/** Random walk on 0..n, where the controller can choose between a fair and a down-biased step. */
+	private static MDPSimple<Double> randomWalk(int n)
+	{
+		MDPSimple<Double> mdp = new MDPSimple<>(n + 1);
+		for (int s = 0; s <= n; s++) {
+			if (s == 0 || s == n) {
+				Distribution<Double> loop = new Distribution<>(Evaluator.forDouble());
+				loop.add(s, 1.0);
+				mdp.addChoice(s, loop);
+				continue;
+			}
+			Distribution<Double> fair = new Distribution<>(Evaluator.forDouble());
+			fair.add(s - 1, 0.5);
+			fair.add(s + 1, 0.5);
+			mdp.addChoice(s, fair);
+			Distribution<Double> biased = new Distribution<>(Evaluator.forDouble());
+			biased.add(s - 1, 0.6);
+			biased.add(s + 1, 0.4);
+			mdp.addChoice(s, biased);
+		}
+		mdp.addInitialState(n / 2);
+		return mdp;
+	}
+
+	@Test
+	public void testSaveRestore(@TempDir Path dir) throws PrismException
+	{
+		File file = dir.resolve("ckpt").toFile();
+		int[] strat = { 1, 0, 2 };
+		IterationCheckpoint checkpoint = new IterationCheckpoint(new PrismDevNullLog(), file, 0, true, 42, "test", strat);
+		checkpoint.save(7, new double[] { 0.1, 0.2, 0.3 }, new double[] { 1.0, 2.0, 3.0 });
+		assertTrue(file.exists());
+
+		double[] v1 = new double[3], v2 = new double[3];
+		int[] strat2 = new int[3];
+		IterationCheckpoint resumed = new IterationCheckpoint(new PrismDevNullLog(), file, 0, true, 42, "test", strat2);
+		assertEquals(7, resumed.restore(v1, v2));
+		assertArrayEquals(new double[] { 0.1, 0.2, 0.3 }, v1);
+		assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, v2);
+		assertArrayEquals(strat, strat2);
+
+		// Different model fingerprint or computation: not restored
+		assertEquals(0, new IterationCheckpoint(new PrismDevNullLog(), file, 0, true, 43, "test", null).restore(v1, v2));
+		assertEquals(0, new IterationCheckpoint(new PrismDevNullLog(), file, 0, true, 42, "other", null).restore(v1, v2));
+		// Resuming disabled
+		assertEquals(0, new IterationCheckpoint(new PrismDevNullLog(), file, 0, false, 42, "test", null).restore(v1, v2));
+
+		resumed.finished();
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void testFingerprint()
+	{
+		assertEquals(IterationCheckpoint.fingerprint(randomWalk(10)), IterationCheckpoint.fingerprint(randomWalk(10)));
+		assertTrue(IterationCheckpoint.fingerprint(randomWalk(10)) != IterationCheckpoint.fingerprint(randomWalk(11)));
+	}
+
+	@Test
+	public void testResumeValueIteration(@TempDir Path dir) throws PrismException
+	{
+		int n = 40;
+		MDPSimple<Double> mdp = randomWalk(n);
+		BitSet target = new BitSet();
+		target.set(n);
+		double[] expected = new MDPModelChecker(new PrismComponent()).computeReachProbs(mdp, target, false).soln;
+
+		File file = dir.resolve("ckpt").toFile();
+		PrismSettings settings = new PrismSettings();
+		settings.set(PrismSettings.PRISM_CHECKPOINT_FILE, file.getPath());
+		settings.set(PrismSettings.PRISM_CHECKPOINT_INTERVAL, 0);
+		settings.set(PrismSettings.PRISM_CHECKPOINT_RESUME, true);
+		PrismComponent parent = new PrismComponent();
+		parent.setSettings(settings);
+		parent.setLog(new PrismDevNullLog());
+
+		// Stop early: the state of the computation is kept
+		MDPModelChecker mc = new MDPModelChecker(parent);
+		mc.setMaxIters(50);
+		assertThrows(PrismException.class, () -> mc.computeReachProbs(mdp, target, false));
+		assertTrue(file.exists());
+
+		// Resume and finish; the checkpoint is then removed
+		MDPModelChecker mc2 = new MDPModelChecker(parent);
+		ModelCheckerResult res = mc2.computeReachProbs(mdp, target, false);
+		assertArrayEquals(expected, res.soln, 1e-8);
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void testKeyIncludesStateSets() throws PrismException
+	{
+		PrismComponent parent = new PrismComponent();
+		PrismSettings settings = new PrismSettings();
+		settings.set(PrismSettings.PRISM_CHECKPOINT_FILE, "ckpt");
+		parent.setSettings(settings);
+		parent.setLog(new PrismDevNullLog());
+		MDPSimple<Double> mdp = randomWalk(4);
+		BitSet unknown = new BitSet();
+		unknown.set(1, 4);
+		BitSet zero = new BitSet();
+		zero.set(0);
+		BitSet four = new BitSet();
+		four.set(4);
+		String key1 = IterationCheckpoint.create(parent, mdp, null, "test", unknown, null, four, zero).getKey();
+		String key2 = IterationCheckpoint.create(parent, mdp, null, "test", unknown, null, zero, four).getKey();
+		assertEquals(key1, IterationCheckpoint.create(parent, mdp, null, "test", unknown, null, four, zero).getKey());
+		assertNotEquals(key1, key2);
+	}
+
+	@Test
+	public void testResumeSharedUnknownStates(@TempDir Path dir) throws PrismException
+	{
+		// Pmax=? [ F s=n ] and Pmax=? [ F s=0 ] have the same unknown states (1..n-1)
+		int n = 40;
+		MDPSimple<Double> mdp = randomWalk(n);
+		BitSet targetUp = new BitSet();
+		targetUp.set(n);
+		BitSet targetDown = new BitSet();
+		targetDown.set(0);
+		double[] expectedUp = new MDPModelChecker(new PrismComponent()).computeReachProbs(mdp, targetUp, false).soln;
+		double[] expectedDown = new MDPModelChecker(new PrismComponent()).computeReachProbs(mdp, targetDown, false).soln;
+
+		File file = dir.resolve("ckpt").toFile();
+		PrismSettings settings = new PrismSettings();
+		settings.set(PrismSettings.PRISM_CHECKPOINT_FILE, file.getPath());
+		settings.set(PrismSettings.PRISM_CHECKPOINT_INTERVAL, 0);
+		settings.set(PrismSettings.PRISM_CHECKPOINT_RESUME, true);
+		PrismComponent parent = new PrismComponent();
+		parent.setSettings(settings);
+		parent.setLog(new PrismDevNullLog());
+
+		// Interrupt the first computation
+		MDPModelChecker mc = new MDPModelChecker(parent);
+		mc.setMaxIters(50);
+		assertThrows(PrismException.class, () -> mc.computeReachProbs(mdp, targetUp, false));
+		assertTrue(file.exists());
+
+		// The second does not resume from it, and leaves it in place
+		ModelCheckerResult resDown = new MDPModelChecker(parent).computeReachProbs(mdp, targetDown, false);
+		assertArrayEquals(expectedDown, resDown.soln, 1e-8);
+		assertTrue(file.exists());
+
+		// The first can still be resumed
+		ModelCheckerResult resUp = new MDPModelChecker(parent).computeReachProbs(mdp, targetUp, false);
+		assertArrayEquals(expectedUp, resUp.soln, 1e-8);
+		assertFalse(file.exists());
+	}
+}
@@ -0,0 +1,181 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import parser.ast.Expression;
+import parser.ast.ExpressionFunc;
+import parser.ast.ExpressionLabel;
+import parser.ast.ExpressionProb;
+import parser.ast.ExpressionTemporal;
+import prism.Evaluator;
+import prism.Point;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismPrintStreamLog;
+import prism.PrismSettings;
+import prism.TileList;
+
+/**
+ * Tests for {@link MultiObjModelChecker}: the vertex cache and parallel weight-vector sweeps.
+ */
+public class MultiObjModelCheckerTest
+{
+	/**
+	 * MDP where, from state 0, one of several choices trades off reaching "a" against reaching "b":
+	 * state 1 is "a", 2 is "b", 3 is both and 4 is neither.
+	 * The Pareto curve has corners (1,0), (0.9,0.4), (0.6,0.6) and (0,1).
+	 */
+	private static MDPSimple<Double> tradeOff()
+	{
+		MDPSimple<Double> mdp = new MDPSimple<>(5);
+		mdp.addChoice(0, distr(1, 1.0));
+		mdp.addChoice(0, distr(2, 1.0));
+		Distribution<Double> mixed = distr(3, 0.6);
+		mixed.add(4, 0.4);
+		mdp.addChoice(0, mixed);
+		Distribution<Double> mixed2 = distr(1, 0.5);
+		mixed2.add(3, 0.4);
+		mixed2.add(4, 0.1);
+		mdp.addChoice(0, mixed2);
+		for (int s = 1; s < 5; s++) {
+			mdp.addChoice(s, distr(s, 1.0));
+		}
+		mdp.addInitialState(0);
+		mdp.addLabel("a", bits(1, 3));
+		mdp.addLabel("b", bits(2, 3));
+		return mdp;
+	}
+
+	private static Distribution<Double> distr(int s, double p)
+	{
+		Distribution<Double> distr = new Distribution<>(Evaluator.forDouble());
+		distr.add(s, p);
+		return distr;
+	}
+
+	private static BitSet bits(int... states)
+	{
+		BitSet bs = new BitSet();
+		for (int s : states) {
+			bs.set(s);
+		}
+		return bs;
+	}
+
+	/** P operator for "F label", with relational operator {@code relOp} and bound {@code bound} (null for "max=") */
+	private static ExpressionProb prob(String relOp, Double bound, String label)
+	{
+		Expression path = new ExpressionTemporal(ExpressionTemporal.P_F, null, new ExpressionLabel(label));
+		return new ExpressionProb(path, relOp, bound == null ? null : Expression.Double(bound));
+	}
+
+	private static ExpressionFunc multi(Expression... objs) throws PrismException
+	{
+		ExpressionFunc expr = new ExpressionFunc("multi");
+		for (Expression obj : objs) {
+			expr.addOperand(obj);
+		}
+		expr.typeCheck();
+		return expr;
+	}
+
+	/** multi(Pmax=? [ F max ], P>=bound [ F other ]) */
+	private static ExpressionFunc numerical(String max, double bound, String other) throws PrismException
+	{
+		return multi(prob("max=", null, max), prob(">=", bound, other));
+	}
+
+	/** multi(P>=bound1 [ F label1 ], P>=bound2 [ F label2 ]) */
+	private static ExpressionFunc achievability(String label1, double bound1, String label2, double bound2) throws PrismException
+	{
+		return multi(prob(">=", bound1, label1), prob(">=", bound2, label2));
+	}
+
+	/** multi(Pmax=? [ F "a" ], Pmax=? [ F "b" ]) */
+	private static ExpressionFunc pareto() throws PrismException
+	{
+		return multi(prob("max=", null, "a"), prob("max=", null, "b"));
+	}
+
+	private static MDPModelChecker modelChecker(int numThreads, double termCritParam, ByteArrayOutputStream log) throws PrismException
+	{
+		PrismSettings settings = new PrismSettings();
+		settings.set(PrismSettings.PRISM_MULTI_THREADS, numThreads);
+		settings.set(PrismSettings.PRISM_TERM_CRIT_PARAM, termCritParam);
+		PrismComponent parent = new PrismComponent();
+		parent.setSettings(settings);
+		parent.setLog(new PrismPrintStreamLog(new PrintStream(log, true)));
+		return new MDPModelChecker(parent);
+	}
+
+	private static Object check(MDP<Double> mdp, ExpressionFunc expr, int numThreads, double termCritParam, ByteArrayOutputStream log) throws PrismException
+	{
+		MultiObjModelChecker mcMulti = new MultiObjModelChecker(modelChecker(numThreads, termCritParam, log));
+		return mcMulti.checkExpressionMultiObjective(mdp, expr, null).getValue(0);
+	}
+
+	@Test
+	public void testCacheReusedForSameSettings() throws PrismException
+	{
+		MDPSimple<Double> mdp = tradeOff();
+		ByteArrayOutputStream log1 = new ByteArrayOutputStream();
+		double res1 = (Double) check(mdp, numerical("a", 0.3, "b"), 1, 1e-6, log1);
+		assertFalse(log1.toString().contains("Reusing"));
+		ByteArrayOutputStream log2 = new ByteArrayOutputStream();
+		double res2 = (Double) check(mdp, numerical("a", 0.3, "b"), 1, 1e-6, log2);
+		assertTrue(log2.toString().contains("Reusing"));
+		assertEquals(0.925, res1, 1e-6);
+		assertEquals(res1, res2, 1e-6);
+	}
+
+	@Test
+	public void testCacheNotReusedForOtherSettings() throws PrismException
+	{
+		MDPSimple<Double> mdp = tradeOff();
+		check(mdp, numerical("a", 0.3, "b"), 1, 1e-2, new ByteArrayOutputStream());
+		// A stricter tolerance must not start from points computed with a looser one
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+		check(mdp, numerical("a", 0.3, "b"), 1, 1e-8, log);
+		assertFalse(log.toString().contains("Reusing"));
+		// Nor can points be reused for a different model or different objectives
+		log = new ByteArrayOutputStream();
+		check(tradeOff(), numerical("a", 0.3, "b"), 1, 1e-8, log);
+		assertFalse(log.toString().contains("Reusing"));
+		log = new ByteArrayOutputStream();
+		check(mdp, numerical("b", 0.3, "a"), 1, 1e-8, log);
+		assertFalse(log.toString().contains("Reusing"));
+	}
+
+	@Test
+	public void testParallelMatchesSequential() throws PrismException
+	{
+		// Numerical queries
+		for (int i = 0; i < 2; i++) {
+			String max = i == 0 ? "a" : "b";
+			String other = i == 0 ? "b" : "a";
+			double seq = (Double) check(tradeOff(), numerical(max, 0.3, other), 1, 1e-8, new ByteArrayOutputStream());
+			double par = (Double) check(tradeOff(), numerical(max, 0.3, other), 4, 1e-8, new ByteArrayOutputStream());
+			assertEquals(seq, par, 1e-8);
+		}
+		// Achievability queries
+		assertEquals(true, check(tradeOff(), achievability("a", 0.6, "b", 0.6), 4, 1e-8, new ByteArrayOutputStream()));
+		assertEquals(false, check(tradeOff(), achievability("a", 0.9, "b", 0.9), 4, 1e-8, new ByteArrayOutputStream()));
+		// Pareto curve
+		List<Point> seq = ((TileList) check(tradeOff(), pareto(), 1, 1e-8, new ByteArrayOutputStream())).getRealPoints();
+		List<Point> par = ((TileList) check(tradeOff(), pareto(), 4, 1e-8, new ByteArrayOutputStream())).getRealPoints();
+		assertEquals(seq.size(), par.size());
+		for (Point p : seq) {
+			assertTrue(par.stream().anyMatch(p::isCloseTo), "missing point " + p);
+		}
+		assertTrue(par.stream().anyMatch(new Point(new double[] { 0.9, 0.4 })::isCloseTo));
+	}
+}
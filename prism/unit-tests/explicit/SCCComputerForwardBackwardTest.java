@@ -0,0 +1,150 @@
+package explicit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import prism.Evaluator;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismSettings;
+
+/**
+ * Tests for {@link SCCComputerForwardBackward}, comparing its SCCs against those of {@link SCCComputerTarjan},
+ * and for MEC computation using it.
+ */
+public class SCCComputerForwardBackwardTest
+{
+	/** Build a random DTMC, large enough for the parallel decomposition to be used, with mostly local edges. */
+	private static DTMCSimple<Double> randomDTMC(long seed, int numStates)
+	{
+		Random random = new Random(seed);
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(numStates);
+		for (int s = 0; s < numStates; s++) {
+			int numSuccs = random.nextInt(3);
+			for (int i = 0; i < numSuccs; i++) {
+				int t = random.nextDouble() < 0.9 ? Math.floorMod(s + random.nextInt(9) - 4, numStates) : random.nextInt(numStates);
+				dtmc.setProbability(s, t, 1.0);
+			}
+		}
+		return dtmc;
+	}
+
+	/** A component whose settings select the forward-backward method. */
+	private static PrismComponent forwardBackward() throws PrismException
+	{
+		PrismSettings settings = new PrismSettings();
+		settings.set(PrismSettings.PRISM_EXPLICIT_SCC_METHOD, SCCComputer.SCCMethod.FORWARD_BACKWARD.fullName());
+		settings.set(PrismSettings.PRISM_EXPLICIT_SCC_THREADS, 4);
+		PrismComponent parent = new PrismComponent();
+		parent.setSettings(settings);
+		return parent;
+	}
+
+	@Test
+	void sccsMatchTarjan() throws PrismException
+	{
+		int numStates = 20000;
+		for (long seed = 1; seed <= 3; seed++) {
+			DTMCSimple<Double> dtmc = randomDTMC(seed, numStates);
+			BitSet restrict = new BitSet();
+			Random random = new Random(seed);
+			for (int s = 0; s < numStates; s++) {
+				if (random.nextDouble() < 0.95)
+					restrict.set(s);
+			}
+			for (boolean filterTrivial : new boolean[] { true, false }) {
+				SCCConsumerStore expected = new SCCConsumerStore();
+				new SCCComputerTarjan(new PrismComponent(), dtmc, expected).computeSCCs(filterTrivial, restrict::get);
+				SCCConsumerStore actual = new SCCConsumerStore();
+				SCCComputer sccComputer = SCCComputer.createSCCComputer(forwardBackward(), dtmc, actual);
+				assertTrue(sccComputer instanceof SCCComputerForwardBackward);
+				sccComputer.computeSCCs(filterTrivial, restrict::get);
+				assertEquals(new HashSet<>(expected.getSCCs()), new HashSet<>(actual.getSCCs()));
+				assertEquals(expected.getSCCs().size(), actual.getSCCs().size());
+			}
+		}
+	}
+
+	@Test
+	void sccsAreInReverseTopologicalOrder() throws PrismException
+	{
+		int numStates = 20000;
+		DTMCSimple<Double> dtmc = randomDTMC(4, numStates);
+		SCCInfo sccs = SCCComputer.computeTopologicalOrdering(forwardBackward(), dtmc, true);
+		// Edges only lead to the same SCC or to ones reported earlier
+		for (int s = 0; s < numStates; s++) {
+			int scc = sccs.getSCCIndex(s);
+			for (int t : successors(dtmc, s)) {
+				assertTrue(sccs.getSCCIndex(t) <= scc);
+			}
+		}
+	}
+
+	@Test
+	void mecsMatchTarjan() throws PrismException
+	{
+		Random random = new Random(5);
+		int numStates = 10000;
+		MDPSimple<Double> mdp = new MDPSimple<>(numStates);
+		for (int s = 0; s < numStates; s++) {
+			int numChoices = random.nextInt(3);
+			for (int c = 0; c < numChoices; c++) {
+				Distribution<Double> distr = new Distribution<>(Evaluator.forDouble());
+				int numSuccs = 1 + random.nextInt(3);
+				for (int i = 0; i < numSuccs; i++) {
+					distr.add(Math.floorMod(s + random.nextInt(7) - 3, numStates), 1.0 / numSuccs);
+				}
+				mdp.addChoice(s, distr);
+			}
+		}
+		ECComputer expected = ECComputer.createECComputer(new PrismComponent(), mdp);
+		expected.computeMECStates();
+		ECComputer actual = ECComputer.createECComputer(forwardBackward(), mdp);
+		actual.computeMECStates();
+		assertEquals(new HashSet<>(expected.getMECStates()), new HashSet<>(actual.getMECStates()));
+		// Each MEC is closed under at least one choice of each of its states
+		for (BitSet mec : actual.getMECStates()) {
+			for (int s = mec.nextSetBit(0); s >= 0; s = mec.nextSetBit(s + 1)) {
+				boolean closed = false;
+				for (int i = 0; i < mdp.getNumChoices(s); i++) {
+					closed |= mdp.allSuccessorsInSet(s, i, mec);
+				}
+				assertTrue(closed);
+			}
+		}
+	}
+
+	@Test
+	void usesOnlyConfiguredThreads() throws PrismException
+	{
+		int numStates = 20000;
+		DTMCSimple<Double> dtmc = randomDTMC(6, numStates);
+		for (int numThreads : new int[] { 1, 2 }) {
+			PrismComponent parent = forwardBackward();
+			parent.getSettings().set(PrismSettings.PRISM_EXPLICIT_SCC_THREADS, numThreads);
+			// Record the threads on which (graph building) work is done
+			Set<Thread> threads = ConcurrentHashMap.newKeySet();
+			SCCComputer sccComputer = SCCComputer.createSCCComputer(parent, dtmc, new SCCConsumerStore());
+			sccComputer.computeSCCs(false, s -> threads.add(Thread.currentThread()) || true);
+			assertTrue(threads.size() <= numThreads, "used " + threads.size() + " threads");
+			for (Thread thread : threads) {
+				assertFalse(thread.getName().startsWith("ForkJoinPool.commonPool"), thread.getName());
+			}
+		}
+	}
+
+	private static List<Integer> successors(DTMCSimple<Double> dtmc, int s)
+	{
+		List<Integer> succs = new ArrayList<>();
+		dtmc.getSuccessorsIterator(s).forEachRemaining(succs::add);
+		return succs;
+	}
+}
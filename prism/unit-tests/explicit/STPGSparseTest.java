@@ -0,0 +1,198 @@
+package explicit;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import parser.State;
+import prism.Evaluator;
+import prism.ModelType;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.TestModelGenerator;
+
+/**
+ * Tests for {@link STPGSparse}, its construction from a model generator,
+ * and strategy iteration in {@link STPGModelChecker}.
+ */
+public class STPGSparseTest
+{
+	/** Build a random STPG, with states owned by either player and no deadlocks. */
+	private static STPGSimple<Double> randomSTPG(long seed, int numStates)
+	{
+		Random random = new Random(seed);
+		STPGSimple<Double> stpg = new STPGSimple<>(numStates);
+		for (int s = 0; s < numStates; s++) {
+			stpg.setPlayer(s, random.nextInt(2));
+			int numChoices = 1 + random.nextInt(3);
+			for (int c = 0; c < numChoices; c++) {
+				Distribution<Double> distr = new Distribution<>(Evaluator.forDouble());
+				int numSuccs = 1 + random.nextInt(3);
+				for (int i = 0; i < numSuccs; i++) {
+					distr.add(random.nextInt(numStates), 1.0 / numSuccs);
+				}
+				stpg.addChoice(s, distr);
+			}
+		}
+		stpg.addInitialState(0);
+		return stpg;
+	}
+
+	/** Random walk on 0..n where player 1 owns even states and player 2 odd ones; both can bias the next step. */
+	private static class WalkGame extends TestModelGenerator
+	{
+		public WalkGame(int n)
+		{
+			super(n);
+		}
+
+		@Override
+		public ModelType getModelType()
+		{
+			return ModelType.STPG;
+		}
+
+		@Override
+		public int getPlayer(State state)
+		{
+			return ((Integer) state.varValues[0]) % 2;
+		}
+
+		@Override
+		public int getNumChoices()
+		{
+			return x > 0 && x < n ? 2 : 1;
+		}
+
+		@Override
+		public Double getTransitionProbability(int i, int offset)
+		{
+			if (x == 0 || x == n) {
+				return 1.0;
+			}
+			// Choice 0 favours going down, choice 1 going up
+			return (offset == i) ? 0.6 : 0.4;
+		}
+
+		@Override
+		public State computeTransitionTarget(int i, int offset)
+		{
+			State s = new State(1);
+			s.varValues[0] = (x == 0 || x == n) ? x : (offset == 0) ? x - 1 : x + 1;
+			return s;
+		}
+	}
+
+	@Test
+	void stepsMatchSimple()
+	{
+		int numStates = 300;
+		STPGSimple<Double> simple = randomSTPG(1, numStates);
+		STPGSparse sparse = new STPGSparse(simple);
+		assertEquals(simple.getNumTransitions(), sparse.getNumTransitions());
+		Random random = new Random(2);
+		double[] vect = new double[numStates];
+		for (int s = 0; s < numStates; s++) {
+			vect[s] = random.nextDouble();
+		}
+		BitSet u = new BitSet();
+		for (int s = 0; s < numStates; s += 3) {
+			u.set(s);
+		}
+		BitSet all = new BitSet();
+		all.set(0, numStates);
+		for (boolean b1 : new boolean[] { true, false }) {
+			for (boolean b2 : new boolean[] { true, false }) {
+				double[] res1 = new double[numStates];
+				double[] res2 = new double[numStates];
+				simple.mvMultMinMax(vect, b1, b2, res1, null, false, null);
+				sparse.mvMultMinMax(vect, b1, b2, res2, null, false, null);
+				assertArrayEquals(res1, res2, 1e-12);
+				BitSet p1 = new BitSet(), p2 = new BitSet();
+				simple.prob0step(all, u, b1, b2, p1);
+				sparse.prob0step(all, u, b1, b2, p2);
+				assertEquals(p1, p2);
+				p1.clear();
+				p2.clear();
+				simple.prob1step(all, all, u, b1, b2, p1);
+				sparse.prob1step(all, all, u, b1, b2, p2);
+				assertEquals(p1, p2);
+			}
+		}
+	}
+
+	@Test
+	void inducedMDPKeepsOnlyFixedChoices()
+	{
+		STPGSimple<Double> simple = randomSTPG(3, 100);
+		STPGSparse sparse = new STPGSparse(simple);
+		int[] strat = new int[100];
+		for (int s = 0; s < 100; s++) {
+			strat[s] = sparse.getNumChoices(s) - 1;
+		}
+		MDP<Double> mdp = sparse.constructInducedMDP(0, strat);
+		MDP<Double> mdpSimple = simple.constructInducedMDP(0, strat);
+		double[] vect = new double[100];
+		for (int s = 0; s < 100; s++) {
+			vect[s] = s / 100.0;
+		}
+		for (int s = 0; s < 100; s++) {
+			int expected = sparse.getPlayer(s) == 0 ? 1 : sparse.getNumChoices(s);
+			assertEquals(expected, mdp.getNumChoices(s));
+			assertEquals(expected, mdpSimple.getNumChoices(s));
+			for (int i = 0; i < expected; i++) {
+				assertEquals(mdpSimple.mvMultSingle(s, i, vect), mdp.mvMultSingle(s, i, vect), 1e-12);
+			}
+		}
+	}
+
+	@Test
+	void strategyIterationMatchesValueIteration() throws PrismException
+	{
+		int numStates = 400;
+		STPGSparse stpg = new STPGSparse(randomSTPG(4, numStates));
+		BitSet target = new BitSet();
+		for (int s = 0; s < numStates; s += 17) {
+			target.set(s);
+		}
+		STPGModelChecker mc = new STPGModelChecker(new PrismComponent());
+		for (boolean min1 : new boolean[] { true, false }) {
+			mc.setSolnMethod(ProbModelChecker.SolnMethod.VALUE_ITERATION);
+			double[] vi = mc.computeReachProbs(stpg, target, min1, !min1).soln;
+			mc.setSolnMethod(ProbModelChecker.SolnMethod.POLICY_ITERATION);
+			double[] si = mc.computeReachProbs(stpg, target, min1, !min1).soln;
+			assertArrayEquals(vi, si, 1e-5);
+		}
+	}
+
+	@Test
+	void constructFromModelGenerator() throws PrismException
+	{
+		int n = 10;
+		ConstructModel constructModel = new ConstructModel(new PrismComponent());
+		constructModel.setSortStates(true);
+		Model<Double> model = constructModel.constructModel(new WalkGame(n));
+		assertTrue(model instanceof STPGSparse);
+		STPGSparse stpg = (STPGSparse) model;
+		assertEquals(ModelType.STPG, stpg.getModelType());
+		assertEquals(n + 1, stpg.getNumStates());
+		BitSet target = new BitSet();
+		for (int s = 0; s < stpg.getNumStates(); s++) {
+			int x = (Integer) stpg.getStatesList().get(s).varValues[0];
+			assertEquals(x % 2, stpg.getPlayer(s));
+			if (x == n) {
+				target.set(s);
+			}
+		}
+		// Player 1 maximising, player 2 minimising: both solution methods agree
+		STPGModelChecker mc = new STPGModelChecker(new PrismComponent());
+		double[] vi = mc.computeReachProbs(stpg, target, false, true).soln;
+		mc.setSolnMethod(ProbModelChecker.SolnMethod.POLICY_ITERATION);
+		double[] si = mc.computeReachProbs(stpg, target, false, true).soln;
+		assertArrayEquals(vi, si, 1e-5);
+		// From 5, the walk alternates between steps up (w.p. 0.6) and down (w.p. 0.6)
+		assertEquals(0.48, si[stpg.getFirstInitialState()], 1e-5);
+	}
+}
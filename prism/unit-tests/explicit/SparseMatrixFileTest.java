@@ -0,0 +1,207 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import prism.Evaluator;
+import prism.PrismComponent;
+import prism.PrismDevNullLog;
+import prism.PrismException;
+
+/**
+ * Tests for {@link SparseMatrixFile}, {@link MDPSparseMapped} and {@link DTMCSparseMapped}.
+ */
+public class SparseMatrixFileTest
+{
+	/** Build a random MDP, with action-labelled choices and no deadlocks. */
+	private static MDPSimple<Double> randomMDP(long seed, int numStates)
+	{
+		Random random = new Random(seed);
+		MDPSimple<Double> mdp = new MDPSimple<>(numStates);
+		for (int s = 0; s < numStates; s++) {
+			int numChoices = 1 + random.nextInt(3);
+			for (int c = 0; c < numChoices; c++) {
+				Distribution<Double> distr = new Distribution<>(Evaluator.forDouble());
+				int numSuccs = 1 + random.nextInt(3);
+				for (int i = 0; i < numSuccs; i++) {
+					distr.add(random.nextInt(numStates), 1.0 / numSuccs);
+				}
+				mdp.addActionLabelledChoice(s, distr, c == 0 ? null : "a" + c);
+			}
+		}
+		mdp.addInitialState(0);
+		return mdp;
+	}
+
+	/** Build a random DTMC, with no deadlocks. */
+	private static DTMCSimple<Double> randomDTMC(long seed, int numStates)
+	{
+		Random random = new Random(seed);
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(numStates);
+		for (int s = 0; s < numStates; s++) {
+			int numSuccs = 1 + random.nextInt(4);
+			for (int i = 0; i < numSuccs; i++) {
+				dtmc.addToProbability(s, random.nextInt(numStates), 1.0 / numSuccs);
+			}
+		}
+		dtmc.addInitialState(0);
+		return dtmc;
+	}
+
+	private static BitSet everyNth(int numStates, int n)
+	{
+		BitSet set = new BitSet();
+		for (int s = 0; s < numStates; s += n) {
+			set.set(s);
+		}
+		return set;
+	}
+
+	@Test
+	public void testMDP(@TempDir Path dir) throws PrismException
+	{
+		int numStates = 500;
+		MDPSimple<Double> simple = randomMDP(1, numStates);
+		File file = dir.resolve("mdp.csr").toFile();
+		SparseMatrixFile.write(file, simple, 42);
+		// Map in tiny chunks, to exercise accesses across chunk boundaries
+		SparseMatrixFile matrix = SparseMatrixFile.open(file, 6);
+		assertEquals(42, matrix.getFingerprint());
+		MDPSparseMapped mapped = new MDPSparseMapped(simple, matrix);
+		assertEquals(simple.getNumChoices(), mapped.getNumChoices());
+		assertEquals(simple.getNumTransitions(), mapped.getNumTransitions());
+		assertEquals(simple.getMaxNumChoices(), mapped.getMaxNumChoices());
+		for (int s = 0; s < numStates; s++) {
+			assertEquals(simple.getNumChoices(s), mapped.getNumChoices(s));
+			for (int i = 0; i < simple.getNumChoices(s); i++) {
+				assertEquals(simple.getAction(s, i), mapped.getAction(s, i));
+				assertEquals(simple.getNumTransitions(s, i), mapped.getNumTransitions(s, i));
+			}
+		}
+		assertEquals(simple.findActionsUsed(), mapped.findActionsUsed());
+
+		Random random = new Random(2);
+		double[] vect = new double[numStates];
+		for (int s = 0; s < numStates; s++) {
+			vect[s] = random.nextDouble();
+		}
+		for (boolean min : new boolean[] { true, false }) {
+			double[] res1 = new double[numStates];
+			double[] res2 = new double[numStates];
+			simple.mvMultMinMax(vect, min, res1, null, false, null);
+			mapped.mvMultMinMax(vect, min, res2, null, false, null);
+			assertArrayEquals(res1, res2, 1e-12);
+		}
+
+		BitSet target = everyNth(numStates, 13);
+		MDPModelChecker mc = new MDPModelChecker(new PrismComponent());
+		for (boolean min : new boolean[] { true, false }) {
+			double[] expected = mc.computeReachProbs(simple, target, min).soln;
+			assertArrayEquals(expected, mc.computeReachProbs(mapped, target, min).soln, 1e-12);
+		}
+	}
+
+	@Test
+	public void testDTMC(@TempDir Path dir) throws PrismException
+	{
+		int numStates = 500;
+		DTMCSimple<Double> simple = randomDTMC(3, numStates);
+		File file = dir.resolve("dtmc.csr").toFile();
+		SparseMatrixFile.write(file, simple, 7);
+		DTMCSparseMapped mapped = new DTMCSparseMapped(simple, SparseMatrixFile.open(file, 6));
+		assertEquals(simple.getNumTransitions(), mapped.getNumTransitions());
+		assertTrue(mapped.onlyNullActionUsed());
+
+		double[] vect = new double[numStates];
+		for (int s = 0; s < numStates; s++) {
+			vect[s] = s / (double) numStates;
+		}
+		double[] res1 = new double[numStates];
+		double[] res2 = new double[numStates];
+		simple.vmMult(vect, res1);
+		mapped.vmMult(vect, res2);
+		assertArrayEquals(res1, res2, 1e-12);
+		for (int s = 0; s < numStates; s++) {
+			assertEquals(simple.mvMultSingle(s, vect), mapped.mvMultSingle(s, vect), 1e-12);
+			assertEquals(simple.mvMultJacSingle(s, vect), mapped.mvMultJacSingle(s, vect), 1e-12);
+		}
+
+		BitSet target = everyNth(numStates, 11);
+		DTMCModelChecker mc = new DTMCModelChecker(new PrismComponent());
+		double[] expected = mc.computeReachProbs(simple, target).soln;
+		assertArrayEquals(expected, mc.computeReachProbs(mapped, target).soln, 1e-12);
+	}
+
+	@Test
+	public void testReuse(@TempDir Path dir) throws PrismException
+	{
+		MDPSimple<Double> simple = randomMDP(4, 100);
+		ModelExplicit<Double> mapped1 = SparseMatrixFile.toMappedModel(simple, dir.toFile(), new PrismDevNullLog());
+		File file = ((MDPSparseMapped) mapped1).getMatrix().getFile();
+		long modified = file.lastModified();
+		// An identical model reuses the existing file
+		ModelExplicit<Double> mapped2 = SparseMatrixFile.toMappedModel(randomMDP(4, 100), dir.toFile(), new PrismDevNullLog());
+		assertEquals(file, ((MDPSparseMapped) mapped2).getMatrix().getFile());
+		assertEquals(modified, file.lastModified());
+		// A different one does not
+		SparseMatrixFile.toMappedModel(randomMDP(5, 100), dir.toFile(), new PrismDevNullLog());
+		assertEquals(2, dir.toFile().list().length);
+		// Nor does one that differs only in action labels
+		MDPSimple<Double> relabelled = randomMDP(4, 100);
+		relabelled.setAction(0, 0, "b");
+		ModelExplicit<Double> mapped3 = SparseMatrixFile.toMappedModel(relabelled, dir.toFile(), new PrismDevNullLog());
+		assertEquals(3, dir.toFile().list().length);
+		assertEquals("b", ((MDPSparseMapped) mapped3).getAction(0, 0));
+		// Similarly for DTMCs, including whether any actions are used
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(2);
+		dtmc.addToProbability(0, 1, 1.0);
+		dtmc.addToProbability(1, 1, 1.0);
+		dtmc.addInitialState(0);
+		DTMCSimple<Double> dtmcAction = new DTMCSimple<>(2);
+		dtmcAction.addToProbability(0, 1, 1.0, "go");
+		dtmcAction.addToProbability(1, 1, 1.0);
+		dtmcAction.addInitialState(0);
+		DTMCSimple<Double> dtmcAction2 = new DTMCSimple<>(2);
+		dtmcAction2.addToProbability(0, 1, 1.0, "stop");
+		dtmcAction2.addToProbability(1, 1, 1.0);
+		dtmcAction2.addInitialState(0);
+		File dtmcDir = dir.resolve("dtmc").toFile();
+		SparseMatrixFile.toMappedModel(dtmc, dtmcDir, new PrismDevNullLog());
+		SparseMatrixFile.toMappedModel(dtmcAction, dtmcDir, new PrismDevNullLog());
+		DTMCSparseMapped mapped4 = (DTMCSparseMapped) SparseMatrixFile.toMappedModel(dtmcAction2, dtmcDir, new PrismDevNullLog());
+		assertEquals(3, dtmcDir.list().length);
+		assertEquals("stop", mapped4.getTransitionsAndActionsIterator(0).next().getValue().second);
+	}
+
+	@Test
+	public void testRewriteMappedFile(@TempDir Path dir) throws PrismException
+	{
+		MDPSimple<Double> simple1 = randomMDP(6, 200);
+		File file = dir.resolve("mdp.csr").toFile();
+		SparseMatrixFile matrix1 = SparseMatrixFile.write(file, simple1, 1);
+		// Replacing the file does not affect a mapping of the previous one
+		SparseMatrixFile matrix2 = SparseMatrixFile.write(file, randomMDP(7, 300), 2);
+		assertEquals(2, matrix2.getFingerprint());
+		MDPSparseMapped mapped1 = new MDPSparseMapped(simple1, matrix1);
+		assertEquals(simple1.getNumTransitions(), mapped1.getNumTransitions());
+		double[] vect = new double[200];
+		for (int s = 0; s < 200; s++) {
+			vect[s] = s;
+		}
+		double[] res1 = new double[200];
+		double[] res2 = new double[200];
+		simple1.mvMultMinMax(vect, false, res1, null, false, null);
+		mapped1.mvMultMinMax(vect, false, res2, null, false, null);
+		assertArrayEquals(res1, res2, 1e-12);
+		assertEquals(1, dir.toFile().list().length);
+	}
+}
@@ -0,0 +1,135 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismComponent;
+import prism.PrismDevNullLog;
+import prism.PrismException;
+import prism.PrismSettings;
+
+/**
+ * Tests for {@link SteadyStateLU} and its use in {@link DTMCModelChecker}.
+ */
+public class SteadyStateLUTest
+{
+	/** Build a random irreducible DTMC: a cycle through all states, plus random transitions. */
+	private static DTMCSimple<Double> randomIrreducibleDTMC(long seed, int numStates)
+	{
+		Random random = new Random(seed);
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(numStates);
+		for (int s = 0; s < numStates; s++) {
+			int numSuccs = random.nextInt(3);
+			double p = 1.0 / (numSuccs + 1);
+			dtmc.addToProbability(s, (s + 1) % numStates, p);
+			for (int i = 0; i < numSuccs; i++) {
+				dtmc.addToProbability(s, random.nextInt(numStates), p);
+			}
+		}
+		dtmc.addInitialState(0);
+		return dtmc;
+	}
+
+	private static DTMCModelChecker modelChecker(int ssDirectMax) throws PrismException
+	{
+		PrismSettings settings = new PrismSettings();
+		settings.set(PrismSettings.PRISM_SS_DIRECT_MAX_STATES, ssDirectMax);
+		settings.set(PrismSettings.PRISM_TERM_CRIT_PARAM, 1e-12);
+		settings.set(PrismSettings.PRISM_MAX_ITERS, 1000000);
+		PrismComponent parent = new PrismComponent();
+		parent.setSettings(settings);
+		parent.setLog(new PrismDevNullLog());
+		return new DTMCModelChecker(parent);
+	}
+
+	@Test
+	public void testMatchesIterative() throws PrismException
+	{
+		int numStates = 400;
+		DTMCSimple<Double> dtmc = randomIrreducibleDTMC(1, numStates);
+		BitSet all = new BitSet();
+		all.set(0, numStates);
+		double[] direct = new double[numStates];
+		assertTrue(new SteadyStateLU().solve(dtmc, all, direct));
+		double[] iterative = modelChecker(0).computeSteadyStateProbsForBSCC(dtmc, all, null).soln;
+		assertArrayEquals(iterative, direct, 1e-9);
+		double sum = 0;
+		for (double d : direct) {
+			sum += d;
+		}
+		assertEquals(1.0, sum, 1e-12);
+	}
+
+	@Test
+	public void testBirthDeath() throws PrismException
+	{
+		// Birth-death chain: pi(s+1)/pi(s) = up/down
+		int numStates = 50;
+		double up = 0.3, down = 0.6;
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(numStates);
+		for (int s = 0; s < numStates; s++) {
+			double stay = 1.0;
+			if (s + 1 < numStates) {
+				dtmc.setProbability(s, s + 1, up);
+				stay -= up;
+			}
+			if (s > 0) {
+				dtmc.setProbability(s, s - 1, down);
+				stay -= down;
+			}
+			dtmc.setProbability(s, s, stay);
+		}
+		BitSet all = new BitSet();
+		all.set(0, numStates);
+		double[] soln = modelChecker(5000).computeSteadyStateProbsForBSCC(dtmc, all, null).soln;
+		for (int s = 0; s + 1 < numStates; s++) {
+			assertEquals(up / down, soln[s + 1] / soln[s], 1e-12);
+		}
+	}
+
+	@Test
+	public void testStiff() throws PrismException
+	{
+		// Nearly decomposable chain, far too slow for the power method
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(3);
+		dtmc.setProbability(0, 0, 1 - 1e-10);
+		dtmc.setProbability(0, 1, 1e-10);
+		dtmc.setProbability(1, 0, 2e-10);
+		dtmc.setProbability(1, 1, 1 - 2e-10);
+		// State 2 is not in the BSCC, and its entry is left unchanged
+		dtmc.setProbability(2, 0, 1.0);
+		BitSet bscc = new BitSet();
+		bscc.set(0, 2);
+		double[] result = new double[] { 0, 0, 0.5 };
+		modelChecker(5000).computeSteadyStateProbsForBSCC(dtmc, bscc, result);
+		assertArrayEquals(new double[] { 2.0 / 3, 1.0 / 3, 0.5 }, result, 1e-12);
+	}
+
+	@Test
+	public void testNotBSCC()
+	{
+		DTMCSimple<Double> dtmc = randomIrreducibleDTMC(2, 20);
+		BitSet some = new BitSet();
+		some.set(0, 10);
+		double[] result = new double[20];
+		SteadyStateLU lu = new SteadyStateLU();
+		assertFalse(lu.solve(dtmc, some, result));
+		assertEquals("not a BSCC", lu.getFailureReason());
+		assertArrayEquals(new double[20], result);
+		// Closed, but not irreducible
+		DTMCSimple<Double> reducible = new DTMCSimple<>(2);
+		reducible.setProbability(0, 0, 1.0);
+		reducible.setProbability(1, 0, 1.0);
+		BitSet both = new BitSet();
+		both.set(0, 2);
+		assertFalse(lu.solve(reducible, both, new double[2]));
+		assertEquals("not irreducible", lu.getFailureReason());
+	}
+}
@@ -0,0 +1,80 @@
+package io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import prism.PrismException;
+import prism.PrismPrintStreamLog;
+import prism.PrismUtils;
+
+/**
+ * Tests for {@link ExportBuffer} and {@link ChunkedExportWriter}.
+ */
+public class ExportBufferTest
+{
+	@Test
+	void appendDoubleMatchesFormatDouble()
+	{
+		double[] special = { 0.0, -0.0, 0.1, 0.1 + 0.2, 1.0 / 3, 2.0 / 3, 0.5, 1.0, 1e-4, 9.99995e-5, 1e-5, 1e15, 1e16, 1e23,
+				9999999999999999.0, 99999.5, 5e-324, Double.MAX_VALUE, Double.MIN_NORMAL, Double.NaN, Double.POSITIVE_INFINITY,
+				2.82879384806159E17 };
+		// Check both with and without relying on Double.toString matching Formatter
+		// (the latter is what happens from JDK 19)
+		for (boolean trust : new boolean[] { true, false }) {
+			ExportBuffer buf = new ExportBuffer(16);
+			buf.trustToStringDigits = trust;
+			checkAppendDouble(buf, special, new Random(1));
+		}
+	}
+
+	private static void checkAppendDouble(ExportBuffer buf, double[] special, Random random)
+	{
+		for (int i = 0; i < 200000 + special.length; i++) {
+			double d;
+			if (i < special.length) {
+				d = special[i];
+			} else {
+				switch (i % 4) {
+				case 0: d = Double.longBitsToDouble(random.nextLong()); break;
+				case 1: d = (double) (1 + random.nextInt(1000)) / (1 + random.nextInt(1000)); break;
+				case 2: d = random.nextDouble() * Math.pow(10, random.nextInt(40) - 20); break;
+				default: d = -random.nextInt(100000); break;
+				}
+			}
+			for (int prec : new int[] { 1, 3, 6, 15, 16, 17 }) {
+				buf.reset();
+				buf.appendDouble(d, prec);
+				assertEquals(PrismUtils.formatDouble(prec, d), buf.toString(), "Formatting " + d + " with precision " + prec);
+			}
+		}
+	}
+
+	@Test
+	void appendText()
+	{
+		ExportBuffer buf = new ExportBuffer(16);
+		buf.append(0).append(' ').append(-42).append(' ').append(Long.MIN_VALUE).append(' ').append("naïve").append('\n');
+		assertEquals("0 -42 " + Long.MIN_VALUE + " naïve\n", buf.toString());
+	}
+
+	@Test
+	void parallelChunksWrittenInOrder() throws PrismException
+	{
+		int numStates = 50000;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrismPrintStreamLog log = new PrismPrintStreamLog(new PrintStream(bytes));
+		ChunkedExportWriter writer = new ChunkedExportWriter(log, 4);
+		writer.getBuffer().append("header\n");
+		writer.writeStates(numStates, (s, buf) -> buf.append(s).append(' ').appendDouble(1.0 / (s + 1), 16).append('\n'));
+		writer.flush();
+		StringBuilder expected = new StringBuilder("header\n");
+		for (int s = 0; s < numStates; s++) {
+			expected.append(s).append(' ').append(PrismUtils.formatDouble(16, 1.0 / (s + 1))).append('\n');
+		}
+		assertEquals(expected.toString(), bytes.toString());
+	}
+}
@@ -6,6 +6,7 @@ import java.math.BigInteger;
 import java.util.BitSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BigRationalTest
 {
@@ -44,4 +45,50 @@ public class BigRationalTest
 		assertEquals(absMin, new BigRational(Double.MIN_VALUE));
 		assertEquals(absMin.negate(), new BigRational(-Double.MIN_VALUE));
 	}
+
+	@Test
+	public void testBigRationalOverflow()
+	{
+		BigRational max = new BigRational(Long.MAX_VALUE);
+		BigRational min = new BigRational(Long.MIN_VALUE);
+		BigInteger bigMax = BigInteger.valueOf(Long.MAX_VALUE);
+		BigInteger bigMin = BigInteger.valueOf(Long.MIN_VALUE);
+
+		// results exceeding the range of long
+		assertEquals(new BigRational(bigMax.add(BigInteger.ONE)), max.add(BigRational.ONE));
+		assertEquals(new BigRational(bigMin.subtract(BigInteger.ONE)), min.subtract(BigRational.ONE));
+		assertEquals(new BigRational(bigMin.negate()), min.negate());
+		assertEquals(new BigRational(bigMax.multiply(bigMax)), max.multiply(max));
+		assertEquals(new BigRational(BigInteger.ONE, bigMax.multiply(bigMax)), BigRational.ONE.divide(max.multiply(max)));
+
+		// results back in the range of long
+		assertEquals(max, max.add(BigRational.ONE).subtract(BigRational.ONE));
+		assertEquals(min, min.subtract(BigRational.ONE).add(BigRational.ONE));
+
+		// hash codes are independent of representation
+		BigRational big = new BigRational(bigMax.add(BigInteger.ONE)).subtract(BigRational.ONE);
+		assertEquals(max, big);
+		assertEquals(max.hashCode(), big.hashCode());
+		BigRational third = new BigRational(1, 3);
+		assertEquals(third.hashCode(), new BigRational(BigInteger.ONE, BigInteger.valueOf(3)).hashCode());
+	}
+
+	@Test
+	public void testBigRationalCompare()
+	{
+		// a / b vs (a - 1) / (b - 1), where cross products exceed the range of long
+		BigRational a = new BigRational(Long.MAX_VALUE, Long.MAX_VALUE - 2);
+		BigRational b = new BigRational(Long.MAX_VALUE - 1, Long.MAX_VALUE - 3);
+		assertEquals(-1, a.compareTo(b));
+		assertEquals(1, b.compareTo(a));
+		assertEquals(0, a.compareTo(new BigRational(BigInteger.valueOf(Long.MAX_VALUE), BigInteger.valueOf(Long.MAX_VALUE - 2))));
+		assertEquals(-1, a.negate().compareTo(a));
+
+		// special values
+		assertTrue(BigRational.INF.compareTo(new BigRational(Long.MAX_VALUE)) > 0);
+		assertTrue(BigRational.MINF.compareTo(new BigRational(Long.MIN_VALUE)) < 0);
+		assertTrue(new BigRational(Double.NaN).isNaN());
+		assertTrue(new BigRational(Double.POSITIVE_INFINITY).isInf());
+		assertTrue(new BigRational(Double.NEGATIVE_INFINITY).isMInf());
+	}
 }
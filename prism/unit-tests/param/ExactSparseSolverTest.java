@@ -0,0 +1,165 @@
+package param;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import explicit.DTMCModelChecker;
+import explicit.DTMCSimple;
+import prism.Evaluator;
+import prism.PrismComponent;
+import prism.PrismException;
+
+/**
+ * Tests for {@link ExactSparseSolver}, comparing its results on DTMCs
+ * with those of state elimination on a {@link MutablePMC}.
+ */
+public class ExactSparseSolverTest
+{
+	private static FunctionFactory functionFactory()
+	{
+		BigRational[] lower = { new BigRational(0) };
+		BigRational[] upper = { new BigRational(1) };
+		return new JasFunctionFactory(new String[] { "p" }, lower, upper);
+	}
+
+	/**
+	 * Build a random DTMC with rational transition probabilities: the last state is the target,
+	 * and some states are absorbing (so do not reach the target) or only reach the target
+	 * with probability less than 1.
+	 */
+	private static DTMCSimple<Function> randomDTMC(FunctionFactory factory, long seed, int n)
+	{
+		Random random = new Random(seed);
+		DTMCSimple<Function> dtmc = new DTMCSimple<>(n);
+		dtmc.setEvaluator(Evaluator.forRationalFunction(factory));
+		for (int s = 0; s < n; s++) {
+			if (s == n - 1 || random.nextInt(8) == 0) {
+				dtmc.setProbability(s, s, factory.getOne());
+				continue;
+			}
+			int numSuccs = 1 + random.nextInt(3);
+			int[] weights = new int[numSuccs];
+			int total = 0;
+			for (int i = 0; i < numSuccs; i++) {
+				weights[i] = 1 + random.nextInt(5);
+				total += weights[i];
+			}
+			for (int i = 0; i < numSuccs; i++) {
+				// Mostly move forwards, so that most states reach the target
+				int t = random.nextInt(4) == 0 ? random.nextInt(n) : Math.min(n - 1, s + 1 + random.nextInt(3));
+				dtmc.addToProbability(s, t, factory.fromBigRational(new BigRational(weights[i], total)));
+			}
+		}
+		dtmc.addInitialState(0);
+		return dtmc;
+	}
+
+	/**
+	 * Compute reachability probabilities (if {@code rewards} is null) or expected rewards
+	 * by state elimination, building the MutablePMC as done in {@link ValueComputer}
+	 * (states with infinite reward are made absorbing, with reward infinity).
+	 */
+	private static Function[] eliminate(FunctionFactory factory, DTMCSimple<Function> dtmc, BitSet target, BigRational[] rewards) throws PrismException
+	{
+		int n = dtmc.getNumStates();
+		BitSet inf = new BitSet();
+		if (rewards != null) {
+			DTMCModelChecker mc = new DTMCModelChecker(new PrismComponent());
+			mc.setSilentPrecomputations(true);
+			inf = mc.prob1(dtmc, null, target);
+			inf.flip(0, n);
+		}
+		MutablePMC pmc = new MutablePMC(factory, n, rewards != null, false);
+		for (int s = 0; s < n; s++) {
+			pmc.setTargetState(s, target.get(s));
+			pmc.setInitState(s, dtmc.isInitialState(s));
+			if (!target.get(s) && !inf.get(s)) {
+				for (Iterator<Map.Entry<Integer, Function>> iter = dtmc.getTransitionsIterator(s); iter.hasNext();) {
+					Map.Entry<Integer, Function> e = iter.next();
+					pmc.addTransition(s, e.getKey(), e.getValue());
+				}
+			} else {
+				pmc.addTransition(s, s, factory.getOne());
+			}
+			if (rewards != null) {
+				pmc.setReward(s, target.get(s) ? factory.getZero() : inf.get(s) ? factory.getInf() : factory.fromBigRational(rewards[s]));
+			}
+		}
+		StateEliminator eliminator = new StateEliminator(pmc, StateEliminator.EliminationOrder.BACKWARD);
+		eliminator.eliminate();
+		Function[] result = new Function[n];
+		for (int s = 0; s < n; s++) {
+			result[s] = eliminator.getResult(s);
+		}
+		return result;
+	}
+
+	private static void assertSameValues(Function[] expected, BigRational[] actual, BitSet inf)
+	{
+		for (int s = 0; s < expected.length; s++) {
+			if (inf.get(s)) {
+				assertTrue(actual[s].isInf(), "state " + s);
+			} else {
+				assertEquals(expected[s].asBigRational(), actual[s], "state " + s);
+			}
+		}
+	}
+
+	@Test
+	public void testReachProbs() throws PrismException
+	{
+		FunctionFactory factory = functionFactory();
+		int n = 30;
+		for (long seed = 0; seed < 5; seed++) {
+			DTMCSimple<Function> dtmc = randomDTMC(factory, seed, n);
+			BitSet target = new BitSet();
+			target.set(n - 1);
+			Function[] expected = eliminate(factory, dtmc, target, null);
+			BigRational[] actual = new ExactSparseSolver(dtmc).solveMC(null, null, target, null);
+			assertSameValues(expected, actual, new BitSet());
+			assertEquals(BigRational.ONE, actual[n - 1]);
+		}
+	}
+
+	@Test
+	public void testReachRewards() throws PrismException
+	{
+		FunctionFactory factory = functionFactory();
+		int n = 30;
+		int numInf = 0;
+		for (long seed = 0; seed < 5; seed++) {
+			DTMCSimple<Function> dtmc = randomDTMC(factory, seed, n);
+			BitSet target = new BitSet();
+			target.set(n - 1);
+			Random random = new Random(seed);
+			BigRational[] rewards = new BigRational[n];
+			for (int s = 0; s < n; s++) {
+				rewards[s] = new BigRational(random.nextInt(4), 1 + random.nextInt(3));
+			}
+			// States not reaching the target with probability 1 get infinite reward
+			DTMCModelChecker mc = new DTMCModelChecker(new PrismComponent());
+			mc.setSilentPrecomputations(true);
+			BitSet inf = mc.prob1(dtmc, null, target);
+			inf.flip(0, n);
+			numInf += inf.cardinality();
+			Function[] expected = eliminate(factory, dtmc, target, rewards);
+			// The solver finds the infinite-reward states itself
+			BigRational[] actual = new ExactSparseSolver(dtmc).solveMC(null, null, target, rewards);
+			assertSameValues(expected, actual, inf);
+			// As called from ValueComputer, with these states removed from those to remain in
+			BitSet remain = (BitSet) inf.clone();
+			remain.flip(0, n);
+			actual = new ExactSparseSolver(dtmc).solveMC(null, remain, target, rewards);
+			assertSameValues(expected, actual, inf);
+		}
+		// Check that infinite rewards were actually tested
+		assertTrue(numInf > 0);
+	}
+}
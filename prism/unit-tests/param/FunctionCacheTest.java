@@ -0,0 +1,76 @@
+package param;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FunctionCacheTest
+{
+	@Test
+	public void testLRUEviction()
+	{
+		FunctionCache<Integer, String> cache = new FunctionCache<>(2, 1);
+		cache.put(1, "one");
+		cache.put(2, "two");
+		// access 1, so that 2 is least recently used
+		assertEquals("one", cache.get(1));
+		cache.put(3, "three");
+		assertNull(cache.get(2));
+		assertEquals("one", cache.get(1));
+		assertEquals("three", cache.get(3));
+		assertEquals(2, cache.getNumEntries());
+		assertEquals(1, cache.getNumEvictions());
+	}
+
+	@Test
+	public void testStatistics()
+	{
+		FunctionCache<Integer, Integer> cache = new FunctionCache<>(0);
+		assertEquals(0.0, cache.getHitRate());
+		cache.put(1, 1);
+		cache.get(1);
+		cache.get(1);
+		cache.get(1);
+		cache.get(2);
+		assertEquals(3, cache.getNumHits());
+		assertEquals(1, cache.getNumMisses());
+		assertEquals(0.75, cache.getHitRate());
+		assertEquals(1, cache.getNumEntries());
+		assertEquals(FunctionCache.ENTRY_BYTES, cache.getMemoryUsage());
+	}
+
+	@Test
+	public void testMemoryLimit()
+	{
+		// 1 MB, split over the default number of segments
+		FunctionCache<Integer, Integer> cache = FunctionCache.withMemoryLimit(1);
+		long maxEntries = 1024 * 1024 / FunctionCache.ENTRY_BYTES;
+		for (int i = 0; i < 2 * maxEntries; i++) {
+			cache.put(i, i);
+		}
+		assertTrue(cache.getMemoryUsage() <= 1024 * 1024 + FunctionCache.DEFAULT_NUM_SEGMENTS * FunctionCache.ENTRY_BYTES);
+		assertTrue(cache.getNumEvictions() >= maxEntries - FunctionCache.DEFAULT_NUM_SEGMENTS);
+		assertEquals(cache.getNumEntries() * FunctionCache.ENTRY_BYTES, cache.getMemoryUsage());
+	}
+
+	@Test
+	public void testConcurrentAccess()
+	{
+		int maxEntries = 1000;
+		FunctionCache<Integer, Integer> cache = new FunctionCache<>(maxEntries);
+		IntStream.range(0, 100000).parallel().forEach(i -> {
+			Integer value = cache.get(i % 5000);
+			if (value == null) {
+				cache.put(i % 5000, i % 5000);
+			} else {
+				assertEquals(i % 5000, value.intValue());
+			}
+		});
+		assertTrue(cache.getNumEntries() <= maxEntries + FunctionCache.DEFAULT_NUM_SEGMENTS);
+		assertEquals(100000, cache.getNumHits() + cache.getNumMisses());
+	}
+}
@@ -0,0 +1,210 @@
+package param;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismException;
+
+/**
+ * Tests for {@link RegionRefiner} (sequential and parallel refinement, time budget)
+ * and for concurrent use of the {@link ConstraintChecker} decision cache.
+ */
+public class RegionRefinerTest
+{
+	private static final BigRational QUARTER = new BigRational(1, 4);
+	private static final BigRational THREE_EIGHTHS = new BigRational(3, 8);
+	private static final BigRational EIGHTH = new BigRational(1, 8);
+
+	/** Region factory for parameters p, q in [0,1], for a model with a single state */
+	private static BoxRegionFactory regionFactory(String... params)
+	{
+		BigRational[] lower = new BigRational[params.length];
+		BigRational[] upper = new BigRational[params.length];
+		for (int i = 0; i < params.length; i++) {
+			lower[i] = BigRational.ZERO;
+			upper[i] = BigRational.ONE;
+		}
+		FunctionFactory functionFactory = new JasFunctionFactory(params, lower, upper);
+		return new BoxRegionFactory(functionFactory, new ConstraintChecker(0), new BigRational(1, 100), 1, 0, false, BoxRegion.SPLIT_LONGEST);
+	}
+
+	/** The whole parameter space */
+	private static BoxRegion wholeSpace(BoxRegionFactory factory)
+	{
+		return (BoxRegion) factory.completeCover(new StateValues(1, 0, false)).getRegion(0);
+	}
+
+	/** Is {@code x} strictly inside the range of dimension {@code dim} of {@code region}? */
+	private static boolean strictlyInside(BoxRegion region, int dim, BigRational x)
+	{
+		return region.getDimensionLower(dim).compareTo(x) < 0 && x.compareTo(region.getDimensionUpper(dim)) < 0;
+	}
+
+	/**
+	 * Check deciding whether p >= 1/4 and q >= 3/8 (on the whole of a region), splitting
+	 * regions that straddle either boundary. Regions with p <= 1/8 are discarded, as if
+	 * the model was not well-defined there. Since the boundaries lie on the grid of
+	 * midpoint splits, refinement terminates with everything decided or discarded.
+	 */
+	private static RegionRefiner.Outcome check(Region reg)
+	{
+		BoxRegion region = (BoxRegion) reg;
+		if (region.getDimensionUpper(0).compareTo(EIGHTH) <= 0) {
+			return RegionRefiner.Outcome.discard();
+		}
+		if (strictlyInside(region, 0, QUARTER) || strictlyInside(region, 1, THREE_EIGHTHS)) {
+			return RegionRefiner.Outcome.split(region.split());
+		}
+		boolean value = region.getDimensionLower(0).compareTo(QUARTER) >= 0 && region.getDimensionLower(1).compareTo(THREE_EIGHTHS) >= 0;
+		return RegionRefiner.Outcome.decided(new StateValues(1, 0, value));
+	}
+
+	/**
+	 * Refinement as performed (in BoxRegion/ValueComputer) before {@link RegionRefiner} was introduced.
+	 */
+	private static RegionValues referenceRefine(RegionFactory factory, Region region, BigRational requiredVolume)
+	{
+		RegionValues result = new RegionValues(factory);
+		RegionsTODO todo = new RegionsTODO();
+		todo.add(region);
+		BigRational volume = BigRational.ZERO;
+		while (volume.compareTo(requiredVolume) == -1) {
+			Region currentRegion = todo.poll();
+			RegionRefiner.Outcome outcome = check(currentRegion);
+			if (outcome.values != null) {
+				volume = volume.add(currentRegion.volume());
+				result.add(currentRegion, outcome.values);
+			} else if (outcome.split != null) {
+				todo.addAll(outcome.split);
+			} else {
+				requiredVolume = requiredVolume.subtract(currentRegion.volume());
+			}
+		}
+		return result;
+	}
+
+	/** Regions and values of a result, as strings, sorted (for comparison ignoring order) */
+	private static List<String> sortedEntries(RegionValues values)
+	{
+		List<String> entries = new ArrayList<>();
+		for (int i = 0; i < values.getNumRegions(); i++) {
+			entries.add(values.getRegion(i) + " " + values.getResult(i));
+		}
+		Collections.sort(entries);
+		return entries;
+	}
+
+	@Test
+	public void testSequentialMatchesPrevious() throws PrismException
+	{
+		BoxRegionFactory factory = regionFactory("p", "q");
+		BoxRegion region = wholeSpace(factory);
+		// Full refinement, and refinement up to a precision
+		for (BigRational required : new BigRational[] { BigRational.ONE, new BigRational(3, 4) }) {
+			RegionValues expected = referenceRefine(factory, region, required);
+			RegionValues actual = new RegionRefiner(factory, 1, Long.MAX_VALUE).refine(region, required, RegionRefinerTest::check);
+			assertEquals(expected.getNumRegions(), actual.getNumRegions());
+			for (int i = 0; i < expected.getNumRegions(); i++) {
+				assertEquals(expected.getRegion(i), actual.getRegion(i));
+				assertEquals(expected.getResult(i), actual.getResult(i));
+			}
+		}
+		assertFalse(factory.isDeadlineReached());
+	}
+
+	@Test
+	public void testParallelMatchesPrevious() throws PrismException
+	{
+		BoxRegionFactory factory = regionFactory("p", "q");
+		BoxRegion region = wholeSpace(factory);
+		List<String> expected = sortedEntries(referenceRefine(factory, region, BigRational.ONE));
+		for (int numThreads : new int[] { 2, 4 }) {
+			RegionValues actual = new RegionRefiner(factory, numThreads, Long.MAX_VALUE).refine(region, BigRational.ONE, RegionRefinerTest::check);
+			assertEquals(expected, sortedEntries(actual));
+		}
+		assertFalse(factory.isDeadlineReached());
+	}
+
+	@Test
+	public void testTimeBudget() throws PrismException
+	{
+		// The boundary p = 1/3 is never hit by a split, so without a budget refinement
+		// up to the whole volume would not terminate
+		BigRational third = new BigRational(1, 3);
+		for (int numThreads : new int[] { 1, 4 }) {
+			BoxRegionFactory factory = regionFactory("p");
+			BoxRegion region = wholeSpace(factory);
+			long start = System.currentTimeMillis();
+			RegionValues result = new RegionRefiner(factory, numThreads, start + 200).refine(region, BigRational.ONE, reg -> {
+				BoxRegion box = (BoxRegion) reg;
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				if (strictlyInside(box, 0, third)) {
+					return RegionRefiner.Outcome.split(box.split());
+				}
+				return RegionRefiner.Outcome.decided(new StateValues(1, 0, box.getDimensionLower(0).compareTo(third) >= 0));
+			});
+			assertTrue(System.currentTimeMillis() - start < 10000);
+			assertTrue(factory.isDeadlineReached());
+			// A partial, but correct, result
+			BigRational covered = result.getCoveredVolume();
+			assertTrue(covered.compareTo(new BigRational(1, 2)) > 0);
+			assertTrue(covered.compareTo(BigRational.ONE) < 0);
+			for (int i = 0; i < result.getNumRegions(); i++) {
+				BoxRegion box = (BoxRegion) result.getRegion(i);
+				assertFalse(strictlyInside(box, 0, third));
+				boolean above = box.getDimensionLower(0).compareTo(third) >= 0;
+				assertEquals(new StateValues(1, 0, above), result.getResult(i));
+			}
+		}
+	}
+
+	@Test
+	public void testConstraintCheckerConcurrentAccess()
+	{
+		BoxRegionFactory factory = regionFactory("p", "q");
+		FunctionFactory functionFactory = factory.getFunctionFactory();
+		// Constraints p - c >= 0 and q - c > 0, for various c, over a grid of regions
+		List<Function> constraints = new ArrayList<>();
+		for (int c = 1; c < 8; c++) {
+			Function constant = functionFactory.fromBigRational(new BigRational(c, 8));
+			constraints.add(functionFactory.getVar("p").subtract(constant));
+			constraints.add(functionFactory.getVar("q").subtract(constant));
+		}
+		List<BoxRegion> regions = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			for (int j = 0; j < 4; j++) {
+				BigRational[] lower = { new BigRational(i, 4), new BigRational(j, 4) };
+				BigRational[] upper = { new BigRational(i + 1, 4), new BigRational(j + 1, 4) };
+				regions.add(new BoxRegion(factory, lower, upper));
+			}
+		}
+		int numChecks = constraints.size() * regions.size();
+		ConstraintChecker sequential = new ConstraintChecker(0);
+		boolean[] expected = new boolean[2 * numChecks];
+		for (int k = 0; k < 2 * numChecks; k++) {
+			expected[k] = sequential.check(regions.get((k / 2) % regions.size()), constraints.get((k / 2) / regions.size()), k % 2 == 1);
+		}
+		// Check everything several times, concurrently, with a shared checker
+		ConstraintChecker shared = new ConstraintChecker(0);
+		IntStream.range(0, 20 * numChecks).parallel().forEach(n -> {
+			int k = (int) ((n * 7919L) % (2 * numChecks));
+			boolean result = shared.check(regions.get((k / 2) % regions.size()), constraints.get((k / 2) / regions.size()), k % 2 == 1);
+			assertEquals(expected[k], result);
+		});
+		synchronized (shared.decisions) {
+			assertEquals(sequential.decisions.size(), shared.decisions.size());
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package param;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link StateEliminator}: parallel elimination must give the same
+ * rational functions as sequential elimination.
+ */
+public class StateEliminatorTest
+{
+	private static FunctionFactory cachedFactory()
+	{
+		BigRational[] lower = { new BigRational(0) };
+		BigRational[] upper = { new BigRational(1) };
+		JasFunctionFactory jas = new JasFunctionFactory(new String[] { "p" }, lower, upper);
+		return new CachedFunctionFactory(jas, 16);
+	}
+
+	/**
+	 * Build a random banded pMC over parameter p: state {@code n-1} is the target and
+	 * {@code n-2} a sink; each other state moves forward w.p. p and, w.p. (1-p)/2 each,
+	 * to two other random states at most 2 steps away. Since transitions are local,
+	 * contiguous regions of the elimination order have interior states (which are
+	 * eliminated concurrently).
+	 */
+	private static MutablePMC randomPMC(FunctionFactory factory, int n, long seed, boolean useRewards)
+	{
+		Random random = new Random(seed);
+		MutablePMC pmc = new MutablePMC(factory, n, useRewards, false);
+		Function p = factory.getVar("p");
+		Function half = factory.fromBigRational(new BigRational(1, 2));
+		Function rest = factory.getOne().subtract(p).multiply(half);
+		for (int s = 0; s < n; s++) {
+			pmc.setInitState(s, s == 0);
+			pmc.setTargetState(s, s == n - 1);
+			if (s >= n - 2) {
+				pmc.addTransition(s, s, factory.getOne());
+				continue;
+			}
+			int fwd = s + 1;
+			int other = neighbour(random, s, n, fwd, -1);
+			int other2 = neighbour(random, s, n, fwd, other);
+			pmc.addTransition(s, fwd, p);
+			pmc.addTransition(s, other, rest);
+			pmc.addTransition(s, other2, rest);
+			if (useRewards) {
+				pmc.setReward(s, factory.fromLong(1 + random.nextInt(3)));
+			}
+		}
+		if (useRewards) {
+			// The sink does not reach the target, so gets infinite reward
+			pmc.setReward(n - 2, factory.getInf());
+		}
+		return pmc;
+	}
+
+	/**
+	 * Pick a random state at most 2 steps from {@code s}, other than {@code excl1} and {@code excl2}.
+	 */
+	private static int neighbour(Random random, int s, int n, int excl1, int excl2)
+	{
+		while (true) {
+			int t = Math.max(0, Math.min(n - 1, s - 2 + random.nextInt(5)));
+			if (t != excl1 && t != excl2) {
+				return t;
+			}
+		}
+	}
+
+	private static void checkParallelMatchesSequential(StateEliminator.EliminationOrder order, boolean useRewards)
+	{
+		int n = 48;
+		for (long seed = 0; seed < 2; seed++) {
+			// Both runs share a factory, so equal functions are represented by the same object
+			FunctionFactory factory = cachedFactory();
+			assertTrue(factory.isThreadSafe());
+			MutablePMC pmcSeq = randomPMC(factory, n, seed, useRewards);
+			StateEliminator seq = new StateEliminator(pmcSeq, order, 1);
+			seq.eliminate();
+			// With 2 threads, the order is split into 8 regions of 6 states each
+			MutablePMC pmcPar = randomPMC(factory, n, seed, useRewards);
+			StateEliminator par = new StateEliminator(pmcPar, order, 2);
+			par.eliminate();
+			for (int s = 0; s < n; s++) {
+				assertEquals(seq.getResult(s), par.getResult(s), "state " + s + ", seed " + seed);
+			}
+		}
+	}
+
+	@Test
+	public void testParallelReachabilityForward()
+	{
+		checkParallelMatchesSequential(StateEliminator.EliminationOrder.FORWARD, false);
+	}
+
+	@Test
+	public void testParallelReachabilityBackward()
+	{
+		checkParallelMatchesSequential(StateEliminator.EliminationOrder.BACKWARD, false);
+	}
+
+	@Test
+	public void testParallelRewards()
+	{
+		checkParallelMatchesSequential(StateEliminator.EliminationOrder.FORWARD, true);
+	}
+}
@@ -0,0 +1,70 @@
+package prism;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TelemetryTest
+{
+	@AfterEach
+	public void stopTelemetry()
+	{
+		Telemetry.stop();
+	}
+
+	@Test
+	public void testJSONLines(@TempDir Path dir) throws PrismException, IOException
+	{
+		Path file = dir.resolve("telemetry.jsonl");
+		Telemetry.start(file.toString(), false);
+		assertTrue(Telemetry.isEnabled());
+		Telemetry.phase("model parsing", 12);
+		Telemetry.beginProperty("P=? [ F \"done\" ]");
+		Telemetry.phase("reachability", 3, 42);
+		Telemetry.residual("value iteration", 1, 0.5);
+		Telemetry.iterations("value iteration (max)", 4, 8, 1e-7);
+		Telemetry.stop();
+		assertFalse(Telemetry.isEnabled());
+
+		List<String> lines = Files.readAllLines(file);
+		assertEquals(5, lines.size());
+		for (String line : lines) {
+			assertTrue(line.startsWith("{\"time\":") && line.endsWith("}"), line);
+			assertTrue(line.contains("\"peakHeap\":"), line);
+		}
+		assertTrue(lines.get(0).contains("\"kind\":\"phase\",\"phase\":\"model parsing\",\"ms\":12,"), lines.get(0));
+		assertTrue(lines.get(1).contains("\"kind\":\"property\",\"property\":\"P=? [ F \\\"done\\\" ]\""), lines.get(1));
+		assertTrue(lines.get(2).contains("\"phase\":\"reachability\",\"ms\":3,\"count\":42,"), lines.get(2));
+		assertTrue(lines.get(3).contains("\"kind\":\"iteration\""), lines.get(3));
+		assertTrue(lines.get(3).contains("\"iteration\":1,\"residual\":0.5,"), lines.get(3));
+		assertTrue(lines.get(4).contains("\"iterations\":4,\"msPerIteration\":2.0,\"residual\":1.0E-7,"), lines.get(4));
+	}
+
+	@Test
+	public void testDisabled(@TempDir Path dir) throws PrismException, IOException
+	{
+		PrismSettings settings = new PrismSettings();
+		Telemetry.configure(settings);
+		assertFalse(Telemetry.isEnabled());
+		// Records are ignored when disabled
+		Telemetry.phase("model parsing", 1);
+		Path file = dir.resolve("telemetry.jsonl");
+		settings.set(PrismSettings.PRISM_TELEMETRY_FILE, file.toString());
+		Telemetry.configure(settings);
+		assertTrue(Telemetry.isEnabled());
+		Telemetry.phase("model construction", 1);
+		Telemetry.stop();
+		List<String> lines = Files.readAllLines(file);
+		assertEquals(1, lines.size());
+		assertTrue(lines.get(0).contains("model construction"));
+	}
+}
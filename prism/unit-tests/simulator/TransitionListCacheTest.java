@@ -0,0 +1,68 @@
+package simulator;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import parser.State;
+import parser.VarList;
+import parser.ast.DeclarationBool;
+import parser.ast.DeclarationInt;
+import parser.ast.Expression;
+import prism.Evaluator;
+import prism.PrismLangException;
+
+/**
+ * Tests for {@link TransitionListCache}.
+ */
+public class TransitionListCacheTest
+{
+	private static VarList createVarList() throws PrismLangException
+	{
+		VarList varList = new VarList();
+		varList.addVar("x", new DeclarationInt(Expression.Int(-3), Expression.Int(3)), 0);
+		varList.addVar("b", new DeclarationBool(), 0);
+		varList.addVar("y", new DeclarationInt(Expression.Int(0), Expression.Int(1000)), 0);
+		return varList;
+	}
+
+	@Test
+	void packIsInjective() throws PrismLangException
+	{
+		VarList varList = createVarList();
+		assertTrue(TransitionListCache.canPack(varList));
+		TransitionListCache<Double> cache = new TransitionListCache<>(varList, 1);
+		Set<Long> keys = new HashSet<>();
+		for (int x = -3; x <= 3; x++) {
+			for (boolean b : new boolean[] { false, true }) {
+				for (int y = 0; y <= 1000; y++) {
+					State state = new State(3).setValue(0, x).setValue(1, b).setValue(2, y);
+					assertTrue(keys.add(cache.pack(state)));
+				}
+			}
+		}
+		assertThrows(PrismLangException.class, () -> cache.pack(new State(3).setValue(0, 4).setValue(1, true).setValue(2, 0)));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed() throws PrismLangException
+	{
+		TransitionListCache<Double> cache = new TransitionListCache<>(createVarList(), 1);
+		Evaluator<Double> eval = Evaluator.forDouble();
+		int numPuts = 100000;
+		for (long key = 0; key < numPuts; key++) {
+			cache.put(key, new TransitionList<>(eval));
+			// Keep the first entry in use
+			assertNotNull(cache.get(0));
+		}
+		assertTrue(cache.getNumEvictions() > 0);
+		assertEquals(numPuts, cache.size() + cache.getNumEvictions());
+		assertNotNull(cache.get(0));
+		assertNotNull(cache.get(numPuts - 1));
+		assertNull(cache.get(1));
+		assertEquals(numPuts + 2, cache.getNumHits());
+		assertEquals(1, cache.getNumMisses());
+	}
+}